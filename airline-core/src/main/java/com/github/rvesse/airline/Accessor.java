@@ -17,7 +17,16 @@ package com.github.rvesse.airline;
 
 import com.github.rvesse.airline.parser.ParserUtil;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.types.primitives.ByteCollector;
+import com.github.rvesse.airline.types.primitives.ByteList;
+import com.github.rvesse.airline.types.primitives.DoubleCollector;
+import com.github.rvesse.airline.types.primitives.DoubleList;
+import com.github.rvesse.airline.types.primitives.IntCollector;
+import com.github.rvesse.airline.types.primitives.IntList;
+import com.github.rvesse.airline.types.primitives.LongCollector;
+import com.github.rvesse.airline.types.primitives.LongList;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.CompactCollections;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
@@ -36,7 +45,6 @@ import java.util.TreeSet;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IteratorUtils;
-import org.apache.commons.collections4.ListUtils;
 
 public class Accessor
 {
@@ -63,7 +71,7 @@ public class Accessor
         if(path == null) throw new NullPointerException("path is null");
         if (path.size() == 0) throw new IllegalArgumentException("path is empty");
         
-        this.path = ListUtils.unmodifiableList(path);
+        this.path = CompactCollections.listCopy(path);
         StringBuilder nameBuilder = new StringBuilder();
         
         // Build the name for the accessor
@@ -74,7 +82,8 @@ public class Accessor
         this.name = nameBuilder.toString();
 
         Field field = this.path.get(this.path.size() - 1);
-        multiValued = Collection.class.isAssignableFrom(field.getType());
+        multiValued = Collection.class.isAssignableFrom(field.getType())
+                || getPrimitiveItemType(field.getType()) != null;
         javaType = getItemType(name, field.getGenericType());
     }
 
@@ -93,6 +102,16 @@ public class Accessor
         return multiValued;
     }
 
+    /**
+     * Gets the path of fields through which the value is accessed
+     * 
+     * @return Fields
+     */
+    public List<Field> getPath()
+    {
+        return path;
+    }
+
     public Object getValue(Object instance)
     {
         StringBuilder pathName = new StringBuilder();
@@ -137,6 +156,9 @@ public class Accessor
             Collection<Object> collection = getOrCreateCollectionField(name, instance, field);
             CollectionUtils.addAll(collection, values);
         }
+        else if (getPrimitiveItemType(field.getType()) != null) {
+            addPrimitiveValues(name, instance, field, values);
+        }
         else {
             try {
                 field.set(instance, AirlineUtils.last(values));
@@ -196,10 +218,17 @@ public class Accessor
             return new TreeSet();
         }
 
-        try {
-            return (Collection<Object>) type.getConstructor().newInstance();
-        }
-        catch (Exception ignored) {
+        InstanceFactory<?> factory = InstanceFactories.get(type);
+        if (factory != null) {
+            Object collection = factory.newInstance();
+            if (collection instanceof Collection)
+                return (Collection<Object>) collection;
+        } else if (!InstanceFactories.isReflectionFree()) {
+            try {
+                return (Collection<Object>) type.getConstructor().newInstance();
+            }
+            catch (Exception ignored) {
+            }
         }
 
         throw new ParseException("Parameters of Collection type '%s' are not supported. Please use List or Set instead.", type.getSimpleName());
@@ -228,6 +257,160 @@ public class Accessor
         return collection;
     }
 
+    /**
+     * Gets the primitive item type for fields that hold multiple primitive
+     * values i.e. {@code int[]}, {@code long[]}, {@code double[]},
+     * {@code byte[]} and the primitive collector interfaces
+     * 
+     * @param type
+     *            Field type
+     * @return Primitive item type or {@code null} if not such a field
+     */
+    private static Class<?> getPrimitiveItemType(Class<?> type)
+    {
+        if (type.isArray()) {
+            Class<?> componentType = type.getComponentType();
+            if (componentType == int.class || componentType == long.class || componentType == double.class
+                    || componentType == byte.class) {
+                return componentType;
+            }
+            return null;
+        }
+        if (IntCollector.class.isAssignableFrom(type)) {
+            return int.class;
+        }
+        if (LongCollector.class.isAssignableFrom(type)) {
+            return long.class;
+        }
+        if (DoubleCollector.class.isAssignableFrom(type)) {
+            return double.class;
+        }
+        if (ByteCollector.class.isAssignableFrom(type)) {
+            return byte.class;
+        }
+        return null;
+    }
+
+    private static void addPrimitiveValues(String name, Object object, Field field, Iterable<?> values)
+    {
+        Class<?> type = field.getType();
+        Object current;
+        try {
+            current = field.get(object);
+        }
+        catch (Exception e) {
+            throw new ParseException(e, "Error getting field %s for argument %s", field.getName(), name);
+        }
+
+        if (type.isArray()) {
+            // Arrays are replaced with a new array containing both the
+            // existing and the new values
+            int size = values instanceof Collection ? ((Collection<?>) values).size() : 16;
+            Class<?> componentType = type.getComponentType();
+            Object array;
+            if (componentType == int.class) {
+                IntList buffer = new IntList(size + (current != null ? ((int[]) current).length : 0));
+                if (current != null)
+                    buffer.addAll((int[]) current);
+                for (Object value : values) {
+                    buffer.add(((Number) value).intValue());
+                }
+                array = buffer.toArray();
+            } else if (componentType == long.class) {
+                LongList buffer = new LongList(size + (current != null ? ((long[]) current).length : 0));
+                if (current != null)
+                    buffer.addAll((long[]) current);
+                for (Object value : values) {
+                    buffer.add(((Number) value).longValue());
+                }
+                array = buffer.toArray();
+            } else if (componentType == double.class) {
+                DoubleList buffer = new DoubleList(size + (current != null ? ((double[]) current).length : 0));
+                if (current != null)
+                    buffer.addAll((double[]) current);
+                for (Object value : values) {
+                    buffer.add(((Number) value).doubleValue());
+                }
+                array = buffer.toArray();
+            } else {
+                ByteList buffer = new ByteList(size + (current != null ? ((byte[]) current).length : 0));
+                if (current != null)
+                    buffer.addAll((byte[]) current);
+                for (Object value : values) {
+                    buffer.add(((Number) value).byteValue());
+                }
+                array = buffer.toArray();
+            }
+            try {
+                field.set(object, array);
+            }
+            catch (Exception e) {
+                throw new ParseException(e, "Error setting field %s for argument %s", field.getName(), name);
+            }
+            return;
+        }
+
+        if (current == null) {
+            current = newPrimitiveCollector(type);
+            try {
+                field.set(object, current);
+            }
+            catch (Exception e) {
+                throw new ParseException(e, "Error setting field %s for argument %s", field.getName(), name);
+            }
+        }
+        if (current instanceof IntCollector) {
+            IntCollector collector = (IntCollector) current;
+            for (Object value : values) {
+                collector.add(((Number) value).intValue());
+            }
+        } else if (current instanceof LongCollector) {
+            LongCollector collector = (LongCollector) current;
+            for (Object value : values) {
+                collector.add(((Number) value).longValue());
+            }
+        } else if (current instanceof DoubleCollector) {
+            DoubleCollector collector = (DoubleCollector) current;
+            for (Object value : values) {
+                collector.add(((Number) value).doubleValue());
+            }
+        } else {
+            ByteCollector collector = (ByteCollector) current;
+            for (Object value : values) {
+                collector.add(((Number) value).byteValue());
+            }
+        }
+    }
+
+    private static Object newPrimitiveCollector(Class<?> type)
+    {
+        if (type.isAssignableFrom(IntList.class)) {
+            return new IntList();
+        }
+        if (type.isAssignableFrom(LongList.class)) {
+            return new LongList();
+        }
+        if (type.isAssignableFrom(DoubleList.class)) {
+            return new DoubleList();
+        }
+        if (type.isAssignableFrom(ByteList.class)) {
+            return new ByteList();
+        }
+
+        InstanceFactory<?> factory = InstanceFactories.get(type);
+        if (factory != null) {
+            return factory.newInstance();
+        } else if (!InstanceFactories.isReflectionFree()) {
+            try {
+                return type.getConstructor().newInstance();
+            }
+            catch (Exception ignored) {
+            }
+        }
+
+        throw new ParseException("Parameters of type '%s' are not supported. Please use one of the primitive list types instead.", type.getSimpleName());
+    }
+
     private static Class<?> getItemType(String name, Type type)
     {
         Class<?> rawClass = getRawType(type);
@@ -235,6 +418,11 @@ public class Accessor
             throw new ParseException("Type of option %s be an exact type", name);
         }
 
+        Class<?> primitiveType = getPrimitiveItemType(rawClass);
+        if (primitiveType != null) {
+            return primitiveType;
+        }
+
         if (!Collection.class.isAssignableFrom(rawClass)) {
             return rawClass;
         }
@@ -22,20 +22,26 @@ import java.util.ServiceLoader;
 
 /**
  * Channels provides methods for the cli output, error and input channels. The implementation of the channels can be
- * changed with an implementation of {@link ChannelFactory} which must be registered via {@link ServiceLoader}. The
- * default implementation is {@link SystemChannelFactory}.
+ * changed with an implementation of {@link ChannelFactory} which must be registered via {@link ServiceLoader}, or in
+ * reflection free mode via {@link InstanceFactories}. The default implementation is {@link SystemChannelFactory}.
  */
 public final class Channels {
 
     private static ChannelFactory FACTORY;
 
     static {
-        ServiceLoader<ChannelFactory> serviceLoader = ServiceLoader.load(ChannelFactory.class);
-        Iterator<ChannelFactory> iterator = serviceLoader.iterator();
-        if (iterator.hasNext()) {
-            FACTORY = iterator.next();
+        if (InstanceFactories.isReflectionFree()) {
+            // Only use an explicitly registered factory
+            InstanceFactory<? extends ChannelFactory> factory = InstanceFactories.get(ChannelFactory.class);
+            FACTORY = factory != null ? factory.newInstance() : new SystemChannelFactory();
         } else {
-            FACTORY = new SystemChannelFactory();
+            ServiceLoader<ChannelFactory> serviceLoader = ServiceLoader.load(ChannelFactory.class);
+            Iterator<ChannelFactory> iterator = serviceLoader.iterator();
+            if (iterator.hasNext()) {
+                FACTORY = iterator.next();
+            } else {
+                FACTORY = new SystemChannelFactory();
+            }
         }
     }
 
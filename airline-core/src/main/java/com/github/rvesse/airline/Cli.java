@@ -16,6 +16,7 @@
 package com.github.rvesse.airline;
 
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.collections4.ListUtils;
 
@@ -24,6 +25,8 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.batch.BatchExecutor;
+import com.github.rvesse.airline.parser.batch.BatchResult;
 import com.github.rvesse.airline.parser.command.CliParser;
 
 /**
@@ -157,4 +160,19 @@ public class Cli<C> {
         CliParser<C> parser = new CliParser<C>();
         return parser.parseWithResult(metadata, args);
     }
+
+    /**
+     * Parses a batch of command lines in parallel, see {@link BatchExecutor}
+     * for more control over how the batch is executed including streaming the
+     * results and running the commands
+     * 
+     * @param commandLines
+     *            Command lines
+     * @return Results in the order the command lines were given
+     * @throws InterruptedException
+     *             Thrown if interrupted while waiting for results
+     */
+    public List<BatchResult<C, Void>> parseAll(Iterable<String[]> commandLines) throws InterruptedException {
+        return new BatchExecutor<C>(metadata).parseAll(commandLines);
+    }
 }
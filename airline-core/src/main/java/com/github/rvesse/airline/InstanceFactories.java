@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of explicitly registered {@link InstanceFactory} implementations
+ * <p>
+ * Whenever Airline needs to create an instance of a type e.g. a command, a type
+ * converter, an option parser etc. it first consults this registry and only
+ * falls back to reflectively invoking the public no-argument constructor if no
+ * factory has been registered for the type.
+ * </p>
+ * <p>
+ * When reflection free mode is enabled Airline never falls back to reflective
+ * instantiation, any attempt to create an instance of a type without a
+ * registered factory produces an error instead. Additionally the
+ * {@link java.util.ServiceLoader} mechanism is not used to discover
+ * restriction and help section factories, only the built-in factories and
+ * those explicitly registered with the relevant registries are available. This
+ * mode is intended for ahead of time compiled applications e.g. GraalVM native
+ * images where every reflective operation must be declared up front.
+ * </p>
+ * <p>
+ * Reflection free mode may be enabled by setting the
+ * {@value #REFLECTION_FREE_PROPERTY} system property to {@code true} or by
+ * calling {@link #setReflectionFree(boolean)}. Since the restriction and help
+ * section registries are initialized when first used the mode should be set
+ * prior to using Airline, or their {@code reset()} methods called afterwards.
+ * </p>
+ * <p>
+ * Note that annotation scanning and field injection still use reflection, see
+ * the Airline Maven plugin which can generate the necessary native image
+ * configuration for these.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public final class InstanceFactories {
+
+    /**
+     * System property used to enable reflection free mode
+     */
+    public static final String REFLECTION_FREE_PROPERTY = "airline.reflectionFree";
+
+    private static final Map<Class<?>, InstanceFactory<?>> FACTORIES = new ConcurrentHashMap<>();
+
+    private static volatile boolean reflectionFree = Boolean.getBoolean(REFLECTION_FREE_PROPERTY);
+
+    private InstanceFactories() {
+    }
+
+    /**
+     * Registers a factory for a type
+     * 
+     * @param type
+     *            Type
+     * @param factory
+     *            Factory
+     */
+    public static <T> void register(Class<T> type, InstanceFactory<? extends T> factory) {
+        if (type == null)
+            throw new NullPointerException("type cannot be null");
+        if (factory == null)
+            throw new NullPointerException("factory cannot be null");
+        FACTORIES.put(type, factory);
+    }
+
+    /**
+     * Removes the factory for a type
+     * 
+     * @param type
+     *            Type
+     */
+    public static void unregister(Class<?> type) {
+        if (type == null)
+            return;
+        FACTORIES.remove(type);
+    }
+
+    /**
+     * Gets the factory for a type
+     * 
+     * @param type
+     *            Type
+     * @return Factory or {@code null} if no factory registered for the type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> InstanceFactory<? extends T> get(Class<T> type) {
+        if (type == null)
+            return null;
+        return (InstanceFactory<? extends T>) FACTORIES.get(type);
+    }
+
+    /**
+     * Gets whether reflection free mode is enabled
+     * 
+     * @return True if enabled, false otherwise
+     */
+    public static boolean isReflectionFree() {
+        return reflectionFree;
+    }
+
+    /**
+     * Sets whether reflection free mode is enabled
+     * 
+     * @param enabled
+     *            Whether reflection free mode is enabled
+     */
+    public static void setReflectionFree(boolean enabled) {
+        reflectionFree = enabled;
+    }
+
+    /**
+     * Resets the registry to its default state, this removes all registered
+     * factories and resets the reflection free mode based upon the
+     * {@value #REFLECTION_FREE_PROPERTY} system property
+     */
+    public static void reset() {
+        FACTORIES.clear();
+        reflectionFree = Boolean.getBoolean(REFLECTION_FREE_PROPERTY);
+    }
+}
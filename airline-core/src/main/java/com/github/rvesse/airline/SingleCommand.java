@@ -23,6 +23,7 @@ import java.util.List;
 import org.apache.commons.collections4.IteratorUtils;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.command.SingleCommandParser;
@@ -65,6 +66,31 @@ public class SingleCommand<C> {
         return new SingleCommand<C>(command, null, parserConfig);
     }
 
+    /**
+     * Creates a new single command from a meta-data snapshot
+     * <p>
+     * Unlike the other methods no annotation scanning takes place, the
+     * command meta-data, parser configuration and restrictions are all taken
+     * from the snapshot.
+     * </p>
+     * 
+     * @param snapshot
+     *            Command snapshot, see
+     *            {@link MetadataLoader#loadSnapshot(Class)}
+     * @param <C>
+     *            Command type we wish to parse to
+     * @return Single command parser
+     */
+    public static <C> SingleCommand<C> singleCommand(MetadataSnapshot snapshot) {
+        if (snapshot == null)
+            throw new NullPointerException("snapshot is null");
+        if (!snapshot.isCommand())
+            throw new IllegalArgumentException(
+                    String.format("Snapshot for %s is not a command snapshot", snapshot.getSourceClass()));
+        return new SingleCommand<C>(snapshot.getCommand(), snapshot.getRestrictions(),
+                snapshot.<C> getParserConfiguration());
+    }
+
     private final ParserMetadata<C> parserConfig;
     private final CommandMetadata commandMetadata;
     private final List<GlobalRestriction> restrictions;
@@ -79,6 +105,13 @@ public class SingleCommand<C> {
 
         commandMetadata = MetadataLoader.loadCommand(command);
     }
+
+    private SingleCommand(CommandMetadata commandMetadata, List<GlobalRestriction> restrictions,
+            ParserMetadata<C> parserConfig) {
+        this.parserConfig = parserConfig;
+        this.restrictions = restrictions;
+        this.commandMetadata = commandMetadata;
+    }
     
     private List<GlobalRestriction> createRestrictions(Class<C> commandClass, Iterable<GlobalRestriction> restrictions) {
         List<GlobalRestriction> foundRestrictions = new ArrayList<GlobalRestriction>();
@@ -89,12 +122,8 @@ public class SingleCommand<C> {
         }
         
         // Look for annotation declared restrictions
-        for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                .getGlobalRestrictionAnnotationClasses()) {
-            Annotation annotation = commandClass.getAnnotation(annotationClass);
-            if (annotation == null)
-                continue;
-            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(annotationClass, annotation);
+        for (Annotation annotation : commandClass.getAnnotations()) {
+            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(annotation);
             if (restriction != null)
                 foundRestrictions.add(restriction);
         }
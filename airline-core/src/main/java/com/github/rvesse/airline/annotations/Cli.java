@@ -94,4 +94,21 @@ public @interface Cli {
      * @return True if default restrictions are applied, false otherwise
      */
     boolean includeDefaultRestrictions() default true;
+
+    /**
+     * Sets whether command metadata is loaded lazily
+     * <p>
+     * When enabled only the name, description, hidden flag and group placement
+     * of each command is loaded up front, the remainder of a commands metadata
+     * is loaded the first time it is used e.g. when the command is selected by
+     * the parser or help is shown for it. This can substantially reduce
+     * startup time for CLIs with many commands. Global and group scoped
+     * options are still discovered up front since these are needed before the
+     * command is known. Note that this means that invalid command metadata may
+     * not be detected until the command is first used.
+     * </p>
+     * 
+     * @return True if commands are loaded lazily, false otherwise
+     */
+    boolean lazyCommands() default false;
 }
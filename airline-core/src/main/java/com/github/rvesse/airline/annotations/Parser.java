@@ -156,6 +156,20 @@ public @interface Parser {
      */
     String userAliasesPrefix() default "";
 
+    /**
+     * Controls whether user defined aliases are cached and loaded lazily
+     * (default false)
+     * <p>
+     * When enabled user aliases are only loaded when the parser first
+     * encounters a potential alias and subsequent parses only re-read alias
+     * files that have changed. This is useful for long running applications
+     * e.g. servers and REPLs where users may edit their aliases at runtime.
+     * </p>
+     * 
+     * @return True if user aliases are cached, false otherwise
+     */
+    boolean cacheUserAliases() default false;
+
     /**
      * Sets a character used in alias definitions to indicate that the built-in
      * should be called regardless of the setting of
@@ -261,4 +275,29 @@ public @interface Parser {
      * @return Flag negation prefix
      */
     String flagNegationPrefix() default "";
+
+    /**
+     * Sets the threshold for parallel validation
+     * <p>
+     * If set to a non-negative value then conversion and validation of the
+     * values of multi-valued options and arguments is deferred until parsing
+     * has finished, at which point it happens in parallel if there are at
+     * least this many values. The default of {@code -1} disables this and
+     * values are converted and validated as they are parsed.
+     * </p>
+     * 
+     * @return Parallel validation threshold
+     */
+    int parallelValidationThreshold() default -1;
+
+    /**
+     * Sets whether parse errors are lightweight
+     * <p>
+     * When enabled parse errors created while parsing do not capture stack
+     * traces, this is useful where parse errors are expected in high volume.
+     * </p>
+     * 
+     * @return True if lightweight errors are used, false otherwise
+     */
+    boolean lightweightErrors() default false;
 }
@@ -20,10 +20,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.model.AliasMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.aliases.CachingUserAliasesSource;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
 import com.github.rvesse.airline.parser.options.ClassicGetOptParser;
@@ -54,6 +56,9 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
     protected String argsSeparator, flagNegationPrefix;
     protected UserAliasSourceBuilder<C> userAliasesBuilder = new UserAliasSourceBuilder<>(this);
     protected ParserErrorHandler errorHandler;
+    protected int parallelValidationThreshold = -1;
+    protected ForkJoinPool parallelValidationPool = null;
+    protected boolean lightweightErrors;
 
     /**
      * Gets the default configuration
@@ -565,6 +570,100 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         return this;
     }
 
+    /**
+     * Enables parallel validation using the default threshold
+     * <p>
+     * When enabled the conversion and validation of the values of multi-valued
+     * options and arguments is deferred until parsing has finished, at which
+     * point they are converted and validated in parallel if there are at
+     * least {@link ParserMetadata#DEFAULT_PARALLEL_VALIDATION_THRESHOLD} of
+     * them. Any errors for these values are reported to the error handler in
+     * the order the values appeared in the input, but only once parsing has
+     * finished. Thus they are reported after any other errors found while
+     * parsing, e.g. invalid values for single valued options, so with a fail
+     * fast error handler such an error may be thrown in preference to an
+     * error for an invalid value that appeared earlier in the input. Type
+     * converters and restrictions used with such options and arguments must
+     * be safe to use from multiple threads.
+     * </p>
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withParallelValidation() {
+        return withParallelValidation(ParserMetadata.DEFAULT_PARALLEL_VALIDATION_THRESHOLD);
+    }
+
+    /**
+     * Enables parallel validation
+     * 
+     * @param threshold
+     *            Minimum number of deferred values for which conversion and
+     *            validation happens in parallel, fewer values are converted
+     *            and validated on the parsing thread
+     * @return Builder
+     * @see #withParallelValidation()
+     */
+    public ParserBuilder<C> withParallelValidation(int threshold) {
+        if (threshold < 0)
+            throw new IllegalArgumentException("threshold cannot be negative");
+        this.parallelValidationThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Sets the pool used for parallel validation
+     * <p>
+     * By default a pool shared by all parsers is used. This does not itself
+     * enable parallel validation.
+     * </p>
+     * 
+     * @param pool
+     *            Pool, {@code null} to use the shared pool
+     * @return Builder
+     */
+    public ParserBuilder<C> withParallelValidationPool(ForkJoinPool pool) {
+        this.parallelValidationPool = pool;
+        return this;
+    }
+
+    /**
+     * Disables parallel validation, values are converted and validated as they
+     * are parsed
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withoutParallelValidation() {
+        this.parallelValidationThreshold = -1;
+        return this;
+    }
+
+    /**
+     * Enables lightweight errors
+     * <p>
+     * When enabled any {@link com.github.rvesse.airline.parser.errors.ParseException}
+     * created while parsing, e.g. due to a conversion failure or restriction
+     * violation, does not capture a stack trace. This is useful where parse
+     * errors are expected in high volume and only their messages are of
+     * interest. Error handlers behave exactly as they otherwise would.
+     * </p>
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withLightweightErrors() {
+        this.lightweightErrors = true;
+        return this;
+    }
+
+    /**
+     * Disables lightweight errors, parse errors capture stack traces as normal
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withoutLightweightErrors() {
+        this.lightweightErrors = false;
+        return this;
+    }
+
     @Override
     public ParserMetadata<C> build() {
         // Ensure we have some option parsers if none configured
@@ -574,13 +673,16 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
 
         // Load user aliases
         // These may override explicitly defined aliases
+        // Caching sources are loaded lazily by the parser as needed
         UserAliasesSource<C> userAliases = null;
         if (this.userAliasesBuilder.isBuildable()) {
             try {
                 userAliases = this.userAliasesBuilder.build();
-                for (AliasMetadata alias : userAliases.load()) {
-                    aliases.put(alias.getName(), new AliasBuilder<C>(this, alias.getName())
-                            .withArguments(alias.getArguments().toArray(new String[alias.getArguments().size()])));
+                if (!(userAliases instanceof CachingUserAliasesSource)) {
+                    for (AliasMetadata alias : userAliases.load()) {
+                        aliases.put(alias.getName(), new AliasBuilder<C>(this, alias.getName()).withArguments(
+                                alias.getArguments().toArray(new String[alias.getArguments().size()])));
+                    }
                 }
             } catch (IOException e) {
                 throw new IllegalStateException("Failed to load user aliases", e);
@@ -605,6 +707,7 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
 
         return new ParserMetadata<C>(commandFactory, optionParsers, typeConverter, errorHandler,
                 allowAbbreviatedCommands, allowAbbreviatedOptions, aliasData, userAliases, aliasesOverrideBuiltIns,
-                aliasesMayChain, forceBuiltInPrefix, argsSeparator, flagNegationPrefix);
+                aliasesMayChain, forceBuiltInPrefix, argsSeparator, flagNegationPrefix, parallelValidationThreshold,
+                parallelValidationPool, lightweightErrors);
     }
 }
\ No newline at end of file
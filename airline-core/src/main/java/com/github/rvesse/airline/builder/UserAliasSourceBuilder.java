@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.aliases.CachingUserAliasesSource;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
 import com.github.rvesse.airline.parser.resources.ResourceLocator;
 
@@ -38,6 +39,7 @@ public class UserAliasSourceBuilder<C> extends AbstractChildBuilder<UserAliasesS
     private List<String> searchLocations = new ArrayList<>();
     private String filename, prefix;
     private List<ResourceLocator> locators = new ArrayList<>();
+    private boolean caching = false;
     
     public UserAliasSourceBuilder(ParserBuilder<C> parserBuilder) {
         super(parserBuilder);
@@ -99,6 +101,22 @@ public class UserAliasSourceBuilder<C> extends AbstractChildBuilder<UserAliasesS
         return this;
     }
     
+    /**
+     * Sets that the user aliases should be cached and loaded lazily
+     * <p>
+     * When enabled user aliases are not loaded when the parser configuration
+     * is built, rather they are loaded on demand the first time a potential
+     * alias is encountered and only changed files are re-read on subsequent
+     * loads. See {@link CachingUserAliasesSource} for more details.
+     * </p>
+     * 
+     * @return Builder
+     */
+    public UserAliasSourceBuilder<C> withCaching() {
+        this.caching = true;
+        return this;
+    }
+
     public boolean isBuildable() {
         return this.filename != null && !this.searchLocations.isEmpty();
     }
@@ -111,6 +129,10 @@ public class UserAliasSourceBuilder<C> extends AbstractChildBuilder<UserAliasesS
         if (this.searchLocations.isEmpty()) {
             throw new IllegalStateException("Must specify at least one search location");
         }
+        if (this.caching) {
+            return new CachingUserAliasesSource<>(filename, prefix, locators.size() > 0 ? locators : null,
+                    searchLocations);
+        }
         return new UserAliasesSource<>(filename, prefix, locators.size() > 0 ? locators : null, searchLocations);
     }
 
@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.cds;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.help.sections.HelpFormat;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+/**
+ * Exercises Airline for a set of {@code @Cli} or {@code @Command} annotated
+ * classes so that the classes used are recorded when creating a class data
+ * sharing (CDS) archive
+ * <p>
+ * For each class the metadata is loaded, help is rendered for the CLI and all
+ * its commands and the command lines given in any {@code @Examples} sections
+ * are parsed. Commands are never run and parsing errors are ignored, the aim is
+ * only to load the classes that a typical invocation of the CLI would use.
+ * This is used by the Airline Maven plugin's {@code airline:cds} goal which
+ * runs it in a forked JVM with {@code -XX:ArchiveClassesAtExit}.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public final class CdsTrainer {
+
+    private CdsTrainer() {
+    }
+
+    /**
+     * Trains on the given classes
+     * 
+     * @param args
+     *            Fully qualified names of {@code @Cli} or {@code @Command}
+     *            annotated classes
+     * @throws Exception
+     *             Thrown if a class cannot be loaded or trained on
+     */
+    public static void main(String[] args) throws Exception {
+        for (String className : args) {
+            train(Class.forName(className));
+        }
+    }
+
+    /**
+     * Trains on the given class
+     * 
+     * @param cls
+     *            {@code @Cli} or {@code @Command} annotated class
+     * @return Number of example command lines that were parsed
+     * @throws IOException
+     *             Thrown if help cannot be rendered
+     */
+    public static int train(Class<?> cls) throws IOException {
+        if (cls.getAnnotation(Command.class) != null) {
+            return trainCommand(cls);
+        } else if (cls.getAnnotation(com.github.rvesse.airline.annotations.Cli.class) != null) {
+            return trainCli(cls);
+        }
+        throw new IllegalArgumentException(
+                String.format("Class %s is not annotated with @Cli or @Command", cls.getName()));
+    }
+
+    private static <T> int trainCommand(Class<T> cls) throws IOException {
+        SingleCommand<T> parser = SingleCommand.singleCommand(cls);
+        CommandMetadata command = parser.getCommandMetadata();
+        Help.help(command, new ByteArrayOutputStream());
+
+        int parsed = 0;
+        for (List<String> example : getExamples(command)) {
+            // The program name is not known for single commands so always
+            // assume the first token is the program name
+            if (example.isEmpty())
+                continue;
+            parse(parser, example.subList(1, example.size()));
+            parsed++;
+        }
+        return parsed;
+    }
+
+    private static int trainCli(Class<?> cls) throws IOException {
+        GlobalMetadata<Object> global = MetadataLoader.loadGlobal(cls);
+        Cli<Object> cli = new Cli<Object>(global);
+        Help.help(global, Collections.<String> emptyList(), new ByteArrayOutputStream());
+        Help.help(global, Collections.singletonList(global.getName()), new ByteArrayOutputStream());
+
+        List<CommandMetadata> commands = new ArrayList<>(global.getDefaultGroupCommands());
+        for (CommandGroupMetadata group : global.getCommandGroups()) {
+            collectCommands(group, commands);
+        }
+
+        int parsed = 0;
+        for (CommandMetadata command : commands) {
+            Help.help(command, new ByteArrayOutputStream());
+            for (List<String> example : getExamples(command)) {
+                if (!example.isEmpty() && example.get(0).equals(global.getName()))
+                    example = example.subList(1, example.size());
+                parse(cli, example);
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+
+    private static void parse(SingleCommand<?> parser, List<String> args) {
+        try {
+            parser.parseWithResult(args);
+        } catch (ParseException e) {
+            // Ignored, examples need not be valid to exercise the parser
+        }
+    }
+
+    private static void parse(Cli<?> cli, List<String> args) {
+        try {
+            cli.parseWithResult(args);
+        } catch (ParseException e) {
+            // Ignored, examples need not be valid to exercise the parser
+        }
+    }
+
+    private static void collectCommands(CommandGroupMetadata group, List<CommandMetadata> commands) {
+        commands.addAll(group.getCommands());
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            collectCommands(subGroup, commands);
+        }
+    }
+
+    private static List<List<String>> getExamples(CommandMetadata command) {
+        List<List<String>> examples = new ArrayList<>();
+        for (HelpSection section : command.getHelpSections()) {
+            if (section.getFormat() != HelpFormat.EXAMPLES || section.numContentBlocks() == 0)
+                continue;
+            for (String example : section.getContentBlock(0)) {
+                List<String> tokens = tokenize(example);
+                // Ignore a leading shell prompt
+                if (!tokens.isEmpty() && tokens.get(0).equals("$"))
+                    tokens.remove(0);
+                examples.add(tokens);
+            }
+        }
+        return examples;
+    }
+
+    /**
+     * Splits an example command line into tokens honouring simple single and
+     * double quoting
+     * 
+     * @param line
+     *            Command line
+     * @return Tokens
+     */
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inToken = false;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken)
+            tokens.add(current.toString());
+        return tokens;
+    }
+}
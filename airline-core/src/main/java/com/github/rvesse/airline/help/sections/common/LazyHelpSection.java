@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.sections.common;
+
+import com.github.rvesse.airline.help.sections.HelpFormat;
+import com.github.rvesse.airline.help.sections.HelpSection;
+
+/**
+ * A help section whose content is only created when it is first needed
+ * <p>
+ * The title and suggested order of the section are known up front since these
+ * are needed when help sections are collected into the metadata. The actual
+ * section is only created via {@link #load()} the first time a help generator
+ * asks for its content and is then cached. This allows sections that must do
+ * I/O or non-trivial string building to avoid that cost unless help is
+ * actually shown.
+ * </p>
+ * <p>
+ * If loading the section fails then the error is propagated to the caller and
+ * loading will be attempted again on the next request for content.
+ * </p>
+ */
+public abstract class LazyHelpSection implements HelpSection {
+
+    private final String title;
+    private final int order;
+    private volatile HelpSection section;
+
+    /**
+     * Creates a new lazy section
+     * 
+     * @param title
+     *            Title
+     * @param suggestedOrder
+     *            Suggested order
+     */
+    public LazyHelpSection(String title, int suggestedOrder) {
+        this.title = title;
+        this.order = suggestedOrder;
+    }
+
+    /**
+     * Creates the actual help section, this is called at most once unless it
+     * throws an error
+     * 
+     * @return Help section
+     */
+    protected abstract HelpSection load();
+
+    /**
+     * Gets whether the actual help section has been created yet
+     * 
+     * @return True if loaded, false otherwise
+     */
+    public boolean isLoaded() {
+        return this.section != null;
+    }
+
+    /**
+     * Gets the actual help section, creating it if necessary
+     * 
+     * @return Help section
+     */
+    public HelpSection getSection() {
+        HelpSection section = this.section;
+        if (section == null) {
+            synchronized (this) {
+                section = this.section;
+                if (section == null) {
+                    section = load();
+                    if (section == null)
+                        throw new IllegalStateException(
+                                String.format("Failed to load the help section %s", this.title));
+                    this.section = section;
+                }
+            }
+        }
+        return section;
+    }
+
+    @Override
+    public String getTitle() {
+        return this.title;
+    }
+
+    @Override
+    public int suggestedOrder() {
+        return this.order;
+    }
+
+    @Override
+    public String getPreamble() {
+        return getSection().getPreamble();
+    }
+
+    @Override
+    public String getPostamble() {
+        return getSection().getPostamble();
+    }
+
+    @Override
+    public HelpFormat getFormat() {
+        return getSection().getFormat();
+    }
+
+    @Override
+    public int numContentBlocks() {
+        return getSection().numContentBlocks();
+    }
+
+    @Override
+    public String[] getContentBlock(int blockNumber) {
+        return getSection().getContentBlock(blockNumber);
+    }
+}
@@ -37,6 +37,7 @@ import com.github.rvesse.airline.help.sections.common.CommonSections;
 import com.github.rvesse.airline.help.sections.common.DiscussionSection;
 import com.github.rvesse.airline.help.sections.common.ExamplesSection;
 import com.github.rvesse.airline.help.sections.common.ExitCodesSection;
+import com.github.rvesse.airline.help.sections.common.LazyHelpSection;
 import com.github.rvesse.airline.help.sections.common.VersionSection;
 import com.github.rvesse.airline.parser.ParserUtil;
 import com.github.rvesse.airline.parser.resources.ResourceLocator;
@@ -57,8 +58,7 @@ public class CommonSectionsFactory implements HelpSectionFactory {
             return new DiscussionSection(((Discussion) annotation).paragraphs());
         } else if (annotation instanceof ExitCodes) {
             // Exit Codes
-            ExitCodes exits = (ExitCodes) annotation;
-            return new ExitCodesSection(exits.codes(), exits.descriptions());
+            return new DeferredSection(CommonSections.TITLE_EXIT_CODES, CommonSections.ORDER_EXIT_CODES, annotation);
         } else if (annotation instanceof HideSection) {
             // Hide Section
             // Used to hide inherited section
@@ -69,6 +69,33 @@ public class CommonSectionsFactory implements HelpSectionFactory {
             ProseSection prose = (ProseSection) annotation;
             return new com.github.rvesse.airline.help.sections.common.ProseSection(prose.title(),
                     prose.suggestedOrder(), prose.paragraphs());
+        } else if (annotation instanceof Copyright) {
+            // Copyright Section
+            return new DeferredSection(CommonSections.TITLE_COPYRIGHT, CommonSections.ORDER_COPYRIGHT, annotation);
+        } else if (annotation instanceof License) {
+            // License section
+            return new DeferredSection(CommonSections.TITLE_LICENSE, CommonSections.ORDER_LICENSE, annotation);
+        } else if (annotation instanceof Version) {
+            // Version section
+            // Loading version information requires I/O so only do this if
+            // help is actually shown
+            return new DeferredSection(CommonSections.TITLE_VERSION, CommonSections.ORDER_VERSION, annotation);
+        }
+        return null;
+    }
+
+    /**
+     * Creates those sections whose content is only built when first needed
+     * 
+     * @param annotation
+     *            Annotation
+     * @return Help section
+     */
+    private static HelpSection createDeferredSection(Annotation annotation) {
+        if (annotation instanceof ExitCodes) {
+            // Exit Codes
+            ExitCodes exits = (ExitCodes) annotation;
+            return new ExitCodesSection(exits.codes(), exits.descriptions());
         } else if (annotation instanceof Copyright) {
             // Copyright Section
             Copyright copyright = (Copyright) annotation;
@@ -99,6 +126,21 @@ public class CommonSectionsFactory implements HelpSectionFactory {
         return null;
     }
 
+    private static class DeferredSection extends LazyHelpSection {
+
+        private final Annotation annotation;
+
+        public DeferredSection(String title, int suggestedOrder, Annotation annotation) {
+            super(title, suggestedOrder);
+            this.annotation = annotation;
+        }
+
+        @Override
+        protected HelpSection load() {
+            return createDeferredSection(this.annotation);
+        }
+    }
+
     @Override
     public List<Class<? extends Annotation>> supportedAnnotations() {
         List<Class<? extends Annotation>> supported = new ArrayList<>();
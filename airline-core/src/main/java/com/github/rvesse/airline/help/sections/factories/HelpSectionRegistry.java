@@ -16,49 +16,64 @@
 package com.github.rvesse.airline.help.sections.factories;
 
 import java.lang.annotation.Annotation;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
 
+import com.github.rvesse.airline.InstanceFactories;
 import com.github.rvesse.airline.help.sections.HelpSection;
 
 /**
  * Registry which maps annotations to help sections
+ * <p>
+ * The registered factories are held in an immutable map which is replaced
+ * wholesale whenever the registry is modified so lookups are safe to make from
+ * multiple threads concurrently without locking.
+ * </p>
  */
 public class HelpSectionRegistry {
 
-    private static final Map<Class<? extends Annotation>, HelpSectionFactory> FACTORIES = new HashMap<>();
-    private static boolean init = false;
+    private static volatile Map<Class<? extends Annotation>, HelpSectionFactory> FACTORIES = null;
 
     static {
         init();
     }
 
     static synchronized void init() {
-        if (init)
+        if (FACTORIES != null)
             return;
+        FACTORIES = load();
+    }
 
-        ServiceLoader<HelpSectionFactory> helpSectionFactories = ServiceLoader.load(HelpSectionFactory.class);
+    private static Map<Class<? extends Annotation>, HelpSectionFactory> load() {
+        // In reflection free mode only the built-in help sections are used,
+        // any others must be explicitly registered
+        Iterable<HelpSectionFactory> helpSectionFactories = InstanceFactories.isReflectionFree()
+                ? Collections.<HelpSectionFactory> singletonList(new CommonSectionsFactory())
+                : ServiceLoader.load(HelpSectionFactory.class);
+        Map<Class<? extends Annotation>, HelpSectionFactory> factories = new HashMap<>();
         for (HelpSectionFactory factory : helpSectionFactories) {
             for (Class<? extends Annotation> cls : factory.supportedAnnotations()) {
-                FACTORIES.put(cls, factory);
+                factories.put(cls, factory);
             }
         }
-
-        init = true;
+        return Collections.unmodifiableMap(factories);
     }
 
     public static synchronized void reset() {
-        init = false;
-        FACTORIES.clear();
-        init();
+        // Build the new map before publishing it so concurrent lookups never
+        // see an empty registry
+        FACTORIES = load();
     }
 
-    public static void addFactory(Class<? extends Annotation> cls, HelpSectionFactory factory) {
+    public static synchronized void addFactory(Class<? extends Annotation> cls, HelpSectionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        FACTORIES.put(cls, factory);
+        Map<Class<? extends Annotation>, HelpSectionFactory> factories = new HashMap<>(FACTORIES);
+        factories.put(cls, factory);
+        FACTORIES = Collections.unmodifiableMap(factories);
     }
 
     public static Set<Class<? extends Annotation>> getAnnotationClasses() {
@@ -71,4 +86,16 @@ public class HelpSectionRegistry {
             return factory.createSection(annotation);
         return null;
     }
+
+    /**
+     * Gets the help section for an annotation
+     * 
+     * @param annotation
+     *            Annotation
+     * @return Help section, or {@code null} if the annotation is not a
+     *         registered help section annotation
+     */
+    public static HelpSection getHelpSection(Annotation annotation) {
+        return getHelpSection(annotation.annotationType(), annotation);
+    }
 }
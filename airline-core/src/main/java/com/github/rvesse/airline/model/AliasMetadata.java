@@ -19,6 +19,7 @@ import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.github.rvesse.airline.parser.aliases.AliasTemplate;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 /**
@@ -31,6 +32,7 @@ public class AliasMetadata {
 
     private final String name;
     private final List<String> arguments;
+    private final AliasTemplate template;
 
     /**
      * Creates a new alias metadata
@@ -45,6 +47,7 @@ public class AliasMetadata {
             throw new IllegalArgumentException("Alias name cannot be null/empty/whitespace");
         this.name = name;
         this.arguments = AirlineUtils.unmodifiableListCopy(arguments);
+        this.template = AliasTemplate.compile(this.arguments);
     }
 
     /**
@@ -65,6 +68,15 @@ public class AliasMetadata {
         return this.arguments;
     }
 
+    /**
+     * Gets the compiled template used to expand the alias
+     * 
+     * @return Alias template
+     */
+    public AliasTemplate getTemplate() {
+        return this.template;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
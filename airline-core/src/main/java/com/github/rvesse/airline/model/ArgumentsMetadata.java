@@ -20,6 +20,7 @@ import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.CompactCollections;
 import com.github.rvesse.airline.utils.predicates.restrictions.IsRequiredArgumentFinder;
 
 import java.lang.reflect.Field;
@@ -29,9 +30,6 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.IteratorUtils;
-import org.apache.commons.collections4.ListUtils;
-import org.apache.commons.collections4.SetUtils;
 import org.apache.commons.lang3.StringUtils;
 
 public class ArgumentsMetadata {
@@ -55,12 +53,12 @@ public class ArgumentsMetadata {
         if (!path.iterator().hasNext())
             throw new IllegalArgumentException("path cannot be empty");
 
-        this.titles = ListUtils.unmodifiableList(IteratorUtils.toList(titles.iterator()));
+        this.titles = CompactCollections.listCopy(titles);
         this.description = description;
         this.restrictions = restrictions != null ? AirlineUtils.unmodifiableListCopy(restrictions)
                 : Collections.<ArgumentsRestriction> emptyList();
-        this.provider = typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider();
-        this.accessors = SetUtils.unmodifiableSet(Collections.singleton(new Accessor(path)));
+        this.provider = typeConverterProvider != null ? typeConverterProvider : DefaultTypeConverterProvider.INSTANCE;
+        this.accessors = Collections.singleton(new Accessor(path));
     }
 
     public ArgumentsMetadata(Iterable<ArgumentsMetadata> arguments) {
@@ -84,7 +82,7 @@ public class ArgumentsMetadata {
 
             accessors.addAll(other.getAccessors());
         }
-        this.accessors = SetUtils.unmodifiableSet(accessors);
+        this.accessors = CompactCollections.setCopy(accessors);
     }
 
     public List<String> getTitle() {
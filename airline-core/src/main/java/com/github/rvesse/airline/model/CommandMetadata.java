@@ -18,12 +18,13 @@ package com.github.rvesse.airline.model;
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.annotations.Group;
 import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.parser.options.ShortOptionIndex;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.CompactCollections;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
 
 public class CommandMetadata {
@@ -33,6 +34,8 @@ public class CommandMetadata {
     private final List<OptionMetadata> globalOptions;
     private final List<OptionMetadata> groupOptions;
     private final List<OptionMetadata> commandOptions;
+    private final List<OptionMetadata> allOptions;
+    private volatile ShortOptionIndex shortOptions;
     private final OptionMetadata defaultOption;
     private final ArgumentsMetadata arguments;
     private final List<Accessor> metadataInjections;
@@ -67,6 +70,7 @@ public class CommandMetadata {
         this.globalOptions = AirlineUtils.unmodifiableListCopy(globalOptions);
         this.groupOptions = AirlineUtils.unmodifiableListCopy(groupOptions);
         this.commandOptions = AirlineUtils.unmodifiableListCopy(commandOptions);
+        this.allOptions = CompactCollections.concat(this.globalOptions, this.groupOptions, this.commandOptions);
         this.defaultOption = defaultOption;
         this.arguments = arguments;
 
@@ -95,11 +99,28 @@ public class CommandMetadata {
     }
 
     public List<OptionMetadata> getAllOptions() {
-        List<OptionMetadata> allOptions = new ArrayList<OptionMetadata>();
-        allOptions.addAll(globalOptions);
-        allOptions.addAll(groupOptions);
-        allOptions.addAll(commandOptions);
-        return ListUtils.unmodifiableList(allOptions);
+        return allOptions;
+    }
+
+    /**
+     * Gets an index of the short options available to this command, this
+     * covers all the options returned by {@link #getAllOptions()}
+     * <p>
+     * The index is built the first time it is requested since most commands
+     * in a large CLI are never parsed.
+     * </p>
+     * 
+     * @return Short options index
+     */
+    public ShortOptionIndex getShortOptionIndex() {
+        ShortOptionIndex index = shortOptions;
+        if (index == null) {
+            // Building the index is idempotent so a racing thread at worst
+            // builds an identical index
+            index = new ShortOptionIndex(this.allOptions);
+            shortOptions = index;
+        }
+        return index;
     }
 
     /**
@@ -183,4 +204,9 @@ public class CommandMetadata {
         // TODO This should ideally be more robust
         return StringUtils.equals(this.name, cmd.name) && this.type.equals(cmd.type);
     }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.name, this.type);
+    }
 }
@@ -23,6 +23,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.parser.options.ShortOptionIndex;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
@@ -34,6 +35,7 @@ public class GlobalMetadata<T> {
     private final String name;
     private final String description;
     private final List<OptionMetadata> options;
+    private final ShortOptionIndex shortOptions;
     private final CommandMetadata defaultCommand;
     private final List<CommandMetadata> defaultGroupCommands;
     private final List<CommandGroupMetadata> commandGroups;
@@ -53,6 +55,7 @@ public class GlobalMetadata<T> {
         this.name = name;
         this.description = description;
         this.options = AirlineUtils.unmodifiableListCopy(options);
+        this.shortOptions = new ShortOptionIndex(this.options);
         this.defaultCommand = defaultCommand;
         this.defaultGroupCommands = AirlineUtils.unmodifiableListCopy(defaultGroupCommands);
         this.commandGroups = AirlineUtils.unmodifiableListCopy(commandGroups);
@@ -141,6 +144,15 @@ public class GlobalMetadata<T> {
         return options;
     }
 
+    /**
+     * Gets an index of the short global options
+     * 
+     * @return Short options index
+     */
+    public ShortOptionIndex getShortOptionIndex() {
+        return shortOptions;
+    }
+
     /**
      * Gets the default command for the CLI
      * 
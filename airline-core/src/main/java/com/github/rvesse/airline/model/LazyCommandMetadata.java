@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.parser.options.ShortOptionIndex;
+
+/**
+ * Command metadata that is loaded on demand
+ * <p>
+ * Only the name, description, hidden flag, type and group placement of the
+ * command are known up front. The full metadata is loaded via
+ * {@link MetadataLoader#loadCommand(Class, Map)} the first time that any other
+ * metadata is requested e.g. when the parser selects the command or help is
+ * generated for it. The global and group scoped options are an exception to
+ * this, these may be loaded without loading the full metadata since they are
+ * needed in order to build global and group metadata.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public class LazyCommandMetadata extends CommandMetadata {
+
+    private final Map<String, HelpSection> baseHelpSections;
+    private volatile CommandMetadata metadata;
+    private volatile MetadataLoader.InjectionMetadata scoped;
+
+    //@formatter:off
+    LazyCommandMetadata(String name, 
+                        String description, 
+                        boolean hidden, 
+                        Class<?> type, 
+                        List<String> groupNames,
+                        List<Group> groups, 
+                        Map<String, HelpSection> baseHelpSections) {
+        super(name, 
+              description, 
+              hidden, 
+              Collections.<OptionMetadata> emptyList(), 
+              Collections.<OptionMetadata> emptyList(),
+              Collections.<OptionMetadata> emptyList(), 
+              null, 
+              null, 
+              Collections.<Accessor> emptyList(), 
+              type, 
+              groupNames,
+              groups, 
+              Collections.<HelpSection> emptyList());
+    //@formatter:on
+        this.baseHelpSections = new HashMap<>(baseHelpSections);
+    }
+
+    /**
+     * Gets whether the full metadata has been loaded
+     * 
+     * @return True if loaded, false otherwise
+     */
+    public boolean isLoaded() {
+        return this.metadata != null;
+    }
+
+    /**
+     * Gets the full metadata, loading it if necessary
+     * 
+     * @return Full metadata
+     */
+    public CommandMetadata load() {
+        CommandMetadata metadata = this.metadata;
+        if (metadata == null) {
+            synchronized (this) {
+                metadata = this.metadata;
+                if (metadata == null) {
+                    metadata = MetadataLoader.loadCommand(getType(), this.baseHelpSections);
+                    this.metadata = metadata;
+                    this.scoped = null;
+                }
+            }
+        }
+        return metadata;
+    }
+
+    private MetadataLoader.InjectionMetadata loadScoped() {
+        MetadataLoader.InjectionMetadata scoped = this.scoped;
+        if (scoped == null) {
+            synchronized (this) {
+                scoped = this.scoped;
+                if (scoped == null) {
+                    scoped = MetadataLoader.loadScopedInjectionMetadata(getType());
+                    this.scoped = scoped;
+                }
+            }
+        }
+        return scoped;
+    }
+
+    @Override
+    public List<OptionMetadata> getAllOptions() {
+        return load().getAllOptions();
+    }
+
+    @Override
+    public ShortOptionIndex getShortOptionIndex() {
+        return load().getShortOptionIndex();
+    }
+
+    @Override
+    public List<HelpSection> getHelpSections() {
+        return load().getHelpSections();
+    }
+
+    @Override
+    public List<OptionMetadata> getGlobalOptions() {
+        if (isLoaded())
+            return this.metadata.getGlobalOptions();
+        return Collections.unmodifiableList(loadScoped().globalOptions);
+    }
+
+    @Override
+    public List<OptionMetadata> getGroupOptions() {
+        if (isLoaded())
+            return this.metadata.getGroupOptions();
+        return Collections.unmodifiableList(loadScoped().groupOptions);
+    }
+
+    @Override
+    public List<OptionMetadata> getCommandOptions() {
+        return load().getCommandOptions();
+    }
+
+    @Override
+    public OptionMetadata getDefaultOption() {
+        return load().getDefaultOption();
+    }
+
+    @Override
+    public ArgumentsMetadata getArguments() {
+        return load().getArguments();
+    }
+
+    @Override
+    public List<Accessor> getMetadataInjections() {
+        return load().getMetadataInjections();
+    }
+
+    @Override
+    public String toString() {
+        return load().toString();
+    }
+}
@@ -42,22 +42,21 @@ import com.github.rvesse.airline.restrictions.OptionRestriction;
 import com.github.rvesse.airline.restrictions.common.PartialRestriction;
 import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
 import com.github.rvesse.airline.types.DefaultTypeConverter;
+import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.types.numerics.DefaultNumericConverter;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.comparators.StringHierarchyComparator;
-import com.github.rvesse.airline.utils.predicates.parser.CommandTypeFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
 import javax.inject.Inject;
 
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.*;
@@ -68,6 +67,8 @@ import java.util.*;
  */
 public class MetadataLoader {
 
+    private static final String GUICE_INJECT = "com.google.inject.Inject";
+
     public static <C> ParserMetadata<C> loadParser(Class<?> cliClass) {
         if (cliClass == null)
             return ParserBuilder.<C> defaultConfiguration();
@@ -80,7 +81,7 @@ public class MetadataLoader {
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
-    private static <C> ParserMetadata<C> loadParser(Parser parserConfig) {
+    static <C> ParserMetadata<C> loadParser(Parser parserConfig) {
         ParserBuilder<C> builder = new ParserBuilder<C>();
 
         // Factory and converter options
@@ -128,6 +129,9 @@ public class MetadataLoader {
             UserAliasSourceBuilder<C> userAliasBuilder = builder.withUserAliases();
             userAliasBuilder.withFilename(parserConfig.userAliasesFile());
             userAliasBuilder.withPrefix(parserConfig.userAliasesPrefix());
+            if (parserConfig.cacheUserAliases()) {
+                userAliasBuilder.withCaching();
+            }
 
             // Determine the search locations that are in use
             if (parserConfig.userAliasesSearchLocation().length > 0) {
@@ -152,6 +156,12 @@ public class MetadataLoader {
         // Parsing options
         builder.withArgumentsSeparator(parserConfig.argumentsSeparator());
         builder.withFlagNegationPrefix(parserConfig.flagNegationPrefix());
+        if (parserConfig.parallelValidationThreshold() >= 0) {
+            builder = builder.withParallelValidation(parserConfig.parallelValidationThreshold());
+        }
+        if (parserConfig.lightweightErrors()) {
+            builder = builder.withLightweightErrors();
+        }
         if (parserConfig.defaultParsersFirst() && parserConfig.useDefaultOptionParsers()) {
             builder = builder.withDefaultOptionParsers();
         }
@@ -163,7 +173,91 @@ public class MetadataLoader {
             builder = builder.withDefaultOptionParsers();
         }
 
-        return builder.build();
+        return SnapshotRecorder.record(builder.build(), parserConfig);
+    }
+
+    /**
+     * Loads a meta-data snapshot from the classpath
+     * <p>
+     * Looks for the resource given by
+     * {@link MetadataSnapshot#getResourceName(Class)} using the class loader of
+     * the given class, the snapshot is validated against the current classes
+     * before being used.
+     * </p>
+     * 
+     * @param cls
+     *            {@code @Cli} or {@code @Command} annotated class
+     * @return Snapshot, or {@code null} if no snapshot is embedded for the
+     *         class
+     * @throws IOException
+     *             Thrown if the snapshot is malformed or of an unsupported
+     *             version
+     * @throws IllegalStateException
+     *             Thrown if the snapshot is stale
+     */
+    public static MetadataSnapshot loadSnapshot(Class<?> cls) throws IOException {
+        ClassLoader classLoader = cls.getClassLoader() != null ? cls.getClassLoader()
+                : ClassLoader.getSystemClassLoader();
+        InputStream input = classLoader.getResourceAsStream(MetadataSnapshot.getResourceName(cls));
+        if (input == null)
+            return null;
+        try {
+            return loadSnapshot(input, classLoader, true);
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Loads a meta-data snapshot, the snapshot is validated against the
+     * current classes as found via the thread context class loader before
+     * being used
+     * 
+     * @param input
+     *            Input stream
+     * @return Snapshot
+     * @throws IOException
+     *             Thrown if the snapshot is malformed or of an unsupported
+     *             version
+     * @throws IllegalStateException
+     *             Thrown if the snapshot is stale
+     */
+    public static MetadataSnapshot loadSnapshot(InputStream input) throws IOException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null)
+            classLoader = MetadataLoader.class.getClassLoader();
+        return loadSnapshot(input, classLoader, true);
+    }
+
+    /**
+     * Loads a meta-data snapshot
+     * <p>
+     * No annotation scanning takes place, the meta-data is rebuilt directly
+     * from the snapshot.
+     * </p>
+     * 
+     * @param input
+     *            Input stream
+     * @param classLoader
+     *            Class loader used to find the classes referenced by the
+     *            snapshot
+     * @param validate
+     *            Whether to validate the snapshot against the fingerprints of
+     *            the current classes
+     * @return Snapshot
+     * @throws IOException
+     *             Thrown if the snapshot is malformed or of an unsupported
+     *             version
+     * @throws IllegalStateException
+     *             Thrown if validation is requested and the snapshot is stale
+     */
+    public static MetadataSnapshot loadSnapshot(InputStream input, ClassLoader classLoader, boolean validate)
+            throws IOException {
+        if (input == null)
+            throw new NullPointerException("input cannot be null");
+        if (classLoader == null)
+            throw new NullPointerException("classLoader cannot be null");
+        return MetadataSnapshot.read(input, classLoader, validate);
     }
 
     public static <C> GlobalMetadata<C> loadGlobal(Class<?> cliClass) {
@@ -193,6 +287,7 @@ public class MetadataLoader {
             throw new IllegalArgumentException(String.format("Class %s does not have the @Cli annotation", cliClass));
 
         com.github.rvesse.airline.annotations.Cli cliConfig = (com.github.rvesse.airline.annotations.Cli) annotation;
+        boolean lazy = cliConfig.lazyCommands();
 
         // Find help sections defined at the CLI level
         Map<String, HelpSection> baseHelpSections = loadHelpSections(cliClass,
@@ -201,11 +296,11 @@ public class MetadataLoader {
         // Prepare commands
         CommandMetadata defaultCommand = null;
         if (!cliConfig.defaultCommand().equals(com.github.rvesse.airline.annotations.Cli.NO_DEFAULT.class)) {
-            defaultCommand = loadCommand(cliConfig.defaultCommand(), new HashMap<>(baseHelpSections));
+            defaultCommand = loadCommand(cliConfig.defaultCommand(), new HashMap<>(baseHelpSections), lazy);
         }
         List<CommandMetadata> defaultGroupCommands = new ArrayList<CommandMetadata>();
         for (Class<?> cls : cliConfig.commands()) {
-            defaultGroupCommands.add(loadCommand(cls, new HashMap<>(baseHelpSections)));
+            defaultGroupCommands.add(loadCommand(cls, new HashMap<>(baseHelpSections), lazy));
         }
 
         // Prepare parser configuration
@@ -221,14 +316,10 @@ public class MetadataLoader {
         // 3 - Standard restrictions if the includeDefaultRestrictions field of
         // the @Cli annotation is true
         List<GlobalRestriction> restrictions = new ArrayList<GlobalRestriction>();
-        for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                .getGlobalRestrictionAnnotationClasses()) {
-            annotation = cliClass.getAnnotation(annotationClass);
-            if (annotation == null)
-                continue;
-            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(annotationClass, annotation);
+        for (Annotation restrictionAnnotation : cliClass.getAnnotations()) {
+            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(restrictionAnnotation);
             if (restriction != null)
-                restrictions.add(restriction);
+                restrictions.add(SnapshotRecorder.record(restriction, restrictionAnnotation));
         }
         for (Class<? extends GlobalRestriction> cls : cliConfig.restrictions()) {
             restrictions.add(ParserUtil.createInstance(cls));
@@ -238,47 +329,37 @@ public class MetadataLoader {
         }
 
         // Prepare groups
-        // We sort sub-groups by name length then lexically
-        // This means that when we build the groups hierarchy we'll ensure we
-        // build the parent groups first wherever possible
-        Map<String, CommandGroupMetadata> subGroups = new TreeMap<String, CommandGroupMetadata>(
-                new StringHierarchyComparator());
+        // Sub-groups are linked into the hierarchy once all the declared
+        // groups are known
+        Map<String, CommandGroupMetadata> subGroups = new LinkedHashMap<String, CommandGroupMetadata>();
         List<CommandGroupMetadata> groups = new ArrayList<CommandGroupMetadata>();
+        GroupIndex index = new GroupIndex(groups);
         for (Group groupAnno : cliConfig.groups()) {
-            String groupName = groupAnno.name();
-            String subGroupPath = null;
-            if (StringUtils.containsWhitespace(groupName)) {
-                // Normalize the path
-                subGroupPath = StringUtils.join(StringUtils.split(groupAnno.name()), ' ');
-            }
-
-            // Maybe a top level group we've already seen
-            CommandGroupMetadata group = CollectionUtils.find(groups, new GroupFinder(groupName));
-            if (group == null) {
-                // Maybe a sub-group we've already seen
-                group = subGroups.get(subGroupPath);
-            }
+            // Maybe a group we've already seen
+            String path = GroupIndex.normalize(groupAnno.name());
+            CommandGroupMetadata group = index.get(path);
 
             List<CommandMetadata> groupCommands = new ArrayList<CommandMetadata>();
             for (Class<?> cls : groupAnno.commands()) {
-                groupCommands.add(loadCommand(cls, new HashMap<>(baseHelpSections)));
+                groupCommands.add(loadCommand(cls, new HashMap<>(baseHelpSections), lazy));
             }
 
             if (group == null) {
                 // Newly discovered group
                 //@formatter:off
-                group = loadCommandGroup(subGroupPath != null ? subGroupPath : groupName,
+                group = loadCommandGroup(path,
                                          groupAnno.description(),
                                          groupAnno.hidden(),
                                          Collections.<CommandGroupMetadata>emptyList(),
-                                         !groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class) ? loadCommand(groupAnno.defaultCommand(), baseHelpSections) : null, 
+                                         !groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class) ? loadCommand(groupAnno.defaultCommand(), baseHelpSections, lazy) : null, 
                                          groupCommands);
                 //@formatter:on
-                if (subGroupPath == null) {
-                    groups.add(group);
+                if (GroupIndex.isTopLevel(path)) {
+                    index.addTopLevel(path, group);
                 } else {
                     // Remember sub-groups for later
-                    subGroups.put(subGroupPath, group);
+                    index.put(path, group);
+                    subGroups.put(path, group);
                 }
             } else {
                 for (CommandMetadata cmd : groupCommands) {
@@ -287,7 +368,7 @@ public class MetadataLoader {
             }
         }
         // Build sub-group hierarchy
-        buildGroupsHierarchy(groups, subGroups);
+        buildGroupsHierarchy(index, subGroups);
 
         // Find all commands
         List<CommandMetadata> allCommands = new ArrayList<CommandMetadata>();
@@ -313,7 +394,7 @@ public class MetadataLoader {
         }
 
         // Post-process to find possible further group assignments
-        loadCommandsIntoGroupsByAnnotation(allCommands, groups, defaultGroupCommands, baseHelpSections);
+        loadCommandsIntoGroupsByAnnotation(allCommands, groups, defaultGroupCommands, baseHelpSections, lazy);
 
         return loadGlobal(cliConfig.name(), cliConfig.description(), defaultCommand, defaultGroupCommands, groups,
                 restrictions, baseHelpSections.values(), parserConfig);
@@ -448,23 +529,8 @@ public class MetadataLoader {
         if (commandType == null) {
             return null;
         }
-        Command command = null;
         List<Group> groups = new ArrayList<>();
-
-        for (Class<?> cls = commandType; command == null && !Object.class.equals(cls); cls = cls.getSuperclass()) {
-            command = cls.getAnnotation(Command.class);
-
-            if (cls.isAnnotationPresent(Groups.class)) {
-                groups.addAll(Arrays.asList(cls.getAnnotation(Groups.class).value()));
-            }
-            if (cls.isAnnotationPresent(Group.class)) {
-                groups.add(cls.getAnnotation(Group.class));
-            }
-        }
-
-        if (command == null)
-            throw new IllegalArgumentException(
-                    String.format("Command %s is not annotated with @Command", commandType.getName()));
+        Command command = findCommand(commandType, groups);
 
         // Find help sections
         Map<String, HelpSection> helpSections = loadHelpSections(commandType, baseHelpSections);
@@ -495,17 +561,67 @@ public class MetadataLoader {
         return commandMetadata;
     }
 
+    /**
+     * Loads lazy command meta-data
+     * <p>
+     * Only the information available from the {@link Command} annotation and
+     * any {@link Group} annotations is loaded up front, the remainder of the
+     * meta-data is loaded the first time it is needed. Global and group
+     * options are loaded separately from the full meta-data so that global
+     * and group meta-data can be built without fully loading every command.
+     * </p>
+     * 
+     * @param commandType
+     *            Command Type
+     * @param baseHelpSections
+     *            Base set of help sections
+     * @return Command meta-data
+     */
+    public static CommandMetadata loadLazyCommand(Class<?> commandType, Map<String, HelpSection> baseHelpSections) {
+        if (commandType == null) {
+            return null;
+        }
+        List<Group> groups = new ArrayList<>();
+        Command command = findCommand(commandType, groups);
+
+        String description = command.description().isEmpty() ? null : command.description();
+        return new LazyCommandMetadata(command.name(), description, command.hidden(), commandType,
+                Arrays.asList(command.groupNames()), groups, baseHelpSections);
+    }
+
+    private static CommandMetadata loadCommand(Class<?> commandType, Map<String, HelpSection> baseHelpSections,
+            boolean lazy) {
+        return lazy ? loadLazyCommand(commandType, baseHelpSections) : loadCommand(commandType, baseHelpSections);
+    }
+
+    private static Command findCommand(Class<?> commandType, List<Group> groups) {
+        Command command = null;
+        for (Class<?> cls = commandType; command == null && !Object.class.equals(cls); cls = cls.getSuperclass()) {
+            command = cls.getAnnotation(Command.class);
+
+            if (cls.isAnnotationPresent(Groups.class)) {
+                groups.addAll(Arrays.asList(cls.getAnnotation(Groups.class).value()));
+            }
+            if (cls.isAnnotationPresent(Group.class)) {
+                groups.add(cls.getAnnotation(Group.class));
+            }
+        }
+
+        if (command == null)
+            throw new IllegalArgumentException(
+                    String.format("Command %s is not annotated with @Command", commandType.getName()));
+        return command;
+    }
+
     protected static Map<String, HelpSection> loadHelpSections(Class<?> sourceClass,
             Map<String, HelpSection> baseHelpSections) {
         Map<String, HelpSection> helpSections = new HashMap<>();
 
         // Search for help section annotations in the class hierarchy
         for (Class<?> cls = sourceClass; !Object.class.equals(cls); cls = cls.getSuperclass()) {
-            for (Class<? extends Annotation> helpAnnotationClass : HelpSectionRegistry.getAnnotationClasses()) {
-                Annotation annotation = cls.getAnnotation(helpAnnotationClass);
-                if (annotation == null)
-                    continue;
-                HelpSection section = HelpSectionRegistry.getHelpSection(helpAnnotationClass, annotation);
+            for (Annotation annotation : cls.getAnnotations()) {
+                HelpSection section = SnapshotRecorder.record(HelpSectionRegistry.getHelpSection(annotation),
+                        annotation);
                 if (section == null)
                     continue;
 
@@ -572,50 +688,57 @@ public class MetadataLoader {
      *            Fields
      */
     public static void loadInjectionMetadata(Class<?> type, InjectionMetadata injectionMetadata, List<Field> fields) {
+        loadInjectionMetadata(type, injectionMetadata, fields, false);
+    }
+
+    /**
+     * Loads only the global and group scoped options for a command, as used
+     * by lazily loaded commands
+     * 
+     * @param type
+     *            Command type
+     * @return Injection meta-data with only global and group options populated
+     */
+    static InjectionMetadata loadScopedInjectionMetadata(Class<?> type) {
+        InjectionMetadata injectionMetadata = new InjectionMetadata();
+        loadInjectionMetadata(type, injectionMetadata, Collections.<Field> emptyList(), true);
+        injectionMetadata.compact();
+        return injectionMetadata;
+    }
+
+    private static void loadInjectionMetadata(Class<?> type, InjectionMetadata injectionMetadata, List<Field> fields,
+            boolean scopedOnly) {
         if (type.isInterface()) {
             return;
         }
         for (Class<?> cls = type; !Object.class.equals(cls); cls = cls.getSuperclass()) {
             for (Field field : cls.getDeclaredFields()) {
+                // Scan the annotations of the field once, fields without any
+                // annotations are of no interest to us
+                Annotation[] fieldAnnotations = field.getAnnotations();
+                if (fieldAnnotations.length == 0)
+                    continue;
+
                 field.setAccessible(true);
                 List<Field> path = new ArrayList<>(fields);
                 path.add(field);
 
-                Inject injectAnnotation = field.getAnnotation(Inject.class);
-                if (injectAnnotation != null) {
+                // We look for Guice's @Inject by name since Guice is not
+                // necessarily on the class path
+                if (field.isAnnotationPresent(Inject.class) || hasAnnotation(fieldAnnotations, GUICE_INJECT)) {
                     if (field.getType().equals(GlobalMetadata.class)
                             || field.getType().equals(CommandGroupMetadata.class)
                             || field.getType().equals(CommandMetadata.class)) {
-                        injectionMetadata.metadataInjections.add(new Accessor(path));
-                    } else {
-                        loadInjectionMetadata(field.getType(), injectionMetadata, path);
-                    }
-                }
-
-                try {
-                    @SuppressWarnings("unchecked")
-                    Annotation aGuiceInject = field
-                            .getAnnotation((Class<? extends Annotation>) Class.forName("com.google.inject.Inject"));
-                    if (aGuiceInject != null) {
-                        if (field.getType().equals(GlobalMetadata.class)
-                                || field.getType().equals(CommandGroupMetadata.class)
-                                || field.getType().equals(CommandMetadata.class)) {
+                        if (!scopedOnly)
                             injectionMetadata.metadataInjections.add(new Accessor(path));
-                        } else {
-                            loadInjectionMetadata(field.getType(), injectionMetadata, path);
-                        }
+                    } else {
+                        loadInjectionMetadata(field.getType(), injectionMetadata, path, scopedOnly);
                     }
-                } catch (ClassNotFoundException e) {
-                    // this is ok, means Guice is not on the class path, so
-                    // probably not being used
-                    // and thus, ok that this did not work.
-                } catch (ClassCastException e) {
-                    // ignore this too, we're doing some funky cross your
-                    // fingers type reflect stuff to play
-                    // nicely with Guice
                 }
 
                 Option optionAnnotation = field.getAnnotation(Option.class);
+                if (scopedOnly && (optionAnnotation == null || optionAnnotation.type() == OptionType.COMMAND))
+                    continue;
                 DefaultOption defaultOptionAnnotation = field.getAnnotation(DefaultOption.class);
                 if (optionAnnotation != null) {
                     OptionType optionType = optionAnnotation.type();
@@ -655,25 +778,23 @@ public class MetadataLoader {
                     // Find and create restrictions
                     Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
                     List<OptionRestriction> restrictions = new ArrayList<OptionRestriction>();
-                    for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                            .getOptionRestrictionAnnotationClasses()) {
-                        Annotation annotation = field.getAnnotation(annotationClass);
-                        if (annotation == null)
-                            continue;
-                        OptionRestriction restriction = RestrictionRegistry.getOptionRestriction(annotationClass,
-                                annotation);
+                    for (Annotation annotation : fieldAnnotations) {
+                        OptionRestriction restriction = SnapshotRecorder
+                                .record(RestrictionRegistry.getOptionRestriction(annotation), annotation);
                         if (restriction != null) {
                             // Adjust for partial if necessary
-                            if (partials.containsKey(annotationClass))
-                                restriction = new PartialRestriction(partials.get(annotationClass), restriction);
+                            Set<Integer> indices = partials.get(annotation.annotationType());
+                            if (indices != null)
+                                restriction = SnapshotRecorder.recordPartial(
+                                        new PartialRestriction(indices, restriction), indices, restriction);
 
                             restrictions.add(restriction);
                         }
                     }
 
                     // Type Converter provider
-                    TypeConverterProvider provider = ParserUtil
-                            .createInstance(optionAnnotation.typeConverterProvider());
+                    TypeConverterProvider provider = loadTypeConverterProvider(
+                            optionAnnotation.typeConverterProvider());
 
                     //@formatter:off
                     OptionMetadata optionMetadata = new OptionMetadata(optionType, 
@@ -752,22 +873,20 @@ public class MetadataLoader {
                     }
 
                     String description = argumentsAnnotation.description();
-                    TypeConverterProvider provider = ParserUtil
-                            .createInstance(argumentsAnnotation.typeConverterProvider());
+                    TypeConverterProvider provider = loadTypeConverterProvider(
+                            argumentsAnnotation.typeConverterProvider());
 
                     Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
                     List<ArgumentsRestriction> restrictions = new ArrayList<>();
-                    for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                            .getArgumentsRestrictionAnnotationClasses()) {
-                        Annotation annotation = field.getAnnotation(annotationClass);
-                        if (annotation == null)
-                            continue;
-                        ArgumentsRestriction restriction = RestrictionRegistry.getArgumentsRestriction(annotationClass,
-                                annotation);
+                    for (Annotation annotation : fieldAnnotations) {
+                        ArgumentsRestriction restriction = SnapshotRecorder
+                                .record(RestrictionRegistry.getArgumentsRestriction(annotation), annotation);
                         if (restriction != null) {
                             // Adjust for partial if necessary
-                            if (partials.containsKey(annotationClass))
-                                restriction = new PartialRestriction(partials.get(annotationClass), restriction);
+                            Set<Integer> indices = partials.get(annotation.annotationType());
+                            if (indices != null)
+                                restriction = SnapshotRecorder.recordPartial(
+                                        new PartialRestriction(indices, restriction), indices, restriction);
 
                             restrictions.add(restriction);
                         }
@@ -785,6 +904,21 @@ public class MetadataLoader {
         }
     }
 
+    static TypeConverterProvider loadTypeConverterProvider(Class<? extends TypeConverterProvider> cls) {
+        // No need to use reflection for the default provider
+        if (DefaultTypeConverterProvider.class.equals(cls))
+            return DefaultTypeConverterProvider.INSTANCE;
+        return ParserUtil.createInstance(cls);
+    }
+
+    private static boolean hasAnnotation(Annotation[] annotations, String annotationClassName) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().getName().equals(annotationClassName))
+                return true;
+        }
+        return false;
+    }
+
     private static Map<Class<? extends Annotation>, Set<Integer>> loadPartials(Field field) {
         Map<Class<? extends Annotation>, Set<Integer>> partials = new HashMap<>();
 
@@ -911,204 +1045,243 @@ public class MetadataLoader {
     public static void loadCommandsIntoGroupsByAnnotation(List<CommandMetadata> allCommands,
             List<CommandGroupMetadata> commandGroups, List<CommandMetadata> defaultCommandGroup,
             Map<String, HelpSection> baseHelpSections) {
+        loadCommandsIntoGroupsByAnnotation(allCommands, commandGroups, defaultCommandGroup, baseHelpSections, false);
+    }
+
+    /**
+     * Loads commands into groups based upon their group annotations
+     * <p>
+     * Groups are located via an index keyed by their space separated path so
+     * the cost of assembling the group hierarchy is linear in the number of
+     * groups and commands regardless of how deeply groups are nested.
+     * </p>
+     * 
+     * @param allCommands
+     *            All commands
+     * @param commandGroups
+     *            Command groups
+     * @param defaultCommandGroup
+     *            Default group commands
+     * @param baseHelpSections
+     *            Base help sections
+     * @param lazy
+     *            Whether any further commands discovered should be loaded
+     *            lazily
+     */
+    public static void loadCommandsIntoGroupsByAnnotation(List<CommandMetadata> allCommands,
+            List<CommandGroupMetadata> commandGroups, List<CommandMetadata> defaultCommandGroup,
+            Map<String, HelpSection> baseHelpSections, boolean lazy) {
         List<CommandMetadata> newCommands = new ArrayList<CommandMetadata>();
+        Set<CommandMetadata> groupedCommands = new HashSet<CommandMetadata>();
+        GroupIndex index = new GroupIndex(commandGroups);
 
         // first, create any groups explicitly annotated
-        createGroupsFromAnnotations(allCommands, newCommands, commandGroups, defaultCommandGroup, baseHelpSections);
+        createGroupsFromAnnotations(allCommands, newCommands, index, groupedCommands, baseHelpSections, lazy);
 
         for (CommandMetadata command : allCommands) {
-            boolean addedToGroup = false;
-
             // now add the command to any groupNames specified in the Command
-            // annotation
+            // annotation, creating the groups if necessary
             for (String groupName : command.getGroupNames()) {
-                CommandGroupMetadata group = CollectionUtils.find(commandGroups, new GroupFinder(groupName));
-                if (group != null) {
-                    // Add to existing top level group
-                    group.addCommand(command);
-                    addedToGroup = true;
+                String path = GroupIndex.normalize(groupName);
+                if (index.get(path) == null && GroupIndex.isTopLevel(path)) {
+                    // New top level groups take their group options from the
+                    // command that creates them
+                    index.addTopLevel(path, loadCommandGroup(path, "", false,
+                            Collections.<CommandGroupMetadata> emptyList(), null, Collections.singletonList(command)));
                 } else {
-                    if (StringUtils.containsWhitespace(groupName)) {
-                        // Add to sub-group
-                        String[] groups = StringUtils.split(groupName);
-                        CommandGroupMetadata subGroup = null;
-                        for (int i = 0; i < groups.length; i++) {
-                            if (i == 0) {
-                                // Find/create the necessary top level group
-                                subGroup = CollectionUtils.find(commandGroups, new GroupFinder(groups[i]));
-                                if (subGroup == null) {
-                                    subGroup = new CommandGroupMetadata(groups[i], "", false,
-                                            Collections.<OptionMetadata> emptyList(),
-                                            Collections.<CommandGroupMetadata> emptyList(), null,
-                                            Collections.<CommandMetadata> emptyList());
-                                    commandGroups.add(subGroup);
-                                }
-                            } else {
-                                // Find/create the next sub-group
-                                CommandGroupMetadata nextSubGroup = CollectionUtils.find(subGroup.getSubGroups(),
-                                        new GroupFinder(groups[i]));
-                                if (nextSubGroup == null) {
-                                    nextSubGroup = new CommandGroupMetadata(groups[i], "", false,
-                                            Collections.<OptionMetadata> emptyList(),
-                                            Collections.<CommandGroupMetadata> emptyList(), null,
-                                            Collections.<CommandMetadata> emptyList());
-                                }
-                                subGroup.addSubGroup(nextSubGroup);
-                                subGroup = nextSubGroup;
-                            }
-                        }
-                        if (subGroup == null)
-                            throw new IllegalStateException("Failed to resolve sub-group path");
-                        subGroup.addCommand(command);
-                        addedToGroup = true;
-                    } else {
-                        // Add to newly created top level group
-                        CommandGroupMetadata newGroup = loadCommandGroup(groupName, "", false,
-                                Collections.<CommandGroupMetadata> emptyList(), null,
-                                Collections.singletonList(command));
-                        commandGroups.add(newGroup);
-                        addedToGroup = true;
-                    }
+                    index.resolve(path).addCommand(command);
                 }
-            }
-
-            if (addedToGroup && defaultCommandGroup.contains(command)) {
-                defaultCommandGroup.remove(command);
+                groupedCommands.add(command);
             }
         }
 
+        removeAll(defaultCommandGroup, groupedCommands);
         allCommands.addAll(newCommands);
     }
 
     @SuppressWarnings("rawtypes")
     private static void createGroupsFromAnnotations(List<CommandMetadata> allCommands,
-            List<CommandMetadata> newCommands, List<CommandGroupMetadata> commandGroups,
-            List<CommandMetadata> defaultCommandGroup, Map<String, HelpSection> baseHelpSections) {
-
-        // We sort sub-groups by name length then lexically
-        // This means that when we build the groups hierarchy we'll ensure we
-        // build the parent groups first wherever possible
-        Map<String, CommandGroupMetadata> subGroups = new TreeMap<String, CommandGroupMetadata>(
-                new StringHierarchyComparator());
+            List<CommandMetadata> newCommands, GroupIndex index, Set<CommandMetadata> groupedCommands,
+            Map<String, HelpSection> baseHelpSections, boolean lazy) {
+        Map<Class<?>, CommandMetadata> commandsByType = new HashMap<>();
         for (CommandMetadata command : allCommands) {
-            boolean addedToGroup = false;
+            if (!commandsByType.containsKey(command.getType()))
+                commandsByType.put(command.getType(), command);
+        }
 
-            // first, create any groups explicitly annotated
+        // Sub-groups are only linked into the hierarchy once all the annotated
+        // groups are known, that way a sub-group declared before its parent
+        // still ends up beneath the annotated parent
+        Map<String, CommandGroupMetadata> subGroups = new LinkedHashMap<String, CommandGroupMetadata>();
+        for (CommandMetadata command : allCommands) {
             for (Group groupAnno : command.getGroups()) {
-                Class defaultCommandClass = null;
                 CommandMetadata defaultCommand = null;
 
                 // load default command if needed
                 if (!groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class)) {
-                    defaultCommandClass = groupAnno.defaultCommand();
-                    defaultCommand = CollectionUtils.find(allCommands, new CommandTypeFinder(defaultCommandClass));
-                    if (null == defaultCommand) {
-                        defaultCommand = loadCommand(defaultCommandClass, baseHelpSections);
-                        newCommands.add(defaultCommand);
-                    }
+                    defaultCommand = findOrLoadCommand(groupAnno.defaultCommand(), commandsByType, newCommands,
+                            baseHelpSections, lazy);
                 }
 
                 // load other commands if needed
                 List<CommandMetadata> groupCommands = new ArrayList<CommandMetadata>(groupAnno.commands().length);
-                CommandMetadata groupCommand = null;
                 for (Class commandClass : groupAnno.commands()) {
-                    groupCommand = CollectionUtils.find(allCommands, new CommandTypeFinder(commandClass));
-                    if (null == groupCommand) {
-                        groupCommand = loadCommand(commandClass, baseHelpSections);
-                        newCommands.add(groupCommand);
-                        groupCommands.add(groupCommand);
-                    }
+                    groupCommands.add(
+                            findOrLoadCommand(commandClass, commandsByType, newCommands, baseHelpSections, lazy));
                 }
 
-                // Find the group metadata
-                // May already exist as a top level group
-                CommandGroupMetadata groupMetadata = CollectionUtils.find(commandGroups,
-                        new GroupFinder(groupAnno.name()));
+                // Find the group metadata, making sure to normalize white
+                // space in the path
+                String path = GroupIndex.normalize(groupAnno.name());
+                CommandGroupMetadata groupMetadata = index.get(path);
                 if (groupMetadata == null) {
-                    // Not a top level group
-
-                    String subGroupPath = null;
-                    if (StringUtils.containsWhitespace(groupAnno.name())) {
-                        // Is this a sub-group we've already seen?
-                        // Make sure to normalize white space in the path
-                        subGroupPath = StringUtils.join(StringUtils.split(groupAnno.name()), " ");
-                        groupMetadata = subGroups.get(subGroupPath);
-                    }
-
-                    if (groupMetadata == null) {
-                        // Newly discovered group
-                        groupMetadata = loadCommandGroup(groupAnno.name(), groupAnno.description(), groupAnno.hidden(),
-                                Collections.<CommandGroupMetadata> emptyList(), defaultCommand, groupCommands);
-                        if (!StringUtils.containsWhitespace(groupAnno.name())) {
-                            // Add as top level group
-                            commandGroups.add(groupMetadata);
-                        } else {
-                            // This is a new sub-group, put aside for now and
-                            // we'll build the sub-group tree later
-                            subGroups.put(subGroupPath, groupMetadata);
-                        }
+                    // Newly discovered group
+                    groupMetadata = loadCommandGroup(groupAnno.name(), groupAnno.description(), groupAnno.hidden(),
+                            Collections.<CommandGroupMetadata> emptyList(), defaultCommand, groupCommands);
+                    if (GroupIndex.isTopLevel(path)) {
+                        index.addTopLevel(path, groupMetadata);
+                    } else {
+                        // This is a new sub-group, put aside for now and
+                        // we'll build the sub-group tree later
+                        index.put(path, groupMetadata);
+                        subGroups.put(path, groupMetadata);
                     }
                 }
 
                 groupMetadata.addCommand(command);
-                addedToGroup = true;
+                groupedCommands.add(command);
             }
+        }
 
-            if (addedToGroup && defaultCommandGroup.contains(command)) {
-                defaultCommandGroup.remove(command);
-            }
+        buildGroupsHierarchy(index, subGroups);
+    }
+
+    private static CommandMetadata findOrLoadCommand(Class<?> commandClass,
+            Map<Class<?>, CommandMetadata> commandsByType, List<CommandMetadata> newCommands,
+            Map<String, HelpSection> baseHelpSections, boolean lazy) {
+        CommandMetadata command = commandsByType.get(commandClass);
+        if (command == null) {
+            command = loadCommand(commandClass, baseHelpSections, lazy);
+            commandsByType.put(commandClass, command);
+            newCommands.add(command);
         }
+        return command;
+    }
 
-        buildGroupsHierarchy(commandGroups, subGroups);
+    private static void removeAll(List<CommandMetadata> commands, Set<CommandMetadata> toRemove) {
+        if (toRemove.isEmpty())
+            return;
+        Iterator<CommandMetadata> iter = commands.iterator();
+        while (iter.hasNext()) {
+            if (toRemove.contains(iter.next()))
+                iter.remove();
+        }
     }
 
     protected static void buildGroupsHierarchy(List<CommandGroupMetadata> commandGroups,
             Map<String, CommandGroupMetadata> subGroups) {
-        // Add sub-groups into hierarchy as appropriate
-        for (String subGroupPath : subGroups.keySet()) {
-            CommandGroupMetadata subGroup = subGroups.get(subGroupPath);
-            String[] groups = StringUtils.split(subGroupPath);
-            CommandGroupMetadata parentGroup = null;
-            for (int i = 0; i < groups.length - 1; i++) {
-                if (i == 0) {
-                    // Should be a top level group
-                    parentGroup = CollectionUtils.find(commandGroups, new GroupFinder(groups[i]));
-                    if (parentGroup == null) {
-                        // Top level parent group does not exist so create empty
-                        // top level group
-                        parentGroup = new CommandGroupMetadata(groups[i], "", false,
-                                Collections.<OptionMetadata> emptyList(),
-                                Collections.<CommandGroupMetadata> emptyList(), null,
-                                Collections.<CommandMetadata> emptyList());
-                        commandGroups.add(parentGroup);
-                    }
-                } else {
-                    // Should be a sub-group of the current parent
-                    CommandGroupMetadata nextParent = CollectionUtils.find(parentGroup.getSubGroups(),
-                            new GroupFinder(groups[i]));
-                    if (nextParent == null) {
-                        // Next parent group does not exist so create empty
-                        // group
-                        nextParent = new CommandGroupMetadata(groups[i], "", false,
-                                Collections.<OptionMetadata> emptyList(),
-                                Collections.<CommandGroupMetadata> emptyList(), null,
-                                Collections.<CommandMetadata> emptyList());
-                    }
-                    parentGroup.addSubGroup(nextParent);
-                    nextParent.setParent(parentGroup);
-                    parentGroup = nextParent;
-                }
-            }
-            if (parentGroup == null)
-                throw new IllegalStateException("Failed to resolve sub-group path");
+        GroupIndex index = new GroupIndex(commandGroups);
+        Map<String, CommandGroupMetadata> normalized = new LinkedHashMap<String, CommandGroupMetadata>();
+        for (Map.Entry<String, CommandGroupMetadata> entry : subGroups.entrySet()) {
+            String path = GroupIndex.normalize(entry.getKey());
+            index.put(path, entry.getValue());
+            normalized.put(path, entry.getValue());
+        }
+        buildGroupsHierarchy(index, normalized);
+    }
+
+    private static void buildGroupsHierarchy(GroupIndex index, Map<String, CommandGroupMetadata> subGroups) {
+        // Every sub-group is already in the index so each only needs linking
+        // to its parent, creating empty intermediate groups as necessary
+        for (Map.Entry<String, CommandGroupMetadata> entry : subGroups.entrySet()) {
+            CommandGroupMetadata subGroup = entry.getValue();
+            CommandGroupMetadata parentGroup = index.resolve(GroupIndex.parentPath(entry.getKey()));
             parentGroup.addSubGroup(subGroup);
             subGroup.setParent(parentGroup);
         }
     }
 
-    private static class InjectionMetadata {
-        private List<OptionMetadata> globalOptions = new ArrayList<>();
-        private List<OptionMetadata> groupOptions = new ArrayList<>();
+    /**
+     * An index of groups by their space separated path e.g. {@code foo bar}
+     * for the sub-group {@code bar} of the top level group {@code foo}
+     */
+    private static final class GroupIndex {
+        private final List<CommandGroupMetadata> topLevel;
+        private final Map<String, CommandGroupMetadata> groups = new HashMap<>();
+
+        private GroupIndex(List<CommandGroupMetadata> topLevel) {
+            this.topLevel = topLevel;
+            for (CommandGroupMetadata group : topLevel) {
+                register(group.getName(), group);
+            }
+        }
+
+        private static String normalize(String path) {
+            if (!StringUtils.containsWhitespace(path))
+                return path;
+            return StringUtils.join(StringUtils.split(path), ' ');
+        }
+
+        private static boolean isTopLevel(String path) {
+            return path.indexOf(' ') < 0;
+        }
+
+        private static String parentPath(String path) {
+            return path.substring(0, path.lastIndexOf(' '));
+        }
+
+        private void register(String path, CommandGroupMetadata group) {
+            // Where several groups have the same path the first wins, as it
+            // would when searching for the group by name
+            if (this.groups.containsKey(path))
+                return;
+            this.groups.put(path, group);
+            for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+                register(path + ' ' + subGroup.getName(), subGroup);
+            }
+        }
+
+        private CommandGroupMetadata get(String path) {
+            return this.groups.get(path);
+        }
+
+        private void put(String path, CommandGroupMetadata group) {
+            this.groups.put(path, group);
+        }
+
+        private void addTopLevel(String path, CommandGroupMetadata group) {
+            this.topLevel.add(group);
+            this.groups.put(path, group);
+        }
+
+        /**
+         * Finds the group with the given path creating it, and any missing
+         * ancestors, as an empty group if it does not yet exist
+         */
+        private CommandGroupMetadata resolve(String path) {
+            CommandGroupMetadata group = this.groups.get(path);
+            if (group != null)
+                return group;
+
+            boolean topLevel = isTopLevel(path);
+            group = new CommandGroupMetadata(topLevel ? path : path.substring(path.lastIndexOf(' ') + 1), "", false,
+                    Collections.<OptionMetadata> emptyList(), Collections.<CommandGroupMetadata> emptyList(), null,
+                    Collections.<CommandMetadata> emptyList());
+            if (topLevel) {
+                addTopLevel(path, group);
+            } else {
+                CommandGroupMetadata parentGroup = resolve(parentPath(path));
+                this.groups.put(path, group);
+                parentGroup.addSubGroup(group);
+                group.setParent(parentGroup);
+            }
+            return group;
+        }
+    }
+
+    static class InjectionMetadata {
+        List<OptionMetadata> globalOptions = new ArrayList<>();
+        List<OptionMetadata> groupOptions = new ArrayList<>();
         private List<OptionMetadata> commandOptions = new ArrayList<>();
         private OptionMetadata defaultOption = null;
         private List<ArgumentsMetadata> arguments = new ArrayList<>();
@@ -1134,7 +1307,7 @@ public class MetadataLoader {
             }
 
             if (arguments.size() > 1) {
-                arguments = ListUtils.unmodifiableList(Collections.singletonList(new ArgumentsMetadata(arguments)));
+                arguments = Collections.singletonList(new ArgumentsMetadata(arguments));
             }
         }
     }
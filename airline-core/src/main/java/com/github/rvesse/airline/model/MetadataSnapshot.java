@@ -0,0 +1,367 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.github.rvesse.airline.annotations.Cli;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * A snapshot of the fully loaded meta-data for a CLI or single command
+ * <p>
+ * A snapshot is a compact binary form of the meta-data that
+ * {@link MetadataLoader} would otherwise build by scanning the annotations on
+ * the classes involved. Snapshots are normally produced at build time, e.g. by
+ * the Airline Maven plugin's {@code airline:snapshot} goal, and embedded in the
+ * application as the classpath resource given by
+ * {@link #getResourceName(Class)}. They are loaded via
+ * {@link MetadataLoader#loadSnapshot(Class)} and its overloads.
+ * </p>
+ * <p>
+ * Each snapshot records a fingerprint of the classes it was created from,
+ * when a snapshot is read these are compared against the classes currently
+ * available and the snapshot is rejected if any have changed since it was
+ * written. Restrictions, help sections and parser configuration are stored as
+ * the annotations they were declared with and recreated from these when the
+ * snapshot is read, so a snapshot can only be written for meta-data loaded
+ * purely from annotations.
+ * </p>
+ */
+public final class MetadataSnapshot {
+
+    /**
+     * Prefix for the classpath resources that contain snapshots
+     */
+    public static final String RESOURCE_PREFIX = "META-INF/airline/";
+    /**
+     * Suffix for the classpath resources that contain snapshots
+     */
+    public static final String RESOURCE_SUFFIX = ".snapshot";
+
+    static final int MAGIC = 0x41524C53;
+    static final int VERSION = 1;
+
+    static final byte KIND_GLOBAL = 1, KIND_COMMAND = 2;
+    static final byte RESTRICTION_ANNOTATION = 1, RESTRICTION_PARTIAL = 2, RESTRICTION_CLASS = 3;
+
+    private final Class<?> sourceClass;
+    private final GlobalMetadata<?> global;
+    private final CommandMetadata command;
+    private final ParserMetadata<?> parserConfig;
+    private final List<GlobalRestriction> restrictions;
+
+    private MetadataSnapshot(Class<?> sourceClass, GlobalMetadata<?> global, CommandMetadata command,
+            ParserMetadata<?> parserConfig, List<GlobalRestriction> restrictions) {
+        this.sourceClass = sourceClass;
+        this.global = global;
+        this.command = command;
+        this.parserConfig = parserConfig;
+        this.restrictions = AirlineUtils.unmodifiableListCopy(restrictions);
+    }
+
+    /**
+     * Gets the name of the classpath resource that holds the snapshot for a
+     * class
+     * 
+     * @param cls
+     *            {@code @Cli} or {@code @Command} annotated class
+     * @return Resource name
+     */
+    public static String getResourceName(Class<?> cls) {
+        return getResourceName(cls.getName());
+    }
+
+    /**
+     * Gets the name of the classpath resource that holds the snapshot for a
+     * class
+     * 
+     * @param className
+     *            Name of a {@code @Cli} or {@code @Command} annotated class
+     * @return Resource name
+     */
+    public static String getResourceName(String className) {
+        return RESOURCE_PREFIX + className + RESOURCE_SUFFIX;
+    }
+
+    /**
+     * Writes a snapshot
+     * 
+     * @param cls
+     *            {@code @Cli} or {@code @Command} annotated class
+     * @param output
+     *            Stream to write to
+     * @throws IOException
+     *             Thrown if the snapshot cannot be written
+     * @throws IllegalStateException
+     *             Thrown if the meta-data includes something that cannot be
+     *             included in a snapshot
+     */
+    public static void write(Class<?> cls, OutputStream output) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        SnapshotRecorder recorder = SnapshotRecorder.start();
+        SnapshotWriter writer = new SnapshotWriter(recorder, new DataOutputStream(body));
+        try {
+            // Must write while still recording since writing the meta-data
+            // may cause lazily loaded commands to be loaded
+            if (cls.isAnnotationPresent(Cli.class)) {
+                body.write(KIND_GLOBAL);
+                GlobalMetadata<?> global = MetadataLoader.loadGlobal(cls);
+                writer.writeParser(global.getParserConfiguration());
+                writer.writeGlobal(global);
+            } else {
+                body.write(KIND_COMMAND);
+                writer.writeParser(MetadataLoader.loadParser(cls));
+                writer.writeCommand(MetadataLoader.loadCommand(cls));
+
+                // Same restrictions as SingleCommand would use
+                List<GlobalRestriction> restrictions = new ArrayList<>();
+                for (Annotation annotation : cls.getAnnotations()) {
+                    GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(annotation);
+                    if (restriction != null)
+                        restrictions.add(SnapshotRecorder.record(restriction, annotation));
+                }
+                if (restrictions.isEmpty())
+                    restrictions.addAll(Arrays.asList(GlobalRestriction.DEFAULTS));
+                writer.writeRestrictions(restrictions);
+            }
+        } finally {
+            SnapshotRecorder.stop();
+        }
+
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeUTF(cls.getName());
+        data.writeInt(writer.getClasses().size() + 1);
+        data.writeUTF(cls.getName());
+        data.writeLong(fingerprint(cls.getName(), cls.getClassLoader()));
+        for (Class<?> dependency : writer.getClasses()) {
+            data.writeUTF(dependency.getName());
+            data.writeLong(fingerprint(dependency.getName(), dependency.getClassLoader()));
+        }
+        body.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * Writes a snapshot into a directory using the layout given by
+     * {@link #getResourceName(Class)}
+     * 
+     * @param cls
+     *            {@code @Cli} or {@code @Command} annotated class
+     * @param directory
+     *            Directory, typically a build output directory
+     * @return Snapshot file
+     * @throws IOException
+     *             Thrown if the snapshot cannot be written
+     */
+    public static File writeTo(Class<?> cls, File directory) throws IOException {
+        File file = new File(directory, getResourceName(cls).replace('/', File.separatorChar));
+        File parent = file.getParentFile();
+        if (!parent.exists() && !parent.mkdirs())
+            throw new IOException(String.format("Failed to create directory %s", parent.getAbsolutePath()));
+        try (OutputStream output = new FileOutputStream(file)) {
+            write(cls, output);
+        }
+        return file;
+    }
+
+    /**
+     * Reads a snapshot
+     * 
+     * @param input
+     *            Stream to read from
+     * @param classLoader
+     *            Class loader used to find the classes the snapshot refers to
+     * @param validate
+     *            Whether to validate the class fingerprints
+     * @return Snapshot
+     * @throws IOException
+     *             Thrown if the snapshot is malformed or is of an unsupported
+     *             version
+     * @throws IllegalStateException
+     *             Thrown if validation is enabled and the classes have changed
+     *             since the snapshot was written
+     */
+    static MetadataSnapshot read(InputStream input, ClassLoader classLoader, boolean validate) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not an Airline metadata snapshot");
+        int version = data.readUnsignedShort();
+        if (version != VERSION)
+            throw new IOException(String.format("Unsupported snapshot version %d, only version %d is supported",
+                    version, VERSION));
+        String sourceClassName = data.readUTF();
+
+        int classes = data.readInt();
+        for (int i = 0; i < classes; i++) {
+            String className = data.readUTF();
+            long expected = data.readLong();
+            if (validate && fingerprint(className, classLoader) != expected)
+                throw new IllegalStateException(String.format(
+                        "Snapshot for %s is stale, class %s has changed since it was written", sourceClassName,
+                        className));
+        }
+
+        Class<?> sourceClass;
+        try {
+            sourceClass = Class.forName(sourceClassName, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(String.format("Class %s no longer exists", sourceClassName), e);
+        }
+
+        SnapshotReader reader = new SnapshotReader(readBody(data), classLoader);
+        try {
+            int kind = reader.readKind();
+            ParserMetadata<Object> parserConfig = reader.readParser();
+            switch (kind) {
+            case KIND_GLOBAL:
+                GlobalMetadata<Object> global = reader.readGlobal(parserConfig);
+                return new MetadataSnapshot(sourceClass, global, null, parserConfig, global.getRestrictions());
+            case KIND_COMMAND:
+                CommandMetadata command = reader.readCommand();
+                return new MetadataSnapshot(sourceClass, null, command, parserConfig, reader.readRestrictions());
+            default:
+                throw new IOException(String.format("Unknown snapshot kind %d", kind));
+            }
+        } catch (IllegalArgumentException | ClassCastException | IndexOutOfBoundsException | ArrayStoreException
+                | NullPointerException e) {
+            // Values in a malformed snapshot that are of the wrong type, or
+            // refer to things that don't exist, surface as these
+            throw new IOException(String.format("Malformed snapshot for %s", sourceClassName), e);
+        }
+    }
+
+    private static byte[] readBody(InputStream input) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) >= 0) {
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * Calculates the fingerprint of a class from its class file
+     * 
+     * @param className
+     *            Class name
+     * @param classLoader
+     *            Class loader to find the class file with
+     * @return Fingerprint, {@code 0} if the class file is not available
+     * @throws IOException
+     *             Thrown if the class file cannot be read
+     */
+    static long fingerprint(String className, ClassLoader classLoader) throws IOException {
+        String resource = className.replace('.', '/') + ".class";
+        try (InputStream input = classLoader != null ? classLoader.getResourceAsStream(resource)
+                : ClassLoader.getSystemResourceAsStream(resource)) {
+            if (input == null)
+                return 0;
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                crc.update(buffer, 0, read);
+            }
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * Gets the class the snapshot was written for
+     * 
+     * @return Source class
+     */
+    public Class<?> getSourceClass() {
+        return sourceClass;
+    }
+
+    /**
+     * Gets whether this is a snapshot of a CLI
+     * 
+     * @return True if a CLI snapshot, false otherwise
+     */
+    public boolean isGlobal() {
+        return global != null;
+    }
+
+    /**
+     * Gets whether this is a snapshot of a single command
+     * 
+     * @return True if a command snapshot, false otherwise
+     */
+    public boolean isCommand() {
+        return command != null;
+    }
+
+    /**
+     * Gets the CLI meta-data
+     * 
+     * @return CLI meta-data, {@code null} if this is a command snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public <C> GlobalMetadata<C> getGlobal() {
+        return (GlobalMetadata<C>) global;
+    }
+
+    /**
+     * Gets the command meta-data
+     * 
+     * @return Command meta-data, {@code null} if this is a CLI snapshot
+     */
+    public CommandMetadata getCommand() {
+        return command;
+    }
+
+    /**
+     * Gets the global restrictions
+     * 
+     * @return Global restrictions, for a command snapshot these are the
+     *         restrictions that {@link com.github.rvesse.airline.SingleCommand}
+     *         would apply
+     */
+    public List<GlobalRestriction> getRestrictions() {
+        return restrictions;
+    }
+
+    /**
+     * Gets the parser configuration
+     * 
+     * @return Parser configuration
+     */
+    @SuppressWarnings("unchecked")
+    public <C> ParserMetadata<C> getParserConfiguration() {
+        return (ParserMetadata<C>) parserConfig;
+    }
+}
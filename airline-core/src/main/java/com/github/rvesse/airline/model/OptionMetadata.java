@@ -21,6 +21,7 @@ import com.github.rvesse.airline.restrictions.OptionRestriction;
 import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.CompactCollections;
 import com.github.rvesse.airline.utils.predicates.restrictions.IsRequiredOptionFinder;
 
 import java.lang.reflect.Field;
@@ -30,7 +31,6 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.SetUtils;
 
 public class OptionMetadata {
     private final OptionType optionType;
@@ -77,10 +77,10 @@ public class OptionMetadata {
         this.sealed = sealed;
         this.restrictions = restrictions != null ? AirlineUtils.unmodifiableListCopy(restrictions)
                 : Collections.<OptionRestriction> emptyList();
-        this.provider = typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider();
+        this.provider = typeConverterProvider != null ? typeConverterProvider : DefaultTypeConverterProvider.INSTANCE;
 
         if (path != null) {
-            this.accessors = SetUtils.unmodifiableSet(Collections.singleton(new Accessor(path)));
+            this.accessors = Collections.singleton(new Accessor(path));
         }
     }
 
@@ -111,7 +111,7 @@ public class OptionMetadata {
 
             accessors.addAll(other.getAccessors());
         }
-        this.accessors = SetUtils.unmodifiableSet(accessors);
+        this.accessors = CompactCollections.setCopy(accessors);
     }
 
     public OptionType getOptionType() {
@@ -353,7 +353,7 @@ public class OptionMetadata {
         // parsed value propagates to all classes in the hierarchy
         Set<Accessor> accessors = new LinkedHashSet<>(child.accessors);
         accessors.addAll(parent.accessors);
-        merged.accessors = AirlineUtils.unmodifiableSetCopy(accessors);
+        merged.accessors = CompactCollections.setCopy(accessors);
         return merged;
     }
 }
@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.model;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -39,6 +40,12 @@ public class ParserMetadata<T> {
      */
     public static final String DEFAULT_ARGUMENTS_SEPARATOR = "--";
 
+    /**
+     * Default number of values at or above which deferred values are converted
+     * and validated in parallel when parallel validation is enabled
+     */
+    public static final int DEFAULT_PARALLEL_VALIDATION_THRESHOLD = 1000;
+
     private final boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain;
     private final List<OptionParser<T>> optionParsers;
     private final List<AliasMetadata> aliases;
@@ -48,12 +55,26 @@ public class ParserMetadata<T> {
     private final String argsSeparator, flagNegationPrefix;
     private final ParserErrorHandler errorHandler;
     private final char forceBuiltInPrefix;
+    private final int parallelValidationThreshold;
+    private final boolean lightweightErrors;
+    private final ForkJoinPool parallelValidationPool;
 
     public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
             TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
             boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
             boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, char forceBuiltInPrefix,
             String argumentsSeparator, String flagNegationPrefix) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns, aliasesMayChain,
+                forceBuiltInPrefix, argumentsSeparator, flagNegationPrefix, -1, null, false);
+    }
+
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, char forceBuiltInPrefix,
+            String argumentsSeparator, String flagNegationPrefix, int parallelValidationThreshold,
+            ForkJoinPool parallelValidationPool, boolean lightweightErrors) {
         if (optionParsers == null)
             throw new NullPointerException("optionParsers cannot be null");
         if (aliases == null)
@@ -89,6 +110,13 @@ public class ParserMetadata<T> {
         // Flag negation
         this.flagNegationPrefix = StringUtils.isNotEmpty(flagNegationPrefix) ? flagNegationPrefix : null;
 
+        // Parallel validation, negative values disable it
+        this.parallelValidationThreshold = parallelValidationThreshold;
+        this.parallelValidationPool = parallelValidationPool;
+
+        // Errors
+        this.lightweightErrors = lightweightErrors;
+
     }
 
     /**
@@ -220,6 +248,54 @@ public class ParserMetadata<T> {
         return this.flagNegationPrefix;
     }
 
+    /**
+     * Gets whether parallel validation is in use
+     * <p>
+     * When in use the conversion and validation of the values of multi-valued
+     * options and arguments is deferred until parsing has finished at which
+     * point they may be converted and validated in parallel.
+     * </p>
+     * 
+     * @return True if parallel validation is used, false otherwise
+     */
+    public boolean usesParallelValidation() {
+        return this.parallelValidationThreshold >= 0;
+    }
+
+    /**
+     * Gets the minimum number of deferred values for which validation happens
+     * in parallel, if there are fewer values they are converted and validated
+     * on the parsing thread
+     * 
+     * @return Parallel validation threshold, negative if parallel validation
+     *         is not used
+     */
+    public int getParallelValidationThreshold() {
+        return this.parallelValidationThreshold;
+    }
+
+    /**
+     * Gets the pool used for parallel validation
+     * 
+     * @return Pool, {@code null} if a pool shared by all parsers is used
+     */
+    public ForkJoinPool getParallelValidationPool() {
+        return this.parallelValidationPool;
+    }
+
+    /**
+     * Gets whether lightweight errors are used
+     * <p>
+     * When used any parse errors created while parsing do not capture stack
+     * traces, see {@link com.github.rvesse.airline.parser.errors.LightweightErrors}
+     * </p>
+     * 
+     * @return True if lightweight errors are used, false otherwise
+     */
+    public boolean usesLightweightErrors() {
+        return this.lightweightErrors;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -233,6 +309,8 @@ public class ParserMetadata<T> {
         sb.append(", aliasesOverrideBuiltIns=").append(aliasesOverrideBuiltIns);
         sb.append(", argumentsSeparator='").append(argsSeparator).append("'");
         sb.append(", flagNegationPrefix='").append(flagNegationPrefix).append("'");
+        sb.append(", parallelValidationThreshold=").append(parallelValidationThreshold);
+        sb.append(", lightweightErrors=").append(lightweightErrors);
         sb.append("}");
         return sb.toString();
     }
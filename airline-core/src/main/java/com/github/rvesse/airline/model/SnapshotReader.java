@@ -0,0 +1,495 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.Parser;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.help.sections.factories.HelpSectionRegistry;
+import com.github.rvesse.airline.parser.ParserUtil;
+import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.common.PartialRestriction;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+import com.github.rvesse.airline.types.TypeConverterProvider;
+
+/**
+ * Reads the body of a {@link MetadataSnapshot} as written by
+ * {@link SnapshotWriter}
+ */
+final class SnapshotReader {
+
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        for (Class<?> cls : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class, void.class }) {
+            PRIMITIVES.put(cls.getName(), cls);
+        }
+    }
+
+    private final ByteArrayInputStream bytes;
+    private final DataInputStream input;
+    private final ClassLoader classLoader;
+    private final List<String> strings = new ArrayList<>();
+    private final List<Object> objects = new ArrayList<>();
+
+    /**
+     * Creates a new reader
+     * <p>
+     * The body is read fully into memory first so that sizes read from it can
+     * be checked against the amount of input remaining before anything is
+     * allocated for them.
+     * </p>
+     * 
+     * @param body
+     *            Snapshot body
+     * @param classLoader
+     *            Class loader used to find the classes the snapshot refers to
+     */
+    SnapshotReader(byte[] body, ClassLoader classLoader) {
+        this.bytes = new ByteArrayInputStream(body);
+        this.input = new DataInputStream(this.bytes);
+        this.classLoader = classLoader;
+    }
+
+    int readKind() throws IOException {
+        return this.input.readByte();
+    }
+
+    <C> GlobalMetadata<C> readGlobal(ParserMetadata<C> parserConfig) throws IOException {
+        String name = readString();
+        String description = readString();
+        List<OptionMetadata> options = readOptions();
+        CommandMetadata defaultCommand = readCommand();
+        List<CommandMetadata> defaultGroupCommands = readCommands();
+        int size = readSize();
+        List<CommandGroupMetadata> groups = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            groups.add(readGroup());
+        }
+        List<GlobalRestriction> restrictions = readRestrictions();
+        List<HelpSection> baseHelpSections = readHelpSections();
+
+        return new GlobalMetadata<C>(name, description, options, defaultCommand, defaultGroupCommands, groups,
+                restrictions, baseHelpSections, parserConfig);
+    }
+
+    List<GlobalRestriction> readRestrictions() throws IOException {
+        int size = readSize();
+        List<GlobalRestriction> restrictions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            restrictions.add((GlobalRestriction) readRestriction(GlobalRestriction.class));
+        }
+        return restrictions;
+    }
+
+    <C> ParserMetadata<C> readParser() throws IOException {
+        if (!this.input.readBoolean())
+            return ParserBuilder.<C> defaultConfiguration();
+        return MetadataLoader.<C> loadParser(readAnnotation(Parser.class));
+    }
+
+    CommandMetadata readCommand() throws IOException {
+        int reference = readVarInt();
+        if (reference != 1)
+            return resolve(reference, CommandMetadata.class);
+
+        String name = readString();
+        String description = readString();
+        boolean hidden = this.input.readBoolean();
+        List<OptionMetadata> globalOptions = readOptions();
+        List<OptionMetadata> groupOptions = readOptions();
+        List<OptionMetadata> commandOptions = readOptions();
+        OptionMetadata defaultOption = readOption();
+        ArgumentsMetadata arguments = readArguments();
+        int size = readSize();
+        List<Accessor> metadataInjections = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            metadataInjections.add(new Accessor(readPath()));
+        }
+        Class<?> type = readClass();
+        List<String> groupNames = readStrings();
+        size = readSize();
+        List<Group> groups = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            groups.add(readAnnotation(Group.class));
+        }
+        List<HelpSection> sections = readHelpSections();
+
+        //@formatter:off
+        return define(new CommandMetadata(name, 
+                                          description, 
+                                          hidden, 
+                                          globalOptions, 
+                                          groupOptions, 
+                                          commandOptions, 
+                                          defaultOption, 
+                                          arguments, 
+                                          metadataInjections, 
+                                          type, 
+                                          groupNames, 
+                                          groups, 
+                                          sections));
+        //@formatter:on
+    }
+
+    private List<CommandMetadata> readCommands() throws IOException {
+        int size = readSize();
+        List<CommandMetadata> commands = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            commands.add(readCommand());
+        }
+        return commands;
+    }
+
+    private CommandGroupMetadata readGroup() throws IOException {
+        String name = readString();
+        String description = readString();
+        boolean hidden = this.input.readBoolean();
+        List<OptionMetadata> options = readOptions();
+        CommandMetadata defaultCommand = readCommand();
+        List<CommandMetadata> commands = readCommands();
+        int size = readSize();
+        List<CommandGroupMetadata> subGroups = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            subGroups.add(readGroup());
+        }
+
+        CommandGroupMetadata group = new CommandGroupMetadata(name, description, hidden, options, subGroups,
+                defaultCommand, commands);
+        for (CommandGroupMetadata subGroup : subGroups) {
+            subGroup.setParent(group);
+        }
+        return group;
+    }
+
+    private List<OptionMetadata> readOptions() throws IOException {
+        int size = readSize();
+        List<OptionMetadata> options = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            options.add(readOption());
+        }
+        return options;
+    }
+
+    private OptionMetadata readOption() throws IOException {
+        int reference = readVarInt();
+        if (reference != 1)
+            return resolve(reference, OptionMetadata.class);
+
+        OptionType optionType = OptionType.valueOf(readString());
+        List<String> names = readStrings();
+        List<String> titles = readStrings();
+        String description = readString();
+        int arity = this.input.readInt();
+        boolean hidden = this.input.readBoolean();
+        boolean overrides = this.input.readBoolean();
+        boolean sealed = this.input.readBoolean();
+        int size = readSize();
+        List<OptionRestriction> restrictions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            restrictions.add((OptionRestriction) readRestriction(OptionRestriction.class));
+        }
+        TypeConverterProvider provider = readTypeConverterProvider();
+
+        // Options with several accessors are the merge of one option per
+        // accessor
+        size = readSize();
+        List<OptionMetadata> options = new ArrayList<>(Math.max(size, 1));
+        for (int i = 0; i < Math.max(size, 1); i++) {
+            //@formatter:off
+            options.add(new OptionMetadata(optionType, 
+                                           names, 
+                                           titles, 
+                                           description, 
+                                           arity, 
+                                           hidden, 
+                                           overrides, 
+                                           sealed, 
+                                           restrictions, 
+                                           provider, 
+                                           size > 0 ? readPath() : null));
+            //@formatter:on
+        }
+        return define(options.size() == 1 ? options.get(0) : new OptionMetadata(options));
+    }
+
+    private ArgumentsMetadata readArguments() throws IOException {
+        int reference = readVarInt();
+        if (reference != 1)
+            return resolve(reference, ArgumentsMetadata.class);
+
+        List<String> titles = readStrings();
+        String description = readString();
+        int size = readSize();
+        List<ArgumentsRestriction> restrictions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            restrictions.add((ArgumentsRestriction) readRestriction(ArgumentsRestriction.class));
+        }
+        TypeConverterProvider provider = readTypeConverterProvider();
+
+        size = readSize();
+        List<ArgumentsMetadata> arguments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            arguments.add(new ArgumentsMetadata(titles, description, restrictions, provider, readPath()));
+        }
+        return define(arguments.size() == 1 ? arguments.get(0) : new ArgumentsMetadata(arguments));
+    }
+
+    private List<Field> readPath() throws IOException {
+        int size = readSize();
+        List<Field> path = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Class<?> declaringClass = readClass();
+            String name = readString();
+            try {
+                path.add(declaringClass.getDeclaredField(name));
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(
+                        String.format("Field %s no longer exists on class %s", name, declaringClass.getName()), e);
+            }
+        }
+        return path;
+    }
+
+    private TypeConverterProvider readTypeConverterProvider() throws IOException {
+        return MetadataLoader.loadTypeConverterProvider(loadClass(readString()).asSubclass(TypeConverterProvider.class));
+    }
+
+    private Object readRestriction(Class<?> kind) throws IOException {
+        int reference = readVarInt();
+        if (reference != 1)
+            return resolve(reference, kind);
+
+        Object restriction;
+        int type = this.input.readByte();
+        switch (type) {
+        case MetadataSnapshot.RESTRICTION_ANNOTATION:
+            Annotation annotation = readAnnotation(Annotation.class);
+            if (OptionRestriction.class.equals(kind)) {
+                restriction = RestrictionRegistry.getOptionRestriction(annotation);
+            } else if (ArgumentsRestriction.class.equals(kind)) {
+                restriction = RestrictionRegistry.getArgumentsRestriction(annotation);
+            } else {
+                restriction = RestrictionRegistry.getGlobalRestriction(annotation);
+            }
+            if (restriction == null)
+                throw new IllegalStateException(
+                        String.format("No restriction is registered for annotation %s", annotation.annotationType()));
+            break;
+        case MetadataSnapshot.RESTRICTION_PARTIAL:
+            int size = readSize();
+            Set<Integer> indices = new LinkedHashSet<>();
+            for (int i = 0; i < size; i++) {
+                indices.add(readVarInt());
+            }
+            Object inner = readRestriction(kind);
+            restriction = OptionRestriction.class.equals(kind)
+                    ? new PartialRestriction(indices, (OptionRestriction) inner)
+                    : new PartialRestriction(indices, (ArgumentsRestriction) inner);
+            break;
+        case MetadataSnapshot.RESTRICTION_CLASS:
+            restriction = ParserUtil.createInstance(loadClass(readString()));
+            break;
+        default:
+            throw new IOException(String.format("Unknown restriction type %d in snapshot", type));
+        }
+        return define(kind.cast(restriction));
+    }
+
+    private List<HelpSection> readHelpSections() throws IOException {
+        int size = readSize();
+        List<HelpSection> sections = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int reference = readVarInt();
+            if (reference != 1) {
+                sections.add(resolve(reference, HelpSection.class));
+                continue;
+            }
+            Annotation annotation = readAnnotation(Annotation.class);
+            HelpSection section = HelpSectionRegistry.getHelpSection(annotation);
+            if (section == null)
+                throw new IllegalStateException(String.format("No help section is registered for annotation %s",
+                        annotation.annotationType()));
+            sections.add(define(section));
+        }
+        return sections;
+    }
+
+    private <A extends Annotation> A readAnnotation(Class<A> expected) throws IOException {
+        Class<? extends Annotation> type = loadClass(readString()).asSubclass(Annotation.class);
+        Map<String, Method> members = new HashMap<>();
+        for (Method member : SyntheticAnnotation.getMembers(type)) {
+            members.put(member.getName(), member);
+        }
+
+        int size = readSize();
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String name = readString();
+            Method member = members.get(name);
+            Object value = readValue(member != null ? member.getReturnType() : Object.class);
+            // Members that no longer exist are ignored
+            if (member != null)
+                values.put(name, value);
+        }
+        return expected.cast(SyntheticAnnotation.create(type, values));
+    }
+
+    private Object readValue(Class<?> expected) throws IOException {
+        int tag = this.input.readByte();
+        switch (tag) {
+        case 'Z':
+            return this.input.readBoolean();
+        case 'B':
+            return this.input.readByte();
+        case 'C':
+            return this.input.readChar();
+        case 'S':
+            return this.input.readShort();
+        case 'I':
+            return this.input.readInt();
+        case 'J':
+            return this.input.readLong();
+        case 'F':
+            return this.input.readFloat();
+        case 'D':
+            return this.input.readDouble();
+        case 's':
+            return readString();
+        case 'c':
+            return loadClass(readString());
+        case 'e':
+            return readEnum(loadClass(readString()), readString());
+        case '@':
+            return readAnnotation(Annotation.class);
+        case '[':
+            Class<?> componentType = expected.isArray() ? expected.getComponentType() : Object.class;
+            int length = readSize();
+            Object array = Array.newInstance(componentType, length);
+            for (int i = 0; i < length; i++) {
+                Array.set(array, i, readValue(componentType));
+            }
+            return array;
+        default:
+            throw new IOException(String.format("Unknown annotation member value type %d in snapshot", tag));
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object readEnum(Class<?> cls, String name) {
+        return Enum.valueOf((Class<? extends Enum>) cls, name);
+    }
+
+    private Class<?> readClass() throws IOException {
+        return loadClass(readString());
+    }
+
+    private Class<?> loadClass(String name) {
+        Class<?> cls = PRIMITIVES.get(name);
+        if (cls != null)
+            return cls;
+        try {
+            return Class.forName(name, false, this.classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(String.format("Class %s used in snapshot no longer exists", name), e);
+        }
+    }
+
+    private List<String> readStrings() throws IOException {
+        int size = readSize();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    private String readString() throws IOException {
+        int index = readVarInt();
+        if (index == 0)
+            return null;
+        if (index < 0 || index > 1) {
+            if (index < 0 || index - 2 >= this.strings.size())
+                throw new IOException("Invalid string reference in snapshot");
+            return this.strings.get(index - 2);
+        }
+        byte[] data = new byte[readSize()];
+        this.input.readFully(data);
+        String value = new String(data, StandardCharsets.UTF_8);
+        this.strings.add(value);
+        return value;
+    }
+
+    private <T> T resolve(int reference, Class<T> type) throws IOException {
+        if (reference == 0)
+            return null;
+        if (reference < 0 || reference - 2 >= this.objects.size())
+            throw new IOException("Invalid object reference in snapshot");
+        Object value = this.objects.get(reference - 2);
+        if (!type.isInstance(value))
+            throw new IOException(String.format("Object reference in snapshot is not a %s", type.getSimpleName()));
+        return type.cast(value);
+    }
+
+    private <T> T define(T value) {
+        this.objects.add(value);
+        return value;
+    }
+
+    /**
+     * Reads the size of a collection, every element of which occupies at
+     * least one byte, so a malformed size is detected before it is used to
+     * allocate anything
+     */
+    private int readSize() throws IOException {
+        int size = readVarInt();
+        if (size < 0 || size > this.bytes.available())
+            throw new IOException(String.format("Invalid size %d in snapshot", size));
+        return size;
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = this.input.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed variable length integer in snapshot");
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Records where the objects created while loading meta-data came from so that
+ * a {@link MetadataSnapshot} can describe how to recreate them
+ * <p>
+ * Recording only happens on a thread that is currently writing a snapshot,
+ * at all other times {@link #record(Object, Annotation)} does nothing.
+ * </p>
+ */
+final class SnapshotRecorder {
+
+    private static final ThreadLocal<SnapshotRecorder> CURRENT = new ThreadLocal<>();
+
+    private final Map<Object, Object> sources = new IdentityHashMap<>();
+
+    /**
+     * Starts recording on the current thread
+     * 
+     * @return Recorder
+     */
+    static SnapshotRecorder start() {
+        SnapshotRecorder recorder = new SnapshotRecorder();
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    /**
+     * Stops recording on the current thread
+     */
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Records that an object was created from an annotation
+     * 
+     * @param instance
+     *            Instance, may be {@code null}
+     * @param annotation
+     *            Annotation the instance was created from
+     * @return Instance
+     */
+    static <T> T record(T instance, Annotation annotation) {
+        SnapshotRecorder recorder = CURRENT.get();
+        if (recorder != null && instance != null)
+            recorder.sources.put(instance, annotation);
+        return instance;
+    }
+
+    /**
+     * Records that a restriction only applies to some values
+     * 
+     * @param instance
+     *            Partial restriction
+     * @param indices
+     *            Indices the restriction applies to
+     * @param restriction
+     *            Restriction that was made partial
+     * @return Instance
+     */
+    static <T> T recordPartial(T instance, Collection<Integer> indices, Object restriction) {
+        SnapshotRecorder recorder = CURRENT.get();
+        if (recorder != null)
+            recorder.sources.put(instance, new Partial(indices, restriction));
+        return instance;
+    }
+
+    /**
+     * Gets the source of an object
+     * 
+     * @param instance
+     *            Instance
+     * @return Either an {@link Annotation}, a {@link Partial} or {@code null}
+     *         if the source was not recorded
+     */
+    Object getSource(Object instance) {
+        return this.sources.get(instance);
+    }
+
+    /**
+     * Source of a partial restriction
+     */
+    static final class Partial {
+        final Collection<Integer> indices;
+        final Object restriction;
+
+        private Partial(Collection<Integer> indices, Object restriction) {
+            this.indices = indices;
+            this.restriction = restriction;
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
+import com.github.rvesse.airline.types.TypeConverterProvider;
+
+/**
+ * Writes the body of a {@link MetadataSnapshot}
+ * <p>
+ * Strings are written once and referred to by index thereafter, the same
+ * applies to the meta-data objects themselves so that shared instances e.g.
+ * commands that appear in several groups are shared again when the snapshot is
+ * read. Restrictions, help sections and parser configuration are written as
+ * the annotations they were created from so that they are recreated via the
+ * relevant registries when read.
+ * </p>
+ */
+final class SnapshotWriter {
+
+    private final SnapshotRecorder recorder;
+    private final DataOutputStream output;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Map<Object, Integer> objects = new IdentityHashMap<>();
+    private final Set<Class<?>> classes = new LinkedHashSet<>();
+
+    SnapshotWriter(SnapshotRecorder recorder, DataOutputStream output) {
+        this.recorder = recorder;
+        this.output = output;
+    }
+
+    /**
+     * Gets the classes the snapshot depends upon, these are the classes that
+     * are fingerprinted
+     * 
+     * @return Classes
+     */
+    Set<Class<?>> getClasses() {
+        return this.classes;
+    }
+
+    void writeGlobal(GlobalMetadata<?> global) throws IOException {
+        writeString(global.getName());
+        writeString(global.getDescription());
+        writeOptions(global.getOptions());
+        writeCommand(global.getDefaultCommand());
+        writeCommands(global.getDefaultGroupCommands());
+        writeVarInt(global.getCommandGroups().size());
+        for (CommandGroupMetadata group : global.getCommandGroups()) {
+            writeGroup(group);
+        }
+        writeRestrictions(global.getRestrictions());
+        writeHelpSections(global.getBaseHelpSections());
+    }
+
+    void writeRestrictions(Collection<GlobalRestriction> restrictions) throws IOException {
+        writeVarInt(restrictions.size());
+        for (GlobalRestriction restriction : restrictions) {
+            writeRestriction(restriction, true);
+        }
+    }
+
+    void writeParser(ParserMetadata<?> parserConfig) throws IOException {
+        Object source = this.recorder.getSource(parserConfig);
+        if (source instanceof Annotation) {
+            this.output.writeBoolean(true);
+            writeAnnotation((Annotation) source);
+        } else {
+            // Not configured via annotation so must be the defaults
+            this.output.writeBoolean(false);
+        }
+    }
+
+    void writeCommand(CommandMetadata command) throws IOException {
+        if (writeReference(command))
+            return;
+
+        writeString(command.getName());
+        writeString(command.getDescription());
+        this.output.writeBoolean(command.isHidden());
+        writeOptions(command.getGlobalOptions());
+        writeOptions(command.getGroupOptions());
+        writeOptions(command.getCommandOptions());
+        writeOption(command.getDefaultOption());
+        writeArguments(command.getArguments());
+        writeVarInt(command.getMetadataInjections().size());
+        for (Accessor accessor : command.getMetadataInjections()) {
+            writeAccessor(accessor);
+        }
+        writeClass(command.getType());
+        writeStrings(command.getGroupNames());
+        writeVarInt(command.getGroups().size());
+        for (Group group : command.getGroups()) {
+            writeAnnotation(group);
+        }
+        writeHelpSections(command.getHelpSections());
+
+        define(command);
+    }
+
+    private void writeCommands(Collection<CommandMetadata> commands) throws IOException {
+        writeVarInt(commands.size());
+        for (CommandMetadata command : commands) {
+            writeCommand(command);
+        }
+    }
+
+    private void writeGroup(CommandGroupMetadata group) throws IOException {
+        writeString(group.getName());
+        writeString(group.getDescription());
+        this.output.writeBoolean(group.isHidden());
+        writeOptions(group.getOptions());
+        writeCommand(group.getDefaultCommand());
+        writeCommands(group.getCommands());
+        writeVarInt(group.getSubGroups().size());
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            writeGroup(subGroup);
+        }
+    }
+
+    private void writeOptions(Collection<OptionMetadata> options) throws IOException {
+        writeVarInt(options.size());
+        for (OptionMetadata option : options) {
+            writeOption(option);
+        }
+    }
+
+    private void writeOption(OptionMetadata option) throws IOException {
+        if (writeReference(option))
+            return;
+
+        writeString(option.getOptionType().name());
+        writeStrings(option.getOptions());
+        writeStrings(option.getTitles());
+        writeString(option.getDescription());
+        this.output.writeInt(option.getArity());
+        this.output.writeBoolean(option.isHidden());
+        this.output.writeBoolean(option.isOverride());
+        this.output.writeBoolean(option.isSealed());
+        writeVarInt(option.getRestrictions().size());
+        for (Object restriction : option.getRestrictions()) {
+            writeRestriction(restriction, false);
+        }
+        writeTypeConverterProvider(option.getTypeConverterProvider());
+        writeAccessors(option.getAccessors());
+
+        define(option);
+    }
+
+    private void writeArguments(ArgumentsMetadata arguments) throws IOException {
+        if (writeReference(arguments))
+            return;
+
+        writeStrings(arguments.getTitle());
+        writeString(arguments.getDescription());
+        writeVarInt(arguments.getRestrictions().size());
+        for (Object restriction : arguments.getRestrictions()) {
+            writeRestriction(restriction, false);
+        }
+        writeTypeConverterProvider(arguments.getTypeConverterProvider());
+        writeAccessors(arguments.getAccessors());
+
+        define(arguments);
+    }
+
+    private void writeAccessors(Set<Accessor> accessors) throws IOException {
+        if (accessors == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(accessors.size());
+        for (Accessor accessor : accessors) {
+            writeAccessor(accessor);
+        }
+    }
+
+    private void writeAccessor(Accessor accessor) throws IOException {
+        List<Field> path = accessor.getPath();
+        writeVarInt(path.size());
+        for (Field field : path) {
+            writeClass(field.getDeclaringClass());
+            writeString(field.getName());
+        }
+    }
+
+    private void writeTypeConverterProvider(TypeConverterProvider provider) throws IOException {
+        writeString(provider.getClass().getName());
+    }
+
+    private void writeRestriction(Object restriction, boolean global) throws IOException {
+        if (writeReference(restriction))
+            return;
+
+        Object source = this.recorder.getSource(restriction);
+        if (source instanceof Annotation) {
+            this.output.writeByte(MetadataSnapshot.RESTRICTION_ANNOTATION);
+            writeAnnotation((Annotation) source);
+        } else if (source instanceof SnapshotRecorder.Partial) {
+            SnapshotRecorder.Partial partial = (SnapshotRecorder.Partial) source;
+            this.output.writeByte(MetadataSnapshot.RESTRICTION_PARTIAL);
+            writeVarInt(partial.indices.size());
+            for (Integer index : partial.indices) {
+                writeVarInt(index);
+            }
+            writeRestriction(partial.restriction, global);
+        } else if (global) {
+            // Global restrictions given via the @Cli annotation or the
+            // defaults are created from their class
+            this.output.writeByte(MetadataSnapshot.RESTRICTION_CLASS);
+            writeString(restriction.getClass().getName());
+        } else {
+            throw new IllegalStateException(String.format(
+                    "Restriction %s was not created from an annotation so cannot be included in a snapshot",
+                    restriction));
+        }
+
+        define(restriction);
+    }
+
+    private void writeHelpSections(Collection<HelpSection> sections) throws IOException {
+        writeVarInt(sections.size());
+        for (HelpSection section : sections) {
+            if (writeReference(section))
+                continue;
+
+            Object source = this.recorder.getSource(section);
+            if (!(source instanceof Annotation))
+                throw new IllegalStateException(String.format(
+                        "Help section %s was not created from an annotation so cannot be included in a snapshot",
+                        section.getTitle()));
+            writeAnnotation((Annotation) source);
+
+            define(section);
+        }
+    }
+
+    private void writeAnnotation(Annotation annotation) throws IOException {
+        Class<? extends Annotation> type = annotation.annotationType();
+        writeString(type.getName());
+        Method[] members = SyntheticAnnotation.getMembers(type);
+        writeVarInt(members.length);
+        for (Method member : members) {
+            writeString(member.getName());
+            try {
+                member.setAccessible(true);
+                writeValue(member.invoke(annotation));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(
+                        String.format("Failed to read member %s of annotation %s", member.getName(), type.getName()),
+                        e);
+            }
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value instanceof Boolean) {
+            this.output.writeByte('Z');
+            this.output.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            this.output.writeByte('B');
+            this.output.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            this.output.writeByte('C');
+            this.output.writeChar((Character) value);
+        } else if (value instanceof Short) {
+            this.output.writeByte('S');
+            this.output.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            this.output.writeByte('I');
+            this.output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            this.output.writeByte('J');
+            this.output.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            this.output.writeByte('F');
+            this.output.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            this.output.writeByte('D');
+            this.output.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            this.output.writeByte('s');
+            writeString((String) value);
+        } else if (value instanceof Class) {
+            this.output.writeByte('c');
+            writeString(((Class<?>) value).getName());
+        } else if (value instanceof Enum) {
+            this.output.writeByte('e');
+            writeString(((Enum<?>) value).getDeclaringClass().getName());
+            writeString(((Enum<?>) value).name());
+        } else if (value instanceof Annotation) {
+            this.output.writeByte('@');
+            writeAnnotation((Annotation) value);
+        } else if (value != null && value.getClass().isArray()) {
+            this.output.writeByte('[');
+            int length = Array.getLength(value);
+            writeVarInt(length);
+            for (int i = 0; i < length; i++) {
+                writeValue(Array.get(value, i));
+            }
+        } else {
+            throw new IllegalStateException(String.format("Unsupported annotation member value %s", value));
+        }
+    }
+
+    private void writeClass(Class<?> cls) throws IOException {
+        for (Class<?> c = cls; c != null && !Object.class.equals(c); c = c.getSuperclass()) {
+            this.classes.add(c);
+        }
+        writeString(cls.getName());
+    }
+
+    private void writeStrings(Collection<String> values) throws IOException {
+        writeVarInt(values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    /**
+     * Writes a string, {@code 0} is written for {@code null}, {@code 1} for a
+     * new string which then follows, otherwise the index of the previously
+     * written string plus {@code 2}
+     * 
+     * @param value
+     *            Value
+     * @throws IOException
+     *             Thrown if the value cannot be written
+     */
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = this.strings.get(value);
+        if (index != null) {
+            writeVarInt(index + 2);
+            return;
+        }
+        writeVarInt(1);
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(data.length);
+        this.output.write(data);
+        this.strings.put(value, this.strings.size());
+    }
+
+    /**
+     * Writes a reference to an object, {@code 0} is written for {@code null},
+     * {@code 1} if the object has not been written before in which case the
+     * caller must then write its definition followed by calling
+     * {@link #define(Object)}, otherwise the index of the previously written
+     * object plus {@code 2}
+     * 
+     * @param value
+     *            Value
+     * @return True if a reference was written and no definition is needed
+     * @throws IOException
+     *             Thrown if the reference cannot be written
+     */
+    private boolean writeReference(Object value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return true;
+        }
+        Integer index = this.objects.get(value);
+        if (index != null) {
+            writeVarInt(index + 2);
+            return true;
+        }
+        writeVarInt(1);
+        return false;
+    }
+
+    private void define(Object value) {
+        this.objects.put(value, this.objects.size());
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            this.output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.output.writeByte(value);
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An annotation instance recreated from the member values stored in a
+ * {@link MetadataSnapshot}
+ * <p>
+ * Instances follow the contract of {@link Annotation} for
+ * {@link Object#equals(Object)} and {@link Object#hashCode()} so they are
+ * interchangeable with the annotation instances obtained via reflection, in
+ * particular they may be given to the restriction and help section factories.
+ * </p>
+ */
+final class SyntheticAnnotation implements InvocationHandler {
+
+    private static final Comparator<Method> BY_NAME = new Comparator<Method>() {
+        @Override
+        public int compare(Method a, Method b) {
+            return a.getName().compareTo(b.getName());
+        }
+    };
+
+    private final Class<? extends Annotation> type;
+    private final Map<String, Object> values;
+
+    private SyntheticAnnotation(Class<? extends Annotation> type, Map<String, Object> values) {
+        this.type = type;
+        this.values = values;
+    }
+
+    /**
+     * Gets the members of an annotation type in a consistent order
+     * 
+     * @param type
+     *            Annotation type
+     * @return Members
+     */
+    static Method[] getMembers(Class<? extends Annotation> type) {
+        Method[] members = type.getDeclaredMethods();
+        Arrays.sort(members, BY_NAME);
+        return members;
+    }
+
+    /**
+     * Creates an annotation
+     * 
+     * @param type
+     *            Annotation type
+     * @param values
+     *            Member values, members that are not given take their default
+     *            values
+     * @return Annotation
+     */
+    static <A extends Annotation> A create(Class<A> type, Map<String, Object> values) {
+        Map<String, Object> members = new LinkedHashMap<>();
+        for (Method member : getMembers(type)) {
+            Object value = values.get(member.getName());
+            if (value == null)
+                value = member.getDefaultValue();
+            if (value == null)
+                throw new IllegalArgumentException(
+                        String.format("No value for member %s of annotation %s", member.getName(), type.getName()));
+            members.put(member.getName(), value);
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                new SyntheticAnnotation(type, members)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (args != null && args.length == 1 && "equals".equals(name)) {
+            return isEqual(args[0]);
+        } else if (args == null || args.length == 0) {
+            switch (name) {
+            case "hashCode":
+                return computeHashCode();
+            case "toString":
+                return computeToString();
+            case "annotationType":
+                return this.type;
+            default:
+                if (this.values.containsKey(name))
+                    return copy(this.values.get(name));
+            }
+        }
+        throw new UnsupportedOperationException(String.format("Unexpected method %s on annotation", method));
+    }
+
+    private boolean isEqual(Object other) throws IllegalAccessException, InvocationTargetException {
+        if (!this.type.isInstance(other))
+            return false;
+        for (Method member : getMembers(this.type)) {
+            // Annotation types need not be public
+            member.setAccessible(true);
+            if (!valueEquals(this.values.get(member.getName()), member.invoke(other)))
+                return false;
+        }
+        return true;
+    }
+
+    private int computeHashCode() {
+        int hash = 0;
+        for (Map.Entry<String, Object> member : this.values.entrySet()) {
+            hash += (127 * member.getKey().hashCode()) ^ valueHashCode(member.getValue());
+        }
+        return hash;
+    }
+
+    private String computeToString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append('@').append(this.type.getName()).append('(');
+        boolean first = true;
+        for (Map.Entry<String, Object> member : this.values.entrySet()) {
+            if (!first)
+                builder.append(", ");
+            first = false;
+            builder.append(member.getKey()).append('=');
+            Object value = member.getValue();
+            if (value.getClass().isArray()) {
+                builder.append('{');
+                for (int i = 0; i < Array.getLength(value); i++) {
+                    if (i > 0)
+                        builder.append(", ");
+                    builder.append(Array.get(value, i));
+                }
+                builder.append('}');
+            } else {
+                builder.append(value);
+            }
+        }
+        return builder.append(')').toString();
+    }
+
+    private static Object copy(Object value) {
+        if (!value.getClass().isArray())
+            return value;
+        int length = Array.getLength(value);
+        Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+        System.arraycopy(value, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static boolean valueEquals(Object a, Object b) {
+        if (!a.getClass().isArray())
+            return a.equals(b);
+        if (b == null || !b.getClass().isArray())
+            return false;
+        int length = Array.getLength(a);
+        if (length != Array.getLength(b))
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (!Array.get(a, i).equals(Array.get(b, i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static int valueHashCode(Object value) {
+        if (!value.getClass().isArray())
+            return value.hashCode();
+        // Same as the relevant Arrays.hashCode() method
+        int hash = 1;
+        for (int i = 0; i < Array.getLength(value); i++) {
+            hash = 31 * hash + Array.get(value, i).hashCode();
+        }
+        return hash;
+    }
+}
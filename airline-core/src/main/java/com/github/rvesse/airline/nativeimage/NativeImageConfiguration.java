@@ -0,0 +1,423 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.nativeimage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.ChannelFactory;
+import com.github.rvesse.airline.help.sections.factories.HelpSectionFactory;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.options.OptionParser;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
+import com.github.rvesse.airline.restrictions.factories.ArgumentsRestrictionFactory;
+import com.github.rvesse.airline.restrictions.factories.GlobalRestrictionFactory;
+import com.github.rvesse.airline.restrictions.factories.OptionRestrictionFactory;
+
+/**
+ * Builds the GraalVM native image configuration needed by Airline based CLIs
+ * <p>
+ * Airline relies upon reflection to read annotations, to inject parsed values
+ * into fields, to instantiate commands and parser components and to convert
+ * strings into option values. When compiling a CLI ahead of time all these
+ * reflective operations must be declared up front, this class derives the
+ * necessary declarations from the loaded metadata and writes them out as
+ * {@code reflect-config.json} and {@code resource-config.json} files. Service
+ * implementations discovered via {@link ServiceLoader} for the service
+ * interfaces that Airline uses are also declared so that they remain
+ * available, alternatively see {@link com.github.rvesse.airline.InstanceFactories}
+ * for avoiding service discovery altogether.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public class NativeImageConfiguration {
+
+    /**
+     * Name of the reflection configuration file
+     */
+    public static final String REFLECT_CONFIG = "reflect-config.json";
+    /**
+     * Name of the resources configuration file
+     */
+    public static final String RESOURCE_CONFIG = "resource-config.json";
+
+    /**
+     * Reflection access to all declared fields
+     */
+    public static final String ALL_DECLARED_FIELDS = "allDeclaredFields";
+    /**
+     * Reflection access to all declared constructors
+     */
+    public static final String ALL_DECLARED_CONSTRUCTORS = "allDeclaredConstructors";
+    /**
+     * Reflection access to all public constructors
+     */
+    public static final String ALL_PUBLIC_CONSTRUCTORS = "allPublicConstructors";
+    /**
+     * Reflection access to all public methods
+     */
+    public static final String ALL_PUBLIC_METHODS = "allPublicMethods";
+
+    private static final List<Class<?>> SERVICES = Collections.unmodifiableList(Arrays.<Class<?>> asList(
+            ChannelFactory.class, HelpSectionFactory.class, OptionRestrictionFactory.class,
+            ArgumentsRestrictionFactory.class, GlobalRestrictionFactory.class));
+
+    private final Map<String, Set<String>> reflection = new TreeMap<>();
+    private final Set<String> resources = new TreeSet<>();
+    private final Map<Object, Boolean> visited = new IdentityHashMap<>();
+
+    /**
+     * Adds the configuration needed for a CLI
+     * 
+     * @param global
+     *            CLI metadata
+     * @return Configuration
+     */
+    public NativeImageConfiguration addGlobal(GlobalMetadata<?> global) {
+        if (global == null || visited(global))
+            return this;
+
+        addParser(global.getParserConfiguration());
+        addOptions(global.getOptions());
+        for (GlobalRestriction restriction : global.getRestrictions()) {
+            addInstantiable(restriction.getClass());
+        }
+        addCommand(global.getDefaultCommand());
+        for (CommandMetadata command : global.getDefaultGroupCommands()) {
+            addCommand(command);
+        }
+        for (CommandGroupMetadata group : global.getCommandGroups()) {
+            addGroup(group);
+        }
+        return this;
+    }
+
+    private void addGroup(CommandGroupMetadata group) {
+        if (group == null || visited(group))
+            return;
+
+        addOptions(group.getOptions());
+        addCommand(group.getDefaultCommand());
+        for (CommandMetadata command : group.getCommands()) {
+            addCommand(command);
+        }
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            addGroup(subGroup);
+        }
+    }
+
+    /**
+     * Adds the configuration needed for a command
+     * 
+     * @param command
+     *            Command metadata
+     * @return Configuration
+     */
+    public NativeImageConfiguration addCommand(CommandMetadata command) {
+        if (command == null || visited(command))
+            return this;
+
+        // Commands are instantiated and have their annotations scanned
+        addTypeHierarchy(command.getType());
+        addOptions(command.getAllOptions());
+
+        ArgumentsMetadata arguments = command.getArguments();
+        if (arguments != null) {
+            addAccessors(arguments.getAccessors());
+            addValueType(arguments.getJavaType());
+            if (arguments.getTypeConverterProvider() != null)
+                addInstantiable(arguments.getTypeConverterProvider().getClass());
+        }
+        addAccessors(command.getMetadataInjections());
+        return this;
+    }
+
+    /**
+     * Adds the configuration needed for a parser configuration
+     * 
+     * @param parser
+     *            Parser configuration
+     * @return Configuration
+     */
+    public NativeImageConfiguration addParser(ParserMetadata<?> parser) {
+        if (parser == null || visited(parser))
+            return this;
+
+        // Components that may be instantiated from @Parser annotations
+        if (parser.getCommandFactory() != null)
+            addInstantiable(parser.getCommandFactory().getClass());
+        if (parser.getTypeConverter() != null)
+            addInstantiable(parser.getTypeConverter().getClass());
+        if (parser.getErrorHandler() != null)
+            addInstantiable(parser.getErrorHandler().getClass());
+        for (OptionParser<?> optionParser : parser.getOptionParsers()) {
+            addInstantiable(optionParser.getClass());
+        }
+        return this;
+    }
+
+    /**
+     * Adds the configuration needed for the service implementations visible to
+     * the given class loader
+     * 
+     * @param loader
+     *            Class loader, if {@code null} the system class loader is used
+     * @return Configuration
+     */
+    public NativeImageConfiguration addServices(ClassLoader loader) {
+        for (Class<?> service : SERVICES) {
+            addResource("META-INF/services/" + service.getName());
+            Iterator<?> iter = ServiceLoader.load(service, loader).iterator();
+            while (iter.hasNext()) {
+                addInstantiable(iter.next().getClass());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds a resource that must be included in the native image
+     * 
+     * @param resource
+     *            Resource path e.g. {@code com/example/help.txt}
+     * @return Configuration
+     */
+    public NativeImageConfiguration addResource(String resource) {
+        if (resource == null || resource.isEmpty())
+            return this;
+        if (resource.startsWith("/"))
+            resource = resource.substring(1);
+        this.resources.add("\\Q" + resource + "\\E");
+        return this;
+    }
+
+    /**
+     * Adds reflective access for the given class
+     * 
+     * @param cls
+     *            Class
+     * @param access
+     *            Access required e.g. {@link #ALL_DECLARED_FIELDS}
+     * @return Configuration
+     */
+    public NativeImageConfiguration addClass(Class<?> cls, String... access) {
+        if (cls == null || cls.isPrimitive())
+            return this;
+        if (cls.isArray()) {
+            return addClass(cls.getComponentType(), access);
+        }
+
+        Set<String> existing = this.reflection.get(cls.getName());
+        if (existing == null) {
+            existing = new TreeSet<>();
+            this.reflection.put(cls.getName(), existing);
+        }
+        existing.addAll(Arrays.asList(access));
+        return this;
+    }
+
+    /**
+     * Gets the classes requiring reflective access and the access they
+     * require
+     * 
+     * @return Classes and their required access
+     */
+    public Map<String, Set<String>> getClasses() {
+        return Collections.unmodifiableMap(this.reflection);
+    }
+
+    /**
+     * Gets the resource patterns that must be included
+     * 
+     * @return Resource patterns
+     */
+    public Set<String> getResourcePatterns() {
+        return Collections.unmodifiableSet(this.resources);
+    }
+
+    /**
+     * Writes the configuration files to the given directory
+     * 
+     * @param directory
+     *            Directory, created if it does not exist
+     * @throws IOException
+     *             Thrown if the files cannot be written
+     */
+    public void writeTo(File directory) throws IOException {
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IOException(String.format("Failed to create directory %s", directory));
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(directory, REFLECT_CONFIG)),
+                StandardCharsets.UTF_8)) {
+            writeReflectConfig(writer);
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(directory, RESOURCE_CONFIG)),
+                StandardCharsets.UTF_8)) {
+            writeResourceConfig(writer);
+        }
+    }
+
+    /**
+     * Writes the reflection configuration
+     * 
+     * @param writer
+     *            Writer
+     * @throws IOException
+     *             Thrown if the configuration cannot be written
+     */
+    public void writeReflectConfig(Writer writer) throws IOException {
+        writer.write("[");
+        boolean first = true;
+        for (Map.Entry<String, Set<String>> entry : this.reflection.entrySet()) {
+            writer.write(first ? "\n" : ",\n");
+            first = false;
+            writer.write("  {\n    \"name\" : ");
+            writeString(writer, entry.getKey());
+            for (String access : entry.getValue()) {
+                writer.write(",\n    ");
+                writeString(writer, access);
+                writer.write(" : true");
+            }
+            writer.write("\n  }");
+        }
+        writer.write("\n]\n");
+        writer.flush();
+    }
+
+    /**
+     * Writes the resources configuration
+     * 
+     * @param writer
+     *            Writer
+     * @throws IOException
+     *             Thrown if the configuration cannot be written
+     */
+    public void writeResourceConfig(Writer writer) throws IOException {
+        writer.write("{\n  \"resources\" : {\n    \"includes\" : [");
+        boolean first = true;
+        for (String pattern : this.resources) {
+            writer.write(first ? "\n" : ",\n");
+            first = false;
+            writer.write("      { \"pattern\" : ");
+            writeString(writer, pattern);
+            writer.write(" }");
+        }
+        writer.write("\n    ]\n  }\n}\n");
+        writer.flush();
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                writer.write("\\\"");
+                break;
+            case '\\':
+                writer.write("\\\\");
+                break;
+            case '\n':
+                writer.write("\\n");
+                break;
+            case '\r':
+                writer.write("\\r");
+                break;
+            case '\t':
+                writer.write("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    writer.write(String.format("\\u%04x", (int) c));
+                } else {
+                    writer.write(c);
+                }
+            }
+        }
+        writer.write('"');
+    }
+
+    private boolean visited(Object metadata) {
+        return this.visited.put(metadata, Boolean.TRUE) != null;
+    }
+
+    private void addOptions(Iterable<OptionMetadata> options) {
+        if (options == null)
+            return;
+        for (OptionMetadata option : options) {
+            addAccessors(option.getAccessors());
+            addValueType(option.getJavaType());
+            if (option.getTypeConverterProvider() != null)
+                addInstantiable(option.getTypeConverterProvider().getClass());
+        }
+    }
+
+    private void addAccessors(Iterable<Accessor> accessors) {
+        if (accessors == null)
+            return;
+        for (Accessor accessor : accessors) {
+            List<Field> path = accessor.getPath();
+            for (int i = 0; i < path.size(); i++) {
+                Field field = path.get(i);
+                addClass(field.getDeclaringClass(), ALL_DECLARED_FIELDS);
+                if (i < path.size() - 1) {
+                    // Intermediate fields may be instantiated on demand
+                    addTypeHierarchy(field.getType());
+                }
+            }
+        }
+    }
+
+    private void addTypeHierarchy(Class<?> cls) {
+        while (cls != null && cls != Object.class) {
+            addClass(cls, ALL_DECLARED_FIELDS, ALL_DECLARED_CONSTRUCTORS);
+            cls = cls.getSuperclass();
+        }
+    }
+
+    private void addValueType(Class<?> cls) {
+        // Values are converted via valueOf()/fromString() methods or string
+        // constructors
+        addClass(cls, ALL_PUBLIC_METHODS, ALL_PUBLIC_CONSTRUCTORS);
+    }
+
+    private void addInstantiable(Class<?> cls) {
+        addClass(cls, ALL_PUBLIC_CONSTRUCTORS);
+    }
+}
@@ -23,6 +23,11 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.aliases.AliasResolver;
+import com.github.rvesse.airline.parser.errors.handlers.AbstractCollectingHandler;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.options.AbstractOptionParser;
+import com.github.rvesse.airline.parser.options.ClassifiedToken;
+import com.github.rvesse.airline.parser.options.ClassifiedTokenOptionParser;
 import com.github.rvesse.airline.parser.options.OptionParser;
 import com.github.rvesse.airline.utils.AirlineUtils;
 import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedCommandFinder;
@@ -30,6 +35,7 @@ import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedGroupFinder;
 import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
 import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -46,6 +52,39 @@ import org.apache.commons.collections4.iterators.PeekingIterator;
  */
 public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
 
+    private static final String BUILT_IN_PACKAGE = packageOf(AbstractOptionParser.class);
+
+    /**
+     * Whether an option parser may be offered tokens via its classified method
+     * <p>
+     * This is the case for the built-in parsers, for parsers that directly
+     * extend {@link AbstractOptionParser} and for parsers that directly
+     * implement {@link ClassifiedTokenOptionParser}. Sub-classes of any other
+     * parser, in particular of the built-in parsers, are always offered tokens
+     * via {@link OptionParser#parseOptions(PeekingIterator, ParseState, List)}
+     * since they may override only that method and the override must continue
+     * to take effect.
+     * </p>
+     */
+    private static final ClassValue<Boolean> USE_CLASSIFIED = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            if (!ClassifiedTokenOptionParser.class.isAssignableFrom(type))
+                return false;
+            if (BUILT_IN_PACKAGE.equals(packageOf(type)))
+                return true;
+            if (type.getSuperclass() == AbstractOptionParser.class)
+                return true;
+            return Arrays.asList(type.getInterfaces()).contains(ClassifiedTokenOptionParser.class);
+        }
+    };
+
+    private static String packageOf(Class<?> type) {
+        String name = type.getName();
+        int index = name.lastIndexOf('.');
+        return index >= 0 ? name.substring(0, index) : "";
+    }
+
     /**
      * Tries to parse the arguments
      * 
@@ -92,6 +131,32 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
         return state;
     }
 
+    /**
+     * Converts and validates any values whose conversion and validation was
+     * deferred during parsing
+     * 
+     * @param state
+     *            Parser state
+     * @return Parser state with deferred values resolved
+     * @see ParserMetadata#usesParallelValidation()
+     */
+    protected ParseState<T> resolveDeferredValues(ParseState<T> state) {
+        return DeferredValueResolver.resolve(state);
+    }
+
+    /**
+     * Discards any per-parse state held by the error handler, called once
+     * parsing completes whether or not it succeeded
+     * 
+     * @param parserConfig
+     *            Parser configuration
+     */
+    protected void resetErrorHandler(ParserMetadata<T> parserConfig) {
+        ParserErrorHandler handler = parserConfig.getErrorHandler();
+        if (handler instanceof AbstractCollectingHandler)
+            ((AbstractCollectingHandler) handler).reset();
+    }
+
     protected PeekingIterator<String> applyAliases(PeekingIterator<String> tokens, ParseState<T> state) {
         AliasResolver<T> resolver = new AliasResolver<T>();
         return resolver.resolveAliases(tokens, state);
@@ -230,10 +295,23 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
             // matches it returns the next parser state, otherwise it returns
             // null.
 
+            // Classify the token once, this is shared by all option parsers
+            // and allows us to skip parsers that can't handle the token
+            ClassifiedToken<T> token = new ClassifiedToken<T>(tokens.peek(), state, allowedOptions);
+
             // Try each option parser in turn
             boolean matched = false;
             for (OptionParser<T> optionParser : optionParsers) {
-                ParseState<T> nextState = optionParser.parseOptions(tokens, state, allowedOptions);
+                ParseState<T> nextState;
+                if (optionParser instanceof ClassifiedTokenOptionParser
+                        && USE_CLASSIFIED.get(optionParser.getClass())) {
+                    ClassifiedTokenOptionParser<T> classifiedParser = (ClassifiedTokenOptionParser<T>) optionParser;
+                    if (!classifiedParser.accepts(token))
+                        continue;
+                    nextState = classifiedParser.parseOptions(token, tokens, state, allowedOptions);
+                } else {
+                    nextState = optionParser.parseOptions(tokens, state, allowedOptions);
+                }
 
                 if (nextState != null) {
                     // If the current parser matched an option this token is
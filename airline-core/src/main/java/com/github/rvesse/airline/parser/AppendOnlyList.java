@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable list view that supports cheap appends
+ * <p>
+ * Parser states are immutable so previously every value added to a state
+ * required a copy of the existing list of values, making parsing quadratic in
+ * the number of values. This list instead shares a backing list between all
+ * the views derived from it, appending to a view that covers the whole of the
+ * backing list simply adds to the backing list and creates a new view over it.
+ * Only if a view that does not cover the whole of the backing list is appended
+ * to is a copy made, so views never observe changes made via other views.
+ * </p>
+ * 
+ * @param <E>
+ *            Element type
+ */
+final class AppendOnlyList<E> extends AbstractList<E> {
+
+    private final List<E> backing;
+    private final int size;
+
+    private AppendOnlyList(List<E> backing, int size) {
+        this.backing = backing;
+        this.size = size;
+    }
+
+    /**
+     * Appends an element to a list, the given list is not modified
+     * 
+     * @param list
+     *            List
+     * @param e
+     *            Element to append
+     * @return New list
+     */
+    static <E> List<E> append(List<E> list, E e) {
+        if (list instanceof AppendOnlyList) {
+            return ((AppendOnlyList<E>) list).append(e);
+        }
+        List<E> backing = list != null ? new ArrayList<E>(list) : new ArrayList<E>();
+        backing.add(e);
+        return new AppendOnlyList<E>(backing, backing.size());
+    }
+
+    /**
+     * Creates a new list from the given elements
+     * 
+     * @param elements
+     *            Elements, unless this is already an append only list
+     *            ownership of this list passes to the returned list
+     * @return New list
+     */
+    static <E> List<E> of(List<E> elements) {
+        if (elements instanceof AppendOnlyList)
+            return elements;
+        return new AppendOnlyList<E>(elements, elements.size());
+    }
+
+    private List<E> append(E e) {
+        synchronized (this.backing) {
+            if (this.backing.size() == this.size) {
+                // Nobody has appended to this view yet so can share the
+                // backing list
+                this.backing.add(e);
+                return new AppendOnlyList<E>(this.backing, this.size + 1);
+            }
+        }
+
+        // Someone else already appended to the backing list so must copy
+        List<E> copy = new ArrayList<E>(this.size + 1);
+        copy.addAll(this.backing.subList(0, this.size));
+        copy.add(e);
+        return new AppendOnlyList<E>(copy, copy.size());
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException();
+        return this.backing.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+}
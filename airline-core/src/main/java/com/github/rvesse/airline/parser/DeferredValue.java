@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+/**
+ * Placeholder for a value whose conversion and validation has been deferred
+ * <p>
+ * When parallel validation is enabled (see
+ * {@link com.github.rvesse.airline.model.ParserMetadata#usesParallelValidation()})
+ * the values of multi-valued options and arguments are recorded in the parser
+ * state as instances of this class. Once parsing has finished these are
+ * converted and validated, potentially in parallel, and replaced with the
+ * actual values. Restrictions that inspect the parsed options/arguments during
+ * parsing may therefore observe these placeholders in place of values.
+ * </p>
+ */
+public final class DeferredValue {
+
+    private final ParseState<?> state;
+    private final OptionMetadata option;
+    private final ArgumentsMetadata arguments;
+    private final int index, sequence;
+    private final String rawValue;
+
+    // Populated when resolved
+    private Object value;
+    private List<ParseException> errors;
+
+    DeferredValue(ParseState<?> state, OptionMetadata option, int index, String rawValue) {
+        this(state, option, null, index, rawValue);
+    }
+
+    DeferredValue(ParseState<?> state, ArgumentsMetadata arguments, String rawValue) {
+        this(state, null, arguments, 0, rawValue);
+    }
+
+    private DeferredValue(ParseState<?> state, OptionMetadata option, ArgumentsMetadata arguments, int index,
+            String rawValue) {
+        this.state = state;
+        this.option = option;
+        this.arguments = arguments;
+        this.index = index;
+        this.rawValue = rawValue;
+        // Every option value and argument adds one to the parsed options or
+        // arguments so this gives the order in which values were seen
+        this.sequence = state.getParsedOptions().size() + state.getParsedArguments().size();
+    }
+
+    /**
+     * Gets the option this is a value for
+     * 
+     * @return Option, or {@code null} if this is an argument
+     */
+    public OptionMetadata getOption() {
+        return this.option;
+    }
+
+    /**
+     * Gets the arguments this is a value for
+     * 
+     * @return Arguments, or {@code null} if this is an option value
+     */
+    public ArgumentsMetadata getArguments() {
+        return this.arguments;
+    }
+
+    /**
+     * Gets the raw value
+     * 
+     * @return Raw value
+     */
+    public String getRawValue() {
+        return this.rawValue;
+    }
+
+    int getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Converts and validates the value, any errors are collected rather than
+     * being reported
+     */
+    void resolve() {
+        List<ParseException> collected = new ArrayList<>(1);
+        if (this.option != null) {
+            this.value = ParseState.convertOptionValue(this.state, this.option, this.index, this.rawValue, collected);
+        } else {
+            this.value = ParseState.convertArgument(this.state, this.arguments, this.rawValue, collected);
+        }
+        this.errors = collected.isEmpty() ? null : collected;
+    }
+
+    /**
+     * Gets the resolved value
+     * 
+     * @return Value or {@link ParseState#FAILED} if the value could not be
+     *         converted
+     */
+    Object getValue() {
+        return this.value;
+    }
+
+    /**
+     * Gets the errors encountered when resolving the value
+     * 
+     * @return Errors, may be {@code null} if there were no errors
+     */
+    List<ParseException> getErrors() {
+        return this.errors;
+    }
+
+    @Override
+    public String toString() {
+        return this.rawValue;
+    }
+}
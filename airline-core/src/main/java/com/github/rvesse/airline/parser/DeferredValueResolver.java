@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.errors.LightweightErrors;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.utils.SharedPool;
+
+/**
+ * Resolves the {@link DeferredValue} instances in a parser state
+ * <p>
+ * Resolution of the values is split across the configured
+ * {@link ForkJoinPool}, or the {@link SharedPool} if none is configured, when
+ * there are at least as many values as the configured threshold. Regardless of
+ * how values are resolved any errors are reported to the configured error
+ * handler in the order that the values appeared in the input so error handling
+ * is deterministic. Since values are resolved once parsing has finished these
+ * errors are reported after any errors found while parsing.
+ * </p>
+ */
+final class DeferredValueResolver {
+
+    /**
+     * Number of values below which a task resolves its values directly rather
+     * than splitting further
+     */
+    private static final int TASK_SIZE = 256;
+
+    private DeferredValueResolver() {
+    }
+
+    /**
+     * Resolves any deferred values in the given state
+     * 
+     * @param state
+     *            State
+     * @return State with deferred values resolved
+     */
+    static <T> ParseState<T> resolve(ParseState<T> state) {
+        if (!state.getParserConfiguration().usesParallelValidation())
+            return state;
+
+        // Gather the deferred values in input order
+        List<DeferredValue> options = new ArrayList<>();
+        for (Pair<OptionMetadata, Object> parsedOption : state.getParsedOptions()) {
+            if (parsedOption.getValue() instanceof DeferredValue)
+                options.add((DeferredValue) parsedOption.getValue());
+        }
+        List<DeferredValue> arguments = new ArrayList<>();
+        for (Object parsedArgument : state.getParsedArguments()) {
+            if (parsedArgument instanceof DeferredValue)
+                arguments.add((DeferredValue) parsedArgument);
+        }
+        if (options.isEmpty() && arguments.isEmpty())
+            return state;
+        DeferredValue[] values = merge(options, arguments);
+
+        // Resolve
+        if (values.length >= state.getParserConfiguration().getParallelValidationThreshold()) {
+            ForkJoinPool pool = state.getParserConfiguration().getParallelValidationPool();
+            if (pool == null)
+                pool = SharedPool.get();
+            pool.invoke(new ResolveTask(values, 0, values.length,
+                    state.getParserConfiguration().usesLightweightErrors()));
+        } else {
+            for (DeferredValue value : values) {
+                value.resolve();
+            }
+        }
+
+        // Report errors in input order
+        ParserErrorHandler errorHandler = state.getParserConfiguration().getErrorHandler();
+        for (DeferredValue value : values) {
+            if (value.getErrors() == null)
+                continue;
+            for (ParseException e : value.getErrors()) {
+                errorHandler.handleError(e);
+            }
+        }
+
+        // Values that failed to convert become unparsed input as they would
+        // have if converted during parsing, they follow any input that was
+        // already unparsed but otherwise retain their input order
+        List<String> unparsed = new ArrayList<>(state.getUnparsedInput());
+        for (DeferredValue value : values) {
+            if (value.getValue() == ParseState.FAILED)
+                unparsed.add(value.getRawValue());
+        }
+
+        // Replace the deferred values with the actual values
+        Map<OptionMetadata, Integer> optionsCount = null;
+        List<Pair<OptionMetadata, Object>> parsedOptions = state.getParsedOptions();
+        if (!options.isEmpty()) {
+            parsedOptions = new ArrayList<>(parsedOptions.size());
+            for (Pair<OptionMetadata, Object> parsedOption : state.getParsedOptions()) {
+                if (!(parsedOption.getValue() instanceof DeferredValue)) {
+                    parsedOptions.add(parsedOption);
+                    continue;
+                }
+                DeferredValue value = (DeferredValue) parsedOption.getValue();
+                if (value.getValue() != ParseState.FAILED) {
+                    parsedOptions.add(Pair.of(parsedOption.getKey(), value.getValue()));
+                } else {
+                    if (optionsCount == null)
+                        optionsCount = new HashMap<>();
+                    Integer failures = optionsCount.get(parsedOption.getKey());
+                    optionsCount.put(parsedOption.getKey(), failures != null ? failures + 1 : 1);
+                }
+            }
+        }
+        List<Object> parsedArguments = state.getParsedArguments();
+        if (!arguments.isEmpty()) {
+            parsedArguments = new ArrayList<>(parsedArguments.size());
+            for (Object parsedArgument : state.getParsedArguments()) {
+                if (!(parsedArgument instanceof DeferredValue)) {
+                    parsedArguments.add(parsedArgument);
+                    continue;
+                }
+                DeferredValue value = (DeferredValue) parsedArgument;
+                if (value.getValue() != ParseState.FAILED)
+                    parsedArguments.add(value.getValue());
+            }
+        }
+
+        return state.withResolvedValues(parsedOptions, optionsCount, parsedArguments, unparsed);
+    }
+
+    private static DeferredValue[] merge(List<DeferredValue> options, List<DeferredValue> arguments) {
+        DeferredValue[] values = new DeferredValue[options.size() + arguments.size()];
+        int o = 0, a = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (a >= arguments.size()
+                    || (o < options.size() && options.get(o).getSequence() < arguments.get(a).getSequence())) {
+                values[i] = options.get(o++);
+            } else {
+                values[i] = arguments.get(a++);
+            }
+        }
+        return values;
+    }
+
+    private static final class ResolveTask extends RecursiveAction {
+        private static final long serialVersionUID = 6542963839271036563L;
+
+        private final DeferredValue[] values;
+        private final int start, end;
+        private final boolean lightweightErrors;
+
+        ResolveTask(DeferredValue[] values, int start, int end, boolean lightweightErrors) {
+            this.values = values;
+            this.start = start;
+            this.end = end;
+            this.lightweightErrors = lightweightErrors;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.end - this.start <= TASK_SIZE) {
+                // Pool threads don't see the parsing thread's setting
+                boolean lightweight = LightweightErrors.enable(this.lightweightErrors);
+                try {
+                    for (int i = this.start; i < this.end; i++) {
+                        this.values[i].resolve();
+                    }
+                } finally {
+                    LightweightErrors.restore(lightweight);
+                }
+            } else {
+                int mid = (this.start + this.end) >>> 1;
+                invokeAll(new ResolveTask(this.values, this.start, mid, this.lightweightErrors),
+                        new ResolveTask(this.values, mid, this.end, this.lightweightErrors));
+            }
+        }
+    }
+}
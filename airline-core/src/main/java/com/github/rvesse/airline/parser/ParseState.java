@@ -34,10 +34,16 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.tuple.Pair;
 
 public class ParseState<T> {
+    /**
+     * Marker value indicating that a value could not be converted
+     */
+    static final Object FAILED = new Object();
+
     private final List<Context> locationStack;
     private final GlobalMetadata<T> global;
     private final ParserMetadata<T> parserConfig;
@@ -48,11 +54,12 @@ public class ParseState<T> {
     private final List<Object> parsedArguments;
     private final OptionMetadata currentOption;
     private final List<String> unparsedInput;
+    private final Map<Object, Object> cache;
 
     ParseState(GlobalMetadata<T> global, ParserMetadata<T> parserConfig, CommandGroupMetadata group,
             CommandMetadata command, List<Pair<OptionMetadata, Object>> parsedOptions,
             Map<OptionMetadata, Integer> optionsCount, List<Context> locationStack, List<Object> parsedArguments,
-            OptionMetadata currentOption, List<String> unparsedInput) {
+            OptionMetadata currentOption, List<String> unparsedInput, Map<Object, Object> cache) {
         this.global = global;
         if (global != null) {
             this.parserConfig = global.getParserConfiguration();
@@ -69,12 +76,14 @@ public class ParseState<T> {
         this.parsedArguments = parsedArguments;
         this.currentOption = currentOption;
         this.unparsedInput = unparsedInput;
+        this.cache = cache;
     }
 
     public static <T> ParseState<T> newInstance() {
         return new ParseState<T>(null, null, null, null, new ArrayList<Pair<OptionMetadata, Object>>(),
                 new HashMap<OptionMetadata, Integer>(), Collections.<Context> emptyList(),
-                Collections.<Object> emptyList(), null, Collections.<String> emptyList());
+                Collections.<Object> emptyList(), null, Collections.<String> emptyList(),
+                new ConcurrentHashMap<Object, Object>());
     }
 
     public ParseState<T> pushContext(Context location) {
@@ -82,132 +91,230 @@ public class ParseState<T> {
         locations.add(location);
 
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locations,
-                parsedArguments, currentOption, unparsedInput);
+                parsedArguments, currentOption, unparsedInput, cache);
     }
 
     public ParseState<T> popContext() {
         List<Context> locationStack = AirlineUtils
                 .unmodifiableListCopy(this.locationStack.subList(0, this.locationStack.size() - 1));
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+                parsedArguments, currentOption, unparsedInput, cache);
     }
 
     public ParseState<T> withOptionValue(OptionMetadata option, String rawValue) {
+        Integer index = optionsCount.get(option);
+        if (index == null)
+            index = 0;
+
+        Object value;
+        if (this.parserConfig.usesParallelValidation() && option.isMultiValued()) {
+            // Conversion and validation deferred until parsing has finished
+            value = new DeferredValue(this, option, index, rawValue);
+        } else {
+            value = convertOptionValue(this, option, index, rawValue, null);
+        }
+
+        if (value != FAILED) {
+            List<Pair<OptionMetadata, Object>> newOptions = AppendOnlyList.append(parsedOptions,
+                    Pair.of(option, value));
+            Map<OptionMetadata, Integer> newOptionsCount = new HashMap<>(optionsCount);
+            newOptionsCount.put(option, ++index);
+
+            return new ParseState<T>(global, parserConfig, group, command, newOptions, newOptionsCount, locationStack,
+                    parsedArguments, currentOption, unparsedInput, cache);
+        } else {
+            List<String> newUnparsed = AppendOnlyList.append(unparsedInput, rawValue);
+
+            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
+                    parsedArguments, currentOption, newUnparsed, cache);
+        }
+    }
+
+    /**
+     * Pre-validates, converts and post-validates an option value
+     * 
+     * @param state
+     *            State at the point the value was seen
+     * @param option
+     *            Option
+     * @param index
+     *            Number of values previously seen for the option
+     * @param rawValue
+     *            Raw value
+     * @param errors
+     *            List to collect errors in, or {@code null} to report errors
+     *            to the configured error handler
+     * @return Converted value or {@link #FAILED} if conversion failed
+     */
+    static <T> Object convertOptionValue(ParseState<T> state, OptionMetadata option, int index, String rawValue,
+            List<ParseException> errors) {
         // Pre-validate
         for (OptionRestriction restriction : option.getRestrictions()) {
             try {
-                restriction.preValidate(this, option, rawValue);
+                restriction.preValidate(state, option, rawValue);
             } catch (ParseException e) {
-                this.parserConfig.getErrorHandler().handleError(e);
+                reportError(state, errors, e);
             }
         }
 
+        // Convert value
+        Object value;
         try {
-            // Convert value
-            Integer index = optionsCount.get(option);
-            if (index == null)
-                index = 0;
-            TypeConverter converter = option.getTypeConverterProvider().getTypeConverter(option, this);
-            Object value = converter.convert(option.getTitle(option.getArity() > 0 ? index % option.getArity() : 0), option.getJavaType(), rawValue);
-
-            // Post-validate
-            for (OptionRestriction restriction : option.getRestrictions()) {
-                try {
-                    restriction.postValidate(this, option, value);
-                } catch (ParseException e) {
-                    this.parserConfig.getErrorHandler().handleError(e);
-                }
-            }
-
-            List<Pair<OptionMetadata, Object>> newOptions = AirlineUtils.listCopy(parsedOptions);
-            newOptions.add(Pair.of(option, value));
-            Map<OptionMetadata, Integer> newOptionsCount = new HashMap<>(optionsCount);
-            newOptionsCount.put(option, ++index);
-
-            return new ParseState<T>(global, parserConfig, group, command, newOptions, newOptionsCount, locationStack,
-                    parsedArguments, currentOption, unparsedInput);
+            TypeConverter converter = option.getTypeConverterProvider().getTypeConverter(option, state);
+            value = converter.convert(option.getTitle(option.getArity() > 0 ? index % option.getArity() : 0),
+                    option.getJavaType(), rawValue);
         } catch (ParseException e) {
-            this.parserConfig.getErrorHandler().handleError(e);
-
-            List<String> newUnparsed = AirlineUtils.listCopy(unparsedInput);
-            newUnparsed.add(rawValue);
+            reportError(state, errors, e);
+            return FAILED;
+        }
 
-            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+        // Post-validate
+        for (OptionRestriction restriction : option.getRestrictions()) {
+            try {
+                restriction.postValidate(state, option, value);
+            } catch (ParseException e) {
+                reportError(state, errors, e);
+            }
         }
+        return value;
     }
 
     public ParseState<T> withGlobal(GlobalMetadata<T> global) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+                parsedArguments, currentOption, unparsedInput, cache);
     }
 
     public ParseState<T> withConfiguration(ParserMetadata<T> parserConfig) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+                parsedArguments, currentOption, unparsedInput, cache);
     }
 
     public ParseState<T> withGroup(CommandGroupMetadata group) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+                parsedArguments, currentOption, unparsedInput, cache);
     }
 
     public ParseState<T> withCommand(CommandMetadata command) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+                parsedArguments, currentOption, unparsedInput, cache);
     }
 
     public ParseState<T> withOption(OptionMetadata option) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, option, unparsedInput);
+                parsedArguments, option, unparsedInput, cache);
     }
 
     public ParseState<T> withArgument(ArgumentsMetadata arguments, String rawValue) {
+        Object value;
+        if (this.parserConfig.usesParallelValidation()) {
+            // Conversion and validation deferred until parsing has finished
+            value = new DeferredValue(this, arguments, rawValue);
+        } else {
+            value = convertArgument(this, arguments, rawValue, null);
+        }
+
+        if (value != FAILED) {
+            List<Object> newArguments = AppendOnlyList.append(parsedArguments, value);
+
+            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
+                    newArguments, currentOption, unparsedInput, cache);
+        } else {
+            List<String> newUnparsed = AppendOnlyList.append(unparsedInput, rawValue);
+
+            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
+                    parsedArguments, currentOption, newUnparsed, cache);
+        }
+    }
+
+    /**
+     * Pre-validates, converts and post-validates an argument
+     * 
+     * @param state
+     *            State at the point the argument was seen
+     * @param arguments
+     *            Arguments
+     * @param rawValue
+     *            Raw value
+     * @param errors
+     *            List to collect errors in, or {@code null} to report errors
+     *            to the configured error handler
+     * @return Converted value or {@link #FAILED} if conversion failed
+     */
+    static <T> Object convertArgument(ParseState<T> state, ArgumentsMetadata arguments, String rawValue,
+            List<ParseException> errors) {
         // Pre-validate
         for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
             try {
-                restriction.preValidate(this, arguments, rawValue);
+                restriction.preValidate(state, arguments, rawValue);
             } catch (ParseException e) {
-                this.parserConfig.getErrorHandler().handleError(e);
+                reportError(state, errors, e);
             }
         }
 
         // Convert value
+        Object value;
         try {
-            TypeConverter converter = arguments.getTypeConverterProvider().getTypeConverter(arguments, this);
-            Object value = converter.convert(arguments.getTitle().get(0), arguments.getJavaType(), rawValue);
-
-            // Post-validate
-            for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-                try {
-                    restriction.postValidate(this, arguments, value);
-                } catch (ParseException e) {
-                    this.parserConfig.getErrorHandler().handleError(e);
-                }
-            }
-
-            List<Object> newArguments = AirlineUtils.listCopy(parsedArguments);
-            newArguments.add(value);
-
-            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                    newArguments, currentOption, unparsedInput);
+            TypeConverter converter = arguments.getTypeConverterProvider().getTypeConverter(arguments, state);
+            value = converter.convert(arguments.getTitle().get(0), arguments.getJavaType(), rawValue);
         } catch (ParseException e) {
-            this.parserConfig.getErrorHandler().handleError(e);
+            reportError(state, errors, e);
+            return FAILED;
+        }
 
-            List<String> newUnparsed = AirlineUtils.listCopy(unparsedInput);
-            newUnparsed.add(rawValue);
+        // Post-validate
+        for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
+            try {
+                restriction.postValidate(state, arguments, value);
+            } catch (ParseException e) {
+                reportError(state, errors, e);
+            }
+        }
+        return value;
+    }
 
-            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+    private static void reportError(ParseState<?> state, List<ParseException> errors, ParseException e) {
+        if (errors != null) {
+            errors.add(e);
+        } else {
+            state.getParserConfiguration().getErrorHandler().handleError(e);
         }
     }
 
+    /**
+     * Creates a new state with the given values in place of any
+     * {@link DeferredValue} instances
+     * 
+     * @param parsedOptions
+     *            Resolved options
+     * @param failedOptionsCount
+     *            Number of failed values for each option, may be {@code null}
+     *            if none failed
+     * @param parsedArguments
+     *            Resolved arguments
+     * @param unparsedInput
+     *            Unparsed input including any values that failed to convert
+     * @return New state
+     */
+    ParseState<T> withResolvedValues(List<Pair<OptionMetadata, Object>> parsedOptions,
+            Map<OptionMetadata, Integer> failedOptionsCount, List<Object> parsedArguments,
+            List<String> unparsedInput) {
+        Map<OptionMetadata, Integer> newOptionsCount = this.optionsCount;
+        if (failedOptionsCount != null) {
+            newOptionsCount = new HashMap<>(this.optionsCount);
+            for (Map.Entry<OptionMetadata, Integer> failed : failedOptionsCount.entrySet()) {
+                newOptionsCount.put(failed.getKey(), newOptionsCount.get(failed.getKey()) - failed.getValue());
+            }
+        }
+        return new ParseState<T>(global, parserConfig, group, command, AppendOnlyList.of(parsedOptions),
+                newOptionsCount, locationStack, AppendOnlyList.of(parsedArguments), currentOption,
+                AppendOnlyList.of(unparsedInput), cache);
+    }
+
     public ParseState<T> withUnparsedInput(String input) {
-        List<String> newUnparsedInput = AirlineUtils.listCopy(unparsedInput);
-        newUnparsedInput.add(input);
+        List<String> newUnparsedInput = AppendOnlyList.append(unparsedInput, input);
 
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, newUnparsedInput);
+                parsedArguments, currentOption, newUnparsedInput, cache);
     }
 
     @Override
@@ -258,4 +365,21 @@ public class ParseState<T> {
     public List<String> getUnparsedInput() {
         return unparsedInput;
     }
+
+    /**
+     * Gets a cache that is shared by this state and all the states derived
+     * from it i.e. it lives for the duration of a single parse
+     * <p>
+     * Restrictions and other parser components may use this to remember the
+     * results of expensive computations that are likely to be repeated for
+     * different values within a single parse. Keys should be chosen so as not
+     * to collide with those used by other components, using a private class
+     * or instance as the key is recommended.
+     * </p>
+     * 
+     * @return Parse cache
+     */
+    public Map<Object, Object> getParseCache() {
+        return this.cache;
+    }
 }
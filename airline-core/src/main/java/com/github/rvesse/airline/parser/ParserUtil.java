@@ -18,6 +18,8 @@ package com.github.rvesse.airline.parser;
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
+import com.github.rvesse.airline.InstanceFactories;
+import com.github.rvesse.airline.InstanceFactory;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.errors.ParseException;
@@ -35,6 +37,20 @@ public class ParserUtil {
 
     public static <T> T createInstance(Class<T> type) {
         if (type != null) {
+            // Prefer an explicitly registered factory
+            InstanceFactory<? extends T> factory = InstanceFactories.get(type);
+            if (factory != null) {
+                try {
+                    return factory.newInstance();
+                } catch (Exception e) {
+                    throw new ParseException(e, "Unable to create instance %s", type.getName());
+                }
+            }
+            if (InstanceFactories.isReflectionFree())
+                throw new ParseException(
+                        "Unable to create instance %s, no factory registered and reflection free mode is enabled",
+                        type.getName());
+
             try {
                 return type.getConstructor().newInstance();
             } catch (Exception e) {
@@ -15,12 +15,12 @@
  */
 package com.github.rvesse.airline.parser.aliases;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.collections4.Predicate;
 import org.apache.commons.collections4.iterators.PeekingIterator;
 
@@ -28,6 +28,7 @@ import com.github.rvesse.airline.model.AliasMetadata;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.AbstractParser;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseAliasCircularReferenceException;
@@ -44,36 +45,49 @@ import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 public class AliasResolver<T> extends AbstractParser<T> {
 
     public PeekingIterator<String> resolveAliases(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<? super CommandGroupMetadata> findGroupPredicate;
-        Predicate<? super CommandMetadata> findCommandPredicate;
-
         // Nothing to do if no further tokens
         if (!tokens.hasNext())
             return tokens;
 
         // Nothing to do if no aliases defined
-        if (state.getParserConfiguration().getAliases().size() == 0)
+        ParserMetadata<T> config = state.getParserConfiguration();
+        UserAliasesSource<T> userAliases = config.getUserAliasesSource();
+        CachingUserAliasesSource<T> lazyAliases = userAliases instanceof CachingUserAliasesSource
+                ? (CachingUserAliasesSource<T>) userAliases : null;
+        if (config.getAliases().size() == 0 && lazyAliases == null)
             return tokens;
 
         Set<String> aliasesSeen = new TreeSet<String>();
 
         do {
+            // Nothing further to do if the alias expanded to nothing
+            if (!tokens.hasNext())
+                return tokens;
+
             // Try to find an alias
-            AliasMetadata alias = CollectionUtils.find(state.getParserConfiguration().getAliases(),
-                    new AliasFinder(tokens.peek()));
+            // Lazily loaded user aliases take precedence over explicitly
+            // defined aliases but are only loaded if the token could actually
+            // be an alias
+            AliasMetadata alias = null;
+            if (lazyAliases != null && (config.aliasesOverrideBuiltIns() || !isBuiltIn(tokens.peek(), state))) {
+                try {
+                    alias = lazyAliases.find(tokens.peek());
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to load user aliases", e);
+                }
+            }
+            if (alias == null) {
+                alias = CollectionUtils.find(config.getAliases(), new AliasFinder(tokens.peek()));
+            }
 
             // Nothing further to do if no aliases found
             if (alias == null) {
                 // Has the user provided a prefix to force a built-in?
-                if (tokens.peek().startsWith(
-                        new String(new char[] { state.getParserConfiguration().getAliasForceBuiltInPrefix() }))) {
+                String token = tokens.peek();
+                if (token.length() > 0 && token.charAt(0) == config.getAliasForceBuiltInPrefix()) {
                     String nextToken = tokens.next().substring(1);
-                    List<String> newTokens = new ArrayList<>();
-                    newTokens.add(nextToken);
-                    while (tokens.hasNext()) {
-                        newTokens.add(tokens.next());
-                    }
-                    return new PeekingIterator<String>(newTokens.iterator());
+                    return new PeekingIterator<String>(
+                            IteratorUtils.chainedIterator(IteratorUtils.singletonIterator(nextToken), tokens));
                 }
                 return tokens;
             }
@@ -91,101 +105,39 @@ public class AliasResolver<T> extends AbstractParser<T> {
                 // If not we must check we don't have a default
                 // group/command with the same name as otherwise that
                 // would take precedence
-                if (state.getGlobal() != null) {
-                    GlobalMetadata<T> metadata = state.getGlobal();
-                    findGroupPredicate = new GroupFinder(tokens.peek());
-                    findCommandPredicate = new CommandFinder(tokens.peek());
-                    if (CollectionUtils.find(metadata.getCommandGroups(), findGroupPredicate) != null
-                            || CollectionUtils.find(metadata.getDefaultGroupCommands(), findCommandPredicate) != null)
-                        return tokens;
-                }
+                if (isBuiltIn(tokens.peek(), state))
+                    return tokens;
             }
 
             // Discard the alias token
             tokens.next();
 
-            // Apply the alias
-            List<String> newParams = new ArrayList<String>();
-            List<String> remainingParams = new ArrayList<String>();
-            while (tokens.hasNext()) {
-                remainingParams.add(tokens.next());
-            }
-
-            // Process alias arguments
-            Set<Integer> used = new TreeSet<Integer>();
-            for (String arg : alias.getArguments()) {
-                if (arg.startsWith("$")) {
-                    // May be a positional parameter
-                    Integer num = null;
-                    String defaultValue = null;
-                    try {
-                        num = Integer.parseInt(arg.substring(1));
-                        num--;
-                    } catch (NumberFormatException e) {
-                        try {
-                            // The number was invalid
-                            // May be an expansion with a default i.e.
-                            // ${1:-default}
-                            if (arg.startsWith("${") && arg.endsWith("}")) {
-                                if (arg.indexOf(":-") > 2) {
-                                    // Has a default value
-                                    num = Integer.parseInt(arg.substring(2, arg.indexOf(":-")));
-                                    num--;
-                                    defaultValue = arg.substring(arg.indexOf(":-") + 2, arg.length() - 1);
-                                } else {
-                                    // No default value, maybe just a number?
-                                    num = Integer.parseInt(arg.substring(2, arg.length() - 1));
-                                    num--;
-                                }
-                            }
-                        } catch (NumberFormatException e2) {
-                            // Invalid number, ignore
-                        }
-                    }
-
-                    if (num != null && num >= 0) {
-                        // Valid number, determine how to apply
-                        
-                        if (num < remainingParams.size()) {
-                            // Valid positional parameter with user input
-                            // supplied
-                            newParams.add(remainingParams.get(num));
-                            used.add(num);
-                            continue;
-                        } else if (defaultValue != null) {
-                            // Valid positional parameter, no user input to
-                            // substitute but a default was supplied
-                            newParams.add(defaultValue);
-                            // No need to update used in this case
-                            continue;
-                        } else {
-                            // Positional parameter but no user input or default
-                            // value to substitute so fall through to just
-                            // passing this on as is
-                        }
-                    }
-                }
-
-                // Some other parameter
-                newParams.add(arg);
-            }
-
-            // Remove used positional parameters
-            int removed = 0;
-            for (int pos : used) {
-                remainingParams.remove(pos - removed);
-                removed++;
-            }
-
-            // Pass through any remaining parameters
-            for (String arg : remainingParams) {
-                newParams.add(arg);
-            }
-
-            // Prepare a new tokens iterator
-            tokens = new PeekingIterator<String>(newParams.iterator());
+            // Apply the alias, the remaining tokens are spliced onto the end
+            // of the expansion rather than being copied
+            tokens = new PeekingIterator<String>(alias.getTemplate().expand(tokens));
         } while (state.getParserConfiguration().aliasesMayChain());
 
         return tokens;
     }
+
+    /**
+     * Determines whether a token refers to a built-in i.e. a top level group or
+     * a default group command
+     * 
+     * @param token
+     *            Token
+     * @param state
+     *            Parser state
+     * @return True if a built-in, false otherwise
+     */
+    private boolean isBuiltIn(String token, ParseState<T> state) {
+        if (state.getGlobal() == null)
+            return false;
+
+        GlobalMetadata<T> metadata = state.getGlobal();
+        Predicate<? super CommandGroupMetadata> findGroupPredicate = new GroupFinder(token);
+        Predicate<? super CommandMetadata> findCommandPredicate = new CommandFinder(token);
+        return CollectionUtils.find(metadata.getCommandGroups(), findGroupPredicate) != null
+                || CollectionUtils.find(metadata.getDefaultGroupCommands(), findCommandPredicate) != null;
+    }
 }
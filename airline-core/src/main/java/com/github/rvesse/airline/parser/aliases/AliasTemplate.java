@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.collections4.IteratorUtils;
+
+/**
+ * A compiled form of an alias definition
+ * <p>
+ * Alias arguments are compiled once into a sequence of literal values and
+ * positional parameter slots. Positional parameters may be given either as
+ * {@code $N} or as {@code ${N:-default}} where {@code N} is a 1 based index
+ * into the tokens following the alias. Expanding a template only consumes as
+ * many of the following tokens as are needed to fill the positional slots, the
+ * remaining tokens are spliced onto the end of the expansion without being
+ * copied.
+ * </p>
+ *
+ * @author rvesse
+ *
+ */
+public final class AliasTemplate {
+
+    private static final int LITERAL = -1;
+
+    private final String[] values, defaults;
+    private final int[] slots;
+    private final int parameters;
+
+    private AliasTemplate(String[] values, int[] slots, String[] defaults, int parameters) {
+        this.values = values;
+        this.slots = slots;
+        this.defaults = defaults;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Compiles alias arguments into a template
+     *
+     * @param arguments
+     *            Alias arguments
+     * @return Compiled template
+     */
+    public static AliasTemplate compile(List<String> arguments) {
+        int size = arguments.size();
+        String[] values = new String[size];
+        String[] defaults = new String[size];
+        int[] slots = new int[size];
+        int parameters = 0;
+
+        for (int i = 0; i < size; i++) {
+            String arg = arguments.get(i);
+            values[i] = arg;
+            slots[i] = LITERAL;
+
+            if (!arg.startsWith("$"))
+                continue;
+
+            // May be a positional parameter
+            int num = -1;
+            String defaultValue = null;
+            try {
+                num = Integer.parseInt(arg.substring(1)) - 1;
+            } catch (NumberFormatException e) {
+                try {
+                    // The number was invalid
+                    // May be an expansion with a default i.e. ${1:-default}
+                    if (arg.startsWith("${") && arg.endsWith("}")) {
+                        int defaultStart = arg.indexOf(":-");
+                        if (defaultStart > 2) {
+                            // Has a default value
+                            num = Integer.parseInt(arg.substring(2, defaultStart)) - 1;
+                            defaultValue = arg.substring(defaultStart + 2, arg.length() - 1);
+                        } else {
+                            // No default value, maybe just a number?
+                            num = Integer.parseInt(arg.substring(2, arg.length() - 1)) - 1;
+                        }
+                    }
+                } catch (NumberFormatException e2) {
+                    // Invalid number, treat as a literal
+                    num = -1;
+                    defaultValue = null;
+                }
+            }
+
+            if (num >= 0) {
+                slots[i] = num;
+                defaults[i] = defaultValue;
+                parameters = Math.max(parameters, num + 1);
+            }
+        }
+
+        return new AliasTemplate(values, slots, defaults, parameters);
+    }
+
+    /**
+     * Gets the number of following tokens that this template may consume as
+     * positional parameters
+     *
+     * @return Number of positional parameters
+     */
+    public int getParameterCount() {
+        return this.parameters;
+    }
+
+    /**
+     * Expands the template
+     * <p>
+     * Only as many tokens as are needed to fill positional parameters are read
+     * from the given tokens, the returned iterator continues with the given
+     * tokens once the expansion has been consumed.
+     * </p>
+     *
+     * @param tokens
+     *            Tokens following the alias
+     * @return Tokens with the alias expanded
+     */
+    public Iterator<String> expand(Iterator<String> tokens) {
+        // Read only the tokens needed for positional parameters, the
+        // parameter count comes from the alias definition and may be
+        // arbitrarily large so size by the tokens actually read
+        List<String> params = new ArrayList<>();
+        while (params.size() < this.parameters && tokens.hasNext()) {
+            params.add(tokens.next());
+        }
+        int available = params.size();
+        boolean[] used = new boolean[available];
+
+        List<String> expansion = new ArrayList<>(this.values.length + available);
+        for (int i = 0; i < this.values.length; i++) {
+            int slot = this.slots[i];
+            if (slot == LITERAL) {
+                expansion.add(this.values[i]);
+            } else if (slot < available) {
+                // Valid positional parameter with user input supplied
+                expansion.add(params.get(slot));
+                used[slot] = true;
+            } else if (this.defaults[i] != null) {
+                // Valid positional parameter, no user input to substitute but
+                // a default was supplied
+                expansion.add(this.defaults[i]);
+            } else {
+                // Positional parameter but no user input or default value to
+                // substitute so just pass this on as is
+                expansion.add(this.values[i]);
+            }
+        }
+
+        // Pass through any read parameters that weren't used
+        for (int i = 0; i < available; i++) {
+            if (!used[i])
+                expansion.add(params.get(i));
+        }
+
+        if (!tokens.hasNext())
+            return expansion.iterator();
+        return IteratorUtils.chainedIterator(expansion.iterator(), tokens);
+    }
+}
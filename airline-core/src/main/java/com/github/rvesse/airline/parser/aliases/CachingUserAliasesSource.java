@@ -0,0 +1,233 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.github.rvesse.airline.model.AliasMetadata;
+import com.github.rvesse.airline.parser.resources.FileLocator;
+import com.github.rvesse.airline.parser.resources.ResourceLocator;
+
+/**
+ * A user aliases source that caches the aliases it loads and only re-reads
+ * configuration files that have changed
+ * <p>
+ * Unlike the basic {@link UserAliasesSource} this source is not loaded when the
+ * parser configuration is built, instead it is consulted lazily by the parser
+ * the first time that a potential alias is encountered. Files located via a
+ * {@link FileLocator} are cached based upon their path, modification time and
+ * size so subsequent loads only re-read and re-parse files that have actually
+ * changed. Resources located via other kinds of {@link ResourceLocator} are
+ * assumed to be immutable and are read only once.
+ * </p>
+ * <p>
+ * This makes this source suitable for long running usages e.g. servers and
+ * REPLs where users may edit their aliases while the application is running,
+ * changes are picked up without the need to rebuild the parser configuration.
+ * </p>
+ *
+ * @author rvesse
+ *
+ * @param <C>
+ *            Command type
+ */
+public class CachingUserAliasesSource<C> extends UserAliasesSource<C> {
+
+    private final Map<String, CachedAliases> cache = new HashMap<>();
+    private List<CachedAliases> lastLoaded = Collections.emptyList();
+    private List<AliasMetadata> aliases = null;
+    private Map<String, AliasMetadata> aliasesByName = Collections.emptyMap();
+
+    public CachingUserAliasesSource(String filename, String prefix, String... searchLocations) {
+        super(filename, prefix, searchLocations);
+    }
+
+    public CachingUserAliasesSource(String filename, String prefix, List<ResourceLocator> locators,
+            List<String> searchLocations) {
+        super(filename, prefix, locators, searchLocations);
+    }
+
+    /**
+     * Loads the alias metadata based on the configured sources, only files
+     * that have changed since the previous load are actually read
+     *
+     * @return Alias metadata
+     * @throws FileNotFoundException
+     *             Thrown if unable to find a properties file
+     * @throws IOException
+     *             Thrown if unable to read a properties file
+     */
+    @Override
+    public synchronized List<AliasMetadata> load() throws FileNotFoundException, IOException {
+        refresh();
+        return this.aliases;
+    }
+
+    /**
+     * Finds the user alias with the given name, refreshing the cached aliases
+     * if any of the underlying files have changed
+     *
+     * @param name
+     *            Alias name
+     * @return Alias or {@code null} if no such alias
+     * @throws IOException
+     *             Thrown if unable to read a properties file
+     */
+    public synchronized AliasMetadata find(String name) throws IOException {
+        refresh();
+        return this.aliasesByName.get(name);
+    }
+
+    /**
+     * Discards all cached aliases forcing the next load to re-read all files
+     */
+    public synchronized void invalidate() {
+        this.cache.clear();
+        this.lastLoaded = Collections.emptyList();
+        this.aliases = null;
+        this.aliasesByName = Collections.emptyMap();
+    }
+
+    private void refresh() throws IOException {
+        List<String> searchLocations = getSearchLocations();
+
+        // Search locations in reverse order so that the first location in the
+        // list has highest precedence
+        List<CachedAliases> current = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = searchLocations.size() - 1; i >= 0; i--) {
+            String loc = searchLocations.get(i);
+            if (StringUtils.isBlank(loc))
+                continue;
+
+            // Don't read property files multiple times
+            if (!seen.add(loc))
+                continue;
+
+            CachedAliases entry = locate(loc);
+            if (entry != null)
+                current.add(entry);
+        }
+
+        // If the set of files and their contents are unchanged then the
+        // existing aliases remain valid
+        if (this.aliases != null && current.equals(this.lastLoaded))
+            return;
+
+        Map<String, AliasMetadata> byName = new LinkedHashMap<>();
+        for (CachedAliases entry : current) {
+            for (AliasMetadata alias : entry.aliases) {
+                byName.put(alias.getName(), alias);
+            }
+        }
+        this.lastLoaded = current;
+        this.aliasesByName = byName;
+        this.aliases = Collections.unmodifiableList(new ArrayList<>(byName.values()));
+    }
+
+    private CachedAliases locate(String loc) throws IOException {
+        String filename = getFilename();
+        for (ResourceLocator locator : getLocators()) {
+            if (locator instanceof FileLocator) {
+                // File based resources can be checked for changes cheaply
+                File f = ((FileLocator) locator).locate(loc, filename);
+                if (f == null)
+                    continue;
+
+                String key = f.getAbsolutePath();
+                long modified = f.lastModified();
+                long size = f.length();
+                CachedAliases entry = this.cache.get(key);
+                if (entry == null || entry.modified != modified || entry.size != size) {
+                    entry = new CachedAliases(key, modified, size, read(locator, loc));
+                    this.cache.put(key, entry);
+                }
+                return entry;
+            } else {
+                // Other resources are presumed immutable so only need to be
+                // read once
+                String key = locator.getClass().getName() + ":" + loc;
+                CachedAliases entry = this.cache.get(key);
+                if (entry == null) {
+                    List<AliasMetadata> aliases = read(locator, loc);
+                    if (aliases == null)
+                        continue;
+                    entry = new CachedAliases(key, 0, 0, aliases);
+                    this.cache.put(key, entry);
+                }
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private List<AliasMetadata> read(ResourceLocator locator, String loc) throws IOException {
+        try (InputStream input = locator.open(loc, getFilename())) {
+            if (input == null)
+                return null;
+
+            Properties properties = new Properties();
+            properties.load(input);
+            return toAliases(properties);
+        }
+    }
+
+    /**
+     * Cached aliases loaded from a single resource
+     */
+    private static final class CachedAliases {
+        private final String key;
+        private final long modified, size;
+        private final List<AliasMetadata> aliases;
+
+        private CachedAliases(String key, long modified, long size, List<AliasMetadata> aliases) {
+            this.key = key;
+            this.modified = modified;
+            this.size = size;
+            this.aliases = aliases != null ? aliases : Collections.<AliasMetadata> emptyList();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof CachedAliases))
+                return false;
+            CachedAliases other = (CachedAliases) obj;
+            return this.key.equals(other.key) && this.modified == other.modified && this.size == other.size
+                    && this.aliases == other.aliases;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.key.hashCode();
+        }
+    }
+}
@@ -168,26 +168,30 @@ public class UserAliasesSource<C> {
 
         }
 
-        // Strip any irrelevant properties
-        if (StringUtils.isNotBlank(prefix)) {
-            List<Object> keysToRemove = new ArrayList<Object>();
-            for (Object key : properties.keySet()) {
-                if (!key.toString().startsWith(prefix))
-                    keysToRemove.add(key);
-            }
-            for (Object key : keysToRemove) {
-                properties.remove(key);
-            }
-        }
+        return toAliases(properties);
+    }
 
-        // Generate the aliases
+    /**
+     * Converts the given properties into alias metadata
+     * <p>
+     * Only properties whose keys start with the configured prefix (if any) are
+     * considered to be alias definitions, all other properties are ignored.
+     * </p>
+     * 
+     * @param properties
+     *            Properties
+     * @return Alias metadata
+     */
+    protected List<AliasMetadata> toAliases(Properties properties) {
         List<AliasMetadata> aliases = new ArrayList<>();
-        for (Object key : properties.keySet()) {
-            String name = key.toString();
-            if (!StringUtils.isBlank(prefix))
-                name = name.substring(prefix.length());
+        boolean hasPrefix = StringUtils.isNotBlank(prefix);
+        for (String key : properties.stringPropertyNames()) {
+            // Ignore any irrelevant properties
+            if (hasPrefix && !key.startsWith(prefix))
+                continue;
+            String name = hasPrefix ? key.substring(prefix.length()) : key;
 
-            String value = properties.getProperty(key.toString());
+            String value = properties.getProperty(key);
             if (StringUtils.isEmpty(value)) {
                 aliases.add(new AliasMetadata(name, Collections.<String> emptyList()));
                 continue;
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.batch;
+
+/**
+ * An action run for each successfully parsed command in a batch
+ * <p>
+ * Actions are run on the threads of the executor used by the
+ * {@link BatchExecutor} so must be safe to use from multiple threads.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ * @param <R>
+ *            Output type
+ */
+public interface BatchAction<C, R> {
+
+    /**
+     * Runs the action for a command
+     * 
+     * @param command
+     *            Command instance
+     * @return Output
+     * @throws Exception
+     *             Thrown if the action fails, this is recorded in the
+     *             {@link BatchResult} for the command line and does not stop
+     *             the batch
+     */
+    R run(C command) throws Exception;
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.batch;
+
+/**
+ * Receives the results of a batch
+ * <p>
+ * Results are delivered on the thread that started the batch in the order
+ * that the command lines were given, regardless of the order in which they
+ * were actually parsed.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ * @param <R>
+ *            Output type
+ */
+public interface BatchCallback<C, R> {
+
+    /**
+     * Receives the result for a command line
+     * 
+     * @param result
+     *            Result
+     * @throws RuntimeException
+     *             Thrown to stop the batch, it is rethrown to the caller of
+     *             the batch and any command lines whose results have not yet
+     *             been delivered are abandoned
+     */
+    void accept(BatchResult<C, R> result);
+}
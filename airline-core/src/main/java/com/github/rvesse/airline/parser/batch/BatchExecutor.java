@@ -0,0 +1,248 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.batch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.command.CliParser;
+import com.github.rvesse.airline.utils.SharedPool;
+
+/**
+ * Parses, and optionally runs, batches of command lines in parallel
+ * <p>
+ * All command lines are parsed against the same {@link GlobalMetadata} on the
+ * threads of the given {@link Executor}. Results are delivered to a
+ * {@link BatchCallback} on the calling thread in the order the command lines
+ * were given. At most the configured number of command lines are pending, i.e.
+ * submitted but not yet delivered, at any time and the calling thread waits
+ * for the oldest result before submitting further command lines. This bounds
+ * the memory used regardless of the size of the batch and means the command
+ * lines may be supplied lazily, e.g. read from a file as the batch proceeds.
+ * </p>
+ * <p>
+ * Each command line is parsed independently, errors are recorded in its
+ * {@link BatchResult} and do not stop the batch. Since command lines are
+ * parsed concurrently any components of the parser configuration, e.g. the
+ * error handler, must be safe to use from multiple threads, all the built-in
+ * components are.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public class BatchExecutor<C> {
+
+    /**
+     * Default number of pending command lines per available processor
+     */
+    public static final int DEFAULT_PENDING_PER_PROCESSOR = 4;
+
+    private final GlobalMetadata<C> metadata;
+    private final Executor executor;
+    private final int maxPending;
+
+    /**
+     * Creates a new executor that uses the {@link SharedPool}
+     * 
+     * @param metadata
+     *            CLI meta-data
+     */
+    public BatchExecutor(GlobalMetadata<C> metadata) {
+        this(metadata, null, DEFAULT_PENDING_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new executor
+     * 
+     * @param metadata
+     *            CLI meta-data
+     * @param executor
+     *            Executor used to parse command lines, if {@code null} the
+     *            {@link SharedPool} is used
+     * @param maxPending
+     *            Maximum number of command lines that may be pending at once
+     */
+    public BatchExecutor(GlobalMetadata<C> metadata, Executor executor, int maxPending) {
+        if (metadata == null)
+            throw new NullPointerException("metadata cannot be null");
+        if (maxPending < 1)
+            throw new IllegalArgumentException("maxPending must be at least 1");
+        this.metadata = metadata;
+        this.executor = executor != null ? executor : SharedPool.get();
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Gets the maximum number of command lines that may be pending at once
+     * 
+     * @return Maximum pending command lines
+     */
+    public int getMaximumPending() {
+        return maxPending;
+    }
+
+    /**
+     * Parses a batch of command lines
+     * 
+     * @param commandLines
+     *            Command lines
+     * @return Results in the order the command lines were given
+     * @throws InterruptedException
+     *             Thrown if interrupted while waiting for results
+     */
+    public List<BatchResult<C, Void>> parseAll(Iterable<String[]> commandLines) throws InterruptedException {
+        final List<BatchResult<C, Void>> results = new ArrayList<>();
+        parse(commandLines, new BatchCallback<C, Void>() {
+            @Override
+            public void accept(BatchResult<C, Void> result) {
+                results.add(result);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Parses a batch of command lines
+     * 
+     * @param commandLines
+     *            Command lines
+     * @param callback
+     *            Callback that receives the results in the order the command
+     *            lines were given
+     * @return Number of command lines parsed
+     * @throws InterruptedException
+     *             Thrown if interrupted while waiting for results
+     */
+    public long parse(Iterable<String[]> commandLines, BatchCallback<C, Void> callback) throws InterruptedException {
+        return run(commandLines, null, callback);
+    }
+
+    /**
+     * Parses a batch of command lines and runs an action for each command
+     * that is successfully parsed
+     * 
+     * @param commandLines
+     *            Command lines
+     * @param action
+     *            Action to run on the executor's threads for each
+     *            successfully parsed command, may be {@code null} to only
+     *            parse the command lines
+     * @param callback
+     *            Callback that receives the results in the order the command
+     *            lines were given
+     * @return Number of command lines processed
+     * @throws InterruptedException
+     *             Thrown if interrupted while waiting for results
+     */
+    public <R> long run(Iterable<String[]> commandLines, BatchAction<C, R> action, BatchCallback<C, R> callback)
+            throws InterruptedException {
+        if (commandLines == null)
+            throw new NullPointerException("commandLines cannot be null");
+        if (callback == null)
+            throw new NullPointerException("callback cannot be null");
+
+        Deque<Future<BatchResult<C, R>>> pending = new ArrayDeque<>();
+        long index = 0;
+        try {
+            for (String[] args : commandLines) {
+                if (args == null)
+                    throw new NullPointerException(String.format("Command line %d is null", index));
+
+                // Wait for the oldest result before exceeding the limit
+                if (pending.size() >= this.maxPending)
+                    deliver(pending.poll(), callback);
+
+                FutureTask<BatchResult<C, R>> task = new FutureTask<>(
+                        new ParseTask<C, R>(this.metadata, index++, args, action));
+                pending.add(task);
+                this.executor.execute(task);
+            }
+            while (!pending.isEmpty()) {
+                deliver(pending.poll(), callback);
+            }
+            return index;
+        } finally {
+            // Abandon anything not yet delivered
+            for (Future<BatchResult<C, R>> task : pending) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private static <C, R> void deliver(Future<BatchResult<C, R>> task, BatchCallback<C, R> callback)
+            throws InterruptedException {
+        BatchResult<C, R> result;
+        try {
+            result = task.get();
+        } catch (ExecutionException e) {
+            // Tasks record their own failures so this only happens for errors
+            Throwable cause = e.getCause();
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException("Unexpected failure in batch", cause);
+        }
+        callback.accept(result);
+    }
+
+    /**
+     * Parses, and optionally runs, a single command line
+     */
+    private static final class ParseTask<C, R> implements Callable<BatchResult<C, R>> {
+        private final GlobalMetadata<C> metadata;
+        private final long index;
+        private final String[] args;
+        private final BatchAction<C, R> action;
+
+        ParseTask(GlobalMetadata<C> metadata, long index, String[] args, BatchAction<C, R> action) {
+            this.metadata = metadata;
+            this.index = index;
+            // Copied on the calling thread since callers may reuse the array
+            // once it has been handed to us
+            this.args = args.clone();
+            this.action = action;
+        }
+
+        @Override
+        public BatchResult<C, R> call() {
+            ParseResult<C> parseResult;
+            try {
+                parseResult = new CliParser<C>().parseWithResult(this.metadata, Arrays.asList(this.args));
+            } catch (RuntimeException e) {
+                return new BatchResult<C, R>(this.index, this.args, null, false, null, e);
+            }
+
+            if (this.action == null || !parseResult.wasSuccessful() || parseResult.getCommand() == null)
+                return new BatchResult<C, R>(this.index, this.args, parseResult, false, null, null);
+            try {
+                R output = this.action.run(parseResult.getCommand());
+                return new BatchResult<C, R>(this.index, this.args, parseResult, true, output, null);
+            } catch (Exception e) {
+                return new BatchResult<C, R>(this.index, this.args, parseResult, true, null, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.batch;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.rvesse.airline.parser.ParseResult;
+
+/**
+ * The result for a single command line in a batch
+ *
+ * @param <C>
+ *            Command type
+ * @param <R>
+ *            Output type
+ */
+public class BatchResult<C, R> {
+
+    private final long index;
+    private final String[] args;
+    private final ParseResult<C> parseResult;
+    private final boolean ran;
+    private final R output;
+    private final Throwable error;
+
+    BatchResult(long index, String[] args, ParseResult<C> parseResult, boolean ran, R output, Throwable error) {
+        this.index = index;
+        this.args = args;
+        this.parseResult = parseResult;
+        this.ran = ran;
+        this.output = output;
+        this.error = error;
+    }
+
+    /**
+     * Gets the index of the command line within the batch
+     * 
+     * @return Index, starting from zero
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the arguments that were parsed
+     * 
+     * @return Arguments
+     */
+    public List<String> getArguments() {
+        return Collections.unmodifiableList(Arrays.asList(args));
+    }
+
+    /**
+     * Gets the parse result
+     * 
+     * @return Parse result, {@code null} if the parser threw an error, as
+     *         happens for the default
+     *         {@link com.github.rvesse.airline.parser.errors.handlers.FailFast}
+     *         error handler, in which case {@link #getError()} gives the error
+     */
+    public ParseResult<C> getParseResult() {
+        return parseResult;
+    }
+
+    /**
+     * Gets the command instance
+     * 
+     * @return Command instance, {@code null} if parsing failed or the
+     *         arguments did not identify a command
+     */
+    public C getCommand() {
+        return parseResult != null ? parseResult.getCommand() : null;
+    }
+
+    /**
+     * Gets whether the batch action was run for the command
+     * 
+     * @return True if the action was run, false otherwise
+     */
+    public boolean wasRun() {
+        return ran;
+    }
+
+    /**
+     * Gets the output of the batch action
+     * 
+     * @return Output, {@code null} if the action was not run or failed
+     */
+    public R getOutput() {
+        return output;
+    }
+
+    /**
+     * Gets the error thrown by the parser or by the batch action
+     * 
+     * @return Error, {@code null} if none was thrown
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Gets whether the command line was successfully parsed, and run if
+     * there was a batch action
+     * 
+     * @return True if successful, false otherwise
+     */
+    public boolean wasSuccessful() {
+        return error == null && parseResult != null && parseResult.wasSuccessful();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("BatchResult {");
+        sb.append("index=").append(index);
+        sb.append(", args=").append(Arrays.toString(args));
+        sb.append(", successful=").append(wasSuccessful());
+        sb.append(", ran=").append(ran);
+        if (error != null)
+            sb.append(", error=").append(error);
+        sb.append('}');
+        return sb.toString();
+    }
+}
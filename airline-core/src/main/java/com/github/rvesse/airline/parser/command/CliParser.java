@@ -22,6 +22,7 @@ import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.LightweightErrors;
 import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
@@ -33,20 +34,27 @@ public class CliParser<T> extends AbstractCommandParser<T> {
         if (args == null)
             throw new NullPointerException("args cannot be null");
 
-        ParseState<T> state = tryParse(metadata, args);
+        boolean lightweight = LightweightErrors.enable(metadata.getParserConfiguration().usesLightweightErrors());
+        try {
+            ParseState<T> state = tryParse(metadata, args);
 
-        // If we did not find a command choose the appropriate default command
-        // (if any)
-        if (state.getCommand() == null) {
-            if (state.getGroup() != null) {
-                state = state.withCommand(state.getGroup().getDefaultCommand());
-            } else {
-                state = state.withCommand(metadata.getDefaultCommand());
+            // If we did not find a command choose the appropriate default
+            // command (if any)
+            if (state.getCommand() == null) {
+                if (state.getGroup() != null) {
+                    state = state.withCommand(state.getGroup().getDefaultCommand());
+                } else {
+                    state = state.withCommand(metadata.getDefaultCommand());
+                }
             }
-        }
 
-        validate(state);
-        return metadata.getParserConfiguration().getErrorHandler().finished(state);
+            state = resolveDeferredValues(state);
+            validate(state);
+            return metadata.getParserConfiguration().getErrorHandler().finished(state);
+        } finally {
+            resetErrorHandler(metadata.getParserConfiguration());
+            LightweightErrors.restore(lightweight);
+        }
     }
 
     public T parse(GlobalMetadata<T> metadata, Iterable<String> args) {
@@ -26,6 +26,7 @@ import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.LightweightErrors;
 import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
@@ -38,11 +39,17 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
         if (args == null)
             throw new NullPointerException("args is null");
 
-        ParseState<T> state = tryParse(parserConfig, commandMetadata, args);
-        validate(state, IteratorUtils.toList(restrictions.iterator()));
-
-        return state.getParserConfiguration().getErrorHandler().finished(state);
+        boolean lightweight = LightweightErrors.enable(parserConfig.usesLightweightErrors());
+        try {
+            ParseState<T> state = tryParse(parserConfig, commandMetadata, args);
+            state = resolveDeferredValues(state);
+            validate(state, IteratorUtils.toList(restrictions.iterator()));
 
+            return state.getParserConfiguration().getErrorHandler().finished(state);
+        } finally {
+            resetErrorHandler(parserConfig);
+            LightweightErrors.restore(lightweight);
+        }
     }
 
     public T parse(ParserMetadata<T> parserConfig, CommandMetadata commandMetadata,
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+/**
+ * Controls whether {@link ParseException} instances created on the current
+ * thread are lightweight
+ * <p>
+ * Parse errors are an expected outcome of parsing user input, when lots of
+ * input is being validated, e.g. in an interactive shell or when bulk
+ * validating generated command lines with a collecting error handler,
+ * capturing a stack trace for every error can cost more than the parsing
+ * itself. While lightweight errors are enabled any {@link ParseException}
+ * created on the thread does not capture a stack trace. The parsers enable
+ * this for the duration of a parse when the parser configuration requests it
+ * via {@link com.github.rvesse.airline.model.ParserMetadata#usesLightweightErrors()}.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public final class LightweightErrors {
+
+    private static final ThreadLocal<Boolean> ENABLED = new ThreadLocal<>();
+
+    private LightweightErrors() {
+    }
+
+    /**
+     * Gets whether lightweight errors are enabled for the current thread
+     * 
+     * @return True if enabled, false otherwise
+     */
+    public static boolean isEnabled() {
+        return ENABLED.get() == Boolean.TRUE;
+    }
+
+    /**
+     * Sets whether lightweight errors are enabled for the current thread
+     * <p>
+     * Callers should pass the returned value to {@link #restore(boolean)} once
+     * they are done, typically in a {@code finally} block.
+     * </p>
+     * 
+     * @param enabled
+     *            Whether to enable lightweight errors
+     * @return Whether lightweight errors were previously enabled
+     */
+    public static boolean enable(boolean enabled) {
+        boolean previous = isEnabled();
+        if (enabled != previous)
+            set(enabled);
+        return previous;
+    }
+
+    /**
+     * Restores the previous setting for the current thread
+     * 
+     * @param previous
+     *            Previous setting as returned from {@link #enable(boolean)}
+     */
+    public static void restore(boolean previous) {
+        if (previous != isEnabled())
+            set(previous);
+    }
+
+    private static void set(boolean enabled) {
+        if (enabled) {
+            ENABLED.set(Boolean.TRUE);
+        } else {
+            ENABLED.remove();
+        }
+    }
+}
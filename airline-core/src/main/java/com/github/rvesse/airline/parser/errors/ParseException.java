@@ -15,21 +15,78 @@
  */
 package com.github.rvesse.airline.parser.errors;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
 /**
  * Super class of all command line parsing exceptions
+ * <p>
+ * The message of the exception is only formatted when it is first requested,
+ * the format and arguments used to produce it are available via
+ * {@link #getMessageFormat()} and {@link #getMessageArguments()}. When
+ * {@link LightweightErrors} are enabled for the current thread the exception
+ * does not capture a stack trace.
+ * </p>
  *
  */
 public class ParseException extends RuntimeException
 {
     private static final long serialVersionUID = 3772132549207742875L;
 
+    private final String format;
+    private final transient Object[] args;
+    private String message;
+
     public ParseException(String string, Object... args)
     {
-        super(String.format(string, args));
+        super((String) null);
+        this.format = string;
+        this.args = args;
     }
 
     public ParseException(Exception cause, String string, Object... args)
     {
-        super(String.format(string, args), cause);
+        super(null, cause);
+        this.format = string;
+        this.args = args;
+    }
+
+    @Override
+    public String getMessage() {
+        if (this.message == null && this.format != null) {
+            this.message = String.format(this.format, this.args);
+        }
+        return this.message;
+    }
+
+    /**
+     * Gets the format string for the message
+     * 
+     * @return Message format
+     */
+    public String getMessageFormat() {
+        return this.format;
+    }
+
+    /**
+     * Gets the arguments used to format the message
+     * 
+     * @return Message arguments
+     */
+    public Object[] getMessageArguments() {
+        return this.args != null ? this.args.clone() : new Object[0];
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        if (LightweightErrors.isEnabled())
+            return this;
+        return super.fillInStackTrace();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // Arguments are not serialized so ensure the message is
+        getMessage();
+        out.defaultWriteObject();
     }
 }
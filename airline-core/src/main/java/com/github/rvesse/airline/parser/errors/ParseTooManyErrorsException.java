@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+import java.util.Collection;
+
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * Error that is thrown when a collecting error handler reaches its maximum
+ * number of errors
+ * <p>
+ * Parsing stops as soon as the limit is reached, the distinct errors collected
+ * up to that point are attached as suppressed errors and are also available
+ * via {@link #getErrors()}.
+ * </p>
+ */
+public class ParseTooManyErrorsException extends ParseException {
+    private static final long serialVersionUID = -1826547346519658532L;
+
+    private final int count;
+    private final Collection<ParseException> errors;
+
+    /**
+     * Creates a new exception
+     * 
+     * @param count
+     *            Number of errors encountered, including duplicates
+     * @param errors
+     *            Distinct errors encountered
+     */
+    public ParseTooManyErrorsException(int count, Collection<ParseException> errors) {
+        super("Parsing stopped after encountering %d errors (%d distinct), see suppressed errors for details", count,
+                errors.size());
+        this.count = count;
+        this.errors = AirlineUtils.unmodifiableListCopy(errors);
+        for (ParseException e : this.errors) {
+            addSuppressed(e);
+        }
+    }
+
+    /**
+     * Gets the number of errors encountered, including duplicates
+     * 
+     * @return Number of errors
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets the distinct errors encountered
+     * 
+     * @return Errors
+     */
+    public Collection<ParseException> getErrors() {
+        return this.errors;
+    }
+}
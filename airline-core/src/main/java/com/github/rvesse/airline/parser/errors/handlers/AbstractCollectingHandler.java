@@ -15,40 +15,216 @@
  */
 package com.github.rvesse.airline.parser.errors.handlers;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-
-import org.apache.commons.lang3.StringUtils;
+import java.util.Map;
 
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseTooManyErrorsException;
 
+/**
+ * Abstract error handler that collects errors
+ * <p>
+ * Duplicate errors, i.e. those of the same type with the same message format
+ * and arguments, are combined into a single error with the duplicates added as
+ * suppressed errors. Duplicates are detected via a hash lookup so the cost of
+ * collecting errors remains linear in the number of errors, and messages are
+ * not formatted in order to detect them. Only errors without a message format
+ * are compared by their message.
+ * </p>
+ * <p>
+ * A maximum number of errors may optionally be given, once that many errors
+ * (including duplicates) have been handled parsing is stopped by throwing a
+ * {@link ParseTooManyErrorsException} that summarises the errors collected.
+ * </p>
+ * <p>
+ * Errors are collected separately for each thread so a single handler may be
+ * used by parsers running concurrently, e.g. via a
+ * {@link com.github.rvesse.airline.parser.batch.BatchExecutor}. The parsers
+ * call {@link #reset()} once each parse completes, whether or not it
+ * succeeded, so errors never carry over to the next parse on a thread.
+ * </p>
+ */
 public abstract class AbstractCollectingHandler implements ParserErrorHandler {
 
-    protected List<ParseException> errors = new ArrayList<>();
+    /**
+     * View of the errors collected by the current thread
+     * 
+     * @deprecated Use {@link #getCollection()} and {@link #resetCollection()}
+     *             instead, assigning this field has no effect on the errors
+     *             collected
+     */
+    @Deprecated
+    protected List<ParseException> errors = new CurrentErrors();
+
+    private final ThreadLocal<Collected> collected = new ThreadLocal<Collected>() {
+        @Override
+        protected Collected initialValue() {
+            return new Collected();
+        }
+    };
+    private final int maxErrors;
 
     public AbstractCollectingHandler() {
+        this(-1);
+    }
+
+    /**
+     * Creates a new handler
+     * 
+     * @param maxErrors
+     *            Maximum number of errors to handle before stopping parsing,
+     *            zero or a negative value for no limit
+     */
+    public AbstractCollectingHandler(int maxErrors) {
         super();
+        this.maxErrors = maxErrors;
     }
 
     @Override
     public void handleError(ParseException e) {
-        // Check for duplicate messages
-        for (ParseException existing : this.errors) {
-            if (StringUtils.equals(existing.getMessage(), e.getMessage())) {
-                existing.addSuppressed(e);
-                return;
-            }
+        Collected collected = this.collected.get();
+        collected.count++;
+
+        // Check for duplicates
+        ErrorKey key = new ErrorKey(e);
+        ParseException existing = collected.index.get(key);
+        if (existing != null) {
+            existing.addSuppressed(e);
+        } else {
+            collected.index.put(key, e);
+            collected.errors.add(e);
         }
-        
-        this.errors.add(e);
+
+        if (this.maxErrors > 0 && collected.count >= this.maxErrors) {
+            ParseTooManyErrorsException tooMany = new ParseTooManyErrorsException(collected.count,
+                    collected.errors);
+            resetCollection();
+            throw tooMany;
+        }
+    }
+
+    /**
+     * Gets the maximum number of errors that will be handled before parsing
+     * is stopped
+     * 
+     * @return Maximum errors, zero or negative if there is no limit
+     */
+    public int getMaximumErrors() {
+        return this.maxErrors;
     }
 
+    /**
+     * Gets the errors collected by the current thread
+     * 
+     * @return Errors
+     */
     protected List<ParseException> getCollection() {
-        return this.errors;
+        return this.collected.get().errors;
     }
 
+    /**
+     * Resets the errors collected by the current thread
+     */
     protected void resetCollection() {
-        this.errors = new ArrayList<>();
+        this.collected.remove();
+    }
+
+    /**
+     * Discards any errors collected by the current thread
+     * <p>
+     * Called by the parsers once a parse completes so that a parse which
+     * failed unexpectedly does not leave its errors behind for the next parse
+     * on the same thread.
+     * </p>
+     */
+    public void reset() {
+        resetCollection();
     }
 
-}
\ No newline at end of file
+    /**
+     * Live view of the errors collected by the current thread
+     */
+    private final class CurrentErrors extends AbstractList<ParseException> {
+
+        @Override
+        public ParseException get(int index) {
+            return getCollection().get(index);
+        }
+
+        @Override
+        public int size() {
+            return getCollection().size();
+        }
+
+        @Override
+        public ParseException set(int index, ParseException element) {
+            return getCollection().set(index, element);
+        }
+
+        @Override
+        public void add(int index, ParseException element) {
+            getCollection().add(index, element);
+        }
+
+        @Override
+        public ParseException remove(int index) {
+            return getCollection().remove(index);
+        }
+    }
+
+    /**
+     * Errors collected by a thread
+     */
+    private static final class Collected {
+        private final List<ParseException> errors = new ArrayList<>();
+        private final Map<ErrorKey, ParseException> index = new HashMap<>();
+        private int count = 0;
+    }
+
+    /**
+     * Key used to detect duplicate errors
+     */
+    private static final class ErrorKey {
+        private final Class<?> type;
+        private final String format;
+        private final List<Object> args;
+        private final int hash;
+
+        ErrorKey(ParseException e) {
+            this.type = e.getClass();
+            String format = e.getMessageFormat();
+            if (format != null) {
+                this.format = format;
+                this.args = Arrays.asList(e.getMessageArguments());
+            } else {
+                // Subclasses may produce their messages some other way
+                this.format = e.getMessage();
+                this.args = Collections.emptyList();
+            }
+            this.hash = (31 * this.type.hashCode() + (this.format != null ? this.format.hashCode() : 0)) * 31
+                    + this.args.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof ErrorKey))
+                return false;
+            ErrorKey other = (ErrorKey) obj;
+            return this.hash == other.hash && this.type == other.type
+                    && (this.format == null ? other.format == null : this.format.equals(other.format))
+                    && this.args.equals(other.args);
+        }
+    }
+}
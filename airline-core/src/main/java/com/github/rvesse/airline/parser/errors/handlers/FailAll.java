@@ -30,9 +30,25 @@ import com.github.rvesse.airline.parser.errors.ParseException;
  */
 public class FailAll extends AbstractCollectingHandler {
 
+    public FailAll() {
+        super();
+    }
+
+    /**
+     * Creates a new handler that stops parsing once the given number of errors
+     * have been handled
+     * 
+     * @param maxErrors
+     *            Maximum number of errors, zero or negative for no limit
+     */
+    public FailAll(int maxErrors) {
+        super(maxErrors);
+    }
+
     @Override
     public <T> ParseResult<T> finished(ParseState<T> state) {
         Collection<ParseException> errors = getCollection();
+        resetCollection();
         if (errors.size() == 1) {
             // Single error handled, throw as-is
             throw errors.iterator().next();
@@ -18,12 +18,10 @@ package com.github.rvesse.airline.parser.options;
 import java.util.List;
 
 import org.apache.commons.collections4.iterators.PeekingIterator;
-import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.Context;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
-import com.github.rvesse.airline.utils.AirlineUtils;
 
 /**
  * Abstract option parser for options that are specified in {@code --name=value}
@@ -47,13 +45,40 @@ public abstract class AbstractNameValueOptionParser<T> extends AbstractOptionPar
     }
 
     @Override
-    public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state, List<OptionMetadata> allowedOptions) {
-        List<String> parts = AirlineUtils.unmodifiableListCopy(StringUtils.split(tokens.peek(), new String(new char[] { this.separator }), 2));
-        if (parts.size() != 2) {
+    public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
+            List<OptionMetadata> allowedOptions) {
+        return parseClassified(tokens, state, allowedOptions);
+    }
+
+    @Override
+    public boolean accepts(ClassifiedToken<T> token) {
+        return token.getToken().indexOf(this.separator) >= 0;
+    }
+
+    @Override
+    public ParseState<T> parseOptions(ClassifiedToken<T> classified, PeekingIterator<String> tokens,
+            ParseState<T> state, List<OptionMetadata> allowedOptions) {
+        // Split into name and value ignoring any leading separators and any
+        // repeated separators between the name and value
+        String token = classified.getToken();
+        int length = token.length();
+        int nameStart = 0;
+        while (nameStart < length && token.charAt(nameStart) == this.separator) {
+            nameStart++;
+        }
+        int nameEnd = token.indexOf(this.separator, nameStart);
+        if (nameEnd < 0) {
+            return null;
+        }
+        int valueStart = nameEnd;
+        while (valueStart < length && token.charAt(valueStart) == this.separator) {
+            valueStart++;
+        }
+        if (valueStart == length) {
             return null;
         }
 
-        OptionMetadata option = findOption(state, allowedOptions, parts.get(0));
+        OptionMetadata option = findOption(state, allowedOptions, token.substring(nameStart, nameEnd));
         if (option == null || option.getArity() != 1) {
             // Only supported for arity 1 options currently
             return null;
@@ -64,7 +89,7 @@ public abstract class AbstractNameValueOptionParser<T> extends AbstractOptionPar
 
         // update state
         state = state.pushContext(Context.OPTION).withOption(option);
-        state = state.withOptionValue(option, parts.get(1)).popContext();
+        state = state.withOptionValue(option, token.substring(valueStart)).popContext();
 
         return state;
     }
@@ -16,9 +16,9 @@
 package com.github.rvesse.airline.parser.options;
 
 import java.util.List;
-import java.util.regex.Pattern;
 
 import org.apache.commons.collections4.Predicate;
+import org.apache.commons.collections4.iterators.PeekingIterator;
 
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.AbstractParser;
@@ -30,10 +30,58 @@ import com.github.rvesse.airline.utils.predicates.parser.OptionFinder;
 /**
  * Abstract option parser that provides some useful helper methods to derived
  * classes
+ * <p>
+ * Derived classes may either implement
+ * {@link #parseOptions(PeekingIterator, ParseState, List)} directly or may
+ * override {@link #accepts(ClassifiedToken)} and
+ * {@link #parseOptions(ClassifiedToken, PeekingIterator, ParseState, List)} to
+ * take advantage of tokens being classified only once, in which case they
+ * should implement the former by calling
+ * {@link #parseClassified(PeekingIterator, ParseState, List)}.
+ * </p>
  */
-public abstract class AbstractOptionParser<T> extends AbstractParser<T> implements OptionParser<T> {
+public abstract class AbstractOptionParser<T> extends AbstractParser<T> implements ClassifiedTokenOptionParser<T> {
 
-    private static final Pattern SHORT_OPTIONS_PREFIX = Pattern.compile("-[^-].*");
+    /**
+     * Returns true if the token may be offered to this parser, the default
+     * implementation accepts all tokens
+     */
+    @Override
+    public boolean accepts(ClassifiedToken<T> token) {
+        return true;
+    }
+
+    /**
+     * Parses one/more options from the token stream where the next token has
+     * already been classified, the default implementation ignores the
+     * classification and calls
+     * {@link #parseOptions(PeekingIterator, ParseState, List)}
+     */
+    @Override
+    public ParseState<T> parseOptions(ClassifiedToken<T> token, PeekingIterator<String> tokens, ParseState<T> state,
+            List<OptionMetadata> allowedOptions) {
+        return parseOptions(tokens, state, allowedOptions);
+    }
+
+    /**
+     * Classifies the next token and, if this parser accepts it, parses it
+     * 
+     * @param tokens
+     *            Tokens
+     * @param state
+     *            Current parser state
+     * @param allowedOptions
+     *            Allowed options
+     * @return New parser state, may return {@code null} if this parser could
+     *         not parse the next token as an option
+     */
+    protected final ParseState<T> parseClassified(PeekingIterator<String> tokens, ParseState<T> state,
+            List<OptionMetadata> allowedOptions) {
+        ClassifiedToken<T> token = new ClassifiedToken<T>(tokens.peek(), state, allowedOptions);
+        if (!accepts(token))
+            return null;
+        return parseOptions(token, tokens, state, allowedOptions);
+    }
 
     /**
      * Tries to find an option with the given name
@@ -65,6 +113,11 @@ public abstract class AbstractOptionParser<T> extends AbstractParser<T> implemen
      */
     protected final OptionMetadata findOption(ParseState<T> state, List<OptionMetadata> options, final String name,
             OptionMetadata defaultValue) {
+        return lookupOption(state, options, name, defaultValue);
+    }
+
+    static OptionMetadata lookupOption(ParseState<?> state, List<OptionMetadata> options, final String name,
+            OptionMetadata defaultValue) {
         Predicate<OptionMetadata> findOptionPredicate;
         if (state.getParserConfiguration().allowsAbbreviatedOptions()) {
             findOptionPredicate = new AbbreviatedOptionFinder(name, options);
@@ -86,6 +139,33 @@ public abstract class AbstractOptionParser<T> extends AbstractParser<T> implemen
      * @return True if a short name prefix, false otherwise
      */
     protected boolean hasShortNamePrefix(String name) {
-        return SHORT_OPTIONS_PREFIX.matcher(name).matches();
+        return isShortNamePrefix(name);
+    }
+
+    /**
+     * Return true if the given name has a short name prefix i.e. a single
+     * {@code -} followed by at least one other character and containing no line
+     * terminators
+     * 
+     * @param name
+     *            Name
+     * @return True if a short name prefix, false otherwise
+     */
+    static boolean isShortNamePrefix(String name) {
+        if (name == null || name.length() < 2 || name.charAt(0) != '-' || name.charAt(1) == '-')
+            return false;
+        for (int i = 1; i < name.length(); i++) {
+            switch (name.charAt(i)) {
+            case '\n':
+            case '\r':
+            case '\u0085':
+            case '\u2028':
+            case '\u2029':
+                return false;
+            default:
+                continue;
+            }
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
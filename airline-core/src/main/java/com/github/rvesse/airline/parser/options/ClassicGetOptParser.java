@@ -38,33 +38,42 @@ import com.github.rvesse.airline.parser.errors.ParseOptionUnexpectedException;
  * @param <T>
  */
 public class ClassicGetOptParser<T> extends AbstractOptionParser<T> {
+    @Override
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
-        if (!hasShortNamePrefix(tokens.peek())) {
+        return parseClassified(tokens, state, allowedOptions);
+    }
+
+    @Override
+    public boolean accepts(ClassifiedToken<T> token) {
+        return token.hasShortNamePrefix();
+    }
+
+    @Override
+    public ParseState<T> parseOptions(ClassifiedToken<T> classified, PeekingIterator<String> tokens,
+            ParseState<T> state, List<OptionMetadata> allowedOptions) {
+        if (!classified.hasShortNamePrefix()) {
             return null;
         }
+        String token = classified.getToken();
 
-        // remove leading dash from token
-        String remainingToken = tokens.peek().substring(1);
-
+        // walk the token skipping the leading dash
         ParseState<T> nextState = state;
         boolean first = true;
-        while (!remainingToken.isEmpty()) {
-            char tokenCharacter = remainingToken.charAt(0);
+        int length = token.length();
+        for (int i = 1; i < length; i++) {
+            char tokenCharacter = token.charAt(i);
 
             // is the current token character a single letter option?
-            OptionMetadata option = findOption(state, allowedOptions, "-" + tokenCharacter);
+            OptionMetadata option = classified.findShortOption(tokenCharacter);
             if (option == null) {
                 return null;
             }
 
             nextState = nextState.pushContext(Context.OPTION).withOption(option);
 
-            // remove current token character
-            remainingToken = remainingToken.substring(1);
-
-            // for no argument options, process the option and remove the
-            // character from the token
+            // for no argument options, process the option and move onto the
+            // next character from the token
             if (option.getArity() == 0) {
                 // Note - Flag negation is not usable with single character
                 // options so value will always be set as true for flag i.e.
@@ -81,8 +90,8 @@ public class ClassicGetOptParser<T> extends AbstractOptionParser<T> {
 
                 // if current token has more characters, this is the value;
                 // otherwise it is the next token
-                if (!remainingToken.isEmpty()) {
-                    nextState = nextState.withOptionValue(option, remainingToken).popContext();
+                if (i + 1 < length) {
+                    nextState = nextState.withOptionValue(option, token.substring(i + 1)).popContext();
                 } else if (tokens.hasNext()) {
                     nextState = nextState.withOptionValue(option, tokens.next()).popContext();
                 }
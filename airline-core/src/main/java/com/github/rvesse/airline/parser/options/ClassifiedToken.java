@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.options;
+
+import java.util.List;
+
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * A token that is being considered as a potential option
+ * <p>
+ * The classification of a token is computed once and then shared by all the
+ * option parsers that consider the token. The prefix kind of the token is
+ * determined up front, lookups of the token (and its short option prefix)
+ * against the allowed options are computed on first use and then remembered.
+ * </p>
+ *
+ * @author rvesse
+ *
+ * @param <T>
+ *            Command type
+ */
+public final class ClassifiedToken<T> {
+
+    private final String token;
+    private final ParseState<T> state;
+    private final List<OptionMetadata> allowedOptions;
+    private final boolean shortNamePrefix;
+
+    private boolean optionResolved, shortPrefixOptionResolved, indexResolved;
+    private OptionMetadata option, shortPrefixOption;
+    private ShortOptionIndex index;
+
+    /**
+     * Creates a new classified token
+     *
+     * @param token
+     *            Token
+     * @param state
+     *            Current parser state
+     * @param allowedOptions
+     *            Allowed options at this point of the parsing
+     */
+    public ClassifiedToken(String token, ParseState<T> state, List<OptionMetadata> allowedOptions) {
+        this.token = token;
+        this.state = state;
+        this.allowedOptions = allowedOptions;
+        this.shortNamePrefix = AbstractOptionParser.isShortNamePrefix(token);
+    }
+
+    /**
+     * Gets the raw token
+     *
+     * @return Token
+     */
+    public String getToken() {
+        return this.token;
+    }
+
+    /**
+     * Gets whether the token has a short name prefix i.e. starts with a single
+     * {@code -} character
+     *
+     * @return True if a short name prefix, false otherwise
+     */
+    public boolean hasShortNamePrefix() {
+        return this.shortNamePrefix;
+    }
+
+    /**
+     * Gets the option that the token as a whole names (if any)
+     *
+     * @return Option or {@code null} if the token is not an option name
+     */
+    public OptionMetadata getOption() {
+        if (!this.optionResolved) {
+            this.option = this.token != null
+                    ? AbstractOptionParser.lookupOption(this.state, this.allowedOptions, this.token, null) : null;
+            this.optionResolved = true;
+        }
+        return this.option;
+    }
+
+    /**
+     * Gets the option named by the short option prefix of the token (if any)
+     * i.e. for a token like {@code -Pa,b} the option named {@code -P}
+     * <p>
+     * This is only ever non-null for tokens that have a short name prefix and
+     * are longer than a short option name.
+     * </p>
+     *
+     * @return Option or {@code null} if the token does not start with a short
+     *         option name
+     */
+    public OptionMetadata getShortPrefixOption() {
+        if (!this.shortPrefixOptionResolved) {
+            if (this.shortNamePrefix && this.token.length() > 2) {
+                this.shortPrefixOption = findShortOption(this.token.charAt(1));
+            }
+            this.shortPrefixOptionResolved = true;
+        }
+        return this.shortPrefixOption;
+    }
+
+    /**
+     * Gets whether the token is either an option name or starts with a short
+     * option name
+     *
+     * @return True if the token may refer to an option
+     */
+    public boolean hasOptionCandidate() {
+        return getOption() != null || getShortPrefixOption() != null;
+    }
+
+    /**
+     * Finds the short option with the given character
+     *
+     * @param c
+     *            Short option character i.e. the character following the
+     *            {@code -}
+     * @return Option or {@code null} if no such option
+     */
+    public OptionMetadata findShortOption(char c) {
+        ShortOptionIndex index = getShortOptionIndex();
+        if (index != null) {
+            OptionMetadata option = index.find(c);
+            // An exact match always wins, only when abbreviations are enabled
+            // might there be some other possible match
+            if (option != null || !this.state.getParserConfiguration().allowsAbbreviatedOptions())
+                return option;
+        }
+        return AbstractOptionParser.lookupOption(this.state, this.allowedOptions, new String(new char[] { '-', c }),
+                null);
+    }
+
+    /**
+     * Gets the precomputed short options index for the allowed options if
+     * available
+     *
+     * @return Short options index or {@code null} if not available
+     */
+    private ShortOptionIndex getShortOptionIndex() {
+        if (!this.indexResolved) {
+            CommandMetadata command = this.state.getCommand();
+            GlobalMetadata<T> global = this.state.getGlobal();
+            if (command != null && command.getAllOptions() == this.allowedOptions) {
+                this.index = command.getShortOptionIndex();
+            } else if (global != null && global.getOptions() == this.allowedOptions) {
+                this.index = global.getShortOptionIndex();
+            }
+            this.indexResolved = true;
+        }
+        return this.index;
+    }
+
+    @Override
+    public String toString() {
+        return this.token;
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.options;
+
+import java.util.List;
+
+import org.apache.commons.collections4.iterators.PeekingIterator;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * An option parser that declares the shapes of token it is able to handle
+ * <p>
+ * When parsing options the parser classifies each token once and then only
+ * offers it to those option parsers that accept a token of that shape. This
+ * avoids each option parser in turn having to inspect and reject tokens that
+ * it can never handle.
+ * </p>
+ * <p>
+ * Only the built-in parsers, parsers that directly extend
+ * {@link AbstractOptionParser} and parsers that directly implement this
+ * interface are offered tokens via
+ * {@link #parseOptions(ClassifiedToken, PeekingIterator, ParseState, List)}.
+ * Sub-classes of other parsers, including the built-in parsers, are always
+ * offered tokens via {@link #parseOptions(PeekingIterator, ParseState, List)}
+ * so that any override of that method continues to take effect.
+ * </p>
+ *
+ * @author rvesse
+ *
+ * @param <T>
+ *            Command type
+ */
+public interface ClassifiedTokenOptionParser<T> extends OptionParser<T> {
+
+    /**
+     * Gets whether this parser may be able to parse the given token
+     * <p>
+     * This should be a cheap check based upon the shape of the token, if this
+     * returns {@code false} the parser will not be offered the token.
+     * Returning {@code true} does not guarantee that the parser will actually
+     * parse the token.
+     * </p>
+     *
+     * @param token
+     *            Classified token
+     * @return True if the token may be parsed by this parser, false otherwise
+     */
+    public abstract boolean accepts(ClassifiedToken<T> token);
+
+    /**
+     * Parses one/more options from the token stream where the next token has
+     * already been classified
+     *
+     * @param token
+     *            Classified form of the next token
+     * @param tokens
+     *            Tokens
+     * @param state
+     *            Current parser state
+     * @param allowedOptions
+     *            Allowed options at this point of the parsing
+     * @return New parser state, may return {@code null} if this parser could
+     *         not parse the next token as an option
+     */
+    public abstract ParseState<T> parseOptions(ClassifiedToken<T> token, PeekingIterator<String> tokens,
+            ParseState<T> state, List<OptionMetadata> allowedOptions);
+}
@@ -69,16 +69,24 @@ public class MaybeListValueOptionParser<T> extends ListValueOptionParser<T> {
     @Override
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
-        String name = tokens.peek();
+        return parseClassified(tokens, state, allowedOptions);
+    }
+
+    @Override
+    public boolean accepts(ClassifiedToken<T> token) {
+        return token.hasOptionCandidate();
+    }
+
+    @Override
+    public ParseState<T> parseOptions(ClassifiedToken<T> token, PeekingIterator<String> tokens, ParseState<T> state,
+            List<OptionMetadata> allowedOptions) {
+        String name = token.getToken();
         boolean noSep = false;
-        OptionMetadata option = findOption(state, allowedOptions, name);
+        OptionMetadata option = token.getOption();
         if (option == null) {
             // Check if we are looking at a maven style -Pa,b,c argument
-            if (hasShortNamePrefix(name) && name.length() > 2) {
-                String shortName = name.substring(0, 2);
-                option = findOption(state, allowedOptions, shortName);
-                noSep = option != null;
-            }
+            option = token.getShortPrefixOption();
+            noSep = option != null;
 
             if (!noSep)
                 return null;
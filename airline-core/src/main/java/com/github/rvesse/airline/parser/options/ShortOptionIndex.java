@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.options;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+
+/**
+ * An immutable index from short option characters to options
+ * <p>
+ * A short option is one whose name is a single character preceded by a
+ * {@code -} e.g. {@code -x}. ASCII characters are resolved via a direct lookup
+ * table with a map used as a fallback for any other characters. Where multiple
+ * options declare the same short name the first option wins, this is
+ * consistent with how options are otherwise located during parsing.
+ * </p>
+ *
+ * @author rvesse
+ *
+ */
+public final class ShortOptionIndex {
+
+    private static final int TABLE_SIZE = 128;
+
+    private final OptionMetadata[] table = new OptionMetadata[TABLE_SIZE];
+    private final Map<Character, OptionMetadata> others;
+
+    /**
+     * Creates a new index
+     *
+     * @param options
+     *            Options to index
+     */
+    public ShortOptionIndex(Iterable<OptionMetadata> options) {
+        Map<Character, OptionMetadata> others = null;
+        for (OptionMetadata option : options) {
+            for (String name : option.getOptions()) {
+                if (name.length() != 2 || name.charAt(0) != '-')
+                    continue;
+
+                char c = name.charAt(1);
+                if (c < TABLE_SIZE) {
+                    if (this.table[c] == null)
+                        this.table[c] = option;
+                } else {
+                    if (others == null)
+                        others = new HashMap<>();
+                    if (!others.containsKey(c))
+                        others.put(c, option);
+                }
+            }
+        }
+        this.others = others != null ? others : Collections.<Character, OptionMetadata> emptyMap();
+    }
+
+    /**
+     * Finds the option with the given short name character
+     *
+     * @param c
+     *            Short name character i.e. the character following the
+     *            {@code -}
+     * @return Option or {@code null} if no such option
+     */
+    public OptionMetadata find(char c) {
+        if (c < TABLE_SIZE)
+            return this.table[c];
+        return this.others.get(c);
+    }
+}
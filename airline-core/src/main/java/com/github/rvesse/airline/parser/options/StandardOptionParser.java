@@ -36,7 +36,18 @@ public class StandardOptionParser<T> extends AbstractOptionParser<T> {
     @Override
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
-        OptionMetadata option = findOption(state, allowedOptions, tokens.peek());
+        return parseClassified(tokens, state, allowedOptions);
+    }
+
+    @Override
+    public boolean accepts(ClassifiedToken<T> token) {
+        return token.getOption() != null;
+    }
+
+    @Override
+    public ParseState<T> parseOptions(ClassifiedToken<T> token, PeekingIterator<String> tokens, ParseState<T> state,
+            List<OptionMetadata> allowedOptions) {
+        OptionMetadata option = token.getOption();
         if (option == null) {
             return null;
         }
@@ -49,8 +49,22 @@ public class FileLocator implements ResourceLocator {
         return searchLocation;
     }
 
-    @Override
-    public InputStream open(String searchLocation, String resourceName) throws IOException {
+    /**
+     * Locates the file that would be opened for the given search location and
+     * resource name without actually opening it
+     * <p>
+     * This allows callers to inspect file attributes e.g. modification time and
+     * size in order to decide whether a previously read copy of the resource
+     * is still current.
+     * </p>
+     * 
+     * @param searchLocation
+     *            Search location
+     * @param resourceName
+     *            Resource name expected in the search location
+     * @return File or {@code null} if not a valid location
+     */
+    public File locate(String searchLocation, String resourceName) {
         if (searchLocation == null)
             return null;
 
@@ -62,18 +76,23 @@ public class FileLocator implements ResourceLocator {
         File f = new File(new File(searchLocation), resourceName);
         if (f.exists() && f.isFile() && f.canRead()) {
             // If the resource in the location is valid return it
-            return new FileInputStream(f);
+            return f;
         }
 
-        // Otherwise see if the location itself 
+        // Otherwise see if the location itself
         f = new File(searchLocation);
         if (f.exists() && f.isFile() && f.canRead()) {
             // If the location is itself a valid readable file just return that
-            return new FileInputStream(f);
+            return f;
         }
 
-        
         return null;
     }
 
+    @Override
+    public InputStream open(String searchLocation, String resourceName) throws IOException {
+        File f = locate(searchLocation, resourceName);
+        return f != null ? new FileInputStream(f) : null;
+    }
+
 }
@@ -15,16 +15,16 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
+
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsIllegalValueException;
 import com.github.rvesse.airline.parser.errors.ParseOptionIllegalValueException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
+import com.github.rvesse.airline.types.EnumLookup;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 public class AllowedEnumValuesRestriction extends AbstractAllowedValuesRestriction {
@@ -36,11 +36,7 @@ public class AllowedEnumValuesRestriction extends AbstractAllowedValuesRestricti
 
     private Collection<String> getValues(Class<? extends Enum<?>> cls) {
         if (cls.isEnum()) {
-            List<String> values = new ArrayList<>();
-            for (Enum<?> member : cls.getEnumConstants()) {
-                values.add(member.name());
-            }
-            return values;
+            return EnumLookup.forClass(cls).getNames();
         }
         return Collections.emptySet();
     }
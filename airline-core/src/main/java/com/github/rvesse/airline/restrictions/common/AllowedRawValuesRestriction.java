@@ -15,9 +15,11 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.HashSet;
 import java.util.Locale;
-
-import org.apache.commons.collections4.IterableUtils;
+import java.util.Set;
 
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
@@ -26,11 +28,17 @@ import com.github.rvesse.airline.parser.errors.ParseArgumentsIllegalValueExcepti
 import com.github.rvesse.airline.parser.errors.ParseOptionIllegalValueException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.LocaleSensitiveStringFinder;
 
 public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestriction {
 
     private final Locale locale;
+    private final Set<String> lookup;
+    private final Set<CollationKey> collatedLookup = new HashSet<>();
+    /**
+     * Collators are not thread safe and synchronize internally so each thread
+     * uses its own copy when computing the collation key of a value
+     */
+    private final ThreadLocal<Collator> collators;
 
     public AllowedRawValuesRestriction(boolean ignoreCase, Locale locale, String... values) {
         super(ignoreCase);
@@ -42,6 +50,34 @@ public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestrictio
                 value = value.toLowerCase(locale);
             rawValues.add(value);
         }
+
+        // Precompute hashed lookups, exact matches are checked first and only
+        // if there is no exact match do we need to consider locale sensitive
+        // equivalents
+        this.lookup = new HashSet<>(this.rawValues);
+        final Collator collator = Collator.getInstance(locale);
+        for (String value : this.rawValues) {
+            this.collatedLookup.add(collator.getCollationKey(value));
+        }
+        this.collators = new ThreadLocal<Collator>() {
+            @Override
+            protected Collator initialValue() {
+                return (Collator) collator.clone();
+            }
+        };
+    }
+
+    /**
+     * Gets whether the given value is one of the allowed values
+     * 
+     * @param value
+     *            Value, already normalized to lower case if ignoring case
+     * @return True if allowed, false otherwise
+     */
+    protected boolean isAllowed(String value) {
+        if (this.lookup.contains(value))
+            return true;
+        return this.collatedLookup.contains(this.collators.get().getCollationKey(value));
     }
 
     @Override
@@ -56,7 +92,7 @@ public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestrictio
         }
 
         // Check in list of values
-        if (!IterableUtils.matchesAny(this.rawValues, new LocaleSensitiveStringFinder(value, this.locale)))
+        if (!isAllowed(value))
             throw new ParseOptionIllegalValueException(AirlineUtils.first(option.getOptions()), AbstractCommonRestriction.getOptionTitle(state, option), value, asObjects(rawValues));
     }
 
@@ -72,7 +108,7 @@ public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestrictio
         }
 
         // Check in list of values
-        if (!IterableUtils.matchesAny(this.rawValues, new LocaleSensitiveStringFinder(value, this.locale))) {
+        if (!isAllowed(value)) {
             throw new ParseArgumentsIllegalValueException(AbstractCommonRestriction.getArgumentTitle(state, arguments),
                     value, asObjects(rawValues));
         }
@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.restrictions.common;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -32,8 +33,19 @@ import com.github.rvesse.airline.utils.AirlineUtils;
 
 public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
 
-    private Object currentState = null;
-    private Set<Object> allowedValues = null;
+    private static final TypeConverter DEFAULT_CONVERTER = new DefaultTypeConverter();
+
+    /**
+     * Maximum number of converted value sets that are cached, in practice
+     * there is usually only a single type and converter in use
+     */
+    private static final int MAX_CACHED_SETS = 8;
+
+    /**
+     * Immutable cache of converted value sets, replaced wholesale whenever a
+     * new set is added so that lookups need no locking
+     */
+    private volatile ConvertedValues[] cache = new ConvertedValues[0];
 
     public AllowedValuesRestriction(String... rawValues) {
         super(CASE_SENSITIVE);
@@ -53,17 +65,20 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
         }
     }
 
-    protected synchronized <T> Set<Object> createAllowedValues(ParseState<T> state, String title, Class<?> type,
+    protected <T> Set<Object> createAllowedValues(ParseState<T> state, String title, Class<?> type,
             TypeConverter converter) {
-        // Re-use cached values if possible
-        if (currentState == state) {
-            return allowedValues;
+        if (converter == null)
+            converter = DEFAULT_CONVERTER;
+
+        // Re-use previously converted values if possible
+        ConvertedValues[] cache = this.cache;
+        for (ConvertedValues converted : cache) {
+            if (converted.type == type && converted.converter == converter)
+                return converted.values;
         }
 
         // Convert values
         Set<Object> actualValues = new LinkedHashSet<Object>();
-        if (converter == null)
-            converter = new DefaultTypeConverter();
         for (String rawValue : this.rawValues) {
             try {
                 actualValues.add(converter.convert(title, type, rawValue));
@@ -72,10 +87,22 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
                         "Unable to parse raw value '%s' in order to apply allowed values restriction", rawValue);
             }
         }
+        actualValues = Collections.unmodifiableSet(actualValues);
 
-        // Cache for re-use
-        currentState = state;
-        this.allowedValues = actualValues;
+        // Cache for re-use, if another thread got there first we simply
+        // replace its entry since both sets are equivalent
+        synchronized (this) {
+            cache = this.cache;
+            int keep = Math.min(cache.length, MAX_CACHED_SETS - 1);
+            ConvertedValues[] newCache = new ConvertedValues[keep + 1];
+            newCache[0] = new ConvertedValues(type, converter, actualValues);
+            int i = 1;
+            for (int j = 0; j < cache.length && i < newCache.length; j++) {
+                if (cache[j].type != type || cache[j].converter != converter)
+                    newCache[i++] = cache[j];
+            }
+            this.cache = i == newCache.length ? newCache : Arrays.copyOf(newCache, i);
+        }
 
         return actualValues;
     }
@@ -94,4 +121,18 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
         }
     }
 
+    /**
+     * A set of allowed values converted to a given type with a given converter
+     */
+    private static final class ConvertedValues {
+        private final Class<?> type;
+        private final TypeConverter converter;
+        private final Set<Object> values;
+
+        private ConvertedValues(Class<?> type, TypeConverter converter, Set<Object> values) {
+            this.type = type;
+            this.converter = converter;
+            this.values = values;
+        }
+    }
 }
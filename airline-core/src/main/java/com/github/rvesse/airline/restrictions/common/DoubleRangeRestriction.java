@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import java.util.Comparator;
+
+import com.github.rvesse.airline.utils.comparators.DoubleComparator;
+import com.github.rvesse.airline.utils.comparators.FloatComparator;
+
+/**
+ * A range restriction for floating point values whose bounds are compared as
+ * primitive {@code double} values
+ * <p>
+ * Values of the expected type are checked without boxing or going through the
+ * comparator, values of any other type are checked in the same way as a
+ * normal {@link RangeRestriction} would. Comparisons are consistent with
+ * those of the {@link DoubleComparator} and {@link FloatComparator} i.e. the
+ * {@code MIN_VALUE} and {@code MAX_VALUE} of the type are treated as the
+ * smallest and largest possible values and otherwise values compare as per
+ * {@link Double#compare(double, double)}.
+ * </p>
+ *
+ */
+public class DoubleRangeRestriction extends RangeRestriction {
+
+    private final Class<? extends Number> type;
+    private final boolean hasMin, hasMax, minInclusive, maxInclusive;
+    private final double min, max, minSentinel, maxSentinel;
+
+    /**
+     * Creates a new range restriction
+     * 
+     * @param type
+     *            Expected value type e.g. {@link Float}
+     * @param min
+     *            Minimum, may be {@code null} if no minimum
+     * @param minInclusive
+     *            Whether the minimum is inclusive
+     * @param max
+     *            Maximum, may be {@code null} if no maximum
+     * @param maxInclusive
+     *            Whether the maximum is inclusive
+     * @param comparator
+     *            Comparator for values of other types
+     */
+    public DoubleRangeRestriction(Class<? extends Number> type, Number min, boolean minInclusive, Number max,
+            boolean maxInclusive, Comparator<Object> comparator) {
+        super(min, minInclusive, max, maxInclusive, comparator);
+        this.type = type;
+        this.hasMin = min != null;
+        this.min = min != null ? min.doubleValue() : Double.NEGATIVE_INFINITY;
+        this.minInclusive = minInclusive;
+        this.hasMax = max != null;
+        this.max = max != null ? max.doubleValue() : Double.POSITIVE_INFINITY;
+        this.maxInclusive = maxInclusive;
+        if (type == Float.class) {
+            this.minSentinel = Float.MIN_VALUE;
+            this.maxSentinel = Float.MAX_VALUE;
+        } else if (type == Double.class) {
+            this.minSentinel = Double.MIN_VALUE;
+            this.maxSentinel = Double.MAX_VALUE;
+        } else {
+            this.minSentinel = Double.NaN;
+            this.maxSentinel = Double.NaN;
+        }
+    }
+
+    @Override
+    protected boolean inRange(Object value) {
+        if (value == null || value.getClass() != this.type)
+            return super.inRange(value);
+        return inRange(((Number) value).doubleValue());
+    }
+
+    /**
+     * Gets whether a value is in range
+     * 
+     * @param value
+     *            Value
+     * @return True if in range, false otherwise
+     */
+    public boolean inRange(double value) {
+        if (this.hasMin) {
+            int c = compare(this.min, value);
+            if (c > 0 || (c == 0 && !this.minInclusive))
+                return false;
+        }
+        if (this.hasMax) {
+            int c = compare(value, this.max);
+            if (c > 0 || (c == 0 && !this.maxInclusive))
+                return false;
+        }
+        return true;
+    }
+
+    private int compare(double v1, double v2) {
+        // Handle special cases, NaN sentinels never compare equal
+        if (v1 == this.minSentinel) {
+            return v2 == this.minSentinel ? 0 : -1;
+        } else if (v2 == this.minSentinel) {
+            return 1;
+        } else if (v1 == this.maxSentinel) {
+            return v2 == this.maxSentinel ? 0 : 1;
+        } else if (v2 == this.maxSentinel) {
+            return -1;
+        }
+
+        // Normal comparison
+        return Double.compare(v1, v2);
+    }
+}
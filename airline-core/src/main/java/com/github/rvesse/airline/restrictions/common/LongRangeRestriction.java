@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import java.util.Comparator;
+
+/**
+ * A range restriction for integral values whose bounds are compared as
+ * primitive {@code long} values
+ * <p>
+ * Values of the expected type are checked without boxing or going through the
+ * comparator, values of any other type are checked in the same way as a
+ * normal {@link RangeRestriction} would.
+ * </p>
+ *
+ */
+public class LongRangeRestriction extends RangeRestriction {
+
+    private final Class<? extends Number> type;
+    private final boolean hasMin, hasMax, minInclusive, maxInclusive;
+    private final long min, max;
+
+    /**
+     * Creates a new range restriction
+     * 
+     * @param type
+     *            Expected value type e.g. {@link Integer}
+     * @param min
+     *            Minimum, may be {@code null} if no minimum
+     * @param minInclusive
+     *            Whether the minimum is inclusive
+     * @param max
+     *            Maximum, may be {@code null} if no maximum
+     * @param maxInclusive
+     *            Whether the maximum is inclusive
+     * @param comparator
+     *            Comparator for values of other types
+     */
+    public LongRangeRestriction(Class<? extends Number> type, Number min, boolean minInclusive, Number max,
+            boolean maxInclusive, Comparator<Object> comparator) {
+        super(min, minInclusive, max, maxInclusive, comparator);
+        this.type = type;
+        this.hasMin = min != null;
+        this.min = min != null ? min.longValue() : Long.MIN_VALUE;
+        this.minInclusive = minInclusive;
+        this.hasMax = max != null;
+        this.max = max != null ? max.longValue() : Long.MAX_VALUE;
+        this.maxInclusive = maxInclusive;
+    }
+
+    @Override
+    protected boolean inRange(Object value) {
+        if (value == null || value.getClass() != this.type)
+            return super.inRange(value);
+        return inRange(((Number) value).longValue());
+    }
+
+    /**
+     * Gets whether a value is in range
+     * 
+     * @param value
+     *            Value
+     * @return True if in range, false otherwise
+     */
+    public boolean inRange(long value) {
+        if (this.hasMin && (value < this.min || (value == this.min && !this.minInclusive)))
+            return false;
+        if (this.hasMax && (value > this.max || (value == this.max && !this.maxInclusive)))
+            return false;
+        return true;
+    }
+}
@@ -15,7 +15,14 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
 import com.github.rvesse.airline.annotations.restrictions.PathKind;
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
@@ -65,85 +72,125 @@ public class PathRestriction extends AbstractCommonRestriction implements HelpHi
     }
 
     protected void validate(String title, String path) {
+        validate(title, path, new PathStatusCache());
+    }
+
+    /**
+     * Validates many paths in bulk
+     * <p>
+     * This is more efficient than validating each path individually since the
+     * results of checking the parent directories of paths that do not exist
+     * are shared across the batch.
+     * </p>
+     * 
+     * @param title
+     *            Title used in error messages e.g. {@code Argument 'files'}
+     * @param paths
+     *            Paths to validate
+     * @throws ParseRestrictionViolatedException
+     *             Thrown for the first path that does not meet the restriction
+     */
+    public void validateAll(String title, Iterable<String> paths) {
+        PathStatusCache cache = new PathStatusCache();
+        for (String path : paths) {
+            validate(title, path, cache);
+        }
+    }
+
+    private void validate(String title, String path, PathStatusCache cache) {
         if (path == null)
             throw new ParseRestrictionViolatedException("%s must be given a non-null path", title, path);
 
-        File f = new File(path);
+        Path p = toPath(path);
+
+        // A single attributes read tells us both whether the path exists and
+        // what kind of path it is
+        BasicFileAttributes attributes = readAttributes(p);
 
-        if (this.mustExist && !f.exists())
+        if (this.mustExist && attributes == null)
             throw new ParseRestrictionViolatedException(
                     "Option value '%s' was given value '%s' which is not a path to an existing file/directory", title, path);
 
-        if (this.mustExist && f.exists()) {
+        if (this.mustExist) {
             // Some things require the file to exist in order for direct
             // validation to be applied
             switch (kind) {
             case FILE:
-                if (!f.isFile())
+                if (!attributes.isRegularFile())
                     throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a path to a file",
                             title, path);
                 break;
             case DIRECTORY:
-                if (!f.isDirectory())
+                if (!attributes.isDirectory())
                     throw new ParseRestrictionViolatedException(
                             "%s was given value '%s' which is not a path to a directory", title, path);
                 break;
             default:
-                if (!f.isFile() && !f.isDirectory())
+                if (!attributes.isRegularFile() && !attributes.isDirectory())
                     throw new ParseRestrictionViolatedException(
                             "%s was given value '%s' which is not a path to a file/directory", title, path);
                 break;
             }
 
             // Check permissions
-            if (this.readable && !f.canRead())
-                notReadable(title, path);
-
-            if (this.writable && !f.canWrite())
-                notWritable(title, path);
-
-            if (this.executable && !f.canExecute())
-                notExecutable(title, path);
+            checkPermissions(title, path, p);
         } else if (this.readable || this.writable || this.executable) {
-            if (!f.isAbsolute())
-                f = f.getAbsoluteFile();
-
             // May be able to check the conditions directly if the file exists
-            if (f.exists()) {
-                if (this.readable && !f.canRead())
-                    notReadable(title, path);
+            if (attributes != null) {
+                checkPermissions(title, path, p);
+            } else if (p != null) {
+                // Otherwise verify that the first portion of the path that
+                // exists has the desired properties, since many paths will
+                // share the same parents we consult the cache for this
+                Path parent = p.toAbsolutePath().getParent();
+                PathStatusCache.PathStatus status = parent != null ? cache.findExisting(parent) : null;
+                if (status != null) {
+                    // All conditions must be met by first part of the path
+                    // that exists
+                    if (this.readable && !status.isReadable())
+                        notReadable(title, path);
 
-                if (this.writable && !f.canWrite())
-                    notWritable(title, path);
+                    if (this.writable && !status.isWritable())
+                        notWritable(title, path);
 
-                if (this.executable && !f.canExecute())
-                    notExecutable(title, path);
-            } else {
-                // Otherwise verify that the first portion of the path that
-                // exists has the desired properties
-                while (f.getParentFile() != null) {
-                    f = f.getParentFile();
-                    if (f.exists()) {
-                        // All conditions must be met by first part of the path
-                        // that exists
-                        if (this.readable && !f.canRead())
-                            notReadable(title, path);
-
-                        if (this.writable && !f.canWrite())
-                            notWritable(title, path);
-
-                        if (this.executable && !f.canExecute())
-                            notExecutable(title, path);
-
-                        // All conditions satisfied so no need to continue going
-                        // up the path
-                        break;
-                    }
+                    if (this.executable && !status.isExecutable())
+                        notExecutable(title, path);
                 }
             }
         }
     }
 
+    private void checkPermissions(String title, String path, Path p) {
+        if (this.readable && !Files.isReadable(p))
+            notReadable(title, path);
+
+        if (this.writable && !Files.isWritable(p))
+            notWritable(title, path);
+
+        if (this.executable && !Files.isExecutable(p))
+            notExecutable(title, path);
+    }
+
+    private static Path toPath(String path) {
+        try {
+            return Paths.get(path);
+        } catch (InvalidPathException e) {
+            // Not a valid path so can't possibly exist
+            return null;
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path p) {
+        if (p == null)
+            return null;
+        try {
+            return Files.readAttributes(p, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // Does not exist (or we aren't permitted to know that it does)
+            return null;
+        }
+    }
+
     private void notExecutable(String title, String path) {
         throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a executable path", title,
                 path);
@@ -161,13 +208,28 @@ public class PathRestriction extends AbstractCommonRestriction implements HelpHi
 
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
-        this.validate(String.format("Option '%s'", AbstractCommonRestriction.getOptionTitle(state, option)), value);
+        this.validate(String.format("Option '%s'", AbstractCommonRestriction.getOptionTitle(state, option)), value,
+                getCache(state));
     }
 
     @Override
     public <T> void preValidate(ParseState<T> state, ArgumentsMetadata arguments, String value) {
         this.validate(String.format("Argument '%s'", AbstractCommonRestriction.getArgumentTitle(state, arguments)),
-                value);
+                value, getCache(state));
+    }
+
+    private static <T> PathStatusCache getCache(ParseState<T> state) {
+        if (state == null)
+            return new PathStatusCache();
+
+        // Share the cache for the duration of the parse
+        Map<Object, Object> parseCache = state.getParseCache();
+        PathStatusCache cache = (PathStatusCache) parseCache.get(PathStatusCache.class);
+        if (cache == null) {
+            cache = new PathStatusCache();
+            parseCache.put(PathStatusCache.class, cache);
+        }
+        return cache;
     }
 
     @Override
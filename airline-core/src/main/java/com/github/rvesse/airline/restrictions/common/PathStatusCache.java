@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of the status of directories consulted when validating paths that
+ * do not themselves exist
+ * <p>
+ * When a path does not exist its permissions are determined by the first
+ * portion of the path that does exist. Since many paths typically share a
+ * small number of parent directories the results of walking up the path, and
+ * of checking the permissions of the existing directory that is found, are
+ * cached so that each directory is only ever checked once.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+final class PathStatusCache {
+
+    private static final PathStatus NONE = new PathStatus(null);
+
+    private final Map<Path, PathStatus> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * Finds the first path that exists starting from the given path and moving
+     * up through its parents
+     * 
+     * @param path
+     *            Absolute path
+     * @return Status of the first existing path, or {@code null} if no portion
+     *         of the path exists
+     */
+    PathStatus findExisting(Path path) {
+        List<Path> visited = new ArrayList<>();
+        PathStatus status = null;
+        for (Path current = path; current != null; current = current.getParent()) {
+            status = this.statuses.get(current);
+            if (status != null)
+                break;
+            if (Files.exists(current)) {
+                status = new PathStatus(current);
+                this.statuses.put(current, status);
+                break;
+            }
+            visited.add(current);
+        }
+        if (status == null)
+            status = NONE;
+
+        // Everything we visited on the way resolves to the same status
+        for (Path p : visited) {
+            this.statuses.put(p, status);
+        }
+        return status != NONE ? status : null;
+    }
+
+    /**
+     * The status of an existing path, permissions are only checked when first
+     * asked for
+     */
+    static final class PathStatus {
+        private final Path path;
+        private volatile Boolean readable, writable, executable;
+
+        private PathStatus(Path path) {
+            this.path = path;
+        }
+
+        boolean isReadable() {
+            Boolean readable = this.readable;
+            if (readable == null) {
+                readable = Files.isReadable(this.path);
+                this.readable = readable;
+            }
+            return readable;
+        }
+
+        boolean isWritable() {
+            Boolean writable = this.writable;
+            if (writable == null) {
+                writable = Files.isWritable(this.path);
+                this.writable = writable;
+            }
+            return writable;
+        }
+
+        boolean isExecutable() {
+            Boolean executable = this.executable;
+            if (executable == null) {
+                executable = Files.isExecutable(this.path);
+                this.executable = executable;
+            }
+            return executable;
+        }
+    }
+}
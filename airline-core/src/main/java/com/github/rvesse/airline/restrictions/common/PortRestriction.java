@@ -34,9 +34,32 @@ public class PortRestriction extends AbstractCommonRestriction implements HelpHi
     private static final int MIN_PORT = 0, MAX_PORT = 65535;
 
     private Set<PortRange> acceptablePorts = new HashSet<>();
+    /**
+     * Bitmap of acceptable ports, one bit per possible port
+     */
+    private final long[] acceptable = new long[(MAX_PORT + 1) / Long.SIZE];
 
     public PortRestriction(PortRange... portRanges) {
         this.acceptablePorts.addAll(Arrays.asList(portRanges));
+
+        // Precompute the acceptable ports
+        for (PortRange range : this.acceptablePorts) {
+            if (range instanceof PortType || range.getClass() == PortRangeImpl.class) {
+                // Known implementations are exactly their min and max, though
+                // sub-classes may override inRange()
+                int min = Math.max(MIN_PORT, range.getMinimumPort());
+                int max = Math.min(MAX_PORT, range.getMaximumPort());
+                for (int port = min; port <= max; port++) {
+                    this.acceptable[port >>> 6] |= 1L << port;
+                }
+            } else {
+                // Custom implementations might be more selective
+                for (int port = MIN_PORT; port <= MAX_PORT; port++) {
+                    if (range.inRange(port))
+                        this.acceptable[port >>> 6] |= 1L << port;
+                }
+            }
+        }
     }
 
     @Override
@@ -98,8 +121,6 @@ public class PortRestriction extends AbstractCommonRestriction implements HelpHi
     private boolean isValid(long port) {
         if (port < MIN_PORT || port > MAX_PORT)
             return false;
-        if (this.acceptablePorts.contains(PortType.ANY))
-            return true;
 
         return inAnyAcceptableRange((int) port);
     }
@@ -107,8 +128,6 @@ public class PortRestriction extends AbstractCommonRestriction implements HelpHi
     private boolean isValid(int port) {
         if (port < MIN_PORT || port > MAX_PORT)
             return false;
-        if (this.acceptablePorts.contains(PortType.ANY))
-            return true;
 
         return inAnyAcceptableRange(port);
     }
@@ -116,19 +135,15 @@ public class PortRestriction extends AbstractCommonRestriction implements HelpHi
     private boolean isValid(short port) {
         if (port < MIN_PORT || port > MAX_PORT)
             return false;
-        if (this.acceptablePorts.contains(PortType.ANY))
-            return true;
 
         return inAnyAcceptableRange((int) port);
     }
 
     protected boolean inAnyAcceptableRange(int port) {
-        // Check acceptable port ranges
-        for (PortRange range : this.acceptablePorts) {
-            if (range.inRange(port))
-                return true;
-        }
-        return false;
+        // Check acceptable ports bitmap
+        if (port < MIN_PORT || port > MAX_PORT)
+            return false;
+        return (this.acceptable[port >>> 6] & (1L << port)) != 0;
     }
 
     @Override
@@ -62,7 +62,7 @@ public class StartsWithRestriction extends AbstractLocaleAndCaseStringRestrictio
     protected <T> ParseRestrictionViolatedException violated(ParseState<T> state, ArgumentsMetadata arguments,
             String value) {
         throw new ParseRestrictionViolatedException(
-                "Argument '%s' has value '%s' which does not end with one of the permitted prefixes: %s",
+                "Argument '%s' has value '%s' which does not start with one of the permitted prefixes: %s",
                 AbstractCommonRestriction.getArgumentTitle(state, arguments), value,
                 StringUtils.join(this.prefixes, ", "));
     }
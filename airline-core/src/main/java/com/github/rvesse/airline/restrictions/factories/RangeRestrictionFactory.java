@@ -36,7 +36,9 @@ import com.github.rvesse.airline.annotations.restrictions.ranges.ShortRange;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.common.DoubleRangeRestriction;
 import com.github.rvesse.airline.restrictions.common.LengthRestriction;
+import com.github.rvesse.airline.restrictions.common.LongRangeRestriction;
 import com.github.rvesse.airline.restrictions.common.PositiveNegativeRestriction;
 import com.github.rvesse.airline.restrictions.common.RangeRestriction;
 import com.github.rvesse.airline.utils.comparators.ByteComparator;
@@ -132,7 +134,7 @@ public class RangeRestrictionFactory implements OptionRestrictionFactory, Argume
 
     protected RangeRestriction createFloatRange(Annotation annotation) {
         FloatRange sRange = (FloatRange) annotation;
-        return new RangeRestriction(
+        return new DoubleRangeRestriction(Float.class,
                 sRange.min() != Float.MIN_VALUE || !sRange.minInclusive() ? Float.valueOf(sRange.min()) : null,
                 sRange.minInclusive(),
                 sRange.max() != Float.MAX_VALUE || !sRange.maxInclusive() ? Float.valueOf(sRange.max()) : null,
@@ -141,7 +143,7 @@ public class RangeRestrictionFactory implements OptionRestrictionFactory, Argume
 
     protected RangeRestriction createDoubleRange(Annotation annotation) {
         DoubleRange sRange = (DoubleRange) annotation;
-        return new RangeRestriction(
+        return new DoubleRangeRestriction(Double.class,
                 sRange.min() != Double.MIN_VALUE || !sRange.minInclusive() ? Double.valueOf(sRange.min()) : null,
                 sRange.minInclusive(),
                 sRange.max() != Double.MAX_VALUE || !sRange.maxInclusive() ? Double.valueOf(sRange.max()) : null,
@@ -150,13 +152,13 @@ public class RangeRestrictionFactory implements OptionRestrictionFactory, Argume
 
     protected RangeRestriction createByteRange(Annotation annotation) {
         ByteRange sRange = (ByteRange) annotation;
-        return new RangeRestriction(Byte.valueOf(sRange.min()), sRange.minInclusive(), Byte.valueOf(sRange.max()),
-                sRange.maxInclusive(), BYTE_COMPARATOR);
+        return new LongRangeRestriction(Byte.class, Byte.valueOf(sRange.min()), sRange.minInclusive(),
+                Byte.valueOf(sRange.max()), sRange.maxInclusive(), BYTE_COMPARATOR);
     }
 
     protected RangeRestriction createShortRange(Annotation annotation) {
         ShortRange sRange = (ShortRange) annotation;
-        return new RangeRestriction(
+        return new LongRangeRestriction(Short.class,
                 sRange.min() != Short.MIN_VALUE || !sRange.minInclusive() ? Short.valueOf(sRange.min()) : null,
                 sRange.minInclusive(),
                 sRange.max() != Short.MAX_VALUE || !sRange.maxInclusive() ? Short.valueOf(sRange.max()) : null,
@@ -165,7 +167,7 @@ public class RangeRestrictionFactory implements OptionRestrictionFactory, Argume
 
     protected RangeRestriction createIntegerRange(Annotation annotation) {
         IntegerRange iRange = (IntegerRange) annotation;
-        return new RangeRestriction(
+        return new LongRangeRestriction(Integer.class,
                 iRange.min() != Integer.MIN_VALUE || !iRange.minInclusive() ? Integer.valueOf(iRange.min()) : null,
                 iRange.minInclusive(),
                 iRange.max() != Integer.MAX_VALUE || !iRange.maxInclusive() ? Integer.valueOf(iRange.max()) : null,
@@ -174,7 +176,7 @@ public class RangeRestrictionFactory implements OptionRestrictionFactory, Argume
 
     protected RangeRestriction createLongRange(Annotation annotation) {
         LongRange iRange = (LongRange) annotation;
-        return new RangeRestriction(
+        return new LongRangeRestriction(Long.class,
                 iRange.min() != Long.MIN_VALUE || !iRange.minInclusive() ? Long.valueOf(iRange.min()) : null,
                 iRange.minInclusive(),
                 iRange.max() != Long.MAX_VALUE || !iRange.maxInclusive() ? Long.valueOf(iRange.max()) : null,
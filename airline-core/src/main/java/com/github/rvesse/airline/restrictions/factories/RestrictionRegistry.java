@@ -15,26 +15,93 @@
  */
 package com.github.rvesse.airline.restrictions.factories;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import com.github.rvesse.airline.InstanceFactories;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
 
 /**
  * Central registry for restrictions
+ * <p>
+ * The registered factories are held in an immutable snapshot which is
+ * replaced wholesale whenever the registry is modified. This means that
+ * lookups never need to take a lock and are safe to make from multiple threads
+ * concurrently, even while the registry is being modified or reset.
+ * </p>
+ * <p>
+ * Restrictions created by the built-in factories are immutable so a single
+ * instance is shared between all annotations with identical values, e.g. every
+ * {@code @Port(acceptablePorts = PortType.USER)} in a CLI, rather than each
+ * option holding its own copy. These shared instances are held by the current
+ * snapshot so they are discarded whenever the registry is modified. Annotations
+ * with {@link Class} valued members are never shared since doing so would keep
+ * those classes reachable from the registry. At most
+ * {@value #MAX_SHARED_RESTRICTIONS} distinct restrictions of each kind are
+ * shared, beyond that new instances are created as if sharing were disabled.
+ * </p>
  */
 public class RestrictionRegistry {
 
-    private static final Map<Class<? extends Annotation>, OptionRestrictionFactory> OPTION_RESTRICTION_FACTORIES = new HashMap<>();
-    private static final Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> ARGUMENT_RESTRICTION_FACTORIES = new HashMap<>();
-    private static final Map<Class<? extends Annotation>, GlobalRestrictionFactory> GLOBAL_RESTRICTION_FACTORIES = new HashMap<>();
+    /**
+     * Maximum number of distinct restrictions of each kind shared by a snapshot
+     */
+    static final int MAX_SHARED_RESTRICTIONS = 1024;
+
+    private static volatile Snapshot SNAPSHOT = new Snapshot();
+
+    private static final Set<Class<?>> SHAREABLE_FACTORIES = new HashSet<Class<?>>(
+            Arrays.<Class<?>> asList(AllowedValuesRestrictionFactory.class, OccurrencesRestrictionFactory.class,
+                    PathRestrictionFactory.class, PortRestrictionFactory.class, RangeRestrictionFactory.class,
+                    RequiredOnlyIfRestrictionFactory.class, RequireFromRestrictionFactory.class,
+                    SimpleRestrictionsFactory.class, StringRestrictionFactory.class));
 
-    private static volatile boolean init = false;
+    /**
+     * The built-in factories by class name, used in reflection free mode to
+     * instantiate the factories named in the service files without reflection
+     */
+    private static final Map<String, Object> BUILT_IN_FACTORIES = builtInFactories(
+            new AllowedValuesRestrictionFactory(), new OccurrencesRestrictionFactory(), new PathRestrictionFactory(),
+            new PortRestrictionFactory(), new RangeRestrictionFactory(), new RequiredOnlyIfRestrictionFactory(),
+            new RequireFromRestrictionFactory(), new SimpleRestrictionsFactory(), new StringRestrictionFactory(),
+            new StandardGlobalRestrictionsFactory());
+
+    private static final ClassValue<Boolean> SHAREABLE_ANNOTATIONS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Method member : type.getDeclaredMethods()) {
+                Class<?> valueType = member.getReturnType();
+                while (valueType.isArray()) {
+                    valueType = valueType.getComponentType();
+                }
+                if (Class.class.equals(valueType))
+                    return Boolean.FALSE;
+            }
+            return Boolean.TRUE;
+        }
+    };
 
     static {
         init();
@@ -42,100 +109,288 @@ public class RestrictionRegistry {
 
     /**
      * Initializes the base set of restrictions using the {@link ServiceLoader}
-     * mechanism
+     * mechanism, or if {@link InstanceFactories#isReflectionFree()} is enabled
+     * using only the built-in restriction factories
      */
     static synchronized void init() {
-        if (init)
+        if (SNAPSHOT.init)
             return;
+        SNAPSHOT = load();
+    }
+
+    private static Snapshot load() {
+        Iterable<OptionRestrictionFactory> optionRestrictionFactories;
+        Iterable<ArgumentsRestrictionFactory> argumentsRestrictionFactories;
+        Iterable<GlobalRestrictionFactory> globalRestrictionFactories;
+        if (InstanceFactories.isReflectionFree()) {
+            // Only use the built-in restrictions, any others must be explicitly
+            // registered
+            optionRestrictionFactories = builtIn(OptionRestrictionFactory.class);
+            argumentsRestrictionFactories = builtIn(ArgumentsRestrictionFactory.class);
+            globalRestrictionFactories = builtIn(GlobalRestrictionFactory.class);
+        } else {
+            // Use ServerLoader to obtain restrictions
+            optionRestrictionFactories = ServiceLoader.load(OptionRestrictionFactory.class);
+            argumentsRestrictionFactories = ServiceLoader.load(ArgumentsRestrictionFactory.class);
+            globalRestrictionFactories = ServiceLoader.load(GlobalRestrictionFactory.class);
+        }
 
-        // Use ServerLoader to obtain restrictions
-        ServiceLoader<OptionRestrictionFactory> optionRestrictionFactories = ServiceLoader
-                .load(OptionRestrictionFactory.class);
+        Map<Class<? extends Annotation>, OptionRestrictionFactory> options = new HashMap<>();
         for (OptionRestrictionFactory factory : optionRestrictionFactories) {
             for (Class<? extends Annotation> cls : factory.supportedOptionAnnotations()) {
-                OPTION_RESTRICTION_FACTORIES.put(cls, factory);
+                options.put(cls, factory);
             }
         }
-        ServiceLoader<ArgumentsRestrictionFactory> argumentsRestrictionFactories = ServiceLoader
-                .load(ArgumentsRestrictionFactory.class);
+        Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> arguments = new HashMap<>();
         for (ArgumentsRestrictionFactory factory : argumentsRestrictionFactories) {
             for (Class<? extends Annotation> cls : factory.supportedArgumentsAnnotations()) {
-                ARGUMENT_RESTRICTION_FACTORIES.put(cls, factory);
+                arguments.put(cls, factory);
             }
         }
-        ServiceLoader<GlobalRestrictionFactory> globalRestrictionFactories = ServiceLoader
-                .load(GlobalRestrictionFactory.class);
+        Map<Class<? extends Annotation>, GlobalRestrictionFactory> globals = new HashMap<>();
         for (GlobalRestrictionFactory factory : globalRestrictionFactories) {
             for (Class<? extends Annotation> cls : factory.supportedGlobalAnnotations()) {
-                GLOBAL_RESTRICTION_FACTORIES.put(cls, factory);
+                globals.put(cls, factory);
             }
         }
 
-        init = true;
+        return new Snapshot(Collections.unmodifiableMap(options), Collections.unmodifiableMap(arguments),
+                Collections.unmodifiableMap(globals));
+    }
+
+    private static Map<String, Object> builtInFactories(Object... factories) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Object factory : factories) {
+            map.put(factory.getClass().getName(), factory);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Gets the built-in factories for a service
+     * <p>
+     * The factories are those named in the {@code META-INF/services} files for
+     * the service so that reflection free mode registers exactly the same
+     * built-in factories as the {@link ServiceLoader} would. Names that are not
+     * built-in factories are ignored. If the service files are not available,
+     * e.g. they were omitted from a native image, then all the built-in
+     * factories for the service are used.
+     * </p>
+     * 
+     * @param service
+     *            Service interface
+     * @return Built-in factories
+     */
+    private static <T> List<T> builtIn(Class<T> service) {
+        Set<String> names = readServiceNames(service);
+        List<T> factories = new ArrayList<>();
+        for (String name : names != null ? names : BUILT_IN_FACTORIES.keySet()) {
+            Object factory = BUILT_IN_FACTORIES.get(name);
+            if (service.isInstance(factory))
+                factories.add(service.cast(factory));
+        }
+        return factories;
+    }
+
+    private static Set<String> readServiceNames(Class<?> service) {
+        ClassLoader loader = RestrictionRegistry.class.getClassLoader();
+        if (loader == null)
+            loader = ClassLoader.getSystemClassLoader();
+        try {
+            Enumeration<URL> urls = loader.getResources("META-INF/services/" + service.getName());
+            if (!urls.hasMoreElements())
+                return null;
+            Set<String> names = new LinkedHashSet<>();
+            while (urls.hasMoreElements()) {
+                try (InputStream input = urls.nextElement().openStream()) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int comment = line.indexOf('#');
+                        if (comment >= 0)
+                            line = line.substring(0, comment);
+                        line = line.trim();
+                        if (!line.isEmpty())
+                            names.add(line);
+                    }
+                }
+            }
+            return names;
+        } catch (IOException e) {
+            return null;
+        }
     }
 
     /**
      * Resets the registry to its default state
      */
     public synchronized static void reset() {
-        init = false;
-        OPTION_RESTRICTION_FACTORIES.clear();
-        ARGUMENT_RESTRICTION_FACTORIES.clear();
-        GLOBAL_RESTRICTION_FACTORIES.clear();
-        init();
+        // Build the new snapshot before publishing it so concurrent lookups
+        // never see an empty registry
+        SNAPSHOT = load();
     }
 
     public static Set<Class<? extends Annotation>> getOptionRestrictionAnnotationClasses() {
-        return OPTION_RESTRICTION_FACTORIES.keySet();
+        return SNAPSHOT.options.keySet();
     }
 
-    public static void addOptionRestriction(Class<? extends Annotation> cls, OptionRestrictionFactory factory) {
+    public synchronized static void addOptionRestriction(Class<? extends Annotation> cls,
+            OptionRestrictionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        OPTION_RESTRICTION_FACTORIES.put(cls, factory);
+        Snapshot current = SNAPSHOT;
+        SNAPSHOT = new Snapshot(with(current.options, cls, factory), current.arguments, current.globals);
     }
 
     public static <T extends Annotation> OptionRestriction getOptionRestriction(Class<? extends Annotation> cls,
             T annotation) {
-        OptionRestrictionFactory factory = OPTION_RESTRICTION_FACTORIES.get(cls);
-        if (factory != null)
+        Snapshot snapshot = SNAPSHOT;
+        OptionRestrictionFactory factory = snapshot.options.get(cls);
+        if (factory == null)
+            return null;
+        if (!isShareable(factory, cls, annotation))
             return factory.createOptionRestriction(annotation);
-        return null;
+
+        OptionRestriction restriction = snapshot.optionRestrictions.get(annotation);
+        if (restriction == null) {
+            restriction = factory.createOptionRestriction(annotation);
+            if (restriction == null || snapshot.optionRestrictions.size() >= MAX_SHARED_RESTRICTIONS)
+                return restriction;
+            OptionRestriction existing = snapshot.optionRestrictions.putIfAbsent(annotation, restriction);
+            if (existing != null)
+                restriction = existing;
+        }
+        return restriction;
     }
 
-    public static void addArgumentsRestriction(Class<? extends Annotation> cls, ArgumentsRestrictionFactory factory) {
+    /**
+     * Gets the option restriction for an annotation
+     * 
+     * @param annotation
+     *            Annotation
+     * @return Option restriction, or {@code null} if the annotation is not a
+     *         registered option restriction annotation
+     */
+    public static <T extends Annotation> OptionRestriction getOptionRestriction(T annotation) {
+        return getOptionRestriction(annotation.annotationType(), annotation);
+    }
+
+    public synchronized static void addArgumentsRestriction(Class<? extends Annotation> cls,
+            ArgumentsRestrictionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        ARGUMENT_RESTRICTION_FACTORIES.put(cls, factory);
+        Snapshot current = SNAPSHOT;
+        SNAPSHOT = new Snapshot(current.options, with(current.arguments, cls, factory), current.globals);
     }
 
     public static Set<Class<? extends Annotation>> getArgumentsRestrictionAnnotationClasses() {
-        return ARGUMENT_RESTRICTION_FACTORIES.keySet();
+        return SNAPSHOT.arguments.keySet();
     }
 
     public static <T extends Annotation> ArgumentsRestriction getArgumentsRestriction(Class<? extends Annotation> cls,
             T annotation) {
-        ArgumentsRestrictionFactory factory = ARGUMENT_RESTRICTION_FACTORIES.get(cls);
-        if (factory != null)
+        Snapshot snapshot = SNAPSHOT;
+        ArgumentsRestrictionFactory factory = snapshot.arguments.get(cls);
+        if (factory == null)
+            return null;
+        if (!isShareable(factory, cls, annotation))
             return factory.createArgumentsRestriction(annotation);
-        return null;
+
+        ArgumentsRestriction restriction = snapshot.argumentsRestrictions.get(annotation);
+        if (restriction == null) {
+            restriction = factory.createArgumentsRestriction(annotation);
+            if (restriction == null || snapshot.argumentsRestrictions.size() >= MAX_SHARED_RESTRICTIONS)
+                return restriction;
+            ArgumentsRestriction existing = snapshot.argumentsRestrictions.putIfAbsent(annotation, restriction);
+            if (existing != null)
+                restriction = existing;
+        }
+        return restriction;
+    }
+
+    /**
+     * Gets the arguments restriction for an annotation
+     * 
+     * @param annotation
+     *            Annotation
+     * @return Arguments restriction, or {@code null} if the annotation is not a
+     *         registered arguments restriction annotation
+     */
+    public static <T extends Annotation> ArgumentsRestriction getArgumentsRestriction(T annotation) {
+        return getArgumentsRestriction(annotation.annotationType(), annotation);
     }
 
     public static Set<Class<? extends Annotation>> getGlobalRestrictionAnnotationClasses() {
-        return GLOBAL_RESTRICTION_FACTORIES.keySet();
+        return SNAPSHOT.globals.keySet();
     }
 
-    public static void addGlobalRestriction(Class<? extends Annotation> cls, GlobalRestrictionFactory factory) {
+    public synchronized static void addGlobalRestriction(Class<? extends Annotation> cls,
+            GlobalRestrictionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        GLOBAL_RESTRICTION_FACTORIES.put(cls, factory);
+        Snapshot current = SNAPSHOT;
+        SNAPSHOT = new Snapshot(current.options, current.arguments, with(current.globals, cls, factory));
     }
 
     public static <T extends Annotation> GlobalRestriction getGlobalRestriction(Class<? extends Annotation> cls,
             T annotation) {
-        GlobalRestrictionFactory factory = GLOBAL_RESTRICTION_FACTORIES.get(cls);
+        GlobalRestrictionFactory factory = SNAPSHOT.globals.get(cls);
         if (factory != null)
             return factory.createGlobalRestriction(annotation);
         return null;
     }
+
+    /**
+     * Gets the global restriction for an annotation
+     * 
+     * @param annotation
+     *            Annotation
+     * @return Global restriction, or {@code null} if the annotation is not a
+     *         registered global restriction annotation
+     */
+    public static <T extends Annotation> GlobalRestriction getGlobalRestriction(T annotation) {
+        return getGlobalRestriction(annotation.annotationType(), annotation);
+    }
+
+    private static boolean isShareable(Object factory, Class<? extends Annotation> cls, Annotation annotation) {
+        return annotation != null && SHAREABLE_FACTORIES.contains(factory.getClass())
+                && cls.equals(annotation.annotationType()) && SHAREABLE_ANNOTATIONS.get(cls);
+    }
+
+    private static <F> Map<Class<? extends Annotation>, F> with(Map<Class<? extends Annotation>, F> factories,
+            Class<? extends Annotation> cls, F factory) {
+        Map<Class<? extends Annotation>, F> copy = new HashMap<>(factories);
+        copy.put(cls, factory);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * An immutable snapshot of the registered factories, the maps given to the
+     * constructor must already be unmodifiable, along with the restrictions
+     * shared between identical annotations
+     */
+    private static final class Snapshot {
+        private final boolean init;
+        private final Map<Class<? extends Annotation>, OptionRestrictionFactory> options;
+        private final Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> arguments;
+        private final Map<Class<? extends Annotation>, GlobalRestrictionFactory> globals;
+        private final ConcurrentMap<Annotation, OptionRestriction> optionRestrictions = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Annotation, ArgumentsRestriction> argumentsRestrictions = new ConcurrentHashMap<>();
+
+        private Snapshot() {
+            this.init = false;
+            this.options = Collections.emptyMap();
+            this.arguments = Collections.emptyMap();
+            this.globals = Collections.emptyMap();
+        }
+
+        private Snapshot(Map<Class<? extends Annotation>, OptionRestrictionFactory> options,
+                Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> arguments,
+                Map<Class<? extends Annotation>, GlobalRestrictionFactory> globals) {
+            this.init = true;
+            this.options = options;
+            this.arguments = arguments;
+            this.globals = globals;
+        }
+    }
 }
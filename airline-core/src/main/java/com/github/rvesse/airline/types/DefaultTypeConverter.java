@@ -52,6 +52,12 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
         if (result.wasSuccessfull())
             return result.getConvertedValue();
 
+        // Enums are looked up by name using precomputed tables unless they
+        // provide their own fromString(String) method
+        result = tryConvertEnum(name, type, value);
+        if (result.wasSuccessfull())
+            return result.getConvertedValue();
+
         // Then look for a static fromString(String) method
         result = tryConvertFromString(name, type, value);
         if (result.wasSuccessfull())
@@ -109,6 +115,36 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
         return ConvertResult.FAILURE;
     }
 
+    /**
+     * Tries to convert the value by looking it up by name if the type is an
+     * enum
+     * <p>
+     * Enums that declare a static {@code fromString(String)} method are not
+     * converted by this method so that their own conversion logic applies.
+     * </p>
+     * 
+     * @param type
+     *            Type
+     * @param value
+     *            Value
+     * @return Conversion result
+     * @throws ParseOptionConversionException
+     *             Thrown if the type is an enum but the value is not the name of
+     *             any of its constants
+     */
+    protected final ConvertResult tryConvertEnum(String name, Class<?> type, String value) {
+        if (!type.isEnum())
+            return ConvertResult.FAILURE;
+        EnumLookup<?> lookup = EnumLookup.forClass(type);
+        if (lookup.hasFromString())
+            return ConvertResult.FAILURE;
+
+        Object constant = lookup.get(value);
+        if (constant == null)
+            throw new ParseOptionConversionException(name, value, type.getSimpleName());
+        return new ConvertResult(constant);
+    }
+
     /**
      * Tries to convert the value by invoking a static {@code valueOf(String)}
      * method on the type
@@ -30,6 +30,12 @@ import com.github.rvesse.airline.parser.ParseState;
  */
 public class DefaultTypeConverterProvider implements TypeConverterProvider {
 
+    /**
+     * Shared instance, the provider is stateless so meta-data that does not
+     * specify a provider all refers to this instance
+     */
+    public static final DefaultTypeConverterProvider INSTANCE = new DefaultTypeConverterProvider();
+
     @Override
     public <T> TypeConverter getTypeConverter(OptionMetadata option, ParseState<T> state) {
         return state.getParserConfiguration().getTypeConverter();
@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precomputed lookup tables for the constants of an enum
+ * <p>
+ * Tables are built once per enum class and shared by everything that needs to
+ * look up or enumerate the constants of an enum, e.g. type conversion, the
+ * allowed enum values restriction and help generation, so that no reflection
+ * is needed while parsing. The exact name table always exists, the case
+ * insensitive and abbreviation tables are only built on first use.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ * @param <E>
+ *            Enum type
+ */
+public final class EnumLookup<E extends Enum<E>> {
+
+    private static final ClassValue<EnumLookup<?>> LOOKUPS = new ClassValue<EnumLookup<?>>() {
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        @Override
+        protected EnumLookup<?> computeValue(Class<?> type) {
+            return new EnumLookup(type);
+        }
+    };
+
+    private final Class<E> type;
+    private final List<E> constants;
+    private final List<String> names;
+    private final Map<String, E> exact;
+    private final boolean fromString;
+    private volatile Map<String, E> caseInsensitive, abbreviations;
+
+    private EnumLookup(Class<E> type) {
+        this.type = type;
+        E[] constants = type.getEnumConstants();
+        List<String> names = new ArrayList<>(constants.length);
+        Map<String, E> exact = new HashMap<>();
+        for (E constant : constants) {
+            names.add(constant.name());
+            exact.put(constant.name(), constant);
+        }
+        this.constants = Collections.unmodifiableList(Arrays.asList(constants));
+        this.names = Collections.unmodifiableList(names);
+        this.exact = Collections.unmodifiableMap(exact);
+        this.fromString = declaresFromString(type);
+    }
+
+    private static boolean declaresFromString(Class<?> type) {
+        try {
+            Method method = type.getMethod("fromString", String.class);
+            return Modifier.isStatic(method.getModifiers()) && method.getReturnType().isAssignableFrom(type);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the lookup for the given enum class
+     * 
+     * @param type
+     *            Enum class
+     * @return Lookup
+     * @throws IllegalArgumentException
+     *             Thrown if the given class is not an enum
+     */
+    public static EnumLookup<?> forClass(Class<?> type) {
+        if (type == null || !type.isEnum())
+            throw new IllegalArgumentException(String.format("%s is not an enum", type));
+        return LOOKUPS.get(type);
+    }
+
+    /**
+     * Gets the lookup for the given enum class
+     * 
+     * @param type
+     *            Enum class
+     * @return Lookup
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> EnumLookup<E> forEnum(Class<E> type) {
+        return (EnumLookup<E>) forClass(type);
+    }
+
+    /**
+     * Gets the enum class
+     * 
+     * @return Enum class
+     */
+    public Class<E> getType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the constants of the enum in declaration order
+     * 
+     * @return Constants
+     */
+    public List<E> getConstants() {
+        return this.constants;
+    }
+
+    /**
+     * Gets the names of the constants of the enum in declaration order
+     * 
+     * @return Names
+     */
+    public List<String> getNames() {
+        return this.names;
+    }
+
+    /**
+     * Gets whether the enum declares its own static {@code fromString(String)}
+     * method, if so this should be preferred for conversion over looking up
+     * constants by name
+     * 
+     * @return True if a {@code fromString(String)} method is declared
+     */
+    public boolean hasFromString() {
+        return this.fromString;
+    }
+
+    /**
+     * Gets whether the given name is the exact name of a constant
+     * 
+     * @param name
+     *            Name
+     * @return True if a constant has that name
+     */
+    public boolean contains(String name) {
+        return this.exact.containsKey(name);
+    }
+
+    /**
+     * Gets the constant with the given exact name, this is equivalent to
+     * {@link Enum#valueOf(Class, String)} except that {@code null} is returned
+     * for unknown names
+     * 
+     * @param name
+     *            Name
+     * @return Constant or {@code null} if no such constant
+     */
+    public E get(String name) {
+        return this.exact.get(name);
+    }
+
+    /**
+     * Gets the constant whose name matches the given name ignoring case
+     * <p>
+     * If several constants have names that only differ by case then only an
+     * exact match will find those constants.
+     * </p>
+     * 
+     * @param name
+     *            Name
+     * @return Constant or {@code null} if no such constant
+     */
+    E getIgnoreCase(String name) {
+        E constant = this.exact.get(name);
+        if (constant != null)
+            return constant;
+        return getCaseInsensitive().get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets the constant whose name, ignoring case, either matches the given
+     * name or uniquely starts with the given name
+     * 
+     * @param name
+     *            Name or abbreviation
+     * @return Constant or {@code null} if no such constant or the abbreviation
+     *         is ambiguous
+     */
+    E getAbbreviated(String name) {
+        E constant = getIgnoreCase(name);
+        if (constant != null)
+            return constant;
+        return getAbbreviations().get(name.toLowerCase(Locale.ROOT));
+    }
+
+    private Map<String, E> getCaseInsensitive() {
+        Map<String, E> caseInsensitive = this.caseInsensitive;
+        if (caseInsensitive == null) {
+            Map<String, E> map = new HashMap<>();
+            Set<String> ambiguous = new HashSet<>();
+            for (E constant : this.constants) {
+                String key = constant.name().toLowerCase(Locale.ROOT);
+                if (map.containsKey(key) || ambiguous.contains(key)) {
+                    map.remove(key);
+                    ambiguous.add(key);
+                } else {
+                    map.put(key, constant);
+                }
+            }
+            caseInsensitive = Collections.unmodifiableMap(map);
+            this.caseInsensitive = caseInsensitive;
+        }
+        return caseInsensitive;
+    }
+
+    private Map<String, E> getAbbreviations() {
+        Map<String, E> abbreviations = this.abbreviations;
+        if (abbreviations == null) {
+            Map<String, E> map = new HashMap<>();
+            Set<String> ambiguous = new HashSet<>();
+            for (E constant : this.constants) {
+                String key = constant.name().toLowerCase(Locale.ROOT);
+                for (int i = 1; i < key.length(); i++) {
+                    String prefix = key.substring(0, i);
+                    if (ambiguous.contains(prefix))
+                        continue;
+                    E existing = map.get(prefix);
+                    if (existing != null && existing != constant) {
+                        map.remove(prefix);
+                        ambiguous.add(prefix);
+                    } else {
+                        map.put(prefix, constant);
+                    }
+                }
+            }
+            abbreviations = Collections.unmodifiableMap(map);
+            this.abbreviations = abbreviations;
+        }
+        return abbreviations;
+    }
+
+    @Override
+    public String toString() {
+        return this.type.getName() + this.names;
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types.numerics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * An immutable trie of affixes i.e. prefixes or suffixes, used to find the
+ * longest affix of a value in a single pass
+ * <p>
+ * Each affix has an associated value e.g. the radix for a prefix or the
+ * multiplier for a suffix. Matches are identified by an entry index from which
+ * the length and value of the matched affix may be obtained, this avoids
+ * allocating any objects during matching.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public final class AffixTrie {
+
+    /**
+     * Value returned when there is no matching affix
+     */
+    public static final int NO_MATCH = -1;
+
+    private final boolean caseSensitive, suffixes;
+    private final Node root = new Node();
+    private final int[] lengths;
+    private final long[] values;
+
+    private AffixTrie(Map<String, ? extends Number> affixes, boolean caseSensitive, boolean suffixes) {
+        this.caseSensitive = caseSensitive;
+        this.suffixes = suffixes;
+        this.lengths = new int[affixes.size()];
+        this.values = new long[affixes.size()];
+
+        int entry = 0;
+        for (Entry<String, ? extends Number> e : affixes.entrySet()) {
+            String affix = e.getKey();
+            if (affix == null || affix.length() == 0 || e.getValue() == null)
+                continue;
+
+            Node node = this.root;
+            for (int i = 0; i < affix.length(); i++) {
+                char c = fold(affix.charAt(this.suffixes ? affix.length() - 1 - i : i));
+                node = node.getOrCreate(c);
+            }
+            if (node.entry != NO_MATCH)
+                continue;
+            node.entry = entry;
+            this.lengths[entry] = affix.length();
+            this.values[entry] = e.getValue().longValue();
+            entry++;
+        }
+    }
+
+    /**
+     * Creates a trie for matching prefixes
+     * 
+     * @param prefixes
+     *            Prefixes and their values
+     * @param caseSensitive
+     *            Whether matching is case sensitive
+     * @return Prefix trie
+     */
+    public static AffixTrie forPrefixes(Map<String, ? extends Number> prefixes, boolean caseSensitive) {
+        return new AffixTrie(prefixes, caseSensitive, false);
+    }
+
+    /**
+     * Creates a trie for matching suffixes
+     * 
+     * @param suffixes
+     *            Suffixes and their values
+     * @param caseSensitive
+     *            Whether matching is case sensitive
+     * @return Suffix trie
+     */
+    public static AffixTrie forSuffixes(Map<String, ? extends Number> suffixes, boolean caseSensitive) {
+        return new AffixTrie(suffixes, caseSensitive, true);
+    }
+
+    private char fold(char c) {
+        return this.caseSensitive ? c : Character.toLowerCase(c);
+    }
+
+    /**
+     * Finds the longest affix of the given region of a value
+     * <p>
+     * For a prefix trie the affix must start at {@code start}, for a suffix
+     * trie it must end at {@code end}.
+     * </p>
+     * 
+     * @param value
+     *            Value
+     * @param start
+     *            Start of the region (inclusive)
+     * @param end
+     *            End of the region (exclusive)
+     * @return Entry index of the longest matching affix or {@link #NO_MATCH}
+     */
+    public int match(CharSequence value, int start, int end) {
+        int match = NO_MATCH;
+        Node node = this.root;
+        int length = end - start;
+        for (int i = 0; i < length; i++) {
+            node = node.get(fold(value.charAt(this.suffixes ? end - 1 - i : start + i)));
+            if (node == null)
+                break;
+            if (node.entry != NO_MATCH)
+                match = node.entry;
+        }
+        return match;
+    }
+
+    /**
+     * Gets the length of the affix with the given entry index
+     * 
+     * @param entry
+     *            Entry index
+     * @return Length
+     */
+    public int getLength(int entry) {
+        return this.lengths[entry];
+    }
+
+    /**
+     * Gets the value of the affix with the given entry index
+     * 
+     * @param entry
+     *            Entry index
+     * @return Value
+     */
+    public long getValue(int entry) {
+        return this.values[entry];
+    }
+
+    private static final class Node {
+        private char[] chars = new char[0];
+        private Node[] children = new Node[0];
+        private int entry = NO_MATCH;
+
+        private Node get(char c) {
+            for (int i = 0; i < this.chars.length; i++) {
+                if (this.chars[i] == c)
+                    return this.children[i];
+            }
+            return null;
+        }
+
+        private Node getOrCreate(char c) {
+            Node child = get(c);
+            if (child == null) {
+                child = new Node();
+                this.chars = Arrays.copyOf(this.chars, this.chars.length + 1);
+                this.children = Arrays.copyOf(this.children, this.children.length + 1);
+                this.chars[this.chars.length - 1] = c;
+                this.children[this.children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+}
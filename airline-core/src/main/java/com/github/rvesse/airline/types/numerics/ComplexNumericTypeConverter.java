@@ -54,12 +54,139 @@ public abstract class ComplexNumericTypeConverter extends DefaultNumericConverte
         return 10;
     }
 
-    @Override
-    protected ConvertResult tryConvertDouble(String name, String value) {
+    /**
+     * Gets the single pass parser used to parse values
+     * <p>
+     * When this returns {@code null}, as it does by default, values are
+     * instead parsed into a {@link NumericCandidate} via {@link #parse(String)}
+     * and then converted using the radix and multiplier for that candidate.
+     * </p>
+     * 
+     * @return Parser or {@code null} if values should be parsed as candidates
+     */
+    protected NumericParser getParser() {
+        return null;
+    }
+
+    /**
+     * Gets whether the runtime class of this converter overrides any of the
+     * methods used to parse values as {@link NumericCandidate} instances below
+     * the given class
+     * <p>
+     * Converters that supply a {@link NumericParser} should only do so when
+     * this returns {@code false}, otherwise a user sub-class that customises
+     * the parsing via these methods would be ignored.
+     * </p>
+     * 
+     * @param declarer
+     *            Class that supplies the parser
+     * @return True if any of these methods are overridden, false otherwise
+     */
+    protected final boolean overridesCandidateParsing(Class<?> declarer) {
+        //@formatter:off
+        return overrides(declarer, "parse", String.class)
+                || overrides(declarer, "getLong", NumericCandidate.class)
+                || overrides(declarer, "getDouble", NumericCandidate.class)
+                || overrides(declarer, "getFloat", NumericCandidate.class)
+                || overrides(declarer, "getMultiplier", NumericCandidate.class)
+                || overrides(declarer, "getRadix", NumericCandidate.class);
+        //@formatter:on
+    }
+
+    /**
+     * Gets whether the runtime class of this converter, or any class between it
+     * and the given class, declares the given method
+     * 
+     * @param declarer
+     *            Class below which to look for the method
+     * @param name
+     *            Method name
+     * @param parameterTypes
+     *            Method parameter types
+     * @return True if the method is overridden, false otherwise
+     */
+    protected final boolean overrides(Class<?> declarer, String name, Class<?>... parameterTypes) {
+        for (Class<?> cls = getClass(); cls != null && cls != declarer; cls = cls.getSuperclass()) {
+            try {
+                cls.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not declared by this class
+            } catch (SecurityException e) {
+                // Can't tell so assume that it is
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a value as a {@code long} applying any radix and multiplier
+     * 
+     * @param value
+     *            Value
+     * @return Parsed value
+     * @throws NumberFormatException
+     *             Thrown if the value is not a valid number
+     */
+    protected long parseLong(String value) {
+        NumericParser parser = getParser();
+        if (parser != null)
+            return parser.parseLong(value);
+
+        NumericCandidate candidate = parse(value);
+        long base = getLong(candidate);
+        long multiplier = getMultiplier(candidate);
+        return multiplier != 1l ? base * multiplier : base;
+    }
+
+    /**
+     * Parses a value as a {@code double} applying any multiplier
+     * 
+     * @param value
+     *            Value
+     * @return Parsed value
+     * @throws NumberFormatException
+     *             Thrown if the value is not a valid number
+     */
+    protected double parseDouble(String value) {
+        NumericParser parser = getParser();
+        if (parser != null)
+            return parser.parseDouble(value);
+
         NumericCandidate candidate = parse(value);
         double base = getDouble(candidate);
         long multiplier = getMultiplier(candidate);
-        double result = multiplier != 1l ? base * multiplier : base;
+        return multiplier != 1l ? base * multiplier : base;
+    }
+
+    /**
+     * Parses a value as a {@code float} applying any multiplier
+     * <p>
+     * Any multiplier is applied in {@code double} precision before the result
+     * is narrowed to a {@code float}.
+     * </p>
+     * 
+     * @param value
+     *            Value
+     * @return Parsed value
+     * @throws NumberFormatException
+     *             Thrown if the value is not a valid number
+     */
+    protected float parseFloat(String value) {
+        NumericParser parser = getParser();
+        if (parser != null)
+            return parser.parseFloat(value);
+
+        NumericCandidate candidate = parse(value);
+        float base = getFloat(candidate);
+        long multiplier = getMultiplier(candidate);
+        return multiplier != 1l ? (float) ((double) base * multiplier) : base;
+    }
+
+    @Override
+    protected ConvertResult tryConvertDouble(String name, String value) {
+        double result = parseDouble(value);
 
         if (result < Double.MIN_VALUE || result > Double.MAX_VALUE)
             throw new ParseOptionConversionException(String.format(
@@ -71,10 +198,7 @@ public abstract class ComplexNumericTypeConverter extends DefaultNumericConverte
 
     @Override
     protected ConvertResult tryConvertFloat(String name, String value) {
-        NumericCandidate candidate = parse(value);
-        float base = getFloat(candidate);
-        long multiplier = getMultiplier(candidate);
-        double result = multiplier != 1l ? base * multiplier : base;
+        double result = parseFloat(value);
 
         if (result < Float.MIN_VALUE || result > Float.MAX_VALUE)
             throw new ParseOptionConversionException(String.format(
@@ -86,20 +210,14 @@ public abstract class ComplexNumericTypeConverter extends DefaultNumericConverte
 
     @Override
     protected ConvertResult tryConvertLong(String name, String value) {
-        NumericCandidate candidate = parse(value);
-        long base = getLong(candidate);
-        long multiplier = getMultiplier(candidate);
-        long result = multiplier != 1l ? base * multiplier : base;
+        long result = parseLong(value);
 
         return new ConvertResult(result);
     }
 
     @Override
     protected ConvertResult tryConvertInteger(String name, String value) {
-        NumericCandidate candidate = parse(value);
-        long base = getLong(candidate);
-        long multiplier = getMultiplier(candidate);
-        long result = multiplier != 1l ? base * multiplier : base;
+        long result = parseLong(value);
 
         if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE)
             throw new ParseOptionConversionException(String.format(
@@ -111,10 +229,7 @@ public abstract class ComplexNumericTypeConverter extends DefaultNumericConverte
 
     @Override
     protected ConvertResult tryConvertShort(String name, String value) {
-        NumericCandidate candidate = parse(value);
-        long base = getLong(candidate);
-        long multiplier = getMultiplier(candidate);
-        long result = multiplier != 1l ? base * multiplier : base;
+        long result = parseLong(value);
 
         if (result < Short.MIN_VALUE || result > Short.MAX_VALUE)
             throw new ParseOptionConversionException(String.format(
@@ -126,10 +241,7 @@ public abstract class ComplexNumericTypeConverter extends DefaultNumericConverte
 
     @Override
     protected ConvertResult tryConvertByte(String name, String value) {
-        NumericCandidate candidate = parse(value);
-        long base = getLong(candidate);
-        long multiplier = getMultiplier(candidate);
-        long result = multiplier != 1l ? base * multiplier : base;
+        long result = parseLong(value);
 
         if (result < Byte.MIN_VALUE || result > Byte.MAX_VALUE)
             throw new ParseOptionConversionException(String.format(
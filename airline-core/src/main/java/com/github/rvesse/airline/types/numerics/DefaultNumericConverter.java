@@ -58,26 +58,28 @@ public class DefaultNumericConverter implements TypeConverterProvider, NumericTy
     }
 
     protected ConvertResult tryConvertDouble(String name, String value) {
-        return new ConvertResult(Double.valueOf(value));
+        return new ConvertResult(NumericParser.DECIMAL.parseDouble(value));
     }
 
     protected ConvertResult tryConvertFloat(String name, String value) {
-        return new ConvertResult(Float.valueOf(value));
+        return new ConvertResult(NumericParser.DECIMAL.parseFloat(value));
     }
 
     protected ConvertResult tryConvertLong(String name, String value) {
-        return new ConvertResult(Long.valueOf(value));
+        return new ConvertResult(NumericParser.DECIMAL.parseLong(value));
     }
 
     protected ConvertResult tryConvertInteger(String name, String value) {
-        return new ConvertResult(Integer.valueOf(value));
+        return new ConvertResult(
+                (int) NumericParser.DECIMAL.parseLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
     }
 
     protected ConvertResult tryConvertShort(String name, String value) {
-        return new ConvertResult(Short.valueOf(value));
+        return new ConvertResult(
+                (short) NumericParser.DECIMAL.parseLong(value, Short.MIN_VALUE, Short.MAX_VALUE));
     }
 
     protected ConvertResult tryConvertByte(String name, String value) {
-        return new ConvertResult(Byte.valueOf(value));
+        return new ConvertResult((byte) NumericParser.DECIMAL.parseLong(value, Byte.MIN_VALUE, Byte.MAX_VALUE));
     }
 }
@@ -0,0 +1,258 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types.numerics;
+
+/**
+ * A single pass parser for numeric values
+ * <p>
+ * Reads an optional sign, an optional radix prefix, the digits and an
+ * optional multiplier suffix directly from a {@link CharSequence}. Integral
+ * values are accumulated into a primitive {@code long} with overflow detection
+ * so no intermediate strings or objects are created when parsing succeeds.
+ * Floating point digits are handed to the JDK so that rounding is exactly as
+ * for {@link Double#parseDouble(String)}, only where an affix needs removing is
+ * an intermediate string created.
+ * </p>
+ * <p>
+ * For compatibility with how prefixed values have historically been parsed the
+ * sign may appear either before or after the radix prefix e.g. both
+ * {@code -0x10} and {@code 0x-10} are accepted. Where several prefixes or
+ * suffixes match the longest one is used.
+ * </p>
+ * <p>
+ * Failures are reported by throwing a {@link NumberFormatException}.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public final class NumericParser {
+
+    /**
+     * Parser for plain decimal values
+     */
+    public static final NumericParser DECIMAL = new NumericParser(10);
+
+    private final int radix;
+    private final AffixTrie prefixes, suffixes;
+
+    /**
+     * Creates a parser with no prefixes or suffixes
+     * 
+     * @param radix
+     *            Radix
+     */
+    public NumericParser(int radix) {
+        this(radix, null, null);
+    }
+
+    /**
+     * Creates a parser
+     * 
+     * @param radix
+     *            Radix used when no prefix is present
+     * @param prefixes
+     *            Prefixes whose values are radixes, may be {@code null}
+     * @param suffixes
+     *            Suffixes whose values are multipliers, may be {@code null}
+     */
+    public NumericParser(int radix, AffixTrie prefixes, AffixTrie suffixes) {
+        if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX)
+            throw new IllegalArgumentException(String.format("radix %d is not a valid radix", radix));
+        this.radix = radix;
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+    }
+
+    /**
+     * Parses a value as a {@code long}
+     * 
+     * @param value
+     *            Value
+     * @return Parsed value
+     * @throws NumberFormatException
+     *             Thrown if the value is not a valid number or overflows
+     */
+    public long parseLong(CharSequence value) {
+        return parseLong(value, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Parses a value as a {@code long} that must lie within the given range
+     * 
+     * @param value
+     *            Value
+     * @param min
+     *            Minimum permitted value (inclusive)
+     * @param max
+     *            Maximum permitted value (inclusive)
+     * @return Parsed value
+     * @throws NumberFormatException
+     *             Thrown if the value is not a valid number or is out of range
+     */
+    public long parseLong(CharSequence value, long min, long max) {
+        int start = 0, end = value.length();
+        if (end == 0)
+            throw invalid(value);
+
+        // Sign may come before the prefix
+        boolean negative = false, signed = false;
+        char c = value.charAt(0);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            signed = true;
+            start++;
+        }
+
+        // Prefix
+        int radix = this.radix;
+        if (this.prefixes != null) {
+            int entry = this.prefixes.match(value, start, end);
+            if (entry != AffixTrie.NO_MATCH) {
+                radix = (int) this.prefixes.getValue(entry);
+                start += this.prefixes.getLength(entry);
+
+                // Or after it
+                if (!signed && start < end) {
+                    c = value.charAt(start);
+                    if (c == '-' || c == '+') {
+                        negative = c == '-';
+                        start++;
+                    }
+                }
+            }
+        }
+
+        // Suffix
+        long multiplier = 1;
+        if (this.suffixes != null) {
+            int entry = this.suffixes.match(value, start, end);
+            if (entry != AffixTrie.NO_MATCH) {
+                multiplier = this.suffixes.getValue(entry);
+                end -= this.suffixes.getLength(entry);
+            }
+        }
+        if (start >= end)
+            throw invalid(value);
+
+        // Digits, accumulated negatively since the negative range is larger
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / radix;
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(value.charAt(i), radix);
+            if (digit < 0 || result < multmin)
+                throw invalid(value);
+            result *= radix;
+            if (result < limit + digit)
+                throw invalid(value);
+            result -= digit;
+        }
+        result = negative ? result : -result;
+
+        // Apply multiplier
+        if (multiplier != 1) {
+            long multiplied = result * multiplier;
+            if (multiplier == 0 || multiplied / multiplier != result)
+                throw invalid(value);
+            result = multiplied;
+        }
+
+        if (result < min || result > max)
+            throw invalid(value);
+        return result;
+    }
+
+    /**
+     * Parses a value as a {@code double}
+     * <p>
+     * Radix prefixes are removed but do not affect the parsing of the digits.
+     * </p>
+     * 
+     * @param value
+     *            Value
+     * @return Parsed value
+     * @throws NumberFormatException
+     *             Thrown if the value is not a valid number
+     */
+    public double parseDouble(CharSequence value) {
+        int signEnd = getSignEnd(value);
+        int start = getPrefixEnd(value, signEnd);
+        int suffix = getSuffix(value, start);
+        double base = Double.parseDouble(getDigits(value, signEnd, start, suffix));
+        return suffix != AffixTrie.NO_MATCH ? base * this.suffixes.getValue(suffix) : base;
+    }
+
+    /**
+     * Parses a value as a {@code float}
+     * <p>
+     * Radix prefixes are removed but do not affect the parsing of the digits.
+     * Any multiplier is applied in {@code double} precision before the result
+     * is narrowed to a {@code float}.
+     * </p>
+     * 
+     * @param value
+     *            Value
+     * @return Parsed value
+     * @throws NumberFormatException
+     *             Thrown if the value is not a valid number
+     */
+    public float parseFloat(CharSequence value) {
+        int signEnd = getSignEnd(value);
+        int start = getPrefixEnd(value, signEnd);
+        int suffix = getSuffix(value, start);
+        float base = Float.parseFloat(getDigits(value, signEnd, start, suffix));
+        return suffix != AffixTrie.NO_MATCH ? (float) ((double) base * this.suffixes.getValue(suffix)) : base;
+    }
+
+    private static int getSignEnd(CharSequence value) {
+        if (value.length() == 0)
+            return 0;
+        char c = value.charAt(0);
+        return c == '-' || c == '+' ? 1 : 0;
+    }
+
+    private int getPrefixEnd(CharSequence value, int start) {
+        if (this.prefixes == null)
+            return start;
+        int entry = this.prefixes.match(value, start, value.length());
+        return entry != AffixTrie.NO_MATCH ? start + this.prefixes.getLength(entry) : start;
+    }
+
+    private int getSuffix(CharSequence value, int start) {
+        if (this.suffixes == null)
+            return AffixTrie.NO_MATCH;
+        return this.suffixes.match(value, start, value.length());
+    }
+
+    private String getDigits(CharSequence value, int signEnd, int start, int suffix) {
+        int end = value.length();
+        if (suffix != AffixTrie.NO_MATCH)
+            end -= this.suffixes.getLength(suffix);
+
+        // Only create a new string if some affix was present
+        if (start == signEnd && end == value.length())
+            return value.toString();
+        StringBuilder builder = new StringBuilder(end - start + 1);
+        builder.append(value, 0, signEnd);
+        builder.append(value, start, end);
+        return builder.toString();
+    }
+
+    private static NumberFormatException invalid(CharSequence value) {
+        return new NumberFormatException(String.format("For input string: \"%s\"", value));
+    }
+}
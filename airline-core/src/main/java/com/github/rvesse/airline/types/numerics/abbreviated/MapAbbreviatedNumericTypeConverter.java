@@ -21,11 +21,15 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import com.github.rvesse.airline.types.numerics.AffixTrie;
+import com.github.rvesse.airline.types.numerics.NumericParser;
+
 public class MapAbbreviatedNumericTypeConverter extends AbbreviatedNumericTypeConverter {
 
     private final boolean caseSensitive;
     private final Map<String, Integer> prefixes = new HashMap<>();
     private final Map<String, Long> suffixes = new HashMap<>();
+    private final NumericParser parser;
 
     public MapAbbreviatedNumericTypeConverter(boolean caseSensitive, Map<String, Integer> prefixes,
             Map<String, Long> suffixes) {
@@ -41,6 +45,25 @@ public class MapAbbreviatedNumericTypeConverter extends AbbreviatedNumericTypeCo
                 this.suffixes.put(e.getKey().toLowerCase(Locale.ROOT), e.getValue());
             }
         }
+        // Sub-classes that customise how values are parsed must keep doing so
+        // via the candidate based parsing
+        Class<?> declarer = MapAbbreviatedNumericTypeConverter.class;
+        //@formatter:off
+        boolean customised = overridesCandidateParsing(declarer)
+                || overrides(declarer, "isCaseSensitive")
+                || overrides(declarer, "getPermittedPrefixes")
+                || overrides(declarer, "getPermittedSuffixes")
+                || overrides(declarer, "getMultiplier", String.class)
+                || overrides(declarer, "getRadix", String.class);
+        //@formatter:on
+        this.parser = customised ? null
+                : new NumericParser(10, AffixTrie.forPrefixes(this.prefixes, this.caseSensitive),
+                        AffixTrie.forSuffixes(this.suffixes, this.caseSensitive));
+    }
+
+    @Override
+    protected NumericParser getParser() {
+        return this.parser;
     }
     
     @Override
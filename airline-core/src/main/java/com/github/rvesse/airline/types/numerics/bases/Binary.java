@@ -17,6 +17,7 @@ package com.github.rvesse.airline.types.numerics.bases;
 
 import com.github.rvesse.airline.types.numerics.ComplexNumericTypeConverter;
 import com.github.rvesse.airline.types.numerics.NumericCandidate;
+import com.github.rvesse.airline.types.numerics.NumericParser;
 
 /**
  * A type converter that supports binary numbers
@@ -26,6 +27,15 @@ import com.github.rvesse.airline.types.numerics.NumericCandidate;
  */
 public class Binary extends ComplexNumericTypeConverter {
 
+    private static final NumericParser PARSER = new NumericParser(2);
+
+    private final boolean useParser = !overridesCandidateParsing(Binary.class);
+
+    @Override
+    protected NumericParser getParser() {
+        return this.useParser ? PARSER : null;
+    }
+
     @Override
     protected int getRadix(NumericCandidate candidate) {
         return 2;
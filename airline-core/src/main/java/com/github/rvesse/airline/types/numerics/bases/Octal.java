@@ -17,6 +17,7 @@ package com.github.rvesse.airline.types.numerics.bases;
 
 import com.github.rvesse.airline.types.numerics.ComplexNumericTypeConverter;
 import com.github.rvesse.airline.types.numerics.NumericCandidate;
+import com.github.rvesse.airline.types.numerics.NumericParser;
 
 /**
  * A type converter that supports octal numbers
@@ -25,6 +26,15 @@ import com.github.rvesse.airline.types.numerics.NumericCandidate;
  */
 public class Octal extends ComplexNumericTypeConverter {
 
+    private static final NumericParser PARSER = new NumericParser(8);
+
+    private final boolean useParser = !overridesCandidateParsing(Octal.class);
+
+    @Override
+    protected NumericParser getParser() {
+        return this.useParser ? PARSER : null;
+    }
+
     @Override
     protected int getRadix(NumericCandidate candidate) {
         return 8;
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types.primitives;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of {@code int} values
+ * 
+ * @author rvesse
+ *
+ */
+public class IntList implements IntCollector {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] values;
+    private int size = 0;
+
+    /**
+     * Creates a new empty list
+     */
+    public IntList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty list with the given initial capacity
+     * 
+     * @param capacity
+     *            Initial capacity
+     */
+    public IntList(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity cannot be negative");
+        this.values = new int[capacity];
+    }
+
+    @Override
+    public void add(int value) {
+        ensureCapacity(this.size + 1);
+        this.values[this.size++] = value;
+    }
+
+    /**
+     * Adds all the given values
+     * 
+     * @param values
+     *            Values
+     */
+    public void addAll(int[] values) {
+        ensureCapacity(this.size + values.length);
+        System.arraycopy(values, 0, this.values, this.size, values.length);
+        this.size += values.length;
+    }
+
+    /**
+     * Gets the value at the given index
+     * 
+     * @param index
+     *            Index
+     * @return Value
+     */
+    public int get(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException(String.format("Index %d is not in the range 0-%d", index, this.size));
+        return this.values[index];
+    }
+
+    /**
+     * Gets the number of values
+     * 
+     * @return Number of values
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets whether the list is empty
+     * 
+     * @return True if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Gets the values as an array
+     * 
+     * @return Array of values
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= this.values.length)
+            return;
+        int newCapacity = Math.max(capacity, this.values.length + (this.values.length >> 1) + 1);
+        this.values = Arrays.copyOf(this.values, newCapacity);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types.primitives;
+
+/**
+ * Collects {@code long} values
+ * <p>
+ * Fields of this type, or of a type implementing it, may be used for
+ * multi-valued options and arguments of type {@code long}. Values are added
+ * without being boxed, where the field is {@code null} when values are
+ * injected a new {@link LongList} is used.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public interface LongCollector {
+
+    /**
+     * Adds a value
+     * 
+     * @param value
+     *            Value
+     */
+    public abstract void add(long value);
+}
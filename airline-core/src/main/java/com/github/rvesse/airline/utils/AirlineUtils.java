@@ -16,21 +16,18 @@
 package com.github.rvesse.airline.utils;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IteratorUtils;
-import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.Predicate;
 
 public class AirlineUtils {
@@ -103,21 +100,15 @@ public class AirlineUtils {
     }
 
     public static <T> List<T> unmodifiableListCopy(Collection<T> collection) {
-        if (collection == null)
-            return Collections.emptyList();
-        return ListUtils.unmodifiableList(new ArrayList<T>(collection));
+        return CompactCollections.listCopy(collection);
     }
 
     public static <T> List<T> unmodifiableListCopy(Iterable<T> iterable) {
-        if (iterable == null)
-            return Collections.emptyList();
-        return ListUtils.unmodifiableList(IteratorUtils.toList(iterable.iterator()));
+        return CompactCollections.listCopy(iterable);
     }
 
     public static <T> List<T> unmodifiableListCopy(T[] array) {
-        if (array == null)
-            return Collections.emptyList();
-        return ListUtils.unmodifiableList(Arrays.asList(array));
+        return CompactCollections.listOf(array);
     }
 
     public static <K, V> Map<K, V> unmodifiableMapCopy(Map<K, V> map) {
@@ -127,20 +118,11 @@ public class AirlineUtils {
     }
 
     public static <T> Set<T> unmodifiableSetCopy(Iterable<T> iterable) {
-        if (iterable == null)
-            return Collections.emptySet();
-        LinkedHashSet<T> set = new LinkedHashSet<T>();
-        Iterator<T> iter = iterable.iterator();
-        while (iter.hasNext()) {
-            set.add(iter.next());
-        }
-        return Collections.unmodifiableSet(set);
+        return CompactCollections.setCopy(iterable);
     }
 
     public static <T> Set<T> unmodifiableSetCopy(Set<T> set) {
-        if (set == null)
-            return Collections.emptySet();
-        return Collections.unmodifiableSet(new LinkedHashSet<T>(set));
+        return CompactCollections.setCopy(set);
     }
 
     public static <T> T find(Iterable<T> collection, Predicate<T> predicate, T defaultValue) {
@@ -0,0 +1,292 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Compact immutable collections used to hold meta-data
+ * <p>
+ * Meta-data for a large CLI consists of many small collections e.g. the names
+ * and titles of each option, most of which hold only one or two items. Rather
+ * than a wrapper around a copied {@link java.util.ArrayList} or
+ * {@link LinkedHashSet} these are held as a single object over an exactly
+ * sized array, with the shared empty and singleton collections used where
+ * possible. Copying a collection that is already compact returns it as-is so
+ * that meta-data derived from other meta-data shares its collections.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public final class CompactCollections {
+
+    /**
+     * Sets up to this size are held as an array and searched linearly
+     */
+    private static final int MAX_ARRAY_SET_SIZE = 8;
+
+    private static final Class<?> SINGLETON_LIST = Collections.singletonList(null).getClass();
+    private static final Class<?> SINGLETON_SET = Collections.singleton(null).getClass();
+
+    private CompactCollections() {
+    }
+
+    /**
+     * Creates an immutable copy of a list
+     * 
+     * @param iterable
+     *            Items, may be {@code null}
+     * @return Immutable list
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> listCopy(Iterable<T> iterable) {
+        if (iterable == null)
+            return Collections.emptyList();
+        if (isCompact(iterable, ArrayBackedList.class, SINGLETON_LIST, Collections.EMPTY_LIST))
+            return (List<T>) iterable;
+        return fromArray(toArray(iterable));
+    }
+
+    /**
+     * Creates an immutable list over the given items
+     * 
+     * @param items
+     *            Items, may be {@code null}
+     * @return Immutable list
+     */
+    @SafeVarargs
+    public static <T> List<T> listOf(T... items) {
+        if (items == null)
+            return Collections.emptyList();
+        // Copy into an Object[] so the varargs array never escapes
+        Object[] copy = new Object[items.length];
+        for (int i = 0; i < items.length; i++) {
+            copy[i] = items[i];
+        }
+        return fromArray(copy);
+    }
+
+    /**
+     * Creates an immutable list that is the concatenation of the given lists
+     * <p>
+     * Where only one of the lists is non-empty that list is returned directly
+     * provided it is itself compact.
+     * </p>
+     * 
+     * @param lists
+     *            Lists
+     * @return Immutable list
+     */
+    @SafeVarargs
+    public static <T> List<T> concat(List<T>... lists) {
+        int size = 0;
+        List<T> only = null;
+        for (List<T> list : lists) {
+            if (list.isEmpty())
+                continue;
+            only = size == 0 ? list : null;
+            size += list.size();
+        }
+        if (size == 0)
+            return Collections.emptyList();
+        if (only != null)
+            return listCopy(only);
+
+        Object[] items = new Object[size];
+        int i = 0;
+        for (List<T> list : lists) {
+            for (T item : list) {
+                items[i++] = item;
+            }
+        }
+        return fromArray(items);
+    }
+
+    /**
+     * Creates an immutable copy of a set, iteration order is preserved
+     * 
+     * @param iterable
+     *            Items, may be {@code null}, duplicates are discarded
+     * @return Immutable set
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Set<T> setCopy(Iterable<T> iterable) {
+        if (iterable == null)
+            return Collections.emptySet();
+        if (isCompact(iterable, ArrayBackedSet.class, SINGLETON_SET, Collections.EMPTY_SET))
+            return (Set<T>) iterable;
+
+        Object[] items = toArray(iterable);
+        if (items.length > MAX_ARRAY_SET_SIZE) {
+            Set<Object> set = new LinkedHashSet<>(items.length * 2);
+            Collections.addAll(set, items);
+            return (Set<T>) Collections.unmodifiableSet(set);
+        }
+
+        // Remove any duplicates
+        int size = 0;
+        outer: for (int i = 0; i < items.length; i++) {
+            for (int j = 0; j < size; j++) {
+                if (equal(items[j], items[i]))
+                    continue outer;
+            }
+            items[size++] = items[i];
+        }
+        switch (size) {
+        case 0:
+            return Collections.emptySet();
+        case 1:
+            return (Set<T>) Collections.singleton(items[0]);
+        default:
+            return new ArrayBackedSet<>(size == items.length ? items : copyOf(items, size));
+        }
+    }
+
+    private static boolean isCompact(Iterable<?> iterable, Class<?> arrayBacked, Class<?> singleton, Object empty) {
+        Class<?> cls = iterable.getClass();
+        return cls == arrayBacked || cls == singleton || iterable == empty;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> fromArray(Object[] items) {
+        switch (items.length) {
+        case 0:
+            return Collections.emptyList();
+        case 1:
+            return (List<T>) Collections.singletonList(items[0]);
+        default:
+            return new ArrayBackedList<>(items);
+        }
+    }
+
+    private static Object[] toArray(Iterable<?> iterable) {
+        if (iterable instanceof Collection)
+            return ((Collection<?>) iterable).toArray();
+        List<Object> items = new ArrayList<>();
+        for (Object item : iterable) {
+            items.add(item);
+        }
+        return items.toArray();
+    }
+
+    private static Object[] copyOf(Object[] items, int size) {
+        Object[] copy = new Object[size];
+        System.arraycopy(items, 0, copy, 0, size);
+        return copy;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * An immutable list over an array
+     */
+    private static final class ArrayBackedList<T> extends AbstractList<T> implements RandomAccess, Serializable {
+        private static final long serialVersionUID = 3309178493447412082L;
+
+        private final Object[] items;
+
+        private ArrayBackedList(Object[] items) {
+            this.items = items;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T get(int index) {
+            return (T) this.items[index];
+        }
+
+        @Override
+        public int size() {
+            return this.items.length;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return this.items.clone();
+        }
+    }
+
+    /**
+     * An immutable insertion ordered set over a small array
+     */
+    private static final class ArrayBackedSet<T> extends AbstractSet<T> implements Serializable {
+        private static final long serialVersionUID = -6250237426426232947L;
+
+        private final Object[] items;
+
+        private ArrayBackedSet(Object[] items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (Object item : this.items) {
+                if (equal(item, o))
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return this.next < items.length;
+                }
+
+                @SuppressWarnings("unchecked")
+                @Override
+                public T next() {
+                    if (this.next >= items.length)
+                        throw new NoSuchElementException();
+                    return (T) items[this.next++];
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return this.items.length;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return this.items.clone();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared pool used for parallel work when the user has not supplied their own
+ * <p>
+ * The pool has a thread per available processor and is only created when
+ * first used. Its threads are daemon threads so an application that uses the
+ * pool does not need to shut it down in order to exit.
+ * </p>
+ */
+public final class SharedPool {
+
+    private SharedPool() {
+    }
+
+    private static final class Holder {
+        private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                new DaemonThreadFactory(), null, false);
+    }
+
+    /**
+     * Gets the shared pool
+     * 
+     * @return Shared pool
+     */
+    public static ForkJoinPool get() {
+        return Holder.POOL;
+    }
+
+    private static final class DaemonThreadFactory implements ForkJoinWorkerThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setDaemon(true);
+            thread.setName("airline-pool-" + this.count.incrementAndGet());
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils.predicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.collections4.Predicate;
+
+/**
+ * Abstract predicate that matches strings that start, or end, with one of a
+ * set of affixes
+ * <p>
+ * The affixes are compiled into an immutable trie when the matcher is created,
+ * suffixes are stored reversed, so a value is matched in a single scan of its
+ * characters with no allocation. Matchers are therefore safe to share between
+ * threads.
+ * </p>
+ * <p>
+ * When ignoring case characters are folded individually in the same way as
+ * {@link String#regionMatches(boolean, int, String, int, int)} except that the
+ * dotted and dotless {@code i} are folded as Turkish and Azeri expect when the
+ * matcher has one of those locales.
+ * </p>
+ */
+public abstract class AbstractAffixMatcher implements Predicate<String> {
+
+    protected final Locale locale;
+    protected final boolean ignoreCase;
+    private final boolean suffixes, turkic;
+
+    // Flattened trie, the edges of node n are keys[offsets[n]] to
+    // keys[offsets[n + 1] - 1] in sorted order
+    private final int[] offsets;
+    private final char[] keys;
+    private final int[] children;
+    private final boolean[] terminal;
+
+    /**
+     * Creates a new matcher
+     * 
+     * @param ignoreCase
+     *            Whether to ignore case
+     * @param locale
+     *            Locale used to ignore case
+     * @param suffixes
+     *            True if the affixes are suffixes, false if they are prefixes
+     * @param affixes
+     *            Affixes
+     */
+    protected AbstractAffixMatcher(boolean ignoreCase, Locale locale, boolean suffixes, String... affixes) {
+        if (locale == null)
+            throw new NullPointerException("locale cannot be null");
+        this.locale = locale;
+        this.ignoreCase = ignoreCase;
+        this.suffixes = suffixes;
+        this.turkic = "tr".equals(locale.getLanguage()) || "az".equals(locale.getLanguage());
+
+        // Build the trie
+        Node root = new Node();
+        int count = 1;
+        for (String affix : affixes) {
+            if (affix == null)
+                continue;
+            Node node = root;
+            for (int i = 0; i < affix.length(); i++) {
+                char c = fold(affix.charAt(suffixes ? affix.length() - 1 - i : i));
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(c, child);
+                    count++;
+                }
+                node = child;
+            }
+            node.terminal = true;
+        }
+
+        // Flatten it breadth first
+        this.offsets = new int[count + 1];
+        this.keys = new char[count - 1];
+        this.children = new int[count - 1];
+        this.terminal = new boolean[count];
+        List<Node> nodes = new ArrayList<>(count);
+        nodes.add(root);
+        int edge = 0;
+        for (int n = 0; n < nodes.size(); n++) {
+            Node node = nodes.get(n);
+            this.terminal[n] = node.terminal;
+            this.offsets[n] = edge;
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                this.keys[edge] = child.getKey();
+                this.children[edge] = nodes.size();
+                nodes.add(child.getValue());
+                edge++;
+            }
+        }
+        this.offsets[count] = edge;
+    }
+
+    private char fold(char c) {
+        if (!this.ignoreCase)
+            return c;
+        if (this.turkic) {
+            // Dotted and dotless i are distinct letters in Turkish and Azeri
+            if (c == 'i' || c == '\u0130')
+                return 'i';
+            if (c == 'I' || c == '\u0131')
+                return '\u0131';
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    @Override
+    public boolean evaluate(String str) {
+        int node = 0;
+        if (this.terminal[node])
+            return true;
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            char c = fold(str.charAt(this.suffixes ? length - 1 - i : i));
+            int edge = Arrays.binarySearch(this.keys, this.offsets[node], this.offsets[node + 1], c);
+            if (edge < 0)
+                return false;
+            node = this.children[edge];
+            if (this.terminal[node])
+                return true;
+        }
+        return false;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new TreeMap<>();
+        private boolean terminal = false;
+    }
+}
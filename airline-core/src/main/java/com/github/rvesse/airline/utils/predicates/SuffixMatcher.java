@@ -17,37 +17,13 @@ package com.github.rvesse.airline.utils.predicates;
 
 import java.util.Locale;
 
-public class SuffixMatcher extends AbstractLocaleSensitiveStringFinder {
-
-    private final String[] suffixes;
-    private final boolean ignoreCase;
+/**
+ * Matches strings that end with one of a set of suffixes
+ */
+public class SuffixMatcher extends AbstractAffixMatcher {
 
     public SuffixMatcher(boolean ignoreCase, Locale locale, String... suffixes) {
-        super(locale);
-        this.ignoreCase = ignoreCase;
-        this.suffixes = suffixes;
-        
-        if (ignoreCase) {
-            for (int i = 0; i < this.suffixes.length; i++) {
-                this.suffixes[i] = this.suffixes[i].toLowerCase(locale);
-            }
-        }
-    }
-
-    @Override
-    public boolean evaluate(String str) {
-        for (String suffix : this.suffixes) {
-            if (str.length() < suffix.length())
-                return false;
-
-            String strSuffix = str.substring(str.length() - suffix.length());
-            if (ignoreCase)
-                strSuffix = strSuffix.toLowerCase(this.locale);
-
-            if (this.collator.compare(strSuffix, suffix) == 0)
-                return true;
-        }
-        return false;
+        super(ignoreCase, locale, true, suffixes);
     }
 
 }
@@ -31,9 +31,9 @@ public class CommandTypeFinder implements Predicate<CommandMetadata> {
         if (command == null)
             return false;
         if (this.cls == null) {
-            return command.getClass() == null;
+            return command.getType() == null;
         } else {
-            return this.cls.equals(command.getClass());
+            return this.cls.equals(command.getType());
         }
     }
 }
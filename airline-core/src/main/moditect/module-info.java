@@ -27,6 +27,7 @@ module com.github.rvesse.airline
   exports com.github.rvesse.airline.annotations.restrictions.global;
   exports com.github.rvesse.airline.annotations.restrictions.ranges;
   exports com.github.rvesse.airline.builder;
+  exports com.github.rvesse.airline.cds;
   exports com.github.rvesse.airline.help;
   exports com.github.rvesse.airline.help.cli;
   exports com.github.rvesse.airline.help.common;
@@ -35,6 +36,7 @@ module com.github.rvesse.airline
   exports com.github.rvesse.airline.help.sections.factories;
   exports com.github.rvesse.airline.help.suggester;
   exports com.github.rvesse.airline.model;
+  exports com.github.rvesse.airline.nativeimage;
   exports com.github.rvesse.airline.parser;
   exports com.github.rvesse.airline.parser.aliases;
   exports com.github.rvesse.airline.parser.command;
@@ -52,6 +54,7 @@ module com.github.rvesse.airline
   exports com.github.rvesse.airline.types.numerics;
   exports com.github.rvesse.airline.types.numerics.abbreviated;
   exports com.github.rvesse.airline.types.numerics.bases;
+  exports com.github.rvesse.airline.types.primitives;
   exports com.github.rvesse.airline.utils;
   exports com.github.rvesse.airline.utils.comparators;
   exports com.github.rvesse.airline.utils.predicates;
@@ -1175,7 +1175,10 @@ public class TestHelp {
     
     @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ".*missing\\.version.*")
     public void testVersionMissing() throws IOException {
-        singleCommand(ArgsVersionMissing.class);
+        // Version information is only loaded when help is generated
+        SingleCommand<ArgsVersionMissing> command = singleCommand(ArgsVersionMissing.class);
+        new CliCommandUsageGenerator().usage(null, null, "test", command.getCommandMetadata(), null,
+                new ByteArrayOutputStream());
     }
     
     @Test
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.args.ArgsAllowedValues;
+import com.github.rvesse.airline.help.sections.factories.HelpSectionRegistry;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+
+public class TestInstanceFactories {
+
+    @AfterMethod
+    public void cleanup() {
+        InstanceFactories.reset();
+        RestrictionRegistry.reset();
+        HelpSectionRegistry.reset();
+    }
+
+    private void registerPing() {
+        InstanceFactories.register(Ping.class, new InstanceFactory<Ping>() {
+            @Override
+            public Ping newInstance() {
+                return new Ping();
+            }
+        });
+        InstanceFactories.register(HelpOption.class, new InstanceFactory<HelpOption<Ping>>() {
+            @Override
+            public HelpOption<Ping> newInstance() {
+                return new HelpOption<>();
+            }
+        });
+    }
+
+    @Test
+    public void instance_factories_01() {
+        // Registered factories are used in preference to reflection
+        final Ping expected = new Ping();
+        InstanceFactories.register(Ping.class, new InstanceFactory<Ping>() {
+            @Override
+            public Ping newInstance() {
+                return expected;
+            }
+        });
+
+        Ping ping = SingleCommand.singleCommand(Ping.class).parse("-c", "3");
+        Assert.assertSame(ping, expected);
+        Assert.assertEquals(ping.count, 3);
+    }
+
+    @Test(expectedExceptions = ParseException.class, expectedExceptionsMessageRegExp = ".*reflection free.*")
+    public void instance_factories_reflection_free_01() {
+        InstanceFactories.setReflectionFree(true);
+        SingleCommand.singleCommand(Ping.class).parse("-c", "3");
+    }
+
+    @Test
+    public void instance_factories_reflection_free_02() {
+        InstanceFactories.setReflectionFree(true);
+        registerPing();
+
+        Ping ping = SingleCommand.singleCommand(Ping.class).parse("-c", "3");
+        Assert.assertEquals(ping.count, 3);
+        Assert.assertNotNull(ping.helpOption);
+        Assert.assertFalse(ping.helpOption.showHelpIfRequested());
+    }
+
+    @Test
+    public void instance_factories_reflection_free_03() {
+        // Reflection free mode registers the same built-in factories as
+        // service discovery does
+        Set<Class<?>> options = new HashSet<Class<?>>(RestrictionRegistry.getOptionRestrictionAnnotationClasses());
+        Set<Class<?>> arguments = new HashSet<Class<?>>(
+                RestrictionRegistry.getArgumentsRestrictionAnnotationClasses());
+        Set<Class<?>> globals = new HashSet<Class<?>>(RestrictionRegistry.getGlobalRestrictionAnnotationClasses());
+        Set<Class<?>> sections = new HashSet<Class<?>>(HelpSectionRegistry.getAnnotationClasses());
+
+        InstanceFactories.setReflectionFree(true);
+        RestrictionRegistry.reset();
+        HelpSectionRegistry.reset();
+
+        Assert.assertEquals(new HashSet<Class<?>>(RestrictionRegistry.getOptionRestrictionAnnotationClasses()),
+                options);
+        Assert.assertEquals(new HashSet<Class<?>>(RestrictionRegistry.getArgumentsRestrictionAnnotationClasses()),
+                arguments);
+        Assert.assertEquals(new HashSet<Class<?>>(RestrictionRegistry.getGlobalRestrictionAnnotationClasses()),
+                globals);
+        Assert.assertEquals(new HashSet<Class<?>>(HelpSectionRegistry.getAnnotationClasses()), sections);
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void instance_factories_reflection_free_04() {
+        // Built-in restrictions still apply in reflection free mode
+        InstanceFactories.setReflectionFree(true);
+        RestrictionRegistry.reset();
+        InstanceFactories.register(ArgsAllowedValues.class, new InstanceFactory<ArgsAllowedValues>() {
+            @Override
+            public ArgsAllowedValues newInstance() {
+                return new ArgsAllowedValues();
+            }
+        });
+
+        ArgsAllowedValues args = SingleCommand.singleCommand(ArgsAllowedValues.class).parse("-mode", "a");
+        Assert.assertEquals(args.mode, "a");
+        SingleCommand.singleCommand(ArgsAllowedValues.class).parse("-mode", "d");
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.LazyCommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+
+public class TestLazyCommands {
+
+    private static List<CommandMetadata> allCommands(GlobalMetadata<?> global) {
+        List<CommandMetadata> commands = new ArrayList<>(global.getDefaultGroupCommands());
+        if (global.getDefaultCommand() != null)
+            commands.add(global.getDefaultCommand());
+        for (CommandGroupMetadata group : global.getCommandGroups()) {
+            commands.addAll(group.getCommands());
+            if (group.getDefaultCommand() != null)
+                commands.add(group.getDefaultCommand());
+        }
+        return commands;
+    }
+
+    private static LazyCommandMetadata find(GlobalMetadata<?> global, Class<?> type) {
+        for (CommandMetadata command : allCommands(global)) {
+            if (command.getType().equals(type))
+                return (LazyCommandMetadata) command;
+        }
+        Assert.fail("No command of type " + type);
+        return null;
+    }
+
+    @Test
+    public void lazy_commands_01() {
+        GlobalMetadata<Runnable> global = MetadataLoader.loadGlobal(GitWithLazyCommands.class);
+
+        List<CommandMetadata> commands = allCommands(global);
+        Assert.assertFalse(commands.isEmpty());
+        for (CommandMetadata command : commands) {
+            Assert.assertTrue(command instanceof LazyCommandMetadata);
+            Assert.assertFalse(((LazyCommandMetadata) command).isLoaded());
+        }
+
+        // Global options are still known
+        boolean found = false;
+        for (OptionMetadata option : global.getOptions()) {
+            if (option.getOptions().contains("-v"))
+                found = true;
+        }
+        Assert.assertTrue(found);
+        for (CommandMetadata command : commands) {
+            Assert.assertFalse(((LazyCommandMetadata) command).isLoaded());
+        }
+    }
+
+    @Test
+    public void lazy_commands_02() {
+        Cli<Runnable> cli = new Cli<>(GitWithLazyCommands.class);
+        Runnable cmd = cli.parse("add", "-i", "file");
+        Assert.assertTrue(cmd instanceof Add);
+        Assert.assertTrue(((Add) cmd).interactive);
+        Assert.assertEquals(((Add) cmd).patterns, Arrays.asList("file"));
+
+        // Only the selected command was loaded
+        GlobalMetadata<Runnable> global = cli.getMetadata();
+        Assert.assertTrue(find(global, Add.class).isLoaded());
+        Assert.assertFalse(find(global, RemoteShow.class).isLoaded());
+        Assert.assertFalse(find(global, RemoteAdd.class).isLoaded());
+        Assert.assertFalse(find(global, Help.class).isLoaded());
+    }
+
+    @Test
+    public void lazy_commands_03() {
+        Cli<Runnable> cli = new Cli<>(GitWithLazyCommands.class);
+        Runnable cmd = cli.parse("-v", "remote", "show", "origin");
+        Assert.assertTrue(cmd instanceof RemoteShow);
+        Assert.assertTrue(((RemoteShow) cmd).verbose);
+        Assert.assertEquals(((RemoteShow) cmd).remote, "origin");
+
+        GlobalMetadata<Runnable> global = cli.getMetadata();
+        Assert.assertTrue(find(global, RemoteShow.class).isLoaded());
+        Assert.assertFalse(find(global, Add.class).isLoaded());
+    }
+
+    @Test
+    public void lazy_commands_04() {
+        // Default group command
+        Cli<Runnable> cli = new Cli<>(GitWithLazyCommands.class);
+        Runnable cmd = cli.parse("remote", "-n", "origin");
+        Assert.assertTrue(cmd instanceof RemoteShow);
+        Assert.assertTrue(((RemoteShow) cmd).noQuery);
+    }
+
+    @Test
+    public void lazy_commands_help_01() throws IOException {
+        GlobalMetadata<Runnable> lazy = MetadataLoader.loadGlobal(GitWithLazyCommands.class);
+        GlobalMetadata<Runnable> eager = MetadataLoader.loadGlobal(GitWithCliAnnotation.class);
+
+        for (List<String> commandNames : Arrays.asList(Arrays.<String> asList(), Arrays.asList("git"),
+                Arrays.asList("add"), Arrays.asList("remote"), Arrays.asList("remote", "show"))) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            Help.help(eager, commandNames, expected);
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            Help.help(lazy, commandNames, actual);
+            Assert.assertEquals(actual.toString(), expected.toString());
+        }
+    }
+
+    @Test
+    public void lazy_commands_help_02() {
+        Cli<Runnable> cli = new Cli<>(GitWithLazyCommands.class);
+        Runnable cmd = cli.parse("help", "add");
+        Assert.assertTrue(cmd instanceof Help);
+        Assert.assertNotNull(((Help<?>) cmd).global);
+    }
+}
@@ -17,8 +17,10 @@ package com.github.rvesse.airline;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -31,8 +33,12 @@ import com.github.rvesse.airline.annotations.Group;
 import com.github.rvesse.airline.builder.CliBuilder;
 import com.github.rvesse.airline.builder.GroupBuilder;
 import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.help.sections.HelpSection;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.errors.ParseCommandMissingException;
 import com.github.rvesse.airline.parser.errors.ParseCommandUnrecognizedException;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -422,4 +428,104 @@ public class TestSubGroups {
         cmd = cli.parse("foo", "bar", "show");
         Assert.assertTrue(cmd instanceof RemoteShow);
     }
+
+    @Test(timeOut = 10000)
+    public void sub_groups_indexed_01() {
+        // Commands placed into a wide and deep group hierarchy purely by group
+        // names
+        List<CommandMetadata> commands = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            commands.add(command("cmd" + i, "top  mid" + (i / 100) + " leaf" + i));
+        }
+        List<CommandMetadata> defaultGroup = new ArrayList<>(commands);
+        List<CommandGroupMetadata> groups = new ArrayList<>();
+        MetadataLoader.loadCommandsIntoGroupsByAnnotation(commands, groups, defaultGroup,
+                Collections.<String, HelpSection> emptyMap());
+
+        Assert.assertTrue(defaultGroup.isEmpty());
+        Assert.assertEquals(groups.size(), 1);
+        CommandGroupMetadata top = groups.get(0);
+        Assert.assertEquals(top.getName(), "top");
+        Assert.assertEquals(top.getSubGroups().size(), 50);
+        for (CommandGroupMetadata mid : top.getSubGroups()) {
+            Assert.assertSame(mid.getParent(), top);
+            Assert.assertEquals(mid.getSubGroups().size(), 100);
+            for (CommandGroupMetadata leaf : mid.getSubGroups()) {
+                Assert.assertSame(leaf.getParent(), mid);
+                Assert.assertEquals(leaf.getCommands().size(), 1);
+                Assert.assertEquals("leaf" + leaf.getCommands().get(0).getName().substring(3), leaf.getName());
+            }
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void sub_groups_indexed_02() {
+        // A very deeply nested hierarchy where each command is one level
+        // deeper than the previous
+        List<CommandMetadata> commands = new ArrayList<>();
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            if (i > 0)
+                path.append(' ');
+            path.append('g').append(i);
+            commands.add(command("cmd" + i, path.toString()));
+        }
+        // Add into groups in reverse order so children are seen before their
+        // parents
+        Collections.reverse(commands);
+        List<CommandGroupMetadata> groups = new ArrayList<>();
+        MetadataLoader.loadCommandsIntoGroupsByAnnotation(commands, groups, new ArrayList<CommandMetadata>(),
+                Collections.<String, HelpSection> emptyMap());
+
+        Assert.assertEquals(groups.size(), 1);
+        CommandGroupMetadata group = groups.get(0);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(group.getName(), "g" + i);
+            Assert.assertEquals(group.getCommands().size(), 1);
+            Assert.assertEquals(group.getCommands().get(0).getName(), "cmd" + i);
+            if (i < 999) {
+                Assert.assertEquals(group.getSubGroups().size(), 1);
+                Assert.assertSame(group.getSubGroups().get(0).getParent(), group);
+                group = group.getSubGroups().get(0);
+            } else {
+                Assert.assertEquals(group.getSubGroups().size(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void sub_groups_indexed_03() {
+        // Group names are added to existing groups built via the builder
+        //@formatter:off
+        CliBuilder<Object> builder
+            = Cli.<Object>builder("test");
+        builder.withGroup("foo")
+               .withSubGroup("bar")
+               .withDefaultCommand(Help.class);
+        //@formatter:on
+        List<CommandGroupMetadata> groups = new ArrayList<>(builder.build().getMetadata().getCommandGroups());
+        CommandGroupMetadata bar = groups.get(0).getSubGroups().get(0);
+
+        CommandMetadata command = command("cmd", "foo  bar");
+        MetadataLoader.loadCommandsIntoGroupsByAnnotation(new ArrayList<>(Collections.singletonList(command)), groups,
+                new ArrayList<CommandMetadata>(), Collections.<String, HelpSection> emptyMap());
+        Assert.assertEquals(groups.size(), 1);
+        Assert.assertEquals(groups.get(0).getSubGroups().size(), 1);
+        Assert.assertTrue(bar.getCommands().contains(command));
+    }
+
+    private static CommandMetadata command(String name, String groupName) {
+        //@formatter:off
+        return new CommandMetadata(name, null, false, 
+                                   Collections.<OptionMetadata> emptyList(),
+                                   Collections.<OptionMetadata> emptyList(), 
+                                   Collections.<OptionMetadata> emptyList(), 
+                                   null, null,
+                                   Collections.<Accessor> emptyList(), 
+                                   Help.class, 
+                                   Collections.singletonList(groupName),
+                                   Collections.<Group> emptyList(), 
+                                   Collections.<HelpSection> emptyList());
+        //@formatter:on
+    }
 }
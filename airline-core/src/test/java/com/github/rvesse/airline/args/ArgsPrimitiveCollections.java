@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.args;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.types.primitives.DoubleCollector;
+import com.github.rvesse.airline.types.primitives.DoubleList;
+import com.github.rvesse.airline.types.primitives.IntCollector;
+import com.github.rvesse.airline.types.primitives.LongList;
+
+@Command(name = "ArgsPrimitiveCollections")
+public class ArgsPrimitiveCollections {
+
+    @Option(name = "--int")
+    @IntegerRange(min = 0)
+    public int[] ints;
+
+    @Option(name = "--long")
+    public long[] longs = { 1, 2 };
+
+    @Option(name = "--double")
+    public double[] doubles;
+
+    @Option(name = "--byte")
+    public byte[] bytes;
+
+    @Option(name = "--int-collector")
+    public IntCollector intCollector;
+
+    @Option(name = "--long-list")
+    public LongList longList = new LongList();
+
+    @Option(name = "--double-collector")
+    public DoubleCollector doubleCollector;
+
+    @Arguments
+    public int[] args;
+
+    public DoubleList getDoubleList() {
+        return (DoubleList) this.doubleCollector;
+    }
+}
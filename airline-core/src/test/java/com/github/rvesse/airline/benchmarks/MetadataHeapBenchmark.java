@@ -0,0 +1,202 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.CliBuilder;
+
+/**
+ * Measures the heap retained by the meta-data of a large synthetic CLI
+ * <p>
+ * Generates and compiles a CLI of {@code N} commands (1000 by default) which
+ * all inherit three global options from a common base class and each declare
+ * four options, with range, allowed values and port restrictions, plus
+ * arguments. Each command is a distinct class so that, as in a real CLI, every
+ * command has its own annotation instances. Several copies of the CLI are then
+ * built and the heap retained per copy is reported.
+ * </p>
+ * <p>
+ * This is not run as part of the test suite, run it from the
+ * {@code airline-core} directory after {@code mvn test-compile}:
+ * </p>
+ * 
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Xmx1g -XX:+UseSerialGC -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.github.rvesse.airline.benchmarks.MetadataHeapBenchmark [N]
+ * </pre>
+ * <p>
+ * This requires a JDK since the commands are compiled at runtime.
+ * </p>
+ */
+public class MetadataHeapBenchmark {
+
+    private static final String PACKAGE = "bench";
+    private static final int COPIES = 4;
+
+    public static void main(String[] args) throws Exception {
+        int commands = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+        File dir = Files.createTempDirectory("airline-heap").toFile();
+        try {
+            Class<?>[] classes = generate(dir, commands);
+
+            // Warm up class loading and annotation caches
+            build(classes);
+
+            long before = usedHeap();
+            List<Cli<Runnable>> retained = new ArrayList<Cli<Runnable>>();
+            for (int i = 0; i < COPIES; i++) {
+                retained.add(build(classes));
+            }
+            long after = usedHeap();
+
+            System.out.println(String.format("Commands: %d", commands));
+            System.out.println(String.format("Retained per CLI: %d KiB", (after - before) / retained.size() / 1024));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cli<Runnable> build(Class<?>[] classes) {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("bench");
+        for (Class<?> cls : classes) {
+            builder.withCommand((Class<? extends Runnable>) cls);
+        }
+        return builder.build();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static Class<?>[] generate(File dir, int commands) throws IOException, ClassNotFoundException {
+        File src = new File(dir, PACKAGE);
+        if (!src.mkdirs())
+            throw new IOException("Failed to create " + src);
+
+        List<String> files = new ArrayList<String>();
+        files.add(write(new File(src, "Base.java"), base()));
+        for (int i = 0; i < commands; i++) {
+            files.add(write(new File(src, "Cmd" + i + ".java"), command(i)));
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+            throw new IllegalStateException("A JDK is required to compile the benchmark commands");
+        List<String> compilerArgs = new ArrayList<String>();
+        compilerArgs.add("-nowarn");
+        compilerArgs.add("-cp");
+        compilerArgs.add(System.getProperty("java.class.path"));
+        compilerArgs.add("-d");
+        compilerArgs.add(dir.getAbsolutePath());
+        compilerArgs.addAll(files);
+        if (compiler.run(null, null, null, compilerArgs.toArray(new String[compilerArgs.size()])) != 0)
+            throw new IllegalStateException("Failed to compile the benchmark commands");
+
+        ClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() },
+                MetadataHeapBenchmark.class.getClassLoader());
+        Class<?>[] classes = new Class<?>[commands];
+        for (int i = 0; i < commands; i++) {
+            classes[i] = Class.forName(PACKAGE + ".Cmd" + i, true, loader);
+        }
+        return classes;
+    }
+
+    private static String write(File file, String source) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.print(source);
+        }
+        return file.getAbsolutePath();
+    }
+
+    private static String imports() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("package ").append(PACKAGE).append(";\n");
+        builder.append("import com.github.rvesse.airline.annotations.*;\n");
+        builder.append("import com.github.rvesse.airline.annotations.restrictions.*;\n");
+        builder.append("import com.github.rvesse.airline.annotations.restrictions.ranges.*;\n");
+        builder.append("import java.util.List;\n");
+        return builder.toString();
+    }
+
+    private static String base() {
+        StringBuilder builder = new StringBuilder(imports());
+        builder.append("public abstract class Base implements Runnable {\n");
+        builder.append("  @Option(name = {\"-v\", \"--verbose\"}, type = OptionType.GLOBAL, description = \"Verbose output\")\n");
+        builder.append("  public boolean verbose;\n");
+        builder.append("  @Option(name = {\"--config\"}, type = OptionType.GLOBAL, title = \"file\", description = \"Config file\")\n");
+        builder.append("  public String config;\n");
+        builder.append("  @Option(name = {\"--threads\"}, type = OptionType.GLOBAL, title = \"n\", description = \"Threads\")\n");
+        builder.append("  @IntegerRange(min = 1, max = 64)\n");
+        builder.append("  public int threads;\n");
+        builder.append("  public void run() { }\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    private static String command(int i) {
+        StringBuilder builder = new StringBuilder(imports());
+        builder.append("@Command(name = \"cmd").append(i).append("\", description = \"Command number ").append(i)
+                .append("\")\n");
+        builder.append("public class Cmd").append(i).append(" extends Base {\n");
+        builder.append("  @Option(name = {\"-n\", \"--name\"}, title = \"name\", description = \"The name\")\n");
+        builder.append("  @Required\n");
+        builder.append("  public String name;\n");
+        builder.append("  @Option(name = {\"-c\", \"--count\"}, title = \"count\", description = \"The count\")\n");
+        builder.append("  @IntegerRange(min = 0, max = 100)\n");
+        builder.append("  public int count;\n");
+        builder.append("  @Option(name = {\"-m\", \"--mode\"}, title = \"mode\", description = \"The mode\")\n");
+        builder.append("  @AllowedRawValues(allowedValues = {\"fast\", \"slow\", \"auto\"})\n");
+        builder.append("  public String mode;\n");
+        builder.append("  @Option(name = {\"--port\"}, title = \"port\", description = \"The port\")\n");
+        builder.append("  @Port(acceptablePorts = {PortType.USER})\n");
+        builder.append("  public int port;\n");
+        builder.append("  @Arguments(title = \"files\", description = \"Files\")\n");
+        builder.append("  public List<String> files;\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.cds;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.GitWithCliAnnotation;
+import com.github.rvesse.airline.args.ArgsExamples;
+import com.github.rvesse.airline.help.sections.CliWithSections;
+
+public class TestCdsTrainer {
+
+    @Test
+    public void cds_trainer_command_01() throws IOException {
+        Assert.assertEquals(CdsTrainer.train(ArgsExamples.class), 2);
+    }
+
+    @Test
+    public void cds_trainer_cli_01() throws IOException {
+        // Example is not valid for this CLI but is still exercised
+        Assert.assertEquals(CdsTrainer.train(CliWithSections.class), 1);
+    }
+
+    @Test
+    public void cds_trainer_cli_02() throws IOException {
+        Assert.assertEquals(CdsTrainer.train(GitWithCliAnnotation.class), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void cds_trainer_bad_01() throws IOException {
+        CdsTrainer.train(String.class);
+    }
+
+    @Test
+    public void cds_trainer_main_01() throws Exception {
+        CdsTrainer.main(new String[] { ArgsExamples.class.getName(), GitWithCliAnnotation.class.getName() });
+    }
+
+    @Test
+    public void cds_trainer_tokenize_01() {
+        Assert.assertEquals(CdsTrainer.tokenize("git remote add  origin"),
+                Arrays.asList("git", "remote", "add", "origin"));
+        Assert.assertEquals(CdsTrainer.tokenize("  "), Collections.emptyList());
+    }
+
+    @Test
+    public void cds_trainer_tokenize_02() {
+        Assert.assertEquals(CdsTrainer.tokenize("cmd --name \"a b\" 'c \"d\"' ''"),
+                Arrays.asList("cmd", "--name", "a b", "c \"d\"", ""));
+    }
+}
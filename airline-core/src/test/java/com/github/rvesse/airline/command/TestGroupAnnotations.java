@@ -306,4 +306,20 @@ public class TestGroupAnnotations {
 
         parser.parse("commandWithSubGroupNames", "-i", "A.java");
     }
+
+    @Test
+    public void groupOptionsAreAddedFromGroupNames() {
+        Cli<?> parser = Cli.builder("junk").withCommand(CommandWithGroupNamesAndOptions.class).build();
+        Assert.assertEquals(parser.getMetadata().getCommandGroups().size(), 1);
+        CommandGroupMetadata group = parser.getMetadata().getCommandGroups().get(0);
+        Assert.assertEquals(group.getOptions().size(), 1);
+        OptionMetadata option = group.getOptions().get(0);
+        Assert.assertEquals("-v", AirlineUtils.first(option.getOptions()));
+
+        Object command = parser.parse("optionsGroup", "-v", "commandWithGroupNamesAndOptions", "-i", "A.java");
+        Assert.assertTrue(command instanceof CommandWithGroupNamesAndOptions);
+        CommandWithGroupNamesAndOptions cmd = (CommandWithGroupNamesAndOptions) command;
+        Assert.assertTrue(cmd.verbose);
+        Assert.assertEquals(cmd.interactive.booleanValue(), true);
+    }
 }
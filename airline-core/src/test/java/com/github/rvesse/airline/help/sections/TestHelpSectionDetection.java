@@ -22,10 +22,15 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
 import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.args.ArgsVersion;
+import com.github.rvesse.airline.args.ArgsVersionMissing;
 import com.github.rvesse.airline.builder.CliBuilder;
 import com.github.rvesse.airline.help.sections.common.BasicSection;
 import com.github.rvesse.airline.help.sections.common.DiscussionSection;
+import com.github.rvesse.airline.help.sections.common.LazyHelpSection;
+import com.github.rvesse.airline.help.sections.common.VersionSection;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
 
@@ -116,4 +121,43 @@ public class TestHelpSectionDetection {
         Assert.assertEquals(basic.getTitle(), "Discussion");
         Assert.assertEquals(basic.getFormat(), HelpFormat.NONE_PRINTABLE);
     }
+
+    @Test
+    public void help_section_lazy_01() {
+        CommandMetadata cmd = SingleCommand.singleCommand(ArgsVersion.class).getCommandMetadata();
+        HelpSection section = CollectionUtils.find(cmd.getHelpSections(), new HelpSectionFinder("Version"));
+        Assert.assertTrue(section instanceof LazyHelpSection);
+        LazyHelpSection lazy = (LazyHelpSection) section;
+        Assert.assertFalse(lazy.isLoaded());
+
+        // Title and order are available without loading
+        Assert.assertEquals(lazy.getTitle(), "Version");
+        Assert.assertFalse(lazy.isLoaded());
+
+        // Content forces loading and is cached thereafter
+        Assert.assertEquals(lazy.getFormat(), HelpFormat.LIST);
+        Assert.assertTrue(lazy.isLoaded());
+        HelpSection loaded = lazy.getSection();
+        Assert.assertTrue(loaded instanceof VersionSection);
+        Assert.assertEquals(lazy.numContentBlocks(), 1);
+        Assert.assertSame(lazy.getSection(), loaded);
+    }
+
+    @Test
+    public void help_section_lazy_02() {
+        // Missing version information is not an error until help is needed
+        CommandMetadata cmd = SingleCommand.singleCommand(ArgsVersionMissing.class).getCommandMetadata();
+        HelpSection section = CollectionUtils.find(cmd.getHelpSections(), new HelpSectionFinder("Version"));
+        Assert.assertNotNull(section);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                section.getFormat();
+                Assert.fail("Expected version information to fail to load");
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage().contains("missing.version"));
+            }
+        }
+        Assert.assertFalse(((LazyHelpSection) section).isLoaded());
+    }
 }
@@ -0,0 +1,274 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.GitWithCliAnnotation;
+import com.github.rvesse.airline.GitWithCliAnnotation2;
+import com.github.rvesse.airline.GitWithLazyCommands;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.args.Args1CustomParser;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.help.sections.CliWithSections;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.common.PartialRestriction;
+import com.github.rvesse.airline.restrictions.partial.PartialAnnotated;
+
+public class TestMetadataSnapshot {
+
+    private static byte[] write(Class<?> cls) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MetadataSnapshot.write(cls, output);
+        return output.toByteArray();
+    }
+
+    private static MetadataSnapshot roundTrip(Class<?> cls) throws IOException {
+        return MetadataLoader.loadSnapshot(new ByteArrayInputStream(write(cls)));
+    }
+
+    private static void assertSameOptions(List<OptionMetadata> actual, List<OptionMetadata> expected) {
+        Assert.assertEquals(actual, expected);
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(actual.get(i).getAccessors(), expected.get(i).getAccessors());
+            Assert.assertEquals(actual.get(i).getRestrictions().size(), expected.get(i).getRestrictions().size());
+        }
+    }
+
+    private static void assertSameCommand(CommandMetadata actual, CommandMetadata expected) {
+        Assert.assertEquals(actual.getName(), expected.getName());
+        Assert.assertEquals(actual.getDescription(), expected.getDescription());
+        Assert.assertEquals(actual.getType(), expected.getType());
+        Assert.assertEquals(actual.getGroupNames(), expected.getGroupNames());
+        Assert.assertEquals(actual.getGroups(), expected.getGroups());
+        assertSameOptions(actual.getAllOptions(), expected.getAllOptions());
+        Assert.assertEquals(actual.getArguments(), expected.getArguments());
+        Assert.assertEquals(actual.getMetadataInjections(), expected.getMetadataInjections());
+        Assert.assertEquals(actual.getHelpSections().size(), expected.getHelpSections().size());
+    }
+
+    private static void assertSameGlobal(GlobalMetadata<?> actual, GlobalMetadata<?> expected) {
+        Assert.assertEquals(actual.getName(), expected.getName());
+        Assert.assertEquals(actual.getDescription(), expected.getDescription());
+        assertSameOptions(actual.getOptions(), expected.getOptions());
+        Assert.assertEquals(actual.getDefaultGroupCommands().size(), expected.getDefaultGroupCommands().size());
+        for (int i = 0; i < expected.getDefaultGroupCommands().size(); i++) {
+            assertSameCommand(actual.getDefaultGroupCommands().get(i), expected.getDefaultGroupCommands().get(i));
+        }
+        Assert.assertEquals(actual.getCommandGroups().size(), expected.getCommandGroups().size());
+        for (int i = 0; i < expected.getCommandGroups().size(); i++) {
+            CommandGroupMetadata actualGroup = actual.getCommandGroups().get(i);
+            CommandGroupMetadata expectedGroup = expected.getCommandGroups().get(i);
+            Assert.assertEquals(actualGroup.getName(), expectedGroup.getName());
+            Assert.assertEquals(actualGroup.getCommands().size(), expectedGroup.getCommands().size());
+            for (int j = 0; j < expectedGroup.getCommands().size(); j++) {
+                assertSameCommand(actualGroup.getCommands().get(j), expectedGroup.getCommands().get(j));
+            }
+        }
+        Assert.assertEquals(actual.getRestrictions().size(), expected.getRestrictions().size());
+        for (int i = 0; i < expected.getRestrictions().size(); i++) {
+            Assert.assertEquals(actual.getRestrictions().get(i).getClass(),
+                    expected.getRestrictions().get(i).getClass());
+        }
+        Assert.assertEquals(actual.getBaseHelpSections().size(), expected.getBaseHelpSections().size());
+    }
+
+    @Test
+    public void snapshot_cli_01() throws IOException {
+        MetadataSnapshot snapshot = roundTrip(GitWithCliAnnotation.class);
+        Assert.assertTrue(snapshot.isGlobal());
+        Assert.assertFalse(snapshot.isCommand());
+        Assert.assertEquals(snapshot.getSourceClass(), GitWithCliAnnotation.class);
+        assertSameGlobal(snapshot.getGlobal(), MetadataLoader.loadGlobal(GitWithCliAnnotation.class));
+
+        Cli<Runnable> cli = new Cli<Runnable>(snapshot.<Runnable> getGlobal());
+        Runnable cmd = cli.parse("-v", "remote", "add", "-t", "main", "origin", "git@github.com:rvesse/airline.git");
+        Assert.assertTrue(cmd instanceof RemoteAdd);
+        RemoteAdd add = (RemoteAdd) cmd;
+        Assert.assertTrue(add.verbose);
+        Assert.assertEquals(add.branch, "main");
+        Assert.assertEquals(add.remote, Arrays.asList("origin", "git@github.com:rvesse/airline.git"));
+    }
+
+    @Test
+    public void snapshot_cli_02() throws IOException {
+        // Aliases are part of the parser configuration
+        MetadataSnapshot snapshot = roundTrip(GitWithCliAnnotation2.class);
+        Assert.assertEquals(snapshot.getParserConfiguration().getAliases().size(), 1);
+
+        Cli<Runnable> cli = new Cli<Runnable>(snapshot.<Runnable> getGlobal());
+        Assert.assertTrue(cli.parse("foo") instanceof RemoteShow);
+    }
+
+    @Test
+    public void snapshot_cli_03() throws IOException {
+        // Lazy commands are fully loaded when the snapshot is written
+        MetadataSnapshot snapshot = roundTrip(GitWithLazyCommands.class);
+        for (CommandMetadata command : snapshot.getGlobal().getDefaultGroupCommands()) {
+            Assert.assertFalse(command instanceof LazyCommandMetadata);
+        }
+        assertSameGlobal(snapshot.getGlobal(), MetadataLoader.loadGlobal(GitWithLazyCommands.class));
+    }
+
+    @Test
+    public void snapshot_cli_04() throws IOException {
+        MetadataSnapshot snapshot = roundTrip(CliWithSections.class);
+        GlobalMetadata<Object> global = snapshot.getGlobal();
+        assertSameGlobal(global, MetadataLoader.loadGlobal(CliWithSections.class));
+        HelpSection section = global.getBaseHelpSections().iterator().next();
+        Assert.assertEquals(section.getTitle(), "Discussion");
+
+        // Shared instances are shared again
+        Assert.assertSame(global.getDefaultGroupCommands().get(1).getHelpSections().get(0), section);
+    }
+
+    @Test
+    public void snapshot_command_01() throws IOException {
+        MetadataSnapshot snapshot = roundTrip(PartialAnnotated.class);
+        Assert.assertTrue(snapshot.isCommand());
+        assertSameCommand(snapshot.getCommand(), MetadataLoader.loadCommand(PartialAnnotated.class));
+
+        List<OptionRestriction> restrictions = snapshot.getCommand().getCommandOptions().get(0).getRestrictions();
+        Assert.assertEquals(restrictions.size(), 1);
+        Assert.assertTrue(restrictions.get(0) instanceof PartialRestriction);
+
+        SingleCommand<PartialAnnotated> parser = SingleCommand.singleCommand(snapshot);
+        Assert.assertEquals(parser.parse("--kvp", "key", "").kvps, Arrays.asList("key", ""));
+        try {
+            parser.parse("--kvp", "", "value");
+            Assert.fail("Partial restriction was not applied");
+        } catch (ParseRestrictionViolatedException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void snapshot_command_02() throws IOException {
+        MetadataSnapshot snapshot = roundTrip(Args1CustomParser.class);
+        Assert.assertTrue(snapshot.getParserConfiguration().allowsAbbreviatedOptions());
+        Assert.assertEquals(snapshot.getRestrictions().size(), GlobalRestriction.DEFAULTS.length);
+    }
+
+    @Test
+    public void snapshot_file_01() throws IOException {
+        File dir = Files.createTempDirectory("snapshot").toFile();
+        try {
+            File file = MetadataSnapshot.writeTo(Help.class, dir);
+            Assert.assertEquals(file, new File(dir, MetadataSnapshot.getResourceName(Help.class)));
+            try (InputStream input = new FileInputStream(file)) {
+                MetadataSnapshot snapshot = MetadataLoader.loadSnapshot(input, getClass().getClassLoader(), true);
+                assertSameCommand(snapshot.getCommand(), MetadataLoader.loadCommand(Help.class));
+            }
+        } finally {
+            delete(dir);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    public void snapshot_resource_01() throws IOException {
+        // No snapshot embedded
+        Assert.assertNull(MetadataLoader.loadSnapshot(GitWithCliAnnotation.class));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void snapshot_stale_01() throws IOException {
+        byte[] data = write(GitWithCliAnnotation.class);
+        // Corrupt the first class fingerprint
+        int offset = 4 + 2 + (2 + GitWithCliAnnotation.class.getName().length()) + 4
+                + (2 + GitWithCliAnnotation.class.getName().length());
+        data[offset + 7] ^= 0x01;
+        MetadataLoader.loadSnapshot(new ByteArrayInputStream(data));
+    }
+
+    @Test
+    public void snapshot_stale_02() throws IOException {
+        byte[] data = write(GitWithCliAnnotation.class);
+        int offset = 4 + 2 + (2 + GitWithCliAnnotation.class.getName().length()) + 4
+                + (2 + GitWithCliAnnotation.class.getName().length());
+        data[offset + 7] ^= 0x01;
+        // Ignored without validation
+        Assert.assertNotNull(
+                MetadataLoader.loadSnapshot(new ByteArrayInputStream(data), getClass().getClassLoader(), false));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void snapshot_bad_01() throws IOException {
+        byte[] data = write(GitWithCliAnnotation.class);
+        data[0] = 0;
+        MetadataLoader.loadSnapshot(new ByteArrayInputStream(data));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void snapshot_bad_02() throws IOException {
+        byte[] data = write(GitWithCliAnnotation.class);
+        // Unsupported version
+        data[5] = 99;
+        MetadataLoader.loadSnapshot(new ByteArrayInputStream(data));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void snapshot_bad_03() throws IOException {
+        write(String.class);
+    }
+
+    @Test
+    public void snapshot_bad_04() {
+        byte[] original;
+        try {
+            original = write(GitWithCliAnnotation.class);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        // Corrupting any single byte must never surface as anything other
+        // than a checked error or a stale class reference
+        for (int i = 0; i < original.length; i++) {
+            byte[] data = Arrays.copyOf(original, original.length);
+            data[i] = (byte) 0xFF;
+            try {
+                MetadataLoader.loadSnapshot(new ByteArrayInputStream(data), getClass().getClassLoader(), false);
+            } catch (IOException | IllegalStateException e) {
+                // Expected
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.nativeimage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Git;
+import com.github.rvesse.airline.GitWithCliAnnotation;
+import com.github.rvesse.airline.HelpOption;
+import com.github.rvesse.airline.Ping;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.parser.options.StandardOptionParser;
+import com.github.rvesse.airline.restrictions.factories.AllowedValuesRestrictionFactory;
+import com.github.rvesse.airline.restrictions.factories.OptionRestrictionFactory;
+import com.github.rvesse.airline.types.DefaultTypeConverter;
+
+public class TestNativeImageConfiguration {
+
+    private static void assertAccess(NativeImageConfiguration config, Class<?> cls, String... access) {
+        Set<String> actual = config.getClasses().get(cls.getName());
+        Assert.assertNotNull(actual, "No configuration for " + cls.getName());
+        for (String a : access) {
+            Assert.assertTrue(actual.contains(a), cls.getName() + " missing " + a);
+        }
+    }
+
+    @Test
+    public void native_image_command_01() {
+        NativeImageConfiguration config = new NativeImageConfiguration();
+        config.addCommand(MetadataLoader.loadCommand(Ping.class));
+
+        assertAccess(config, Ping.class, NativeImageConfiguration.ALL_DECLARED_FIELDS,
+                NativeImageConfiguration.ALL_DECLARED_CONSTRUCTORS);
+        // Composed via @Inject so instantiated on demand
+        assertAccess(config, HelpOption.class, NativeImageConfiguration.ALL_DECLARED_FIELDS,
+                NativeImageConfiguration.ALL_DECLARED_CONSTRUCTORS);
+        // Primitive option types need no configuration
+        Assert.assertFalse(config.getClasses().containsKey("int"));
+        Assert.assertFalse(config.getClasses().containsKey(Object.class.getName()));
+    }
+
+    @Test
+    public void native_image_global_01() {
+        NativeImageConfiguration config = new NativeImageConfiguration();
+        config.addGlobal(MetadataLoader.<Runnable> loadGlobal(GitWithCliAnnotation.class));
+
+        assertAccess(config, Help.class, NativeImageConfiguration.ALL_DECLARED_FIELDS,
+                NativeImageConfiguration.ALL_DECLARED_CONSTRUCTORS);
+        assertAccess(config, Git.Add.class, NativeImageConfiguration.ALL_DECLARED_FIELDS);
+        assertAccess(config, Git.RemoteAdd.class, NativeImageConfiguration.ALL_DECLARED_FIELDS);
+        assertAccess(config, Git.RemoteShow.class, NativeImageConfiguration.ALL_DECLARED_FIELDS);
+        // Fields of the common superclass
+        assertAccess(config, Git.GitCommand.class, NativeImageConfiguration.ALL_DECLARED_FIELDS);
+
+        // Parser components
+        assertAccess(config, DefaultTypeConverter.class, NativeImageConfiguration.ALL_PUBLIC_CONSTRUCTORS);
+        assertAccess(config, StandardOptionParser.class, NativeImageConfiguration.ALL_PUBLIC_CONSTRUCTORS);
+
+        // Option value types
+        assertAccess(config, String.class, NativeImageConfiguration.ALL_PUBLIC_METHODS,
+                NativeImageConfiguration.ALL_PUBLIC_CONSTRUCTORS);
+    }
+
+    @Test
+    public void native_image_services_01() {
+        NativeImageConfiguration config = new NativeImageConfiguration();
+        config.addServices(getClass().getClassLoader());
+
+        Assert.assertTrue(config.getResourcePatterns()
+                .contains("\\QMETA-INF/services/" + OptionRestrictionFactory.class.getName() + "\\E"));
+        assertAccess(config, AllowedValuesRestrictionFactory.class, NativeImageConfiguration.ALL_PUBLIC_CONSTRUCTORS);
+    }
+
+    @Test
+    public void native_image_write_01() throws IOException {
+        NativeImageConfiguration config = new NativeImageConfiguration();
+        config.addCommand(MetadataLoader.loadCommand(Ping.class));
+        config.addResource("/com/example/help.txt");
+
+        StringWriter writer = new StringWriter();
+        config.writeReflectConfig(writer);
+        String reflect = writer.toString();
+        Assert.assertTrue(reflect.startsWith("[\n  {\n    \"name\" : "));
+        Assert.assertTrue(reflect.contains("\"name\" : \"com.github.rvesse.airline.Ping\",\n    \"allDeclaredConstructors\" : true,\n    \"allDeclaredFields\" : true\n  }"));
+        Assert.assertTrue(reflect.endsWith("}\n]\n"));
+
+        writer = new StringWriter();
+        config.writeResourceConfig(writer);
+        Assert.assertEquals(writer.toString(), "{\n  \"resources\" : {\n    \"includes\" : [\n"
+                + "      { \"pattern\" : \"\\\\Qcom/example/help.txt\\\\E\" }\n    ]\n  }\n}\n");
+    }
+
+    @Test
+    public void native_image_write_02() throws IOException {
+        NativeImageConfiguration config = new NativeImageConfiguration();
+        config.addCommand(MetadataLoader.loadCommand(Ping.class));
+
+        File dir = Files.createTempDirectory("native-image").toFile();
+        File target = new File(dir, "META-INF/native-image");
+        config.writeTo(target);
+
+        for (String file : new String[] { NativeImageConfiguration.REFLECT_CONFIG,
+                NativeImageConfiguration.RESOURCE_CONFIG }) {
+            File f = new File(target, file);
+            Assert.assertTrue(f.exists(), file);
+            String content = new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+            Assert.assertFalse(content.isEmpty());
+            f.delete();
+        }
+        target.delete();
+        new File(dir, "META-INF").delete();
+        dir.delete();
+    }
+
+    @Test
+    public void native_image_empty_01() throws IOException {
+        NativeImageConfiguration config = new NativeImageConfiguration();
+        StringWriter writer = new StringWriter();
+        config.writeReflectConfig(writer);
+        Assert.assertEquals(writer.toString(), "[\n]\n");
+
+        Assert.assertTrue(config.getClasses().isEmpty());
+        Assert.assertTrue(config.getResourcePatterns().isEmpty());
+    }
+}
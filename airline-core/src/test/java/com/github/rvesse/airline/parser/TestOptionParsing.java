@@ -18,6 +18,7 @@ package com.github.rvesse.airline.parser;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.collections4.iterators.PeekingIterator;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -27,15 +28,21 @@ import com.github.rvesse.airline.annotations.Command;
 import com.github.rvesse.airline.annotations.DefaultOption;
 import com.github.rvesse.airline.annotations.Option;
 import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsUnexpectedException;
 import com.github.rvesse.airline.parser.errors.ParseOptionMissingValueException;
 import com.github.rvesse.airline.parser.errors.ParseOptionUnexpectedException;
 import com.github.rvesse.airline.parser.options.AbstractNameValueOptionParser;
+import com.github.rvesse.airline.parser.options.AbstractOptionParser;
 import com.github.rvesse.airline.parser.options.ClassicGetOptParser;
+import com.github.rvesse.airline.parser.options.ClassifiedToken;
 import com.github.rvesse.airline.parser.options.ListValueOptionParser;
 import com.github.rvesse.airline.parser.options.LongGetOptParser;
 import com.github.rvesse.airline.parser.options.MaybeListValueOptionParser;
 import com.github.rvesse.airline.parser.options.MaybePairValueOptionParser;
+import com.github.rvesse.airline.parser.options.ShortOptionIndex;
 import com.github.rvesse.airline.parser.options.StandardOptionParser;
 
 public class TestOptionParsing {
@@ -53,6 +60,19 @@ public class TestOptionParsing {
         List<String> charlie = new ArrayList<String>();
     }
     
+    @Command(name = "OptionParsing1")
+    public static class UnicodeOptionParsing {
+
+        @Option(name = { "-\u00e9" })
+        boolean eAcute;
+
+        @Option(name = { "-\u00df" }, arity = 1)
+        String eszett;
+
+        @Option(name = { "-a" })
+        boolean alpha;
+    }
+    
     @Command(name = "OptionParsing1")
     public static class OptionAndArgumentParsing extends OptionParsing {
         
@@ -174,6 +194,33 @@ public class TestOptionParsing {
         testParsing(parser, "OptionParsing1", "-c");
     }
 
+    @Test
+    public void option_parsing_classic_getopt_06() {
+        Cli<UnicodeOptionParsing> parser = createClassicGetOptParser(UnicodeOptionParsing.class);
+        UnicodeOptionParsing cmd = testParsing(parser, "OptionParsing1", "-a\u00e9\u00dffoo");
+
+        Assert.assertTrue(cmd.alpha);
+        Assert.assertTrue(cmd.eAcute);
+        Assert.assertEquals(cmd.eszett, "foo");
+    }
+
+    @Test
+    public void option_parsing_classic_getopt_07() {
+        ShortOptionIndex index = parserFor(OptionParsing.class).getDefaultGroupCommands().get(0)
+                .getShortOptionIndex();
+        Assert.assertNotNull(index.find('a'));
+        Assert.assertTrue(index.find('a').getOptions().contains("--alpha"));
+        Assert.assertNotNull(index.find('b'));
+        Assert.assertNotNull(index.find('c'));
+        Assert.assertNull(index.find('d'));
+        Assert.assertNull(index.find('-'));
+        Assert.assertNull(index.find('\u00e9'));
+    }
+
+    private <T> GlobalMetadata<T> parserFor(Class<? extends T> cls) {
+        return this.<T> createClassicGetOptParser(cls).getMetadata();
+    }
+
     private <T> Cli<T> createClassicGetOptParser(Class<? extends T> cls) {
         //@formatter:off
         CliBuilder<T> builder = Cli.<T>builder("test")
@@ -212,6 +259,52 @@ public class TestOptionParsing {
         testParsing(parser, "OptionParsing1", "--charlie=foo");
     }
 
+    @Test
+    public void option_parsing_long_getopt_05() {
+        Cli<OptionParsing> parser = createLongGetOptParser(OptionParsing.class);
+        OptionParsing cmd = testParsing(parser, "OptionParsing1", "--beta==foo=bar");
+
+        Assert.assertEquals(cmd.beta, "foo=bar");
+    }
+
+    @Test(expectedExceptions = ParseArgumentsUnexpectedException.class)
+    public void option_parsing_long_getopt_06() {
+        Cli<OptionParsing> parser = createLongGetOptParser(OptionParsing.class);
+        testParsing(parser, "OptionParsing1", "--beta=");
+    }
+
+    @Test
+    public void option_parsing_classified_token_01() {
+        GlobalMetadata<OptionParsing> metadata = this.<OptionParsing> createDefaultParser(OptionParsing.class)
+                .getMetadata();
+        CommandMetadata command = metadata.getDefaultGroupCommands().get(0);
+        ParseState<OptionParsing> state = ParseState.<OptionParsing> newInstance().withGlobal(metadata)
+                .withCommand(command);
+
+        ClassifiedToken<OptionParsing> token = new ClassifiedToken<>("-a", state, command.getAllOptions());
+        Assert.assertTrue(token.hasShortNamePrefix());
+        Assert.assertNotNull(token.getOption());
+        Assert.assertNull(token.getShortPrefixOption());
+
+        token = new ClassifiedToken<>("-bfoo", state, command.getAllOptions());
+        Assert.assertTrue(token.hasShortNamePrefix());
+        Assert.assertNull(token.getOption());
+        Assert.assertNotNull(token.getShortPrefixOption());
+        Assert.assertTrue(token.getShortPrefixOption().getOptions().contains("--beta"));
+        Assert.assertTrue(token.hasOptionCandidate());
+
+        token = new ClassifiedToken<>("--beta", state, command.getAllOptions());
+        Assert.assertFalse(token.hasShortNamePrefix());
+        Assert.assertNotNull(token.getOption());
+
+        token = new ClassifiedToken<>("value", state, command.getAllOptions());
+        Assert.assertFalse(token.hasShortNamePrefix());
+        Assert.assertFalse(token.hasOptionCandidate());
+
+        token = new ClassifiedToken<>("-a\nb", state, command.getAllOptions());
+        Assert.assertFalse(token.hasShortNamePrefix());
+    }
+
     private <T> Cli<T> createLongGetOptParser(Class<? extends T> cls) {
         //@formatter:off
         CliBuilder<T> builder = Cli.<T>builder("test")
@@ -660,4 +753,68 @@ public class TestOptionParsing {
         //@formatter:on
         return builder.build();
     }
+
+    private static class CountingOptionParser<T> extends StandardOptionParser<T> {
+        private int calls = 0;
+
+        @Override
+        public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
+                List<OptionMetadata> allowedOptions) {
+            calls++;
+            return super.parseOptions(tokens, state, allowedOptions);
+        }
+    }
+
+    @Test
+    public void option_parsing_legacy_override_01() {
+        // Overriding only the legacy method of a built-in parser must still
+        // take effect
+        CountingOptionParser<OptionParsing> optionParser = new CountingOptionParser<OptionParsing>();
+        //@formatter:off
+        CliBuilder<OptionParsing> builder = Cli.<OptionParsing>builder("test")
+                                               .withCommand(OptionParsing.class);
+        builder.withParser()
+               .withOptionParser(optionParser);
+        //@formatter:on
+        OptionParsing cmd = testParsing(builder.build(), "OptionParsing1", "-a", "-b", "foo");
+
+        Assert.assertTrue(cmd.alpha);
+        Assert.assertEquals(cmd.beta, "foo");
+        Assert.assertTrue(optionParser.calls >= 2);
+    }
+
+    private static class RejectingOptionParser<T> extends AbstractOptionParser<T> {
+        private int calls = 0;
+
+        @Override
+        public boolean accepts(ClassifiedToken<T> token) {
+            return false;
+        }
+
+        @Override
+        public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
+                List<OptionMetadata> allowedOptions) {
+            calls++;
+            return null;
+        }
+    }
+
+    @Test
+    public void option_parsing_classified_01() {
+        // Parsers directly extending the abstract parser are offered tokens
+        // via the classified method so are skipped when they reject a token
+        RejectingOptionParser<OptionParsing> rejecting = new RejectingOptionParser<OptionParsing>();
+        //@formatter:off
+        CliBuilder<OptionParsing> builder = Cli.<OptionParsing>builder("test")
+                                               .withCommand(OptionParsing.class);
+        builder.withParser()
+               .withOptionParser(rejecting)
+               .withOptionParser(new StandardOptionParser<OptionParsing>());
+        //@formatter:on
+        OptionParsing cmd = testParsing(builder.build(), "OptionParsing1", "-a", "-b", "foo");
+
+        Assert.assertTrue(cmd.alpha);
+        Assert.assertEquals(cmd.beta, "foo");
+        Assert.assertEquals(rejecting.calls, 0);
+    }
 }
@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.args.ArgsParallelValidation;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.parser.errors.handlers.FailFast;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+
+public class TestParallelValidation {
+
+    private SingleCommand<ArgsParallelValidation> prepare(ParserErrorHandler handler, int threshold) {
+        ParserBuilder<ArgsParallelValidation> builder = new ParserBuilder<ArgsParallelValidation>()
+                .withErrorHandler(handler);
+        if (threshold >= 0) {
+            builder = builder.withParallelValidation(threshold);
+        }
+        ParserMetadata<ArgsParallelValidation> config = builder.build();
+        return SingleCommand.singleCommand(ArgsParallelValidation.class, config);
+    }
+
+    private List<String> prepareArgs(int count, int invalidEvery) {
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (invalidEvery > 0 && i % invalidEvery == 0) {
+                // Alternate between conversion and range failures
+                args.add((i / invalidEvery) % 2 == 0 ? "bad" + i : Integer.toString(1000 + i));
+            } else {
+                args.add(Integer.toString(i % 100));
+            }
+            if (i % 10 == 0) {
+                args.add(args.remove(args.size() - 1));
+                args.add(args.size() - 1, "--value");
+            }
+        }
+        return args;
+    }
+
+    private List<String> messages(ParseResult<?> result) {
+        List<String> messages = new ArrayList<>();
+        for (ParseException e : result.getErrors()) {
+            messages.add(e.getMessage());
+        }
+        return messages;
+    }
+
+    @Test
+    public void parallel_validation_01() {
+        List<String> args = prepareArgs(5000, 0);
+
+        ArgsParallelValidation sequential = prepare(new FailFast(), -1).parse(args);
+        ArgsParallelValidation parallel = prepare(new FailFast(), 0).parse(args);
+
+        Assert.assertEquals(parallel.values, sequential.values);
+        Assert.assertEquals(parallel.args, sequential.args);
+        Assert.assertEquals(parallel.values.size(), 500);
+        Assert.assertEquals(parallel.args.size(), 4500);
+    }
+
+    @Test
+    public void parallel_validation_02() {
+        List<String> args = prepareArgs(5000, 7);
+
+        ParseResult<ArgsParallelValidation> sequential = prepare(new CollectAll(), -1).parseWithResult(args);
+        ParseResult<ArgsParallelValidation> parallel = prepare(new CollectAll(), 0).parseWithResult(args);
+
+        // Errors must be reported in input order regardless of how the values
+        // were validated
+        Assert.assertFalse(parallel.wasSuccessful());
+        Assert.assertEquals(messages(parallel), messages(sequential));
+        Assert.assertEquals(parallel.getState().getUnparsedInput(), sequential.getState().getUnparsedInput());
+        Assert.assertEquals(parallel.getState().getParsedOptions().size(),
+                sequential.getState().getParsedOptions().size());
+        Assert.assertEquals(parallel.getCommand().values, sequential.getCommand().values);
+        Assert.assertEquals(parallel.getCommand().args, sequential.getCommand().args);
+    }
+
+    @Test
+    public void parallel_validation_03() {
+        List<String> args = prepareArgs(2000, 333);
+
+        String expected = null, actual = null;
+        try {
+            prepare(new FailFast(), -1).parse(args);
+        } catch (ParseException e) {
+            expected = e.getMessage();
+        }
+        try {
+            prepare(new FailFast(), 0).parse(args);
+        } catch (ParseException e) {
+            actual = e.getMessage();
+        }
+        Assert.assertNotNull(expected);
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test
+    public void parallel_validation_04() {
+        // Below the threshold values are resolved inline but the result is the
+        // same
+        List<String> args = prepareArgs(50, 9);
+
+        ParseResult<ArgsParallelValidation> sequential = prepare(new CollectAll(), -1).parseWithResult(args);
+        ParseResult<ArgsParallelValidation> deferred = prepare(new CollectAll(), 1000).parseWithResult(args);
+
+        Assert.assertEquals(messages(deferred), messages(sequential));
+        Assert.assertEquals(deferred.getCommand().values, sequential.getCommand().values);
+        Assert.assertEquals(deferred.getCommand().args, sequential.getCommand().args);
+    }
+
+    @Test
+    public void parallel_validation_05() {
+        // Single valued options are never deferred
+        ArgsParallelValidation cmd = prepare(new FailFast(), 0).parse("--name", "test", "--value", "1", "2");
+        Assert.assertEquals(cmd.name, "test");
+        Assert.assertEquals(cmd.values.size(), 1);
+        Assert.assertEquals(cmd.values.get(0), Integer.valueOf(1));
+        Assert.assertEquals(cmd.args.size(), 1);
+        Assert.assertEquals(cmd.args.get(0), Integer.valueOf(2));
+    }
+
+    @Test
+    public void parallel_validation_06() {
+        // Errors for deferred values are only reported once parsing has
+        // finished so follow any errors found while parsing, here the
+        // conversion of the single valued --count option
+        String[] args = new String[] { "--value", "bad", "--count", "x" };
+
+        String first = null;
+        try {
+            prepare(new FailFast(), -1).parse(args);
+            Assert.fail("Expected an error");
+        } catch (ParseException e) {
+            first = e.getMessage();
+        }
+        String second = null;
+        try {
+            prepare(new FailFast(), 0).parse(args);
+            Assert.fail("Expected an error");
+        } catch (ParseException e) {
+            second = e.getMessage();
+        }
+        Assert.assertNotEquals(second, first);
+
+        List<String> sequential = messages(prepare(new CollectAll(), -1).parseWithResult(args));
+        List<String> parallel = messages(prepare(new CollectAll(), 0).parseWithResult(args));
+        Assert.assertEquals(sequential.subList(0, 2), Arrays.asList(first, second));
+        Assert.assertEquals(parallel.subList(0, 2), Arrays.asList(second, first));
+    }
+
+    @Test
+    public void parallel_validation_pool_01() {
+        final AtomicInteger threads = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(2, new ForkJoinWorkerThreadFactory() {
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                threads.incrementAndGet();
+                return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            }
+        }, null, false);
+        try {
+            ParserMetadata<ArgsParallelValidation> config = new ParserBuilder<ArgsParallelValidation>()
+                    .withParallelValidation(0).withParallelValidationPool(pool).build();
+            Assert.assertSame(config.getParallelValidationPool(), pool);
+
+            ArgsParallelValidation cmd = SingleCommand.singleCommand(ArgsParallelValidation.class, config)
+                    .parse(prepareArgs(5000, 0));
+            Assert.assertEquals(cmd.args.size(), 4500);
+            Assert.assertTrue(threads.get() > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void parallel_validation_bad_threshold() {
+        new ParserBuilder<ArgsParallelValidation>().withParallelValidation(-1);
+    }
+}
@@ -15,6 +15,11 @@
  */
 package com.github.rvesse.airline.parser.aliases;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.collections4.IteratorUtils;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -156,6 +161,72 @@ public class TestAliasResolver {
         Assert.assertEquals(cmd.verbose.intValue(), 9);
     }
     
+    @Test
+    public void alias_resolution_positional_08() {
+        //@formatter:off
+        CliBuilder<Args1> builder = prepareBuilder();
+        builder.withParser()
+               .withAlias("a")
+               .withArguments("-verbose", "$2");
+        //@formatter:on
+        
+        // Unused positional parameters and the remaining tokens are passed
+        // through in their original order
+        Args1 cmd = builder.build().parse("a", "x", "5", "y", "z");
+        Assert.assertEquals(cmd.verbose.intValue(), 5);
+        Assert.assertEquals(cmd.parameters.size(), 3);
+        Assert.assertEquals(cmd.parameters.get(0), "x");
+        Assert.assertEquals(cmd.parameters.get(1), "y");
+        Assert.assertEquals(cmd.parameters.get(2), "z");
+    }
+    
+    @Test
+    public void alias_resolution_positional_09() {
+        //@formatter:off
+        CliBuilder<Args1> builder = prepareBuilder();
+        builder.withParser()
+               .withAlias("a")
+               .withArguments("-verbose", "$1");
+        //@formatter:on
+        
+        String[] args = new String[10001];
+        args[0] = "a";
+        args[1] = "3";
+        for (int i = 2; i < args.length; i++) {
+            args[i] = Integer.toString(i);
+        }
+        Args1 cmd = builder.build().parse(args);
+        Assert.assertEquals(cmd.verbose.intValue(), 3);
+        Assert.assertEquals(cmd.parameters.size(), 9999);
+        Assert.assertEquals(cmd.parameters.get(0), "2");
+        Assert.assertEquals(cmd.parameters.get(9998), "10000");
+    }
+    
+    @Test
+    public void alias_template_01() {
+        AliasTemplate template = AliasTemplate.compile(Arrays.asList("cmd", "$3", "${1:-x}", "$0", "${foo}", "$"));
+        Assert.assertEquals(template.getParameterCount(), 3);
+
+        List<String> expanded = IteratorUtils.toList(template.expand(Arrays.asList("a").iterator()));
+        Assert.assertEquals(expanded, Arrays.asList("cmd", "$3", "a", "$0", "${foo}", "$"));
+
+        expanded = IteratorUtils.toList(template.expand(Arrays.asList("a", "b", "c", "d").iterator()));
+        Assert.assertEquals(expanded, Arrays.asList("cmd", "c", "a", "$0", "${foo}", "$", "b", "d"));
+
+        expanded = IteratorUtils.toList(template.expand(Collections.<String> emptyIterator()));
+        Assert.assertEquals(expanded, Arrays.asList("cmd", "$3", "x", "$0", "${foo}", "$"));
+    }
+    
+    @Test
+    public void alias_template_02() {
+        // Huge positional parameters must not cause huge allocations
+        AliasTemplate template = AliasTemplate.compile(Arrays.asList("cmd", "$2147483647", "${2147483647:-x}"));
+        Assert.assertEquals(template.getParameterCount(), Integer.MAX_VALUE);
+
+        List<String> expanded = IteratorUtils.toList(template.expand(Arrays.asList("a", "b").iterator()));
+        Assert.assertEquals(expanded, Arrays.asList("cmd", "$2147483647", "x", "a", "b"));
+    }
+    
     @Test
     public void alias_resolution_chained_01() {
         //@formatter:off
@@ -1241,4 +1241,127 @@ public class TestAliases {
         Args1 args = cli.parse("Args1");
         Assert.assertFalse(args.debug);
     }
+
+    @Test
+    public void user_aliases_caching_01() throws IOException {
+        prepareConfig(f, "foo=Args1 bar");
+
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class);
+        builder.withParser()
+               .withUserAliases()
+                   .withProgramName("test")
+                   .withSearchLocation("target/")
+                   .withCaching();
+        Cli<Args1> cli = builder.build();
+        //@formatter:on
+
+        // User aliases are not loaded when building the parser configuration
+        Assert.assertTrue(cli.getMetadata().getParserConfiguration()
+                .getUserAliasesSource() instanceof CachingUserAliasesSource);
+        Assert.assertEquals(cli.getMetadata().getParserConfiguration().getAliases().size(), 0);
+
+        // Check parsing
+        Args1 cmd = cli.parse("foo");
+        Assert.assertEquals(cmd.parameters.size(), 1);
+        Assert.assertEquals(cmd.parameters.get(0), "bar");
+    }
+
+    @Test
+    public void user_aliases_caching_02() throws IOException {
+        prepareConfig(f, "foo=Args1 bar");
+
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class);
+        builder.withParser()
+               .withUserAliases()
+                   .withProgramName("test")
+                   .withSearchLocation("target/")
+                   .withCaching();
+        Cli<Args1> cli = builder.build();
+        //@formatter:on
+
+        Args1 cmd = cli.parse("foo");
+        Assert.assertEquals(cmd.parameters.size(), 1);
+        Assert.assertEquals(cmd.parameters.get(0), "bar");
+
+        // Changes to the aliases file are seen without rebuilding the CLI
+        prepareConfig(f, "foo=Args1 bar faz");
+        cmd = cli.parse("foo");
+        Assert.assertEquals(cmd.parameters.size(), 2);
+        Assert.assertEquals(cmd.parameters.get(0), "bar");
+        Assert.assertEquals(cmd.parameters.get(1), "faz");
+    }
+
+    @Test
+    public void user_aliases_caching_03() throws IOException {
+        // Explicit aliases remain available and user aliases take precedence
+        prepareConfig(f, "foo=Args1 bar");
+
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class);
+        builder.withParser()
+               .withAlias("foo")
+                   .withArguments("Args1", "explicit")
+                   .parent()
+               .withAlias("other")
+                   .withArguments("Args1", "explicit")
+                   .parent()
+               .withUserAliases()
+                   .withProgramName("test")
+                   .withSearchLocation("target/")
+                   .withCaching();
+        Cli<Args1> cli = builder.build();
+        //@formatter:on
+
+        Args1 cmd = cli.parse("foo");
+        Assert.assertEquals(cmd.parameters.size(), 1);
+        Assert.assertEquals(cmd.parameters.get(0), "bar");
+
+        cmd = cli.parse("other");
+        Assert.assertEquals(cmd.parameters.size(), 1);
+        Assert.assertEquals(cmd.parameters.get(0), "explicit");
+    }
+
+    @Test
+    public void user_aliases_caching_04() throws IOException {
+        // Built-ins are not overridden and don't trigger loading
+        prepareConfig(f, "Args1=Args1 -debug");
+
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class);
+        builder.withParser()
+               .withUserAliases()
+                   .withProgramName("test")
+                   .withSearchLocation("target/")
+                   .withCaching();
+        Cli<Args1> cli = builder.build();
+        //@formatter:on
+
+        Args1 args = cli.parse("Args1");
+        Assert.assertFalse(args.debug);
+    }
+
+    @Test
+    public void user_aliases_caching_05() throws IOException {
+        prepareConfig(f, "foo=Args1 bar", "baz=Args1 faz");
+
+        CachingUserAliasesSource<Args1> source = new CachingUserAliasesSource<>("test.config", null, "target/");
+        List<AliasMetadata> aliases = source.load();
+        Assert.assertEquals(aliases.size(), 2);
+
+        // Unchanged files produce the same aliases
+        Assert.assertSame(source.load(), aliases);
+        Assert.assertSame(source.find("foo"), source.find("foo"));
+        Assert.assertNull(source.find("other"));
+
+        // Invalidating forces a reload
+        source.invalidate();
+        Assert.assertNotSame(source.load(), aliases);
+        Assert.assertEquals(source.load().size(), 2);
+    }
 }
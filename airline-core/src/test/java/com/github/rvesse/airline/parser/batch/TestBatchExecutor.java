@@ -0,0 +1,337 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.batch;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.GitCommand;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.GitWithCliAnnotation;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
+
+public class TestBatchExecutor {
+
+    private static List<String[]> prepareLines(int count) {
+        List<String[]> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            switch (i % 4) {
+            case 0:
+                lines.add(new String[] { "add", "-i", "file" + i });
+                break;
+            case 1:
+                lines.add(new String[] { "remote", "add", "-t", "b" + i, "origin" + i, "url" + i });
+                break;
+            case 2:
+                // Invalid
+                lines.add(new String[] { "remote", "add", "-t" });
+                break;
+            default:
+                lines.add(new String[] { "-v", "remote", "show", "origin" + i });
+                break;
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> messages(ParseResult<?> result) {
+        List<String> messages = new ArrayList<>();
+        for (ParseException e : result.getErrors()) {
+            messages.add(e.getMessage());
+        }
+        return messages;
+    }
+
+    @Test
+    public void batch_parse_01() throws InterruptedException {
+        // Default FailFast handler throws so errors are recorded in the result
+        Cli<GitCommand> cli = new Cli<>(GitWithCliAnnotation.class);
+        List<String[]> lines = prepareLines(2000);
+        List<BatchResult<GitCommand, Void>> results = cli.parseAll(lines);
+
+        Assert.assertEquals(results.size(), lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            BatchResult<GitCommand, Void> result = results.get(i);
+            Assert.assertEquals(result.getIndex(), i);
+            Assert.assertEquals(result.getArguments().toArray(), lines.get(i));
+            Assert.assertFalse(result.wasRun());
+
+            GitCommand expected = null;
+            String expectedError = null;
+            try {
+                expected = cli.parse(lines.get(i));
+            } catch (ParseException e) {
+                expectedError = e.getMessage();
+            }
+            if (expectedError != null) {
+                Assert.assertFalse(result.wasSuccessful());
+                Assert.assertNull(result.getParseResult());
+                Assert.assertEquals(result.getError().getMessage(), expectedError);
+            } else {
+                Assert.assertTrue(result.wasSuccessful(), result.toString());
+                Assert.assertEquals(result.getCommand().getClass(), expected.getClass());
+            }
+        }
+        Assert.assertEquals(((Add) results.get(0).getCommand()).patterns.get(0), "file0");
+        Assert.assertEquals(((RemoteAdd) results.get(1).getCommand()).branch, "b1");
+        Assert.assertTrue(results.get(3).getCommand().verbose);
+    }
+
+    @Test
+    public void batch_parse_02() throws InterruptedException {
+        // A single collecting handler is shared by all the threads
+        Cli<GitCommand> cli = new Cli<>(GitWithCliAnnotation.class,
+                new ParserBuilder<GitCommand>().withErrorHandler(new CollectAll()).build());
+        List<String[]> lines = prepareLines(2000);
+        List<BatchResult<GitCommand, Void>> results = cli.parseAll(lines);
+
+        for (int i = 0; i < lines.size(); i++) {
+            ParseResult<GitCommand> expected = cli.parseWithResult(lines.get(i));
+            ParseResult<GitCommand> actual = results.get(i).getParseResult();
+            Assert.assertNotNull(actual);
+            Assert.assertEquals(actual.wasSuccessful(), expected.wasSuccessful());
+            Assert.assertEquals(messages(actual), messages(expected));
+        }
+    }
+
+    @Test
+    public void batch_run_01() throws InterruptedException {
+        final int maxPending = 8;
+        final AtomicInteger started = new AtomicInteger();
+        final List<Long> delivered = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            BatchExecutor<GitCommand> batch = new BatchExecutor<>(
+                    new Cli<GitCommand>(GitWithCliAnnotation.class).getMetadata(), executor, maxPending);
+            long count = batch.run(prepareLines(1000), new BatchAction<GitCommand, String>() {
+                @Override
+                public String run(GitCommand command) {
+                    started.incrementAndGet();
+                    return command.getClass().getSimpleName();
+                }
+            }, new BatchCallback<GitCommand, String>() {
+                @Override
+                public void accept(BatchResult<GitCommand, String> result) {
+                    // Never more than the maximum pending in flight
+                    Assert.assertTrue(started.get() - delivered.size() <= maxPending);
+                    delivered.add(result.getIndex());
+                    if (result.getIndex() % 4 != 2) {
+                        Assert.assertTrue(result.wasRun());
+                        Assert.assertEquals(result.getOutput(), result.getCommand().getClass().getSimpleName());
+                    } else {
+                        Assert.assertFalse(result.wasRun());
+                        Assert.assertNull(result.getOutput());
+                    }
+                }
+            });
+            Assert.assertEquals(count, 1000);
+            Assert.assertEquals(started.get(), 750);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Delivered in order
+        for (int i = 0; i < delivered.size(); i++) {
+            Assert.assertEquals(delivered.get(i).longValue(), i);
+        }
+    }
+
+    @Test
+    public void batch_run_02() throws InterruptedException {
+        // Action failures are recorded and do not stop the batch
+        BatchExecutor<GitCommand> batch = new BatchExecutor<>(
+                new Cli<GitCommand>(GitWithCliAnnotation.class).getMetadata());
+        final List<BatchResult<GitCommand, Object>> results = new ArrayList<>();
+        batch.run(prepareLines(8), new BatchAction<GitCommand, Object>() {
+            @Override
+            public Object run(GitCommand command) throws Exception {
+                throw new Exception("Failed");
+            }
+        }, new BatchCallback<GitCommand, Object>() {
+            @Override
+            public void accept(BatchResult<GitCommand, Object> result) {
+                results.add(result);
+            }
+        });
+        Assert.assertEquals(results.size(), 8);
+        Assert.assertTrue(results.get(0).wasRun());
+        Assert.assertFalse(results.get(0).wasSuccessful());
+        Assert.assertEquals(results.get(0).getError().getMessage(), "Failed");
+        Assert.assertNotNull(results.get(0).getCommand());
+    }
+
+    @Test
+    public void batch_callback_01() throws InterruptedException {
+        // Callback failures stop the batch
+        final AtomicInteger supplied = new AtomicInteger();
+        final List<String[]> lines = prepareLines(1000);
+        Iterable<String[]> lazy = new Iterable<String[]>() {
+            @Override
+            public Iterator<String[]> iterator() {
+                final Iterator<String[]> iter = lines.iterator();
+                return new Iterator<String[]>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iter.hasNext();
+                    }
+
+                    @Override
+                    public String[] next() {
+                        supplied.incrementAndGet();
+                        return iter.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+        BatchExecutor<GitCommand> batch = new BatchExecutor<>(
+                new Cli<GitCommand>(GitWithCliAnnotation.class).getMetadata(), null, 4);
+        try {
+            batch.parse(lazy, new BatchCallback<GitCommand, Void>() {
+                @Override
+                public void accept(BatchResult<GitCommand, Void> result) {
+                    if (result.getIndex() == 10)
+                        throw new IllegalStateException("Stop");
+                }
+            });
+            Assert.fail("Callback failure did not stop the batch");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(e.getMessage(), "Stop");
+        }
+        // Command lines are only read as capacity becomes available
+        Assert.assertTrue(supplied.get() <= 15, Integer.toString(supplied.get()));
+    }
+
+    @Test
+    public void batch_parse_03() throws InterruptedException {
+        // Callers may reuse the same array for every command line
+        final String[] buffer = new String[3];
+        Iterable<String[]> reused = new Iterable<String[]>() {
+            @Override
+            public Iterator<String[]> iterator() {
+                return new Iterator<String[]>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.next < 500;
+                    }
+
+                    @Override
+                    public String[] next() {
+                        buffer[0] = "add";
+                        buffer[1] = "-i";
+                        buffer[2] = "file" + this.next++;
+                        return buffer;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+        List<BatchResult<GitCommand, Void>> results = new Cli<GitCommand>(GitWithCliAnnotation.class)
+                .parseAll(reused);
+
+        Assert.assertEquals(results.size(), 500);
+        for (BatchResult<GitCommand, Void> result : results) {
+            String expected = "file" + result.getIndex();
+            Assert.assertEquals(result.getArguments().get(2), expected);
+            Assert.assertEquals(((Add) result.getCommand()).patterns.get(0), expected);
+        }
+    }
+
+    @Test
+    public void batch_parse_04() throws InterruptedException {
+        // A parse that fails unexpectedly leaves no errors behind for the next
+        // parse on the same thread
+        final AtomicBoolean fail = new AtomicBoolean(true);
+        //@formatter:off
+        CliBuilder<GitCommand> builder = Cli.<GitCommand>builder("git")
+                .withCommand(Add.class)
+                .withGroup("remote")
+                    .withCommand(RemoteAdd.class)
+                    .parent()
+                .withDefaultRestrictions()
+                .withRestriction(new GlobalRestriction() {
+                    @Override
+                    public <T> void validate(ParseState<T> state) {
+                        if (fail.getAndSet(false))
+                            throw new IllegalStateException("Unexpected");
+                    }
+                });
+        //@formatter:on
+        builder.withParser().withErrorHandler(new CollectAll());
+        Cli<GitCommand> cli = builder.build();
+        List<String[]> lines = new ArrayList<>();
+        lines.add(new String[] { "remote", "add", "-t" });
+        lines.add(new String[] { "add", "file" });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final List<BatchResult<GitCommand, Void>> results = new ArrayList<>();
+            new BatchExecutor<>(cli.getMetadata(), executor, 1).parse(lines,
+                    new BatchCallback<GitCommand, Void>() {
+                        @Override
+                        public void accept(BatchResult<GitCommand, Void> result) {
+                            results.add(result);
+                        }
+                    });
+
+            Assert.assertTrue(results.get(0).getError() instanceof IllegalStateException);
+            ParseResult<GitCommand> next = results.get(1).getParseResult();
+            Assert.assertNotNull(next);
+            Assert.assertTrue(next.wasSuccessful(), messages(next).toString());
+            Assert.assertEquals(messages(next).size(), 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void batch_bad_01() throws InterruptedException {
+        List<String[]> lines = prepareLines(4);
+        lines.add(null);
+        new Cli<GitCommand>(GitWithCliAnnotation.class).parseAll(lines);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void batch_bad_02() {
+        new BatchExecutor<>(new Cli<GitCommand>(GitWithCliAnnotation.class).getMetadata(), null, 0);
+    }
+}
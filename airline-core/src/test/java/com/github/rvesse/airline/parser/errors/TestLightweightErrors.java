@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.args.ArgsParallelValidation;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.parser.errors.handlers.FailFast;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+
+public class TestLightweightErrors {
+
+    private SingleCommand<ArgsParallelValidation> prepare(ParserErrorHandler handler, boolean lightweight) {
+        ParserBuilder<ArgsParallelValidation> builder = new ParserBuilder<ArgsParallelValidation>()
+                .withErrorHandler(handler);
+        if (lightweight)
+            builder = builder.withLightweightErrors();
+        return SingleCommand.singleCommand(ArgsParallelValidation.class, builder.build());
+    }
+
+    private List<String> messages(ParseResult<?> result) {
+        List<String> messages = new ArrayList<>();
+        for (ParseException e : result.getErrors()) {
+            messages.add(e.getMessage());
+        }
+        return messages;
+    }
+
+    @Test
+    public void lightweight_errors_01() {
+        try {
+            prepare(new FailFast(), true).parse("--value", "500");
+            Assert.fail("Expected a parse error");
+        } catch (ParseOptionOutOfRangeException e) {
+            Assert.assertEquals(e.getStackTrace().length, 0);
+            Assert.assertTrue(e.getMessage().contains("'500'"));
+        }
+        Assert.assertFalse(LightweightErrors.isEnabled());
+    }
+
+    @Test
+    public void lightweight_errors_02() {
+        try {
+            prepare(new FailFast(), false).parse("--value", "500");
+            Assert.fail("Expected a parse error");
+        } catch (ParseOptionOutOfRangeException e) {
+            Assert.assertNotEquals(e.getStackTrace().length, 0);
+        }
+    }
+
+    @Test
+    public void lightweight_errors_03() {
+        String[] args = { "--value", "500", "bad", "--value", "500", "200" };
+        ParseResult<ArgsParallelValidation> normal = prepare(new CollectAll(), false).parseWithResult(args);
+        ParseResult<ArgsParallelValidation> lightweight = prepare(new CollectAll(), true).parseWithResult(args);
+
+        // Handlers behave identically
+        Assert.assertEquals(messages(lightweight), messages(normal));
+        ParseException first = lightweight.getErrors().iterator().next();
+        Assert.assertEquals(first.getSuppressed().length, 1);
+        for (ParseException e : lightweight.getErrors()) {
+            Assert.assertEquals(e.getStackTrace().length, 0);
+        }
+    }
+
+    @Test
+    public void lightweight_errors_04() {
+        boolean previous = LightweightErrors.enable(true);
+        try {
+            Assert.assertTrue(LightweightErrors.isEnabled());
+
+            // Parsing with the normal configuration disables lightweight errors
+            // and then restores the previous setting
+            try {
+                prepare(new FailFast(), false).parse("--value", "500");
+                Assert.fail("Expected a parse error");
+            } catch (ParseException e) {
+                Assert.assertNotEquals(e.getStackTrace().length, 0);
+            }
+            Assert.assertTrue(LightweightErrors.isEnabled());
+        } finally {
+            LightweightErrors.restore(previous);
+        }
+        Assert.assertFalse(LightweightErrors.isEnabled());
+    }
+
+    @Test
+    public void lightweight_errors_lazy_message_01() {
+        final int[] formatted = { 0 };
+        Object arg = new Object() {
+            @Override
+            public String toString() {
+                formatted[0]++;
+                return "test";
+            }
+        };
+
+        ParseException e = new ParseException("Value %s", arg);
+        Assert.assertEquals(formatted[0], 0);
+        Assert.assertEquals(e.getMessageFormat(), "Value %s");
+        Assert.assertEquals(e.getMessageArguments().length, 1);
+        Assert.assertSame(e.getMessageArguments()[0], arg);
+
+        Assert.assertEquals(e.getMessage(), "Value test");
+        Assert.assertEquals(e.getMessage(), "Value test");
+        Assert.assertEquals(formatted[0], 1);
+    }
+
+    @Test
+    public void lightweight_errors_serialization_01() throws IOException, ClassNotFoundException {
+        ParseException e = new ParseException("Value %s", 1234);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream objOutput = new ObjectOutputStream(output)) {
+            objOutput.writeObject(e);
+        }
+        try (ObjectInputStream objInput = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            ParseException copy = (ParseException) objInput.readObject();
+            Assert.assertEquals(copy.getMessage(), "Value 1234");
+            Assert.assertEquals(copy.getMessageFormat(), "Value %s");
+        }
+    }
+}
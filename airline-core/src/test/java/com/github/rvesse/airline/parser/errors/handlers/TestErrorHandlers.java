@@ -15,15 +15,21 @@
  */
 package com.github.rvesse.airline.parser.errors.handlers;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.args.ArgsParallelValidation;
 import com.github.rvesse.airline.args.ArgsRequired;
 import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseTooManyErrorsException;
 import com.github.rvesse.airline.restrictions.Some;
 import com.github.rvesse.airline.restrictions.Strings;
 
@@ -96,4 +102,160 @@ public class TestErrorHandlers {
         Strings cmd = result.getCommand();
         Assert.assertFalse(cmd.helpOption.showHelpIfErrors(result));
     }
+
+    private List<String> prepareInvalidArgs(int count) {
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Half the values are duplicates
+            args.add("--value");
+            args.add(Integer.toString(i % 2 == 0 ? 1000 : 1000 + i));
+        }
+        return args;
+    }
+
+    @Test
+    public void errorHandlerCollectAllDuplicatesHashed() {
+        ParseResult<ArgsParallelValidation> result = SingleCommand
+                .<ArgsParallelValidation> singleCommand(ArgsParallelValidation.class,
+                        this.<ArgsParallelValidation> prepareParser(new CollectAll()))
+                .parseWithResult(prepareInvalidArgs(10000));
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 5001);
+
+        ParseException first = result.getErrors().iterator().next();
+        Assert.assertEquals(first.getSuppressed().length, 4999);
+    }
+
+    @Test
+    public void errorHandlerCollectAllDuplicatesByFormat() {
+        CollectAll handler = new CollectAll();
+        // Duplicates must have the same type, format and arguments
+        handler.handleError(new ParseException("Value %s is invalid", "foo"));
+        handler.handleError(new ParseException("Value %s is invalid", "foo"));
+        handler.handleError(new ParseException("Value %s is invalid", "bar"));
+        handler.handleError(new ParseException("Value foo is invalid"));
+        handler.handleError(new ParseException("Value %s is invalid", "foo") {
+            private static final long serialVersionUID = 1L;
+        });
+
+        List<ParseException> errors = handler.getCollection();
+        Assert.assertEquals(errors.size(), 4);
+        Assert.assertEquals(errors.get(0).getSuppressed().length, 1);
+        handler.resetCollection();
+    }
+
+    @Test
+    public void errorHandlerCollectAllDuplicatesWithoutFormat() {
+        CollectAll handler = new CollectAll();
+        // Errors without a format are compared by their message
+        for (String message : new String[] { "Custom", "Custom", "Other" }) {
+            handler.handleError(new CustomMessageException(message));
+        }
+
+        List<ParseException> errors = handler.getCollection();
+        Assert.assertEquals(errors.size(), 2);
+        Assert.assertEquals(errors.get(0).getSuppressed().length, 1);
+        handler.resetCollection();
+    }
+
+    private static class CustomMessageException extends ParseException {
+        private static final long serialVersionUID = 1L;
+
+        private final String custom;
+
+        CustomMessageException(String custom) {
+            super(null);
+            this.custom = custom;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.custom;
+        }
+    }
+
+    @Test
+    public void errorHandlerCollectAllLazyMessages() {
+        final AtomicInteger formatted = new AtomicInteger();
+        Object arg = new Object() {
+            @Override
+            public String toString() {
+                formatted.incrementAndGet();
+                return "foo";
+            }
+        };
+        CollectAll handler = new CollectAll();
+        handler.handleError(new ParseException("Value %s is invalid", arg));
+        handler.handleError(new ParseException("Value %s is invalid", arg));
+
+        // Collecting errors and detecting duplicates does not format messages
+        List<ParseException> errors = handler.getCollection();
+        Assert.assertEquals(errors.size(), 1);
+        Assert.assertEquals(formatted.get(), 0);
+
+        Assert.assertEquals(errors.get(0).getMessage(), "Value foo is invalid");
+        Assert.assertEquals(formatted.get(), 1);
+        handler.resetCollection();
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void errorHandlerCollectAllErrorsField() {
+        // Subclasses using the deprecated field see the current thread's
+        // errors
+        CollectAll handler = new CollectAll() {
+            @Override
+            public void handleError(ParseException e) {
+                super.handleError(e);
+                Assert.assertSame(this.errors.get(this.errors.size() - 1), e);
+            }
+        };
+        handler.handleError(new ParseException("First"));
+        handler.handleError(new ParseException("Second"));
+        Assert.assertEquals(handler.errors, handler.getCollection());
+        handler.reset();
+        Assert.assertTrue(handler.errors.isEmpty());
+    }
+
+    @Test
+    public void errorHandlerCollectAllMaximum() {
+        CollectAll handler = new CollectAll(100);
+        SingleCommand<ArgsParallelValidation> parser = SingleCommand.<ArgsParallelValidation> singleCommand(
+                ArgsParallelValidation.class, this.<ArgsParallelValidation> prepareParser(handler));
+        try {
+            parser.parseWithResult(prepareInvalidArgs(10000));
+            Assert.fail("Expected parsing to stop");
+        } catch (ParseTooManyErrorsException e) {
+            Assert.assertEquals(e.getCount(), 100);
+            Assert.assertEquals(e.getErrors().size(), 51);
+            Assert.assertEquals(e.getSuppressed().length, 51);
+        }
+
+        // Handler is reset so can be reused
+        ParseResult<ArgsParallelValidation> result = parser.parseWithResult(prepareInvalidArgs(10));
+        Assert.assertEquals(result.getErrors().size(), 6);
+    }
+
+    @Test
+    public void errorHandlerFailAllMaximum() {
+        FailAll handler = new FailAll(3);
+        SingleCommand<ArgsParallelValidation> parser = SingleCommand.<ArgsParallelValidation> singleCommand(
+                ArgsParallelValidation.class, this.<ArgsParallelValidation> prepareParser(handler));
+        try {
+            parser.parse(prepareInvalidArgs(10));
+            Assert.fail("Expected parsing to stop");
+        } catch (ParseTooManyErrorsException e) {
+            Assert.assertEquals(e.getCount(), 3);
+        }
+
+        // Under the limit behaves as normal
+        try {
+            parser.parse(prepareInvalidArgs(2));
+            Assert.fail("Expected parsing to fail");
+        } catch (ParseTooManyErrorsException e) {
+            Assert.fail("Limit should not have been reached");
+        } catch (ParseException e) {
+            Assert.assertEquals(e.getSuppressed().length, 2);
+        }
+    }
 }
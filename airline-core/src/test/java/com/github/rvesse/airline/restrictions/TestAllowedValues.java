@@ -88,4 +88,10 @@ public class TestAllowedValues {
             Assert.assertEquals(cmd.enumTyped, unit);
         }
     }
+
+    @Test(expectedExceptions = ParseOptionIllegalValueException.class)
+    public void allowed_typed_02() {
+        SingleCommand<Allowable> parser = SingleCommand.singleCommand(Allowable.class);
+        parser.parse("--typed", "4");
+    }
 }
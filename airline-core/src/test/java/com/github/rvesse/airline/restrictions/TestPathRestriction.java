@@ -20,13 +20,18 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.restrictions.PathKind;
 import com.github.rvesse.airline.help.Help;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.restrictions.common.PathRestriction;
 
 public class TestPathRestriction {
 
@@ -286,4 +291,28 @@ public class TestPathRestriction {
         Assert.assertTrue(usage.contains("must be executable"));
         Assert.assertTrue(usage.contains("must exist"));
     }
+
+    @Test
+    public void path_restriction_bulk_01() {
+        // Lots of non-existent paths sharing a few parent directories
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            paths.add(String.format("target/bulk-%d/sub/file-%d.txt", i % 5, i));
+        }
+
+        PathRestriction restriction = new PathRestriction(false, true, true, false, PathKind.ANY);
+        restriction.validateAll("Argument 'files'", paths);
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class, expectedExceptionsMessageRegExp = ".*pom\\.xml.*directory")
+    public void path_restriction_bulk_02() {
+        PathRestriction restriction = new PathRestriction(true, false, false, false, PathKind.DIRECTORY);
+        restriction.validateAll("Argument 'files'", Arrays.asList("src", "target", "pom.xml", "src/main"));
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class, expectedExceptionsMessageRegExp = ".*no-such-file.*existing.*")
+    public void path_restriction_bulk_03() {
+        PathRestriction restriction = new PathRestriction(true, false, false, false, PathKind.ANY);
+        restriction.validateAll("Argument 'files'", Arrays.asList("src", "pom.xml", "target/no-such-file"));
+    }
 }
@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.AllowedEnumValues;
+import com.github.rvesse.airline.annotations.restrictions.MaxLength;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+
+public class TestRestrictionRegistry {
+
+    @AfterClass
+    public void cleanup() {
+        RestrictionRegistry.reset();
+    }
+
+    @Test
+    public void restriction_registry_lookup_01() throws NoSuchFieldException {
+        Annotation[] annotations = Strings.class.getField("notBlank").getAnnotations();
+        int found = 0;
+        for (Annotation annotation : annotations) {
+            OptionRestriction restriction = RestrictionRegistry.getOptionRestriction(annotation);
+            if (annotation instanceof NotBlank) {
+                Assert.assertNotNull(restriction);
+                found++;
+            } else if (annotation instanceof Option) {
+                Assert.assertNull(restriction);
+            }
+        }
+        Assert.assertEquals(found, 1);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void restriction_registry_immutable_01() {
+        RestrictionRegistry.getOptionRestrictionAnnotationClasses().remove(Required.class);
+    }
+
+    @Test
+    public void restriction_registry_concurrent_01() throws Exception {
+        final int expected = countRestrictions(MetadataLoader.loadCommand(Strings.class));
+        Assert.assertTrue(expected > 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int j = 0; j < 50; j++) {
+                            if (countRestrictions(MetadataLoader.loadCommand(Strings.class)) != expected)
+                                return false;
+                        }
+                        return true;
+                    }
+                }));
+            }
+
+            // Resetting the registry concurrently should never expose an empty
+            // or partially populated registry to metadata loading
+            for (int i = 0; i < 20; i++) {
+                RestrictionRegistry.reset();
+            }
+
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void restriction_registry_shared_01() throws NoSuchFieldException {
+        // Identical annotations share a single restriction instance
+        OptionRestriction a = RestrictionRegistry.getOptionRestriction(annotation("a", IntegerRange.class));
+        OptionRestriction b = RestrictionRegistry.getOptionRestriction(annotation("b", IntegerRange.class));
+        Assert.assertNotNull(a);
+        Assert.assertSame(a, b);
+
+        // Whereas annotations with different values do not
+        OptionRestriction c = RestrictionRegistry.getOptionRestriction(annotation("c", IntegerRange.class));
+        Assert.assertNotSame(a, c);
+    }
+
+    @Test
+    public void restriction_registry_shared_02() throws NoSuchFieldException {
+        // Option and arguments restrictions are shared independently
+        ArgumentsRestriction a = RestrictionRegistry.getArgumentsRestriction(annotation("a", MaxLength.class));
+        ArgumentsRestriction b = RestrictionRegistry.getArgumentsRestriction(annotation("b", MaxLength.class));
+        Assert.assertNotNull(a);
+        Assert.assertSame(a, b);
+        Assert.assertSame(RestrictionRegistry.getOptionRestriction(annotation("a", MaxLength.class)),
+                RestrictionRegistry.getOptionRestriction(annotation("b", MaxLength.class)));
+    }
+
+    @Test
+    public void restriction_registry_shared_03() throws NoSuchFieldException {
+        // Annotations with class members are never shared
+        OptionRestriction a = RestrictionRegistry.getOptionRestriction(annotation("a", AllowedEnumValues.class));
+        OptionRestriction b = RestrictionRegistry.getOptionRestriction(annotation("b", AllowedEnumValues.class));
+        Assert.assertNotNull(a);
+        Assert.assertNotSame(a, b);
+    }
+
+    @Test
+    public void restriction_registry_shared_04() throws NoSuchFieldException {
+        // Modifying the registry discards shared restrictions
+        OptionRestriction a = RestrictionRegistry.getOptionRestriction(annotation("a", IntegerRange.class));
+        RestrictionRegistry.reset();
+        OptionRestriction b = RestrictionRegistry.getOptionRestriction(annotation("a", IntegerRange.class));
+        Assert.assertNotSame(a, b);
+        Assert.assertSame(b, RestrictionRegistry.getOptionRestriction(annotation("b", IntegerRange.class)));
+    }
+
+    @Test
+    public void restriction_registry_shared_05() throws NoSuchFieldException {
+        // The number of shared restrictions is bounded
+        RestrictionRegistry.reset();
+        OptionRestriction first = RestrictionRegistry.getOptionRestriction(maxLength(0));
+        for (int i = 1; i < 2000; i++) {
+            RestrictionRegistry.getOptionRestriction(maxLength(i));
+        }
+        Assert.assertSame(RestrictionRegistry.getOptionRestriction(maxLength(0)), first);
+
+        // Once full new restrictions are no longer shared
+        OptionRestriction last = RestrictionRegistry.getOptionRestriction(maxLength(1999));
+        Assert.assertNotNull(last);
+        Assert.assertNotSame(RestrictionRegistry.getOptionRestriction(maxLength(1999)), last);
+    }
+
+    private static MaxLength maxLength(final int length) {
+        return (MaxLength) Proxy.newProxyInstance(MaxLength.class.getClassLoader(), new Class<?>[] { MaxLength.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        switch (method.getName()) {
+                        case "length":
+                            return length;
+                        case "annotationType":
+                            return MaxLength.class;
+                        case "hashCode":
+                            return (127 * "length".hashCode()) ^ length;
+                        case "equals":
+                            return args[0] instanceof MaxLength && ((MaxLength) args[0]).length() == length;
+                        default:
+                            return "@" + MaxLength.class.getName() + "(length=" + length + ")";
+                        }
+                    }
+                });
+    }
+
+    private static Annotation annotation(String field, Class<? extends Annotation> type)
+            throws NoSuchFieldException {
+        return Shared.class.getDeclaredField(field).getAnnotation(type);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Shared {
+        @IntegerRange(min = 0, max = 100)
+        @MaxLength(length = 10)
+        @AllowedEnumValues(TimeUnit.class)
+        private int a;
+
+        @IntegerRange(min = 0, max = 100)
+        @MaxLength(length = 10)
+        @AllowedEnumValues(TimeUnit.class)
+        private int b;
+
+        @IntegerRange(min = 1, max = 100)
+        private int c;
+    }
+
+    private static int countRestrictions(CommandMetadata command) {
+        int count = 0;
+        for (OptionMetadata option : command.getAllOptions()) {
+            count += option.getRestrictions().size();
+        }
+        return count;
+    }
+}
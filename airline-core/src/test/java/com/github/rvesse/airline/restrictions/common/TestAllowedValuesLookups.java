@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.types.DefaultTypeConverter;
+import com.github.rvesse.airline.types.TypeConverter;
+
+public class TestAllowedValuesLookups {
+
+    private static AllowedRawValuesRestriction manyValues(int count) {
+        String[] allowed = new String[count];
+        for (int i = 0; i < allowed.length; i++) {
+            allowed[i] = "Value" + i;
+        }
+        return new AllowedRawValuesRestriction(true, Locale.ENGLISH, allowed);
+    }
+
+    @Test
+    public void allowed_raw_lookup_01() {
+        AllowedRawValuesRestriction restriction = manyValues(500);
+        Assert.assertEquals(restriction.getAllowedValues().size(), 500);
+        for (int i = 0; i < 500; i++) {
+            Assert.assertTrue(restriction.isAllowed("value" + i));
+        }
+        Assert.assertFalse(restriction.isAllowed("value500"));
+        Assert.assertFalse(restriction.isAllowed("other"));
+    }
+
+    @Test
+    public void allowed_raw_lookup_02() {
+        // Control characters are ignored by the collator so these only match
+        // via the collation keys
+        AllowedRawValuesRestriction restriction = manyValues(10);
+        Assert.assertTrue(restriction.isAllowed("value1\u0001"));
+        Assert.assertFalse(restriction.isAllowed("value10\u0001"));
+    }
+
+    @Test
+    public void allowed_raw_lookup_03() throws Exception {
+        // Collation key lookups are safe from multiple threads
+        final AllowedRawValuesRestriction restriction = manyValues(100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 1000; i++) {
+                            if (!restriction.isAllowed("value" + (i % 100) + "\u0001"))
+                                return false;
+                            if (restriction.isAllowed("other" + i))
+                                return false;
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void allowed_typed_lookup_01() {
+        TypeConverter converter = new DefaultTypeConverter();
+        AllowedValuesRestriction restriction = new AllowedValuesRestriction("1", "2", "3");
+
+        // Converted values are computed once per type and converter
+        // regardless of parser state
+        Set<Object> values = restriction.createAllowedValues(null, "test", Integer.class, converter);
+        Assert.assertEquals(values.size(), 3);
+        Assert.assertTrue(values.contains(2));
+        Assert.assertSame(restriction.createAllowedValues(null, "test", Integer.class, converter), values);
+
+        // Different types are converted separately
+        Set<Object> longValues = restriction.createAllowedValues(null, "test", Long.class, converter);
+        Assert.assertNotSame(longValues, values);
+        Assert.assertTrue(longValues.contains(2L));
+        Assert.assertSame(restriction.createAllowedValues(null, "test", Integer.class, converter), values);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void allowed_typed_lookup_02() {
+        AllowedValuesRestriction restriction = new AllowedValuesRestriction("1");
+        Set<Object> values = restriction.createAllowedValues(null, "test", Integer.class, new DefaultTypeConverter());
+        values.add(4);
+    }
+}
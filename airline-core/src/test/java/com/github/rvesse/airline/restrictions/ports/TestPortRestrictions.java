@@ -270,4 +270,71 @@ public class TestPortRestrictions {
         // Check that port ranges are ordered appropriately
         Assert.assertTrue(usage.contains("1500-1600, 3500-3600"));
     }
+
+    @Test
+    public void port_custom_multiple_bitmap() {
+        PortRestriction restriction = new PortRestriction(new PortRangeImpl(1500, 1600),
+                new PortRangeImpl(3500, 3600)) {
+            {
+                for (int port = -1; port <= 65536; port++) {
+                    boolean expected = (port >= 1500 && port <= 1600) || (port >= 3500 && port <= 3600);
+                    Assert.assertEquals(inAnyAcceptableRange(port), expected, Integer.toString(port));
+                }
+            }
+        };
+        Assert.assertNotNull(restriction);
+    }
+
+    @Test
+    public void port_custom_range_bitmap() {
+        // Custom ranges are consulted for every port
+        final PortRange evens = new PortRange() {
+
+            @Override
+            public int getMinimumPort() {
+                return 0;
+            }
+
+            @Override
+            public int getMaximumPort() {
+                return 65535;
+            }
+
+            @Override
+            public boolean inRange(int port) {
+                return port % 2 == 0;
+            }
+
+            @Override
+            public boolean contains(PortRange other) {
+                return false;
+            }
+        };
+        new PortRestriction(evens, PortType.SYSTEM) {
+            {
+                Assert.assertTrue(inAnyAcceptableRange(2));
+                Assert.assertTrue(inAnyAcceptableRange(3));
+                Assert.assertTrue(inAnyAcceptableRange(65534));
+                Assert.assertFalse(inAnyAcceptableRange(65533));
+            }
+        };
+    }
+
+    @Test
+    public void port_custom_range_subclass_bitmap() {
+        // Sub-classes of the built-in range may be more selective
+        final PortRange odds = new PortRangeImpl(1000, 2000) {
+            @Override
+            public boolean inRange(int port) {
+                return super.inRange(port) && port % 2 == 1;
+            }
+        };
+        new PortRestriction(odds) {
+            {
+                Assert.assertTrue(inAnyAcceptableRange(1001));
+                Assert.assertFalse(inAnyAcceptableRange(1002));
+                Assert.assertFalse(inAnyAcceptableRange(2001));
+            }
+        };
+    }
 }
@@ -18,6 +18,7 @@ package com.github.rvesse.airline.restrictions.ranges;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -31,8 +32,14 @@ import com.github.rvesse.airline.parser.errors.ParseInvalidRestrictionException;
 import com.github.rvesse.airline.parser.errors.ParseOptionOutOfRangeException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.common.DoubleRangeRestriction;
+import com.github.rvesse.airline.restrictions.common.LongRangeRestriction;
 import com.github.rvesse.airline.restrictions.common.PositiveNegativeRestriction;
 import com.github.rvesse.airline.restrictions.common.RangeRestriction;
+import com.github.rvesse.airline.utils.comparators.DoubleComparator;
+import com.github.rvesse.airline.utils.comparators.FloatComparator;
+import com.github.rvesse.airline.utils.comparators.IntegerComparator;
+import com.github.rvesse.airline.utils.comparators.LongComparator;
 
 public class TestRangeRestrictions {
 
@@ -368,4 +375,125 @@ public class TestRangeRestrictions {
         hasRangeRestriction(parser.getCommandMetadata());
         parser.parse("-s", "0");
     }
+
+    private static class ReferenceRange extends RangeRestriction {
+        public ReferenceRange(Object min, boolean minInclusive, Object max, boolean maxInclusive,
+                Comparator<Object> comparator) {
+            super(min, minInclusive, max, maxInclusive, comparator);
+        }
+
+        public boolean check(Object value) {
+            return inRange(value);
+        }
+    }
+
+    private static class CompiledLongRange extends LongRangeRestriction {
+        public CompiledLongRange(Class<? extends Number> type, Number min, boolean minInclusive, Number max,
+                boolean maxInclusive, Comparator<Object> comparator) {
+            super(type, min, minInclusive, max, maxInclusive, comparator);
+        }
+
+        public boolean check(Object value) {
+            return inRange(value);
+        }
+    }
+
+    private static class CompiledDoubleRange extends DoubleRangeRestriction {
+        public CompiledDoubleRange(Class<? extends Number> type, Number min, boolean minInclusive, Number max,
+                boolean maxInclusive, Comparator<Object> comparator) {
+            super(type, min, minInclusive, max, maxInclusive, comparator);
+        }
+
+        public boolean check(Object value) {
+            return inRange(value);
+        }
+    }
+
+    @Test
+    public void range_compiled_long_01() {
+        Comparator<Object> comparator = new IntegerComparator();
+        boolean[] inclusive = new boolean[] { true, false };
+        Integer[] bounds = new Integer[] { null, -5, 0, 5 };
+        for (Integer min : bounds) {
+            for (Integer max : bounds) {
+                if (min != null && max != null && min >= max)
+                    continue;
+                for (boolean minInclusive : inclusive) {
+                    for (boolean maxInclusive : inclusive) {
+                        ReferenceRange reference = new ReferenceRange(min, minInclusive, max, maxInclusive,
+                                comparator);
+                        CompiledLongRange compiled = new CompiledLongRange(Integer.class, min, minInclusive, max,
+                                maxInclusive, comparator);
+                        for (int i = -10; i <= 10; i++) {
+                            Assert.assertEquals(compiled.check(i), reference.check(i),
+                                    String.format("%d in %s %b %s %b", i, min, minInclusive, max, maxInclusive));
+                            Assert.assertEquals(compiled.inRange((long) i), reference.check(i));
+                        }
+                        // Values of other types behave as before
+                        Assert.assertEquals(compiled.check(3L), reference.check(3L));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void range_compiled_long_02() {
+        Comparator<Object> comparator = new LongComparator();
+        CompiledLongRange compiled = new CompiledLongRange(Long.class, Long.MAX_VALUE - 1, false, null, true,
+                comparator);
+        Assert.assertTrue(compiled.check(Long.MAX_VALUE));
+        Assert.assertFalse(compiled.check(Long.MAX_VALUE - 1));
+        Assert.assertFalse(compiled.check(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void range_compiled_double_01() {
+        Comparator<Object> comparator = new DoubleComparator();
+        double[] values = new double[] { Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, Double.MIN_VALUE, 0.5, 1.0,
+                1.5, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NaN };
+        Double[] bounds = new Double[] { null, -1.5, 0.0, Double.MIN_VALUE, 1.0, Double.MAX_VALUE };
+        boolean[] inclusive = new boolean[] { true, false };
+        for (Double min : bounds) {
+            for (Double max : bounds) {
+                if (min != null && max != null && comparator.compare(min, max) >= 0)
+                    continue;
+                for (boolean minInclusive : inclusive) {
+                    for (boolean maxInclusive : inclusive) {
+                        ReferenceRange reference = new ReferenceRange(min, minInclusive, max, maxInclusive,
+                                comparator);
+                        CompiledDoubleRange compiled = new CompiledDoubleRange(Double.class, min, minInclusive, max,
+                                maxInclusive, comparator);
+                        for (double value : values) {
+                            Assert.assertEquals(compiled.check(value), reference.check(value),
+                                    String.format("%s in %s %b %s %b", value, min, minInclusive, max, maxInclusive));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void range_compiled_float_01() {
+        Comparator<Object> comparator = new FloatComparator();
+        float[] values = new float[] { Float.NEGATIVE_INFINITY, -1.5f, 0.0f, Float.MIN_VALUE, 1.0f, Float.MAX_VALUE,
+                Float.NaN };
+        ReferenceRange reference = new ReferenceRange(Float.MIN_VALUE, false, 1.0f, true, comparator);
+        CompiledDoubleRange compiled = new CompiledDoubleRange(Float.class, Float.MIN_VALUE, false, 1.0f, true,
+                comparator);
+        for (float value : values) {
+            Assert.assertEquals(compiled.check(value), reference.check(value), Float.toString(value));
+        }
+    }
+
+    @Test
+    public void range_compiled_factory_01() {
+        SingleCommand<OptionIntegerRangeInclusive> parser = TestingUtil
+                .singleCommandParser(OptionIntegerRangeInclusive.class);
+        hasRestriction(parser.getCommandMetadata(), LongRangeRestriction.class);
+        SingleCommand<OptionDoubleRangeInclusive> doubleParser = TestingUtil
+                .singleCommandParser(OptionDoubleRangeInclusive.class);
+        hasRestriction(doubleParser.getCommandMetadata(), DoubleRangeRestriction.class);
+    }
 }
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
+
+public class TestEnumLookup {
+
+    public enum Levels {
+        TRACE, DEBUG, DEBUGGING, INFO, Info, WARN
+    }
+
+    public enum Custom {
+        ONE, TWO;
+
+        public static Custom fromString(String value) {
+            return "1".equals(value) ? ONE : TWO;
+        }
+    }
+
+    @Test
+    public void enum_lookup_exact_01() {
+        EnumLookup<TimeUnit> lookup = EnumLookup.forEnum(TimeUnit.class);
+        Assert.assertSame(EnumLookup.forClass(TimeUnit.class), lookup);
+        Assert.assertEquals(lookup.getConstants(), Arrays.asList(TimeUnit.values()));
+        for (TimeUnit unit : TimeUnit.values()) {
+            Assert.assertTrue(lookup.contains(unit.name()));
+            Assert.assertSame(lookup.get(unit.name()), unit);
+            Assert.assertEquals(lookup.getNames().get(unit.ordinal()), unit.name());
+        }
+        Assert.assertNull(lookup.get("seconds"));
+        Assert.assertFalse(lookup.hasFromString());
+    }
+
+    @Test
+    public void enum_lookup_ignore_case_01() {
+        EnumLookup<Levels> lookup = EnumLookup.forEnum(Levels.class);
+        Assert.assertSame(lookup.getIgnoreCase("trace"), Levels.TRACE);
+        Assert.assertSame(lookup.getIgnoreCase("Warn"), Levels.WARN);
+        // Ambiguous ignoring case so only exact matches work
+        Assert.assertNull(lookup.getIgnoreCase("info"));
+        Assert.assertSame(lookup.getIgnoreCase("INFO"), Levels.INFO);
+        Assert.assertSame(lookup.getIgnoreCase("Info"), Levels.Info);
+    }
+
+    @Test
+    public void enum_lookup_abbreviated_01() {
+        EnumLookup<Levels> lookup = EnumLookup.forEnum(Levels.class);
+        Assert.assertSame(lookup.getAbbreviated("t"), Levels.TRACE);
+        Assert.assertSame(lookup.getAbbreviated("wa"), Levels.WARN);
+        // Full names win over abbreviations
+        Assert.assertSame(lookup.getAbbreviated("debug"), Levels.DEBUG);
+        Assert.assertSame(lookup.getAbbreviated("debugg"), Levels.DEBUGGING);
+        // Ambiguous abbreviations
+        Assert.assertNull(lookup.getAbbreviated("d"));
+        Assert.assertNull(lookup.getAbbreviated("x"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void enum_lookup_bad_01() {
+        EnumLookup.forClass(String.class);
+    }
+
+    @Test
+    public void enum_conversion_01() {
+        TypeConverter converter = new DefaultTypeConverter();
+        Assert.assertSame(converter.convert("test", TimeUnit.class, "SECONDS"), TimeUnit.SECONDS);
+        Assert.assertSame(converter.convert("test", Levels.class, "Info"), Levels.Info);
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void enum_conversion_02() {
+        new DefaultTypeConverter().convert("test", TimeUnit.class, "seconds");
+    }
+
+    @Test
+    public void enum_conversion_03() {
+        // Enums with their own fromString() method continue to use it
+        Assert.assertTrue(EnumLookup.forEnum(Custom.class).hasFromString());
+        TypeConverter converter = new DefaultTypeConverter();
+        Assert.assertSame(converter.convert("test", Custom.class, "1"), Custom.ONE);
+        Assert.assertSame(converter.convert("test", Custom.class, "ONE"), Custom.TWO);
+    }
+}
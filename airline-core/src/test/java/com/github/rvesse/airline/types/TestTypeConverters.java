@@ -15,6 +15,8 @@
  */
 package com.github.rvesse.airline.types;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 
 import org.testng.Assert;
@@ -24,6 +26,9 @@ import com.github.rvesse.airline.SingleCommand;
 import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
 import com.github.rvesse.airline.types.numerics.DefaultNumericConverter;
 import com.github.rvesse.airline.types.numerics.NumericTypeConverter;
+import com.github.rvesse.airline.types.numerics.AffixTrie;
+import com.github.rvesse.airline.types.numerics.NumericCandidate;
+import com.github.rvesse.airline.types.numerics.NumericParser;
 import com.github.rvesse.airline.types.numerics.abbreviated.KiloAs1000;
 import com.github.rvesse.airline.types.numerics.abbreviated.KiloAs1024;
 import com.github.rvesse.airline.types.numerics.bases.Binary;
@@ -424,4 +429,129 @@ public class TestTypeConverters {
         long value = 47000;
         cmd.parse("--binary", Long.toString(value));
     }
+
+    @Test
+    public void numeric_parser_decimal_01() {
+        String[] values = new String[] { "0", "-0", "+1", "-1", "123456789", Long.toString(Long.MAX_VALUE),
+                Long.toString(Long.MIN_VALUE), "\u0661\u0662" };
+        for (String value : values) {
+            Assert.assertEquals(NumericParser.DECIMAL.parseLong(value), Long.parseLong(value), value);
+        }
+    }
+
+    @Test
+    public void numeric_parser_decimal_bad_01() {
+        String[] values = new String[] { "", "-", "+", "1-", "1.0", "0x10", " 1", "9223372036854775808",
+                "-9223372036854775809", "99999999999999999999" };
+        for (String value : values) {
+            try {
+                NumericParser.DECIMAL.parseLong(value);
+                Assert.fail("Expected " + value + " to be rejected");
+            } catch (NumberFormatException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void numeric_parser_range_01() {
+        NumericParser.DECIMAL.parseLong("128", Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    @Test
+    public void numeric_parser_affixes_01() {
+        Map<String, Integer> prefixes = new HashMap<>();
+        prefixes.put("0x", 16);
+        prefixes.put("0b", 2);
+        Map<String, Long> suffixes = new HashMap<>();
+        suffixes.put("k", 1000l);
+        suffixes.put("kb", 1024l);
+        suffixes.put("b", 1l);
+        NumericParser parser = new NumericParser(10, AffixTrie.forPrefixes(prefixes, false),
+                AffixTrie.forSuffixes(suffixes, false));
+
+        Assert.assertEquals(parser.parseLong("10"), 10l);
+        Assert.assertEquals(parser.parseLong("0x10"), 16l);
+        Assert.assertEquals(parser.parseLong("0X1f"), 31l);
+        Assert.assertEquals(parser.parseLong("-0x10"), -16l);
+        Assert.assertEquals(parser.parseLong("0x-10"), -16l);
+        Assert.assertEquals(parser.parseLong("0b101"), 5l);
+        Assert.assertEquals(parser.parseLong("2k"), 2000l);
+        // Longest suffix wins
+        Assert.assertEquals(parser.parseLong("2KB"), 2048l);
+        Assert.assertEquals(parser.parseLong("2b"), 2l);
+        Assert.assertEquals(parser.parseLong("0x2k"), 2000l);
+        Assert.assertEquals(parser.parseDouble("1.5k"), 1500d);
+        Assert.assertEquals(parser.parseDouble("-1.5kb"), -1536d);
+        Assert.assertEquals(parser.parseFloat("0.5k"), 500f);
+    }
+
+    @Test
+    public void numeric_parser_affixes_bad_01() {
+        Map<String, Long> suffixes = new HashMap<>();
+        suffixes.put("k", 1000l);
+        NumericParser parser = new NumericParser(10, null, AffixTrie.forSuffixes(suffixes, true));
+
+        String[] values = new String[] { "k", "-k", "1K", "9223372036854776k" };
+        for (String value : values) {
+            try {
+                parser.parseLong(value);
+                Assert.fail("Expected " + value + " to be rejected");
+            } catch (NumberFormatException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void numeric_parser_kilo_overflow_01() {
+        // Overflow when applying the multiplier is detected rather than
+        // wrapping around
+        checkBadConversion(new KiloAs1024(), "9223372036854775807k", Long.class);
+        checkGoodConversion(new KiloAs1024(), "8191p", Long.class, 8191l * 1024l * 1024l * 1024l * 1024l * 1024l);
+    }
+
+    @Test
+    public void numeric_parser_float_rounding_01() {
+        Map<String, Long> suffixes = new HashMap<>();
+        suffixes.put("e", 1000000000000000000l);
+        NumericParser parser = new NumericParser(10, null, AffixTrie.forSuffixes(suffixes, true));
+
+        // Multiplier is applied in double precision before narrowing
+        Assert.assertEquals(parser.parseFloat("2.077148e"), (float) ((double) 2.077148f * 1000000000000000000l));
+    }
+
+    @Test
+    public void numeric_converter_custom_subclass_01() {
+        // Overriding the radix of a built-in converter must still take effect
+        NumericTypeConverter converter = new Hexadecimal() {
+            @Override
+            protected int getRadix(NumericCandidate candidate) {
+                return 8;
+            }
+        };
+        ConvertResult result = converter.tryConvertNumerics("test", Long.class, "17");
+        Assert.assertTrue(result.wasSuccessfull());
+        Assert.assertEquals(result.getConvertedValue(), 15l);
+    }
+
+    @Test
+    public void numeric_converter_custom_subclass_02() {
+        // Overriding the multipliers of a built-in converter must still take
+        // effect
+        NumericTypeConverter converter = new KiloAs1000() {
+            @Override
+            protected long getMultiplier(String suffix) {
+                return 7;
+            }
+        };
+        ConvertResult result = converter.tryConvertNumerics("test", Long.class, "2k");
+        Assert.assertTrue(result.wasSuccessfull());
+        Assert.assertEquals(result.getConvertedValue(), 14l);
+
+        // Whereas an unmodified converter uses the standard multipliers
+        result = new KiloAs1000().tryConvertNumerics("test", Long.class, "2k");
+        Assert.assertEquals(result.getConvertedValue(), 2000l);
+    }
 }
+
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types.primitives;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.args.ArgsPrimitiveCollections;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.errors.ParseOptionOutOfRangeException;
+
+public class TestPrimitiveCollections {
+
+    private ArgsPrimitiveCollections parse(String... args) {
+        return SingleCommand.singleCommand(ArgsPrimitiveCollections.class).parse(args);
+    }
+
+    @Test
+    public void primitive_arrays_01() {
+        ArgsPrimitiveCollections cmd = parse("--int", "1", "--int", "2", "--int", "3", "--double", "1.5", "--byte",
+                "7", "4", "5");
+        Assert.assertEquals(cmd.ints, new int[] { 1, 2, 3 });
+        Assert.assertEquals(cmd.doubles, new double[] { 1.5 });
+        Assert.assertEquals(cmd.bytes, new byte[] { 7 });
+        Assert.assertEquals(cmd.args, new int[] { 4, 5 });
+    }
+
+    @Test
+    public void primitive_arrays_02() {
+        // Arrays that are not used are left as is
+        ArgsPrimitiveCollections cmd = parse();
+        Assert.assertNull(cmd.ints);
+        Assert.assertNull(cmd.args);
+        Assert.assertEquals(cmd.longs, new long[] { 1, 2 });
+    }
+
+    @Test
+    public void primitive_arrays_03() {
+        // Values are appended to existing arrays as they would be for
+        // collections
+        ArgsPrimitiveCollections cmd = parse("--long", "3", "--long", "4");
+        Assert.assertEquals(cmd.longs, new long[] { 1, 2, 3, 4 });
+    }
+
+    @Test
+    public void primitive_arrays_04() {
+        String[] args = new String[100000];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = Integer.toString(i);
+        }
+        ArgsPrimitiveCollections cmd = parse(args);
+        Assert.assertEquals(cmd.args.length, args.length);
+        for (int i = 0; i < args.length; i++) {
+            Assert.assertEquals(cmd.args[i], i);
+        }
+    }
+
+    @Test(expectedExceptions = ParseOptionOutOfRangeException.class)
+    public void primitive_arrays_restricted_01() {
+        parse("--int", "1", "--int", "-1");
+    }
+
+    @Test
+    public void primitive_collectors_01() {
+        ArgsPrimitiveCollections cmd = parse("--int-collector", "1", "--int-collector", "2", "--long-list", "3",
+                "--double-collector", "0.5");
+        Assert.assertTrue(cmd.intCollector instanceof IntList);
+        IntList ints = (IntList) cmd.intCollector;
+        Assert.assertEquals(ints.toArray(), new int[] { 1, 2 });
+        Assert.assertEquals(cmd.longList.size(), 1);
+        Assert.assertEquals(cmd.longList.get(0), 3l);
+        Assert.assertEquals(cmd.getDoubleList().toArray(), new double[] { 0.5 });
+    }
+
+    @Test
+    public void primitive_metadata_01() {
+        SingleCommand<ArgsPrimitiveCollections> parser = SingleCommand
+                .singleCommand(ArgsPrimitiveCollections.class);
+        for (OptionMetadata option : parser.getCommandMetadata().getAllOptions()) {
+            Assert.assertTrue(option.isMultiValued(), option.getTitle());
+            Assert.assertTrue(option.getJavaType().isPrimitive(), option.getTitle());
+        }
+        Assert.assertEquals(parser.getCommandMetadata().getArguments().getJavaType(), int.class);
+    }
+
+    @Test
+    public void primitive_list_01() {
+        IntList list = new IntList(0);
+        Assert.assertTrue(list.isEmpty());
+        for (int i = 0; i < 1000; i++) {
+            list.add(i);
+        }
+        list.addAll(new int[] { 1000, 1001 });
+        Assert.assertEquals(list.size(), 1002);
+        Assert.assertEquals(list.get(1001), 1001);
+        Assert.assertEquals(list.toArray().length, 1002);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void primitive_list_02() {
+        new ByteList().get(0);
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.restrictions.Strings;
+
+public class TestCompactCollections {
+
+    @Test
+    public void compact_list_01() {
+        Assert.assertSame(CompactCollections.listCopy(null), Collections.emptyList());
+        Assert.assertSame(CompactCollections.listCopy(new ArrayList<String>()), Collections.emptyList());
+        Assert.assertEquals(CompactCollections.listCopy(Arrays.asList("a")), Collections.singletonList("a"));
+    }
+
+    @Test
+    public void compact_list_02() {
+        List<String> source = new ArrayList<>(Arrays.asList("a", "b", "c"));
+        List<String> copy = CompactCollections.listCopy(source);
+        Assert.assertEquals(copy, source);
+        Assert.assertEquals(copy.hashCode(), source.hashCode());
+
+        // Changes to the source are not visible in the copy
+        source.add("d");
+        Assert.assertEquals(copy.size(), 3);
+
+        // Copying a compact list returns it as-is
+        Assert.assertSame(CompactCollections.listCopy(copy), copy);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void compact_list_immutable_01() {
+        CompactCollections.listCopy(Arrays.asList("a", "b")).add("c");
+    }
+
+    @Test
+    public void compact_list_concat_01() {
+        List<String> a = CompactCollections.listCopy(Arrays.asList("a", "b"));
+        List<String> empty = Collections.emptyList();
+
+        // Only one non-empty list so shared
+        Assert.assertSame(CompactCollections.concat(empty, a, empty), a);
+
+        List<String> concat = CompactCollections.concat(a, empty, Arrays.asList("c"));
+        Assert.assertEquals(concat, Arrays.asList("a", "b", "c"));
+        Assert.assertSame(CompactCollections.concat(empty, empty), Collections.emptyList());
+    }
+
+    @Test
+    public void compact_set_01() {
+        Set<String> set = CompactCollections.setCopy(Arrays.asList("c", "a", "c", "b", "a"));
+        Assert.assertEquals(set.size(), 3);
+        Assert.assertEquals(new ArrayList<>(set), Arrays.asList("c", "a", "b"));
+        Assert.assertTrue(set.contains("a"));
+        Assert.assertFalse(set.contains("d"));
+        Assert.assertEquals(set, new LinkedHashSet<>(Arrays.asList("a", "b", "c")));
+        Assert.assertEquals(set.hashCode(), new LinkedHashSet<>(Arrays.asList("a", "b", "c")).hashCode());
+        Assert.assertSame(CompactCollections.setCopy(set), set);
+    }
+
+    @Test
+    public void compact_set_02() {
+        // Larger sets preserve order
+        List<Integer> items = new ArrayList<>();
+        for (int i = 20; i > 0; i--) {
+            items.add(i);
+            items.add(i);
+        }
+        Set<Integer> set = CompactCollections.setCopy(items);
+        Assert.assertEquals(set.size(), 20);
+        Assert.assertEquals(set.iterator().next(), Integer.valueOf(20));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void compact_set_immutable_01() {
+        CompactCollections.setCopy(Arrays.asList("a", "b")).remove("a");
+    }
+
+    @Test
+    public void compact_metadata_01() {
+        CommandMetadata command = MetadataLoader.loadCommand(Strings.class);
+
+        // All options are precomputed once and where there are only command
+        // options are shared with them
+        Assert.assertSame(command.getAllOptions(), command.getAllOptions());
+        Assert.assertSame(command.getAllOptions(), command.getCommandOptions());
+        Assert.assertSame(command.getShortOptionIndex(), command.getShortOptionIndex());
+    }
+}
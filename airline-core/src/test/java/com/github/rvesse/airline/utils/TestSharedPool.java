@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestSharedPool {
+
+    @Test
+    public void shared_pool_01() {
+        Assert.assertSame(SharedPool.get(), SharedPool.get());
+    }
+
+    @Test
+    public void shared_pool_02() throws InterruptedException, ExecutionException {
+        // Threads must not stop the JVM exiting
+        boolean daemon = SharedPool.get().submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return Thread.currentThread().isDaemon();
+            }
+        }).get();
+        Assert.assertTrue(daemon);
+    }
+}
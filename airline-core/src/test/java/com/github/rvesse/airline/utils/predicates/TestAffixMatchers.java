@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils.predicates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.restrictions.common.StartsWithRestriction;
+
+public class TestAffixMatchers {
+
+    @Test
+    public void prefix_matcher_01() {
+        PrefixMatcher matcher = new PrefixMatcher(false, Locale.ENGLISH, "http", "https", "ftp");
+        Assert.assertTrue(matcher.evaluate("http://example.org"));
+        Assert.assertTrue(matcher.evaluate("https://example.org"));
+        Assert.assertTrue(matcher.evaluate("ftp://example.org"));
+        Assert.assertFalse(matcher.evaluate("HTTP://example.org"));
+        Assert.assertFalse(matcher.evaluate("urn:example"));
+        Assert.assertFalse(matcher.evaluate("htt"));
+        Assert.assertFalse(matcher.evaluate(""));
+    }
+
+    @Test
+    public void prefix_matcher_02() {
+        // Values shorter than the first prefix may still match a later one
+        PrefixMatcher matcher = new PrefixMatcher(false, Locale.ENGLISH, "https", "ftp");
+        Assert.assertTrue(matcher.evaluate("ftp"));
+    }
+
+    @Test
+    public void prefix_matcher_case_insensitive_01() {
+        String[] prefixes = { "HTTP", "Ftp" };
+        PrefixMatcher matcher = new PrefixMatcher(true, Locale.ENGLISH, prefixes);
+        Assert.assertTrue(matcher.evaluate("http://example.org"));
+        Assert.assertTrue(matcher.evaluate("hTtP://example.org"));
+        Assert.assertTrue(matcher.evaluate("FTP://example.org"));
+        Assert.assertFalse(matcher.evaluate("urn:example"));
+
+        // Given prefixes are not modified
+        Assert.assertEquals(prefixes, new String[] { "HTTP", "Ftp" });
+    }
+
+    @Test
+    public void prefix_matcher_case_insensitive_02() {
+        // Turkish has distinct dotted and dotless i
+        PrefixMatcher turkish = new PrefixMatcher(true, Locale.forLanguageTag("tr"), "istanbul");
+        Assert.assertTrue(turkish.evaluate("\u0130STANBUL"));
+        Assert.assertFalse(turkish.evaluate("ISTANBUL"));
+
+        PrefixMatcher english = new PrefixMatcher(true, Locale.ENGLISH, "istanbul");
+        Assert.assertTrue(english.evaluate("ISTANBUL"));
+    }
+
+    @Test
+    public void prefix_matcher_empty_01() {
+        // Empty prefix matches everything
+        PrefixMatcher matcher = new PrefixMatcher(false, Locale.ENGLISH, "abc", "");
+        Assert.assertTrue(matcher.evaluate(""));
+        Assert.assertTrue(matcher.evaluate("xyz"));
+
+        matcher = new PrefixMatcher(false, Locale.ENGLISH);
+        Assert.assertFalse(matcher.evaluate(""));
+        Assert.assertFalse(matcher.evaluate("xyz"));
+    }
+
+    @Test
+    public void suffix_matcher_01() {
+        SuffixMatcher matcher = new SuffixMatcher(false, Locale.ENGLISH, ".jpg", ".jpeg", ".png");
+        Assert.assertTrue(matcher.evaluate("test.jpg"));
+        Assert.assertTrue(matcher.evaluate("test.jpeg"));
+        Assert.assertTrue(matcher.evaluate(".png"));
+        Assert.assertFalse(matcher.evaluate("test.JPG"));
+        Assert.assertFalse(matcher.evaluate("test.jpg.txt"));
+        Assert.assertFalse(matcher.evaluate("png"));
+    }
+
+    @Test
+    public void suffix_matcher_case_insensitive_01() {
+        SuffixMatcher matcher = new SuffixMatcher(true, Locale.ENGLISH, ".JPG", ".png");
+        Assert.assertTrue(matcher.evaluate("test.jpg"));
+        Assert.assertTrue(matcher.evaluate("test.PnG"));
+        Assert.assertFalse(matcher.evaluate("test.gif"));
+    }
+
+    @Test
+    public void affix_matcher_many_01() {
+        List<String> prefixes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            prefixes.add("key" + i + ".");
+        }
+        PrefixMatcher matcher = new PrefixMatcher(false, Locale.ENGLISH, prefixes.toArray(new String[0]));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(matcher.evaluate("key" + i + ".value"));
+        }
+        Assert.assertFalse(matcher.evaluate("key100.value"));
+        Assert.assertFalse(matcher.evaluate("key1"));
+    }
+
+    @Test
+    public void affix_matcher_concurrent_01() throws Exception {
+        final PrefixMatcher matcher = new PrefixMatcher(true, Locale.ENGLISH, "http", "https", "ftp");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        int matches = 0;
+                        for (int i = 0; i < 10000; i++) {
+                            if (matcher.evaluate(i % 2 == 0 ? "HTTPS://example.org/" + i : "urn:" + i))
+                                matches++;
+                        }
+                        return matches;
+                    }
+                }));
+            }
+            for (Future<Integer> result : results) {
+                Assert.assertEquals(result.get().intValue(), 5000);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void starts_with_help_01() {
+        // Help shows the prefixes as given
+        StartsWithRestriction restriction = new StartsWithRestriction(true, Locale.ENGLISH, "HTTP", "Ftp");
+        Assert.assertEquals(restriction.getContentBlock(0), new String[] { "HTTP", "Ftp" });
+    }
+}
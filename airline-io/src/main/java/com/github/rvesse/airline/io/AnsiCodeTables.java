@@ -0,0 +1,275 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.io;
+
+/**
+ * Precomputed ANSI control codes
+ * <p>
+ * Provides shared precomputed control codes, both as strings and as ASCII
+ * encoded bytes, for all the single parameter Select Graphic Rendition (SGR)
+ * codes (which covers the basic colours and decorations), for all the 256
+ * colour indices and for the graphics reset. True colour codes are computed
+ * on demand and held in a small lock-free cache, each colour has a single slot
+ * in the cache so a colour evicts any other colour sharing its slot.
+ * </p>
+ * <p>
+ * Byte arrays returned by this class are shared and <strong>must not</strong>
+ * be modified by callers.
+ * </p>
+ */
+public final class AnsiCodeTables {
+
+    /**
+     * Largest single SGR parameter for which codes are precomputed
+     */
+    public static final int MAX_SGR_PARAMETER = AnsiControlCodes.BACKGROUND_BRIGHT + 7;
+
+    /**
+     * Number of true colour codes that are cached, must be a power of two
+     */
+    public static final int TRUE_COLOR_CACHE_SIZE = 256;
+
+    private static final String[] SGR = new String[MAX_SGR_PARAMETER + 1];
+    private static final byte[][] SGR_BYTES = new byte[MAX_SGR_PARAMETER + 1][];
+    private static final String[][] COLOR_256 = new String[2][256];
+    private static final byte[][][] COLOR_256_BYTES = new byte[2][256][];
+    private static final String RESET;
+    private static final byte[] RESET_BYTES;
+
+    /**
+     * Direct mapped cache of true colour codes, entries are immutable so may be
+     * read and replaced without locking
+     */
+    private static final TrueColorEntry[] TRUE_COLORS = new TrueColorEntry[TRUE_COLOR_CACHE_SIZE];
+
+    static {
+        for (int i = 0; i <= MAX_SGR_PARAMETER; i++) {
+            SGR[i] = (AnsiControlCodes.ESCAPE + i + AnsiControlCodes.SELECT_GRAPHIC_RENDITION).intern();
+            SGR_BYTES[i] = encode(SGR[i]);
+        }
+        for (int i = 0; i < 256; i++) {
+            COLOR_256[0][i] = extended(AnsiControlCodes.FOREGROUND_EXTENDED, AnsiControlCodes.COLOR_MODE_256, i)
+                    .intern();
+            COLOR_256[1][i] = extended(AnsiControlCodes.BACKGROUND_EXTENDED, AnsiControlCodes.COLOR_MODE_256, i)
+                    .intern();
+            COLOR_256_BYTES[0][i] = encode(COLOR_256[0][i]);
+            COLOR_256_BYTES[1][i] = encode(COLOR_256[1][i]);
+        }
+        RESET = (AnsiControlCodes.ESCAPE + AnsiControlCodes.RESET + AnsiControlCodes.SELECT_GRAPHIC_RENDITION)
+                .intern();
+        RESET_BYTES = encode(RESET);
+    }
+
+    /**
+     * Private constructor prevents instantiation
+     */
+    private AnsiCodeTables() {
+    }
+
+    private static String extended(int mode, char colorMode, int... values) {
+        StringBuilder builder = new StringBuilder();
+        //@formatter:off
+        builder.append(AnsiControlCodes.ESCAPE)
+               .append(mode)
+               .append(AnsiControlCodes.PARAM_SEPARATOR)
+               .append(colorMode);
+        //@formatter:on
+        for (int value : values) {
+            builder.append(AnsiControlCodes.PARAM_SEPARATOR).append(value);
+        }
+        builder.append(AnsiControlCodes.SELECT_GRAPHIC_RENDITION);
+        return builder.toString();
+    }
+
+    /**
+     * Encodes a control code as bytes
+     * <p>
+     * ANSI control codes consist only of ASCII characters so are encoded
+     * directly without going via a charset, any non-ASCII characters are
+     * encoded using the platform default charset.
+     * </p>
+     * 
+     * @param code
+     *            Control code
+     * @return Encoded bytes
+     */
+    public static byte[] encode(String code) {
+        byte[] bytes = new byte[code.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = code.charAt(i);
+            if (c > 0x7F)
+                return code.getBytes();
+            bytes[i] = (byte) c;
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the SGR code with the given single parameter e.g. {@code ESC[31m}
+     * 
+     * @param parameter
+     *            Parameter
+     * @return Control code
+     */
+    public static String getSgrCode(int parameter) {
+        if (parameter >= 0 && parameter <= MAX_SGR_PARAMETER)
+            return SGR[parameter];
+        return AnsiControlCodes.ESCAPE + parameter + AnsiControlCodes.SELECT_GRAPHIC_RENDITION;
+    }
+
+    /**
+     * Gets the SGR code with the given single parameter as bytes
+     * 
+     * @param parameter
+     *            Parameter
+     * @return Control code bytes
+     */
+    public static byte[] getSgrBytes(int parameter) {
+        if (parameter >= 0 && parameter <= MAX_SGR_PARAMETER)
+            return SGR_BYTES[parameter];
+        return encode(getSgrCode(parameter));
+    }
+
+    /**
+     * Gets the code for a 256 colour
+     * 
+     * @param foreground
+     *            True for a foreground colour, false for a background colour
+     * @param color
+     *            Colour index in the range 0-255
+     * @return Control code
+     * @throws IllegalArgumentException
+     *             Thrown if the colour is outside the range 0-255
+     */
+    public static String get256ColorCode(boolean foreground, int color) {
+        checkComponent(color, "color");
+        return COLOR_256[foreground ? 0 : 1][color];
+    }
+
+    /**
+     * Gets the code for a 256 colour as bytes
+     * 
+     * @param foreground
+     *            True for a foreground colour, false for a background colour
+     * @param color
+     *            Colour index in the range 0-255
+     * @return Control code bytes
+     * @throws IllegalArgumentException
+     *             Thrown if the colour is outside the range 0-255
+     */
+    public static byte[] get256ColorBytes(boolean foreground, int color) {
+        checkComponent(color, "color");
+        return COLOR_256_BYTES[foreground ? 0 : 1][color];
+    }
+
+    /**
+     * Gets the code for a true colour
+     * 
+     * @param foreground
+     *            True for a foreground colour, false for a background colour
+     * @param r
+     *            Red component
+     * @param g
+     *            Green component
+     * @param b
+     *            Blue component
+     * @return Control code
+     * @throws IllegalArgumentException
+     *             Thrown if any component is outside the range 0-255
+     */
+    public static String getTrueColorCode(boolean foreground, int r, int g, int b) {
+        return getTrueColor(foreground, r, g, b).code;
+    }
+
+    /**
+     * Gets the code for a true colour as bytes
+     * 
+     * @param foreground
+     *            True for a foreground colour, false for a background colour
+     * @param r
+     *            Red component
+     * @param g
+     *            Green component
+     * @param b
+     *            Blue component
+     * @return Control code bytes
+     * @throws IllegalArgumentException
+     *             Thrown if any component is outside the range 0-255
+     */
+    public static byte[] getTrueColorBytes(boolean foreground, int r, int g, int b) {
+        return getTrueColor(foreground, r, g, b).bytes;
+    }
+
+    private static TrueColorEntry getTrueColor(boolean foreground, int r, int g, int b) {
+        // Components must be range checked since they are packed into the key
+        checkComponent(r, "red");
+        checkComponent(g, "green");
+        checkComponent(b, "blue");
+        int key = (foreground ? 1 << 24 : 0) | (r << 16) | (g << 8) | b;
+        int slot = (key ^ (key >>> 8) ^ (key >>> 16)) & (TRUE_COLOR_CACHE_SIZE - 1);
+
+        TrueColorEntry entry = TRUE_COLORS[slot];
+        if (entry == null || entry.key != key) {
+            String code = extended(
+                    foreground ? AnsiControlCodes.FOREGROUND_EXTENDED : AnsiControlCodes.BACKGROUND_EXTENDED,
+                    AnsiControlCodes.COLOR_MODE_TRUE, r, g, b);
+            entry = new TrueColorEntry(key, code, encode(code));
+            TRUE_COLORS[slot] = entry;
+        }
+        return entry;
+    }
+
+    private static void checkComponent(int value, String name) {
+        if (value < 0 || value > 255)
+            throw new IllegalArgumentException(String.format(
+                    "%s component was given value %d but only values in the range 0-255 are acceptable", name,
+                    value));
+    }
+
+    /**
+     * Gets the full graphics reset code
+     * 
+     * @return Control code
+     */
+    public static String getResetCode() {
+        return RESET;
+    }
+
+    /**
+     * Gets the full graphics reset code as bytes
+     * 
+     * @return Control code bytes
+     */
+    public static byte[] getResetBytes() {
+        return RESET_BYTES;
+    }
+
+    /**
+     * An immutable cached true colour, since all fields are final an entry is
+     * safely published even though the cache is accessed without locking
+     */
+    private static final class TrueColorEntry {
+        private final int key;
+        private final String code;
+        private final byte[] bytes;
+
+        private TrueColorEntry(int key, String code, byte[] bytes) {
+            this.key = key;
+            this.code = code;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -139,12 +139,6 @@ public class AnsiControlCodes {
      * @return ANSI Full graphics reset code
      */
     public static String getGraphicsResetCode() {
-        StringBuilder builder = new StringBuilder();
-        //@formatter:off
-        builder.append(ESCAPE)
-               .append(RESET)
-               .append(SELECT_GRAPHIC_RENDITION);
-        //@formatter:on
-        return builder.toString();
+        return AnsiCodeTables.getResetCode();
     }
 }
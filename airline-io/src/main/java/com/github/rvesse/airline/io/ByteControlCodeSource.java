@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.io;
+
+/**
+ * A control code source that can also provide its control codes as bytes
+ * <p>
+ * This allows control codes to be written to output streams without any
+ * encoding step. Byte arrays returned may be shared and <strong>must
+ * not</strong> be modified by callers.
+ * </p>
+ *
+ * @param <T>
+ *            Attribute source type
+ */
+public interface ByteControlCodeSource<T> extends ControlCodeSource<T> {
+
+    /**
+     * Translates the attribute source into control code bytes
+     * 
+     * @param attributeSource
+     *            Attribute source
+     * @return Control code bytes
+     */
+    public byte[] getControlCodeBytes(T attributeSource);
+
+    /**
+     * Gets the bytes for a reset code that can be used to reset any changes
+     * previously made by the given attribute
+     * 
+     * @param attributeSource
+     *            Attribute source
+     * @return Control code bytes
+     */
+    public byte[] getResetControlCodeBytes(T attributeSource);
+
+    /**
+     * Gets the bytes for a reset code that can be used to reset any changes
+     * previously made by any attributes of the type supported by this source
+     * 
+     * @return Control code bytes
+     */
+    public byte[] getFullResetControlCodeBytes();
+}
@@ -30,6 +30,7 @@ public abstract class ControlTracker<T> {
     protected final ControlCodeSource<T> provider;
     private T current, previous;
     private boolean requireWrite = false;
+    private SgrEncoder encoder;
 
     public ControlTracker(ControlCodeSource<T> provider) {
         if (provider == null)
@@ -46,6 +47,21 @@ public abstract class ControlTracker<T> {
     public final void set(T value) {
         this.current = value;
         this.requireWrite = this.current != null && !this.current.equals(this.previous);
+        if (this.requireWrite && this.encoder != null)
+            this.encoder.markChanged();
+    }
+
+    /**
+     * Attaches the control to an encoder, the encoder is notified whenever
+     * the control changes such that it needs applying
+     * 
+     * @param encoder
+     *            Encoder
+     */
+    public final void attach(SgrEncoder encoder) {
+        this.encoder = encoder;
+        if (this.requireWrite && encoder != null)
+            encoder.markChanged();
     }
 
     /**
@@ -85,6 +101,66 @@ public abstract class ControlTracker<T> {
         }
     }
 
+    /**
+     * Gets whether this control may be applied via an {@link SgrEncoder}
+     * <p>
+     * This should only return {@code true} if applying the control is
+     * equivalent to writing the control code from its {@link #provider}, the
+     * default implementation returns {@code false}.
+     * </p>
+     * 
+     * @return True if the control may be applied via an encoder, false if it
+     *         must be applied via {@link #apply()}
+     */
+    public boolean isEncodable() {
+        return false;
+    }
+
+    /**
+     * Gets whether the runtime class of this control, or any class between it
+     * and the given class, overrides {@link #applyInternal(Object)}
+     * 
+     * @param declarer
+     *            Class below which to look for overrides
+     * @return True if overridden, false otherwise
+     */
+    protected final boolean overridesApplyInternal(Class<?> declarer) {
+        for (Class<?> cls = getClass(); cls != null && cls != declarer; cls = cls.getSuperclass()) {
+            try {
+                cls.getDeclaredMethod("applyInternal", Object.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not declared by this class
+            } catch (SecurityException e) {
+                // Can't tell so assume that it is
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies the control via an encoder, if the current state of the control
+     * has not been previously applied then its control code is appended to the
+     * encoder
+     * <p>
+     * This allows the control codes of several controls to be combined and
+     * written together, in this case {@link #applyInternal(Object)} is not
+     * called so this should only be used when {@link #isEncodable()} returns
+     * {@code true}.
+     * </p>
+     * 
+     * @param encoder
+     *            Encoder
+     */
+    public final void apply(SgrEncoder encoder) {
+        if (this.requireWrite) {
+            encoder.append(this.provider.getControlCode(this.current));
+            this.previous = this.current;
+            this.requireWrite = false;
+        }
+    }
+
     /**
      * Method that derived classes must implement to add the actual logic for
      * applying the control to the stream
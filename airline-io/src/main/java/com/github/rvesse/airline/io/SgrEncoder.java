@@ -0,0 +1,220 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Combines the control codes for multiple controls into as few escape
+ * sequences as possible
+ * <p>
+ * When several controls change at once, e.g. foreground colour, background
+ * colour and decorations, each would normally write its own Select Graphic
+ * Rendition (SGR) escape sequence. The encoder instead merges consecutive SGR
+ * sequences into a single sequence whose parameters are applied in the same
+ * order, any other control codes are passed through unchanged. The encoded
+ * codes are buffered internally and written with a single write.
+ * </p>
+ * <p>
+ * The encoder also tracks whether any of the controls attached to it have
+ * changed so that streams can skip applying controls entirely when nothing has
+ * changed.
+ * </p>
+ */
+public final class SgrEncoder {
+
+    private char[] buffer = new char[64];
+    private byte[] bytes;
+    private int length = 0;
+    private boolean pendingParams = false;
+    private boolean changed = false;
+
+    /**
+     * Marks that some control attached to this encoder has changed
+     */
+    public void markChanged() {
+        this.changed = true;
+    }
+
+    /**
+     * Gets whether any control attached to this encoder has changed since the
+     * encoder was last flushed
+     * 
+     * @return True if changed, false otherwise
+     */
+    public boolean hasChanges() {
+        return this.changed;
+    }
+
+    /**
+     * Appends a control code
+     * 
+     * @param code
+     *            Control code
+     */
+    public void append(String code) {
+        if (code == null || code.isEmpty())
+            return;
+
+        int paramsEnd = code.length() - 1;
+        if (isSgr(code, paramsEnd)) {
+            int paramsStart = AnsiControlCodes.ESCAPE.length();
+            if (this.pendingParams) {
+                // Merge into the current sequence
+                appendChar(AnsiControlCodes.PARAM_SEPARATOR);
+            } else {
+                appendChars(AnsiControlCodes.ESCAPE, 0, paramsStart);
+                this.pendingParams = true;
+            }
+            if (paramsStart == paramsEnd) {
+                // An empty parameter list is equivalent to a reset
+                appendChar(AnsiControlCodes.RESET);
+            } else {
+                appendChars(code, paramsStart, paramsEnd);
+            }
+        } else {
+            closeSequence();
+            appendChars(code, 0, code.length());
+        }
+    }
+
+    private static boolean isSgr(String code, int paramsEnd) {
+        if (!code.startsWith(AnsiControlCodes.ESCAPE)
+                || code.charAt(paramsEnd) != AnsiControlCodes.SELECT_GRAPHIC_RENDITION)
+            return false;
+        for (int i = AnsiControlCodes.ESCAPE.length(); i < paramsEnd; i++) {
+            char c = code.charAt(i);
+            if ((c < '0' || c > '9') && c != AnsiControlCodes.PARAM_SEPARATOR)
+                return false;
+        }
+        return true;
+    }
+
+    private void closeSequence() {
+        if (this.pendingParams) {
+            appendChar(AnsiControlCodes.SELECT_GRAPHIC_RENDITION);
+            this.pendingParams = false;
+        }
+    }
+
+    private void appendChar(char c) {
+        ensureCapacity(this.length + 1);
+        this.buffer[this.length++] = c;
+    }
+
+    private void appendChars(String str, int start, int end) {
+        ensureCapacity(this.length + (end - start));
+        str.getChars(start, end, this.buffer, this.length);
+        this.length += end - start;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.buffer.length)
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(capacity, this.buffer.length * 2));
+    }
+
+    /**
+     * Writes any buffered control codes to the given output stream, encoded
+     * with the platform default charset, and clears the encoder
+     * 
+     * @param output
+     *            Output stream
+     * @throws IOException
+     *             Thrown if the codes cannot be written
+     */
+    public void flush(OutputStream output) throws IOException {
+        flush(output, null);
+    }
+
+    /**
+     * Writes any buffered control codes to the given output stream, encoded
+     * with the given charset, and clears the encoder
+     * 
+     * @param output
+     *            Output stream
+     * @param charset
+     *            Charset, {@code null} to use the platform default
+     * @throws IOException
+     *             Thrown if the codes cannot be written
+     */
+    public void flush(OutputStream output, Charset charset) throws IOException {
+        closeSequence();
+        if (this.length > 0) {
+            if (charset == null)
+                charset = Charset.defaultCharset();
+            if (this.bytes == null || this.bytes.length < this.length)
+                this.bytes = new byte[this.buffer.length];
+            boolean ascii = isAsciiCompatible(charset);
+            for (int i = 0; ascii && i < this.length; i++) {
+                char c = this.buffer[i];
+                if (c > 0x7F) {
+                    ascii = false;
+                    break;
+                }
+                this.bytes[i] = (byte) c;
+            }
+            if (ascii) {
+                output.write(this.bytes, 0, this.length);
+            } else {
+                output.write(new String(this.buffer, 0, this.length).getBytes(charset));
+            }
+        }
+        clear();
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    /**
+     * Writes any buffered control codes to the given writer and clears the
+     * encoder
+     * 
+     * @param writer
+     *            Writer
+     * @throws IOException
+     *             Thrown if the codes cannot be written
+     */
+    public void flush(Writer writer) throws IOException {
+        closeSequence();
+        if (this.length > 0)
+            writer.write(this.buffer, 0, this.length);
+        clear();
+    }
+
+    /**
+     * Discards any buffered control codes and clears the changed flag
+     */
+    public void clear() {
+        this.length = 0;
+        this.pendingParams = false;
+        this.changed = false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append(this.buffer, 0, this.length);
+        if (this.pendingParams)
+            builder.append(AnsiControlCodes.SELECT_GRAPHIC_RENDITION);
+        return builder.toString();
+    }
+}
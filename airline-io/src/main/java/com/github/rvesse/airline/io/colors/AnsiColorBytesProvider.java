@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.io.colors;
+
+/**
+ * A colour provider that can also provide its control codes as bytes
+ * <p>
+ * Byte arrays returned may be shared and <strong>must not</strong> be modified
+ * by callers.
+ * </p>
+ */
+public interface AnsiColorBytesProvider extends AnsiColorProvider {
+
+    /**
+     * Gets the ANSI control code bytes for setting the background colour
+     * 
+     * @return Background control code bytes
+     */
+    public abstract byte[] getAnsiBackgroundControlBytes();
+
+    /**
+     * Gets the ANSI control code bytes for setting the foreground colour
+     * 
+     * @return Foreground control code bytes
+     */
+    public abstract byte[] getAnsiForegroundControlBytes();
+}
@@ -15,12 +15,13 @@
  */
 package com.github.rvesse.airline.io.colors;
 
+import com.github.rvesse.airline.io.AnsiCodeTables;
 import com.github.rvesse.airline.io.AnsiControlCodes;
 
 /**
  * The 8 basic ANSI Colours
  */
-public enum BasicColor implements AnsiColorProvider {
+public enum BasicColor implements AnsiColorBytesProvider {
     //@formatter:off
     BLACK(0, "Black"), 
     RED(1, "Red"), 
@@ -69,14 +70,20 @@ public enum BasicColor implements AnsiColorProvider {
         return false;
     }
 
+    @Override
+    public byte[] getAnsiForegroundControlBytes() {
+        return AnsiCodeTables.getSgrBytes(
+                (this.highIntensity ? AnsiControlCodes.FOREGROUND_BRIGHT : AnsiControlCodes.FOREGROUND) + this.index);
+    }
+
+    @Override
+    public byte[] getAnsiBackgroundControlBytes() {
+        return AnsiCodeTables.getSgrBytes(
+                (this.highIntensity ? AnsiControlCodes.BACKGROUND_BRIGHT : AnsiControlCodes.BACKGROUND) + this.index);
+    }
+
     private String getAnsiControlCode(int base) {
-        StringBuilder builder = new StringBuilder();
-        //@formatter:off
-        builder.append(AnsiControlCodes.ESCAPE)
-               .append(base + this.index)
-               .append(AnsiControlCodes.SELECT_GRAPHIC_RENDITION);
-        //@formatter:on
-        return builder.toString();
+        return AnsiCodeTables.getSgrCode(base + this.index);
     }
 
     @Override
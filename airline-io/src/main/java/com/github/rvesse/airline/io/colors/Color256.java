@@ -15,13 +15,13 @@
  */
 package com.github.rvesse.airline.io.colors;
 
-import com.github.rvesse.airline.io.AnsiControlCodes;
+import com.github.rvesse.airline.io.AnsiCodeTables;
 
 /**
  * 256 colour i.e. palette of 256 colors that most modern terminals will support
  *
  */
-public class Color256 implements AnsiColorProvider {
+public class Color256 implements AnsiColorBytesProvider {
 
     private final int color;
 
@@ -38,12 +38,12 @@ public class Color256 implements AnsiColorProvider {
 
     @Override
     public String getAnsiForegroundControlCode() {
-        return getAnsiColorCode(AnsiControlCodes.FOREGROUND_EXTENDED);
+        return AnsiCodeTables.get256ColorCode(true, this.color);
     }
 
     @Override
     public String getAnsiBackgroundControlCode() {
-        return getAnsiColorCode(AnsiControlCodes.BACKGROUND_EXTENDED);
+        return AnsiCodeTables.get256ColorCode(false, this.color);
     }
 
     @Override
@@ -51,18 +51,14 @@ public class Color256 implements AnsiColorProvider {
         return true;
     }
 
-    private String getAnsiColorCode(int mode) {
-        StringBuilder builder = new StringBuilder();
-        //@formatter:off
-        builder.append(AnsiControlCodes.ESCAPE)
-               .append(mode)
-               .append(AnsiControlCodes.PARAM_SEPARATOR)
-               .append(AnsiControlCodes.COLOR_MODE_256)
-               .append(AnsiControlCodes.PARAM_SEPARATOR)
-               .append(this.color)
-               .append(AnsiControlCodes.SELECT_GRAPHIC_RENDITION);
-        //@formatter:on
-        return builder.toString();
+    @Override
+    public byte[] getAnsiForegroundControlBytes() {
+        return AnsiCodeTables.get256ColorBytes(true, this.color);
+    }
+
+    @Override
+    public byte[] getAnsiBackgroundControlBytes() {
+        return AnsiCodeTables.get256ColorBytes(false, this.color);
     }
 
     @Override
@@ -80,4 +76,9 @@ public class Color256 implements AnsiColorProvider {
         Color256 c = (Color256) other;
         return this.color == c.color;
     }
+
+    @Override
+    public int hashCode() {
+        return this.color;
+    }
 }
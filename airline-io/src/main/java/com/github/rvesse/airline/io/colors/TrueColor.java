@@ -15,13 +15,13 @@
  */
 package com.github.rvesse.airline.io.colors;
 
-import com.github.rvesse.airline.io.AnsiControlCodes;
+import com.github.rvesse.airline.io.AnsiCodeTables;
 
 /**
  * True (24 bit) colours i.e. 16 million possible colours
  *
  */
-public class TrueColor implements AnsiColorProvider {
+public class TrueColor implements AnsiColorBytesProvider {
 
     private final int r, g, b;
 
@@ -46,12 +46,12 @@ public class TrueColor implements AnsiColorProvider {
 
     @Override
     public String getAnsiForegroundControlCode() {
-        return getAnsiColorCode(AnsiControlCodes.FOREGROUND_EXTENDED);
+        return AnsiCodeTables.getTrueColorCode(true, this.r, this.g, this.b);
     }
 
     @Override
     public String getAnsiBackgroundControlCode() {
-        return getAnsiColorCode(AnsiControlCodes.BACKGROUND_EXTENDED);
+        return AnsiCodeTables.getTrueColorCode(false, this.r, this.g, this.b);
     }
 
     @Override
@@ -59,22 +59,14 @@ public class TrueColor implements AnsiColorProvider {
         return true;
     }
 
-    private String getAnsiColorCode(int mode) {
-        StringBuilder builder = new StringBuilder();
-        //@formatter:off
-        builder.append(AnsiControlCodes.ESCAPE)
-               .append(mode)
-               .append(AnsiControlCodes.PARAM_SEPARATOR)
-               .append(AnsiControlCodes.COLOR_MODE_TRUE)
-               .append(AnsiControlCodes.PARAM_SEPARATOR)
-               .append(this.r)
-               .append(AnsiControlCodes.PARAM_SEPARATOR)
-               .append(this.g)
-               .append(AnsiControlCodes.PARAM_SEPARATOR)
-               .append(this.b)
-               .append(AnsiControlCodes.SELECT_GRAPHIC_RENDITION);
-        //@formatter:on
-        return builder.toString();
+    @Override
+    public byte[] getAnsiForegroundControlBytes() {
+        return AnsiCodeTables.getTrueColorBytes(true, this.r, this.g, this.b);
+    }
+
+    @Override
+    public byte[] getAnsiBackgroundControlBytes() {
+        return AnsiCodeTables.getTrueColorBytes(false, this.r, this.g, this.b);
     }
 
     @Override
@@ -94,6 +86,11 @@ public class TrueColor implements AnsiColorProvider {
             return false;
 
         TrueColor c = (TrueColor) other;
-        return this.r == c.r && this.g == c.r && this.b == c.b;
+        return this.r == c.r && this.g == c.g && this.b == c.b;
+    }
+
+    @Override
+    public int hashCode() {
+        return (this.r << 16) | (this.g << 8) | this.b;
     }
 }
@@ -15,11 +15,13 @@
  */
 package com.github.rvesse.airline.io.colors.sources;
 
-import com.github.rvesse.airline.io.ControlCodeSource;
+import com.github.rvesse.airline.io.AnsiCodeTables;
 import com.github.rvesse.airline.io.AnsiControlCodes;
+import com.github.rvesse.airline.io.ByteControlCodeSource;
+import com.github.rvesse.airline.io.colors.AnsiColorBytesProvider;
 import com.github.rvesse.airline.io.colors.AnsiColorProvider;
 
-public abstract class AnsiColorSource<T extends AnsiColorProvider> implements ControlCodeSource<T> {
+public abstract class AnsiColorSource<T extends AnsiColorProvider> implements ByteControlCodeSource<T> {
 
     private final boolean foreground;
 
@@ -42,14 +44,35 @@ public abstract class AnsiColorSource<T extends AnsiColorProvider> implements Co
         if (attributeSource.usesExtendedColors())
             return getFullResetControlCode();
 
-        StringBuilder builder = new StringBuilder();
-        builder.append(AnsiControlCodes.ESCAPE);
-        builder.append(this.foreground ? AnsiControlCodes.DEFAULT_FOREGROUND : AnsiControlCodes.DEFAULT_BACKGROUND);
-        builder.append(AnsiControlCodes.SELECT_GRAPHIC_RENDITION);
-        return builder.toString();
+        return AnsiCodeTables.getSgrCode(
+                this.foreground ? AnsiControlCodes.DEFAULT_FOREGROUND : AnsiControlCodes.DEFAULT_BACKGROUND);
     }
 
     public String getFullResetControlCode() {
         return AnsiControlCodes.getGraphicsResetCode();
     }
+
+    @Override
+    public byte[] getControlCodeBytes(T attributeSource) {
+        if (attributeSource instanceof AnsiColorBytesProvider) {
+            AnsiColorBytesProvider provider = (AnsiColorBytesProvider) attributeSource;
+            return this.foreground ? provider.getAnsiForegroundControlBytes()
+                    : provider.getAnsiBackgroundControlBytes();
+        }
+        return AnsiCodeTables.encode(getControlCode(attributeSource));
+    }
+
+    @Override
+    public byte[] getResetControlCodeBytes(T attributeSource) {
+        if (attributeSource.usesExtendedColors())
+            return getFullResetControlCodeBytes();
+
+        return AnsiCodeTables.getSgrBytes(
+                this.foreground ? AnsiControlCodes.DEFAULT_FOREGROUND : AnsiControlCodes.DEFAULT_BACKGROUND);
+    }
+
+    @Override
+    public byte[] getFullResetControlCodeBytes() {
+        return AnsiCodeTables.getResetBytes();
+    }
 }
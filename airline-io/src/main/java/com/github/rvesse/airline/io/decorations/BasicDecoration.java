@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.io.decorations;
 
+import com.github.rvesse.airline.io.AnsiCodeTables;
 import com.github.rvesse.airline.io.AnsiControlCodes;
 
 /**
@@ -22,7 +23,7 @@ import com.github.rvesse.airline.io.AnsiControlCodes;
  * @author rvesse
  *
  */
-public enum BasicDecoration implements AnsiDecorationProvider {
+public enum BasicDecoration implements AnsiDecorationBytesProvider {
 
     BOLD(AnsiControlCodes.BOLD, AnsiControlCodes.NORMAL_INTENSITY, "Bold"),
     FAINT(AnsiControlCodes.FAINT, AnsiControlCodes.NORMAL_INTENSITY, "Faint"),
@@ -58,14 +59,18 @@ public enum BasicDecoration implements AnsiDecorationProvider {
         return getAnsiControlCode(this.disableCode);
     }
     
+    @Override
+    public byte[] getAnsiDecorationEnabledControlBytes() {
+        return AnsiCodeTables.getSgrBytes(this.enableCode);
+    }
+
+    @Override
+    public byte[] getAnsiDecorationDisabledControlBytes() {
+        return AnsiCodeTables.getSgrBytes(this.disableCode);
+    }
+
     private String getAnsiControlCode(int code) {
-        StringBuilder builder = new StringBuilder();
-        //@formatter:off
-        builder.append(AnsiControlCodes.ESCAPE)
-               .append(code)
-               .append(AnsiControlCodes.SELECT_GRAPHIC_RENDITION);
-        //@formatter:on
-        return builder.toString();
+        return AnsiCodeTables.getSgrCode(code);
     }
     
 }
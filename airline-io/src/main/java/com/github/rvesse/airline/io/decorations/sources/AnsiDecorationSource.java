@@ -15,11 +15,13 @@
  */
 package com.github.rvesse.airline.io.decorations.sources;
 
-import com.github.rvesse.airline.io.ControlCodeSource;
+import com.github.rvesse.airline.io.AnsiCodeTables;
 import com.github.rvesse.airline.io.AnsiControlCodes;
+import com.github.rvesse.airline.io.ByteControlCodeSource;
+import com.github.rvesse.airline.io.decorations.AnsiDecorationBytesProvider;
 import com.github.rvesse.airline.io.decorations.AnsiDecorationProvider;
 
-public class AnsiDecorationSource<T extends AnsiDecorationProvider> implements ControlCodeSource<T> {
+public class AnsiDecorationSource<T extends AnsiDecorationProvider> implements ByteControlCodeSource<T> {
 
     @Override
     public String getControlCode(T attributeSource) {
@@ -35,4 +37,23 @@ public class AnsiDecorationSource<T extends AnsiDecorationProvider> implements C
     public String getFullResetControlCode() {
         return AnsiControlCodes.getGraphicsResetCode();
     }
+
+    @Override
+    public byte[] getControlCodeBytes(T attributeSource) {
+        if (attributeSource instanceof AnsiDecorationBytesProvider)
+            return ((AnsiDecorationBytesProvider) attributeSource).getAnsiDecorationEnabledControlBytes();
+        return AnsiCodeTables.encode(getControlCode(attributeSource));
+    }
+
+    @Override
+    public byte[] getResetControlCodeBytes(T attributeSource) {
+        if (attributeSource instanceof AnsiDecorationBytesProvider)
+            return ((AnsiDecorationBytesProvider) attributeSource).getAnsiDecorationDisabledControlBytes();
+        return AnsiCodeTables.encode(getResetControlCode(attributeSource));
+    }
+
+    @Override
+    public byte[] getFullResetControlCodeBytes() {
+        return AnsiCodeTables.getResetBytes();
+    }
 }
@@ -18,10 +18,13 @@ package com.github.rvesse.airline.io.output;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import com.github.rvesse.airline.io.AnsiControlCodes;
+import com.github.rvesse.airline.io.SgrEncoder;
 
 /**
  * An output stream that supports customized output via ANSI control codes
@@ -30,6 +33,7 @@ import com.github.rvesse.airline.io.AnsiControlCodes;
 public abstract class AnsiOutputStream extends PrintStream {
 
     private final List<OutputStreamControlTracker> controls = new ArrayList<OutputStreamControlTracker>();
+    private final SgrEncoder encoder = new SgrEncoder();
 
     public AnsiOutputStream(OutputStream output) {
         super(output);
@@ -49,6 +53,7 @@ public abstract class AnsiOutputStream extends PrintStream {
         if (control == null)
             return;
         this.controls.add(control);
+        control.attach(this.encoder);
     }
 
     /**
@@ -85,13 +90,36 @@ public abstract class AnsiOutputStream extends PrintStream {
 
     /**
      * Method which applies any necessary controls to the stream
+     * <p>
+     * Controls are only inspected if some control has changed since they were
+     * last applied, the control codes of all the changed controls are combined
+     * and written to the stream together. Controls that are not
+     * {@link OutputStreamControlTracker#isEncodable()} are applied directly in
+     * their turn.
+     * </p>
      */
     protected final void applyAll() {
+        if (!this.encoder.hasChanges())
+            return;
         try {
+            Charset charset = null;
             for (OutputStreamControlTracker control : this.controls) {
-                control.apply();
+                if (!control.isEncodable()) {
+                    this.encoder.flush(this.out, charset);
+                    control.apply();
+                    continue;
+                }
+                // Only codes destined for the same charset can be combined
+                Charset controlCharset = control.getCharset();
+                if (!Objects.equals(charset, controlCharset)) {
+                    this.encoder.flush(this.out, charset);
+                    charset = controlCharset;
+                }
+                control.apply(this.encoder);
             }
+            this.encoder.flush(this.out, charset);
         } catch (IOException e) {
+            this.encoder.clear();
             this.setError();
         }
     }
@@ -18,7 +18,9 @@ package com.github.rvesse.airline.io.output;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
+import com.github.rvesse.airline.io.ByteControlCodeSource;
 import com.github.rvesse.airline.io.ControlCodeSource;
 import com.github.rvesse.airline.io.ControlTracker;
 
@@ -26,6 +28,8 @@ public class OutputStreamControlTracker<T> extends ControlTracker<T> {
 
     private final OutputStream output;
     private final Charset charset;
+    private final ByteControlCodeSource<T> byteProvider;
+    private final boolean encodable;
 
     public OutputStreamControlTracker(OutputStream output, ControlCodeSource<T> provider) {
         this(output, null, provider);
@@ -37,10 +41,40 @@ public class OutputStreamControlTracker<T> extends ControlTracker<T> {
             throw new NullPointerException("output cannot be null");
         this.output = output;
         this.charset = charset;
+
+        // Where possible use the precomputed bytes of the control codes, this
+        // is only possible if the charset encodes ASCII as-is
+        this.byteProvider = provider instanceof ByteControlCodeSource
+                && isAsciiCompatible(charset != null ? charset : Charset.defaultCharset())
+                        ? (ByteControlCodeSource<T>) provider : null;
+        this.encodable = !overridesApplyInternal(OutputStreamControlTracker.class);
+    }
+
+    /**
+     * Gets the charset used to encode control codes
+     * 
+     * @return Charset, {@code null} if the platform default is used
+     */
+    public Charset getCharset() {
+        return this.charset;
+    }
+
+    @Override
+    public boolean isEncodable() {
+        return this.encodable;
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset);
     }
 
     @Override
     protected void resetInternal(T value) throws IOException {
+        if (this.byteProvider != null) {
+            this.output.write(this.byteProvider.getResetControlCodeBytes(value));
+            return;
+        }
         String code = this.provider.getResetControlCode(value);
         this.output.write(getBytes(code));
     }
@@ -51,6 +85,10 @@ public class OutputStreamControlTracker<T> extends ControlTracker<T> {
 
     @Override
     protected void applyInternal(T value) throws IOException {
+        if (this.byteProvider != null) {
+            this.output.write(this.byteProvider.getControlCodeBytes(value));
+            return;
+        }
         String code = this.provider.getControlCode(value);
         this.output.write(getBytes(code));
     }
@@ -21,6 +21,8 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.github.rvesse.airline.io.SgrEncoder;
+
 /**
  * A writer that supports customizing the output with ANSI control codes
  * 
@@ -31,6 +33,7 @@ import java.util.List;
 public abstract class AnsiWriter extends FilterWriter {
 
     private final List<WriterControlTracker> controls = new ArrayList<WriterControlTracker>();
+    private final SgrEncoder encoder = new SgrEncoder();
 
     public AnsiWriter(Writer writer) {
         super(writer);
@@ -40,6 +43,7 @@ public abstract class AnsiWriter extends FilterWriter {
         if (control == null)
             return;
         this.controls.add(control);
+        control.attach(this.encoder);
     }
 
     public final void registerControls(WriterControlTracker... controls) {
@@ -69,8 +73,23 @@ public abstract class AnsiWriter extends FilterWriter {
     }
 
     protected final void applyAll() throws IOException {
-        for (WriterControlTracker control : this.controls) {
-            control.apply();
+        // Only inspect controls if something changed, changed controls are
+        // combined and written together
+        if (!this.encoder.hasChanges())
+            return;
+        try {
+            for (WriterControlTracker control : this.controls) {
+                if (control.isEncodable()) {
+                    control.apply(this.encoder);
+                } else {
+                    // Keep the codes in order
+                    this.encoder.flush(this.out);
+                    control.apply();
+                }
+            }
+            this.encoder.flush(this.out);
+        } finally {
+            this.encoder.clear();
         }
     }
 
@@ -24,12 +24,19 @@ import com.github.rvesse.airline.io.ControlTracker;
 public class WriterControlTracker<T> extends ControlTracker<T> {
 
     private final Writer writer;
+    private final boolean encodable;
 
     public WriterControlTracker(Writer writer, ControlCodeSource<T> provider) {
         super(provider);
         if (writer == null)
             throw new NullPointerException("writer cannot be null");
         this.writer = writer;
+        this.encodable = !overridesApplyInternal(WriterControlTracker.class);
+    }
+
+    @Override
+    public boolean isEncodable() {
+        return this.encodable;
     }
 
     @Override
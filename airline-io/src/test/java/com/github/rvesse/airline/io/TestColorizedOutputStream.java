@@ -16,13 +16,23 @@
 package com.github.rvesse.airline.io;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.io.colors.BasicColor;
+import com.github.rvesse.airline.io.colors.Color256;
+import com.github.rvesse.airline.io.colors.TrueColor;
+import com.github.rvesse.airline.io.colors.sources.AnsiForegroundColorSource;
 import com.github.rvesse.airline.io.output.AnsiBasicColorizedOutputStream;
 import com.github.rvesse.airline.io.output.ColorizedOutputStream;
+import com.github.rvesse.airline.io.output.OutputStreamControlTracker;
+import com.github.rvesse.airline.io.writers.AnsiBasicColorizedWriter;
+import com.github.rvesse.airline.io.writers.ColorizedWriter;
+import com.github.rvesse.airline.io.writers.WriterControlTracker;
 
 public class TestColorizedOutputStream {
 
@@ -212,4 +222,185 @@ public class TestColorizedOutputStream {
 
         colorOutput.close();
     }
+
+    @Test
+    public void colorized_output_combined_01() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ColorizedOutputStream<BasicColor> colorOutput = new AnsiBasicColorizedOutputStream(output);
+        colorOutput.setForegroundColor(BasicColor.RED);
+        colorOutput.setBackgroundColor(BasicColor.BLUE);
+        colorOutput.setBold(true);
+        colorOutput.print("Test");
+
+        // Changing several controls at once should produce a single combined
+        // escape sequence
+        Assert.assertEquals(new String(output.toByteArray()), "\u001B[31;44;1mTest");
+
+        // Further output with no changes produces no escape sequences
+        colorOutput.print("Test");
+        Assert.assertEquals(new String(output.toByteArray()), "\u001B[31;44;1mTestTest");
+
+        colorOutput.setForegroundColor(BasicColor.GREEN);
+        colorOutput.print("!");
+        Assert.assertEquals(new String(output.toByteArray()), "\u001B[31;44;1mTestTest\u001B[32m!");
+        colorOutput.close();
+    }
+
+    @Test
+    public void sgr_encoder_01() {
+        SgrEncoder encoder = new SgrEncoder();
+        encoder.append("\u001B[1m");
+        encoder.append("\u001B[38;2;1;2;3m");
+        encoder.append("\u001B[m");
+        Assert.assertEquals(encoder.toString(), "\u001B[1;38;2;1;2;3;0m");
+
+        // Non-SGR codes are passed through as-is
+        encoder.append("\u001B[2J");
+        encoder.append("\u001B[4m");
+        Assert.assertEquals(encoder.toString(), "\u001B[1;38;2;1;2;3;0m\u001B[2J\u001B[4m");
+
+        encoder.clear();
+        Assert.assertEquals(encoder.toString(), "");
+        Assert.assertFalse(encoder.hasChanges());
+    }
+
+    @Test
+    public void sgr_encoder_writer_01() throws IOException {
+        StringWriter output = new StringWriter();
+        ColorizedWriter<BasicColor> writer = new AnsiBasicColorizedWriter(output);
+        writer.setForegroundColor(BasicColor.RED);
+        writer.setItalic(true);
+        writer.write("Test");
+        writer.flush();
+        Assert.assertEquals(output.toString(), "\u001B[31;3mTest");
+        writer.close();
+    }
+
+    @Test
+    public void ansi_code_tables_01() {
+        Assert.assertEquals(AnsiCodeTables.getSgrCode(31), "\u001B[31m");
+        Assert.assertEquals(AnsiCodeTables.getResetCode(), "\u001B[0m");
+        Assert.assertEquals(AnsiCodeTables.get256ColorCode(true, 200), "\u001B[38;5;200m");
+        Assert.assertEquals(AnsiCodeTables.get256ColorCode(false, 7), "\u001B[48;5;7m");
+        Assert.assertEquals(AnsiCodeTables.getTrueColorCode(false, 1, 2, 3), "\u001B[48;2;1;2;3m");
+        Assert.assertEquals(new String(AnsiCodeTables.getSgrBytes(31)), "\u001B[31m");
+        Assert.assertEquals(new String(AnsiCodeTables.get256ColorBytes(true, 200)), "\u001B[38;5;200m");
+    }
+
+    @Test
+    public void ansi_code_tables_02() {
+        // Codes are shared rather than being recomputed
+        Assert.assertSame(AnsiCodeTables.getSgrCode(1), AnsiCodeTables.getSgrCode(1));
+        Assert.assertSame(AnsiCodeTables.getSgrBytes(1), AnsiCodeTables.getSgrBytes(1));
+        Assert.assertSame(AnsiCodeTables.get256ColorBytes(false, 99), AnsiCodeTables.get256ColorBytes(false, 99));
+        Assert.assertSame(AnsiCodeTables.getTrueColorBytes(true, 10, 20, 30),
+                AnsiCodeTables.getTrueColorBytes(true, 10, 20, 30));
+        Assert.assertSame(BasicColor.RED.getAnsiForegroundControlBytes(),
+                AnsiCodeTables.getSgrBytes(31));
+    }
+
+    @Test
+    public void ansi_code_tables_03() {
+        TrueColor a = new TrueColor(1, 2, 3);
+        TrueColor b = new TrueColor(1, 2, 3);
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertNotEquals(a, new TrueColor(1, 1, 3));
+        Assert.assertEquals(new String(a.getAnsiForegroundControlBytes()), a.getAnsiForegroundControlCode());
+
+        Assert.assertEquals(new Color256(100), new Color256(100));
+        Assert.assertEquals(new Color256(100).hashCode(), new Color256(100).hashCode());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ansi_code_tables_04() {
+        // Out of range components would otherwise alias other colours
+        AnsiCodeTables.getTrueColorCode(true, 0, 256, 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ansi_code_tables_05() {
+        AnsiCodeTables.get256ColorBytes(false, -1);
+    }
+
+    @Test
+    public void ansi_code_tables_06() {
+        // More colours than the cache holds are still correct
+        for (int i = 0; i < AnsiCodeTables.TRUE_COLOR_CACHE_SIZE * 4; i++) {
+            int r = i & 0xFF, g = (i >> 8) & 0xFF;
+            String expected = "\u001B[38;2;" + r + ";" + g + ";7m";
+            Assert.assertEquals(AnsiCodeTables.getTrueColorCode(true, r, g, 7), expected);
+            Assert.assertEquals(new String(AnsiCodeTables.getTrueColorBytes(true, r, g, 7)), expected);
+        }
+    }
+
+    @Test
+    public void colorized_output_bytes_01() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ColorizedOutputStream<BasicColor> stream = new AnsiBasicColorizedOutputStream(output);
+        stream.setForegroundColor(BasicColor.GREEN);
+        stream.write("Test".getBytes());
+        stream.flush();
+        stream.close();
+        Assert.assertEquals(new String(output.toByteArray()), "\u001B[32mTest\u001B[39m");
+    }
+
+    @Test
+    public void custom_control_tracker_01() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AnsiBasicColorizedOutputStream stream = new AnsiBasicColorizedOutputStream(output);
+        // Custom trackers must still be applied via their own logic
+        OutputStreamControlTracker<BasicColor> custom = new OutputStreamControlTracker<BasicColor>(output,
+                new AnsiForegroundColorSource<BasicColor>()) {
+            @Override
+            protected void applyInternal(BasicColor value) throws IOException {
+                output.write(("<" + value.name() + ">").getBytes());
+            }
+        };
+        Assert.assertFalse(custom.isEncodable());
+        stream.registerControl(custom);
+        stream.setBold(true);
+        custom.set(BasicColor.RED);
+        stream.write("Test".getBytes());
+        stream.flush();
+        Assert.assertEquals(new String(output.toByteArray()), "\u001B[1m<RED>Test");
+        stream.close();
+    }
+
+    @Test
+    public void custom_control_tracker_charset_01() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AnsiBasicColorizedOutputStream stream = new AnsiBasicColorizedOutputStream(output);
+        // Codes must be encoded with the charset of the tracker
+        OutputStreamControlTracker<BasicColor> tracker = new OutputStreamControlTracker<BasicColor>(output,
+                StandardCharsets.UTF_16BE, new AnsiForegroundColorSource<BasicColor>());
+        Assert.assertTrue(tracker.isEncodable());
+        stream.registerControl(tracker);
+        tracker.set(BasicColor.RED);
+        stream.write(new byte[0]);
+        stream.flush();
+        Assert.assertEquals(new String(output.toByteArray(), StandardCharsets.UTF_16BE), "\u001B[31m");
+        stream.close();
+    }
+
+    @Test
+    public void custom_control_tracker_writer_01() throws IOException {
+        final StringWriter output = new StringWriter();
+        ColorizedWriter<BasicColor> writer = new AnsiBasicColorizedWriter(output);
+        WriterControlTracker<BasicColor> custom = new WriterControlTracker<BasicColor>(output,
+                new AnsiForegroundColorSource<BasicColor>()) {
+            @Override
+            protected void applyInternal(BasicColor value) throws IOException {
+                output.write("<" + value.name() + ">");
+            }
+        };
+        writer.registerControl(custom);
+        writer.setItalic(true);
+        custom.set(BasicColor.BLUE);
+        writer.write("Test");
+        writer.flush();
+        Assert.assertEquals(output.toString(), "\u001B[3m<BLUE>Test");
+        writer.close();
+    }
 }
+
@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.maven;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import com.github.rvesse.airline.cds.CdsTrainer;
+
+/**
+ * Generates an AppCDS archive for Airline powered CLIs
+ * <p>
+ * The configured sources are exercised by {@link CdsTrainer} in a forked JVM
+ * which records the classes loaded into a dynamic class data sharing archive,
+ * this requires the forked JVM to be JDK 13 or later. A launcher script that
+ * uses the archive is also generated.
+ * </p>
+ *
+ */
+//@formatter:off
+@Mojo(name = "cds", 
+      defaultPhase = LifecyclePhase.PACKAGE, 
+      requiresOnline = false, 
+      requiresDependencyResolution = ResolutionScope.RUNTIME,
+      threadSafe = true,
+      requiresProject = true
+)
+//@formatter:on
+public class CdsMojo extends AbstractAirlineMojo {
+
+    /**
+     * Location of the generated archive
+     */
+    @Parameter(defaultValue = "${project.build.directory}/${project.artifactId}.jsa", required = true)
+    protected File archiveFile;
+
+    /**
+     * Location of the generated launcher script
+     */
+    @Parameter(defaultValue = "${project.build.directory}/${project.artifactId}-cds.sh", required = true)
+    protected File launcherFile;
+
+    /**
+     * Java executable used for the forked JVM
+     */
+    @Parameter(defaultValue = "${java.home}/bin/java", required = true)
+    protected String javaExecutable;
+
+    /**
+     * Main class used in the launcher script, if not specified the first
+     * source class is used
+     */
+    @Parameter
+    protected String mainClass;
+
+    /**
+     * Additional JVM arguments for the forked JVM
+     */
+    @Parameter
+    protected List<String> jvmArgs;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (project == null)
+            throw new MojoFailureException("Maven project was not injected into Mojo");
+
+        Log log = getLog();
+
+        List<String> classes = new ArrayList<>();
+        if (this.sources != null) {
+            for (Source source : this.sources) {
+                if (source.getClasses() != null)
+                    classes.addAll(source.getClasses());
+            }
+        }
+        if (classes.size() == 0) {
+            if (failOnNoSources)
+                throw new MojoFailureException("No @Cli or @Command annotated classes specified to train on");
+            log.info("No sources specified so nothing to do");
+            return;
+        }
+
+        // The archive is only usable with the same classpath so the launcher
+        // must use exactly the classpath we train with
+        String classpath = prepareClasspath();
+
+        File archive = this.archiveFile.getAbsoluteFile();
+        if (archive.getParentFile() != null && !archive.getParentFile().exists())
+            archive.getParentFile().mkdirs();
+
+        List<String> command = new ArrayList<>();
+        command.add(this.javaExecutable);
+        command.add("-XX:ArchiveClassesAtExit=" + archive.getPath());
+        if (this.jvmArgs != null)
+            command.addAll(this.jvmArgs);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(CdsTrainer.class.getName());
+        command.addAll(classes);
+        log.debug(String.format("Training command is %s", StringUtils.join(command, ' ')));
+
+        train(command, log);
+        if (!archive.exists())
+            throw new MojoFailureException(String.format(
+                    "Training completed but no archive was created at %s, CDS archives require JDK 13 or later",
+                    archive));
+        log.info(String.format("Generated CDS archive %s", archive));
+
+        writeLauncher(archive, classpath, this.mainClass != null ? this.mainClass : classes.get(0));
+        log.info(String.format("Generated launcher script %s", this.launcherFile));
+    }
+
+    private String prepareClasspath() throws MojoFailureException {
+        List<String> elements;
+        try {
+            elements = project.getRuntimeClasspathElements();
+        } catch (DependencyResolutionRequiredException e) {
+            throw new MojoFailureException("Failed to resolve dependencies", e);
+        }
+
+        // CDS archives can only be created from JARs so use the packaged
+        // artifact in place of the build output directory
+        File outputDir = new File(project.getBuild().getOutputDirectory()).getAbsoluteFile();
+        File artifact = project.getArtifact() != null ? project.getArtifact().getFile() : null;
+        List<String> classpath = new ArrayList<>();
+        for (String element : elements) {
+            File f = new File(element).getAbsoluteFile();
+            if (f.isDirectory()) {
+                if (f.equals(outputDir) && artifact != null && artifact.isFile()) {
+                    classpath.add(artifact.getAbsolutePath());
+                    continue;
+                }
+                String[] children = f.list();
+                if (children != null && children.length > 0)
+                    throw new MojoFailureException(String.format(
+                            "Classpath element %s is a directory, CDS archives can only be created from JARs "
+                                    + "so this goal must run after the package phase",
+                            f));
+                continue;
+            }
+            classpath.add(f.getAbsolutePath());
+        }
+        return StringUtils.join(classpath, File.pathSeparator);
+    }
+
+    private void train(List<String> command, Log log) throws MojoExecutionException, MojoFailureException {
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true);
+        builder.directory(project.getBasedir());
+        try {
+            Process process = builder.start();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    log.info(line);
+                }
+            }
+            int exitCode = process.waitFor();
+            if (exitCode != 0)
+                throw new MojoFailureException(String.format("Training JVM failed with exit code %d", exitCode));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to launch training JVM", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for training JVM", e);
+        }
+    }
+
+    private void writeLauncher(File archive, String classpath, String main) throws MojoFailureException {
+        File launcher = this.launcherFile.getAbsoluteFile();
+        if (launcher.getParentFile() != null && !launcher.getParentFile().exists())
+            launcher.getParentFile().mkdirs();
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(launcher), StandardCharsets.UTF_8)) {
+            writer.write("#!/bin/sh\n");
+            writer.write("# Launches " + main + " using the CDS archive generated by airline:cds\n");
+            writer.write("# The classpath must match that used to generate the archive\n");
+            // An archive is only usable by the JVM that created it
+            writer.write("exec \"" + this.javaExecutable + "\" -XX:SharedArchiveFile=\"" + archive.getPath()
+                    + "\" -cp \"" + classpath + "\" " + main + " \"$@\"\n");
+        } catch (IOException e) {
+            throw new MojoFailureException(String.format("Failed to write launcher script %s", launcher), e);
+        }
+        launcher.setExecutable(true);
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import com.github.rvesse.airline.maven.sources.PreparedSource;
+import com.github.rvesse.airline.nativeimage.NativeImageConfiguration;
+
+/**
+ * Generates GraalVM native image configuration for Airline powered CLIs
+ * <p>
+ * By default the configuration is written under
+ * {@code META-INF/native-image} in the project output so that it is
+ * automatically picked up by the {@code native-image} tool.
+ * </p>
+ *
+ */
+//@formatter:off
+@Mojo(name = "native-image", 
+      defaultPhase = LifecyclePhase.PROCESS_CLASSES, 
+      requiresOnline = false, 
+      requiresDependencyResolution = ResolutionScope.RUNTIME,
+      threadSafe = true,
+      requiresProject = true
+)
+//@formatter:on
+public class NativeImageMojo extends AbstractAirlineMojo {
+
+    /**
+     * Location of the output
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}/META-INF/native-image/${project.groupId}/${project.artifactId}", required = true)
+    protected File outputDirectory;
+
+    /**
+     * Additional classpath resources that must be included in the native
+     * image e.g. resources used for help sections
+     */
+    @Parameter
+    protected List<String> resources;
+
+    /**
+     * Whether to include configuration for service implementations discovered
+     * via {@link java.util.ServiceLoader}, this may be disabled when the CLI
+     * runs in reflection free mode
+     */
+    @Parameter(defaultValue = "true")
+    protected boolean includeServices = true;
+
+    @Parameter(defaultValue = "true")
+    protected boolean skipBadSources = true;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (project == null)
+            throw new MojoFailureException("Maven project was not injected into Mojo");
+        if (pluginDescriptor == null)
+            throw new MojoFailureException("Plugin Descriptor was not injected into Mojo");
+
+        Log log = getLog();
+
+        // Prepare the class realm
+        prepareClassRealm();
+
+        // Discover classes and get their meta-data as appropriate
+        List<PreparedSource> sources = prepareSources(this.skipBadSources);
+        if (sources.size() == 0) {
+            log.info("No valid sources discovered so nothing to do");
+            return;
+        }
+
+        NativeImageConfiguration config = new NativeImageConfiguration();
+        for (PreparedSource source : sources) {
+            if (source.isGlobal()) {
+                config.addGlobal(source.getGlobal());
+            } else if (source.isCommand()) {
+                config.addParser(source.getParserConfiguration());
+                config.addCommand(source.getCommmand());
+            }
+            log.debug(String.format("Generated native image configuration for %s", source.getSourceClass()));
+        }
+        if (this.includeServices) {
+            addProjectServices(config);
+        }
+        if (this.resources != null) {
+            for (String resource : this.resources) {
+                config.addResource(resource);
+            }
+        }
+
+        try {
+            config.writeTo(this.outputDirectory);
+        } catch (IOException e) {
+            throw new MojoFailureException(
+                    String.format("Failed to write native image configuration to %s", this.outputDirectory), e);
+        }
+        log.info(String.format("Generated native image configuration for %d classes in %s",
+                config.getClasses().size(), this.outputDirectory));
+    }
+
+    /**
+     * Adds the service implementations declared on the project runtime
+     * classpath
+     * <p>
+     * The plugin class realm also contains the plugin's own dependencies so
+     * scanning it directly could add services the CLI never sees. Instead only
+     * the {@code META-INF/services} files on the project runtime classpath are
+     * scanned, while the implementation classes are still loaded via the class
+     * realm so they are compatible with the service interfaces.
+     * </p>
+     * 
+     * @param config
+     *            Configuration
+     * @throws MojoFailureException
+     *             Thrown if the runtime classpath cannot be resolved
+     */
+    private void addProjectServices(NativeImageConfiguration config) throws MojoFailureException {
+        List<URL> urls = new ArrayList<>();
+        try {
+            for (String element : project.getRuntimeClasspathElements()) {
+                urls.add(new File(element).toURI().toURL());
+            }
+        } catch (DependencyResolutionRequiredException e) {
+            throw new MojoFailureException("Failed to resolve dependencies", e);
+        } catch (MalformedURLException e) {
+            throw new MojoFailureException("Failed to resolve runtime classpath", e);
+        }
+
+        try (ProjectResourcesClassLoader loader = new ProjectResourcesClassLoader(urls.toArray(new URL[urls.size()]),
+                pluginDescriptor.getClassRealm())) {
+            config.addServices(loader);
+        } catch (IOException e) {
+            getLog().warn("Failed to close project runtime class loader");
+        }
+    }
+
+    /**
+     * A class loader that loads classes parent first as normal but only finds
+     * resources on its own URLs
+     */
+    private static final class ProjectResourcesClassLoader extends URLClassLoader {
+
+        private ProjectResourcesClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        public URL getResource(String name) {
+            return findResource(name);
+        }
+
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException {
+            return findResources(name);
+        }
+    }
+}
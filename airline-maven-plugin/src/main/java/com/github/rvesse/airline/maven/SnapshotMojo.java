@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.maven;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
+
+/**
+ * Generates meta-data snapshots for Airline powered CLIs
+ * <p>
+ * By default the snapshots are written into the project output so that they
+ * are embedded as classpath resources, they are then used by
+ * {@link MetadataLoader#loadSnapshot(Class)} at runtime to avoid scanning the
+ * annotations. The {@code validate} and {@code generate} goals also use these
+ * snapshots when present.
+ * </p>
+ *
+ */
+//@formatter:off
+@Mojo(name = "snapshot", 
+      defaultPhase = LifecyclePhase.PROCESS_CLASSES, 
+      requiresOnline = false, 
+      requiresDependencyResolution = ResolutionScope.RUNTIME,
+      threadSafe = true,
+      requiresProject = true
+)
+//@formatter:on
+public class SnapshotMojo extends AbstractAirlineMojo {
+
+    /**
+     * Location of the output, snapshots are written beneath this using the
+     * resource names given by {@link MetadataSnapshot#getResourceName(Class)}
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    protected File outputDirectory;
+
+    @Parameter(defaultValue = "true")
+    protected boolean skipBadSources = true;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (project == null)
+            throw new MojoFailureException("Maven project was not injected into Mojo");
+        if (pluginDescriptor == null)
+            throw new MojoFailureException("Plugin Descriptor was not injected into Mojo");
+
+        Log log = getLog();
+
+        // Prepare the class realm
+        prepareClassRealm();
+
+        // Snapshots are always written afresh from the annotations so the
+        // sources are not prepared as for the other goals
+        int written = 0;
+        if (this.sources != null) {
+            for (Source source : this.sources) {
+                for (String className : source.getClasses()) {
+                    try {
+                        Class<?> cls = getClass().getClassLoader().loadClass(className);
+                        File file = MetadataSnapshot.writeTo(cls, this.outputDirectory);
+                        log.debug(String.format("Generated metadata snapshot for %s in %s", className, file));
+                        written++;
+                    } catch (IOException e) {
+                        throw new MojoFailureException(
+                                String.format("Failed to write metadata snapshot for class %s", className), e);
+                    } catch (ClassNotFoundException e) {
+                        if (!this.skipBadSources)
+                            throw new MojoFailureException(String.format("Failed to locate class %s", className), e);
+                        log.warn(String.format("Failed to locate class %s", className));
+                    } catch (Throwable e) {
+                        if (!this.skipBadSources)
+                            throw new MojoFailureException(
+                                    String.format("Unable to create metadata snapshot for class %s", className), e);
+                        log.warn(String.format("Unable to create metadata snapshot for class %s: %s", className,
+                                e.getMessage()));
+                    }
+                }
+            }
+        }
+
+        if (written == 0) {
+            if (failOnNoSources)
+                throw new MojoFailureException(
+                        "Failed to locate any valid @Cli or @Command annotated classes to generate snapshots for");
+            log.info("No valid sources discovered so nothing to do");
+            return;
+        }
+        log.info(String.format("Generated metadata snapshots for %d classes in %s", written, this.outputDirectory));
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.maven;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,6 +27,7 @@ import com.github.rvesse.airline.annotations.Cli;
 import com.github.rvesse.airline.annotations.Command;
 import com.github.rvesse.airline.maven.sources.PreparedSource;
 import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
 
 public class Source {
 
@@ -46,12 +48,24 @@ public class Source {
     @Parameter
     private RawFormatOptions options;
 
+    /**
+     * Gets the configured class names
+     * 
+     * @return Class names
+     */
+    public List<String> getClasses() {
+        return this.classes;
+    }
+
     public List<PreparedSource> prepare(Log log, boolean skipBadSources) throws MojoFailureException {
         List<PreparedSource> prepared = new ArrayList<>();
         for (String className : this.classes) {
             try {
                 Class<?> cls = getClass().getClassLoader().loadClass(className);
-                if (cls.getAnnotation(Command.class) != null) {
+                MetadataSnapshot snapshot = loadSnapshot(cls, log);
+                if (snapshot != null) {
+                    prepared.add(new PreparedSource(snapshot, this.options, this.outputMode));
+                } else if (cls.getAnnotation(Command.class) != null) {
                     prepared.add(new PreparedSource(cls, null, MetadataLoader.loadCommand(cls), this.options,
                             this.outputMode));
                 } else if (cls.getAnnotation(Cli.class) != null) {
@@ -79,4 +93,27 @@ public class Source {
         }
         return prepared;
     }
+
+    /**
+     * Loads the meta-data snapshot embedded for a class, if any, so that the
+     * goals share the model that the CLI itself will use at runtime
+     * 
+     * @param cls
+     *            Class
+     * @param log
+     *            Log
+     * @return Snapshot, or {@code null} if there is no usable snapshot
+     */
+    private static MetadataSnapshot loadSnapshot(Class<?> cls, Log log) {
+        try {
+            MetadataSnapshot snapshot = MetadataLoader.loadSnapshot(cls);
+            if (snapshot != null)
+                log.debug(String.format("Using metadata snapshot for class %s", cls.getName()));
+            return snapshot;
+        } catch (IOException | IllegalStateException e) {
+            log.warn(String.format("Ignoring unusable metadata snapshot for class %s: %s", cls.getName(),
+                    e.getMessage()));
+            return null;
+        }
+    }
 }
@@ -21,6 +21,7 @@ import com.github.rvesse.airline.maven.formats.FormatOptions;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
 import com.github.rvesse.airline.model.ParserMetadata;
 
 public class PreparedSource {
@@ -34,10 +35,22 @@ public class PreparedSource {
 
     public PreparedSource(Class<?> cls, GlobalMetadata<Object> global, CommandMetadata command,
             RawFormatOptions rawOptions, OutputMode outputMode) {
+        this(cls, global, command,
+                global != null ? global.getParserConfiguration() : MetadataLoader.<Object> loadParser(cls),
+                rawOptions, outputMode);
+    }
+
+    public PreparedSource(MetadataSnapshot snapshot, RawFormatOptions rawOptions, OutputMode outputMode) {
+        this(snapshot.getSourceClass(), snapshot.<Object> getGlobal(), snapshot.getCommand(),
+                snapshot.<Object> getParserConfiguration(), rawOptions, outputMode);
+    }
+
+    private PreparedSource(Class<?> cls, GlobalMetadata<Object> global, CommandMetadata command,
+            ParserMetadata<Object> parser, RawFormatOptions rawOptions, OutputMode outputMode) {
         this.cls = cls;
         this.global = global;
         this.command = command;
-        this.parser = this.global != null ? this.global.getParserConfiguration() : MetadataLoader.loadParser(this.cls);
+        this.parser = parser;
         this.rawOptions = rawOptions;
         switch (outputMode) {
         case DEFAULT: